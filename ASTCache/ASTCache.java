@@ -0,0 +1,128 @@
+/*
+ * ASTCache.java
+ *
+ * Keeps the AST built by Pass 1 in a binary file next to the source,
+ * filename + "c", so that an unchanged source need not be scanned and
+ * parsed again. The file starts with a magic number, a format version,
+ * the SHA-256 of the source it was built from and the CRC-32 of the
+ * rest; the AST follows as written by ASTWriter. A cache that is
+ * missing, stale or damaged is simply ignored.
+ */
+
+package VC.ASTCache;
+
+import VC.ASTs.AST;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+public class ASTCache {
+
+  private static final int MAGIC = 0x56434143; // "VCAC"
+  private static final int VERSION = 2;
+  private static final int HASH_LENGTH = 32;
+  private static final int HEADER_LENGTH = 8 + HASH_LENGTH + 4;
+
+  // The node kinds, in the order of the methods of GenericVisitor.
+
+  static final int PROGRAM = 0, EMPTY_DECL_LIST = 1, EMPTY_STMT_LIST = 2,
+    EMPTY_EXPR_LIST = 3, EMPTY_PARA_LIST = 4, EMPTY_ARG_LIST = 5,
+    DECL_LIST = 6, FUNC_DECL = 7, GLOBAL_VAR_DECL = 8, LOCAL_VAR_DECL = 9,
+    STMT_LIST = 10, IF_STMT = 11, WHILE_STMT = 12, FOR_STMT = 13,
+    BREAK_STMT = 14, CONTINUE_STMT = 15, RETURN_STMT = 16,
+    COMPOUND_STMT = 17, EXPR_STMT = 18, EMPTY_COMP_STMT = 19,
+    EMPTY_STMT = 20, INT_EXPR = 21, FLOAT_EXPR = 22, BOOLEAN_EXPR = 23,
+    STRING_EXPR = 24, UNARY_EXPR = 25, BINARY_EXPR = 26, INIT_EXPR = 27,
+    EXPR_LIST = 28, ARRAY_EXPR = 29, VAR_EXPR = 30, CALL_EXPR = 31,
+    ASSIGN_EXPR = 32, EMPTY_EXPR = 33, INT_LITERAL = 34,
+    FLOAT_LITERAL = 35, BOOLEAN_LITERAL = 36, STRING_LITERAL = 37,
+    IDENT = 38, OPERATOR = 39, PARA_LIST = 40, PARA_DECL = 41,
+    ARG_LIST = 42, ARG = 43, VOID_TYPE = 44, BOOLEAN_TYPE = 45,
+    INT_TYPE = 46, FLOAT_TYPE = 47, STRING_TYPE = 48, ARRAY_TYPE = 49,
+    ERROR_TYPE = 50, SIMPLE_VAR = 51;
+
+  // a Type that has already been written; see ASTWriter
+
+  static final int SHARED = 52;
+
+  public static String cacheFilename(String sourceFilename) {
+    return sourceFilename + "c";
+  }
+
+  // Returns the cached AST of sourceFilename, or null if there is no
+  // cache for its current contents.
+
+  public static AST load(String sourceFilename) {
+    byte[] bytes;
+    byte[] hash;
+    try {
+      bytes = Files.readAllBytes(Paths.get(cacheFilename(sourceFilename)));
+      hash = hash(sourceFilename);
+    } catch (IOException e) {
+      return null;
+    }
+    if (bytes.length < HEADER_LENGTH || readInt(bytes, 0) != MAGIC
+        || readInt(bytes, 4) != VERSION
+        || !Arrays.equals(hash, Arrays.copyOfRange(bytes, 8, 8 + HASH_LENGTH))
+        || readInt(bytes, 8 + HASH_LENGTH) != checksum(bytes, HEADER_LENGTH))
+      return null;
+    try {
+      return new ASTReader(bytes, HEADER_LENGTH).read();
+    } catch (ASTFormatException e) {
+      // truncated or damaged: treat it as missing
+      return null;
+    }
+  }
+
+  // Writes ast, just built by the parser from sourceFilename, to its
+  // cache. Failing to do so is reported but is not an error.
+
+  public static void store(AST ast, String sourceFilename) {
+    String filename = cacheFilename(sourceFilename);
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      writeInt(out, MAGIC);
+      writeInt(out, VERSION);
+      out.write(hash(sourceFilename));
+      byte[] body = new ASTWriter().toBytes(ast);
+      writeInt(out, checksum(body, 0));
+      out.write(body);
+      Files.write(Paths.get(filename), out.toByteArray());
+    } catch (IOException e) {
+      System.out.println("[# vc #]: can't write the AST cache " + filename);
+    }
+  }
+
+  private static byte[] hash(String sourceFilename) throws IOException {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return digest.digest(Files.readAllBytes(Paths.get(sourceFilename)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e); // every Java platform has SHA-256
+    }
+  }
+
+  private static int checksum(byte[] bytes, int from) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes, from, bytes.length - from);
+    return (int) crc.getValue();
+  }
+
+  private static void writeInt(ByteArrayOutputStream out, int value) {
+    out.write(value >>> 24);
+    out.write(value >>> 16);
+    out.write(value >>> 8);
+    out.write(value);
+  }
+
+  private static int readInt(byte[] bytes, int at) {
+    return (bytes[at] & 0xFF) << 24 | (bytes[at + 1] & 0xFF) << 16
+      | (bytes[at + 2] & 0xFF) << 8 | (bytes[at + 3] & 0xFF);
+  }
+
+}
@@ -0,0 +1,20 @@
+/*
+ * ASTFormatException.java
+ *
+ * Thrown by ASTReader when the bytes of an AST cache are truncated or
+ * are not as ASTWriter writes them.
+ */
+
+package VC.ASTCache;
+
+import java.io.IOException;
+
+class ASTFormatException extends IOException {
+
+  private static final long serialVersionUID = 1L;
+
+  ASTFormatException(String message) {
+    super("damaged AST cache: " + message);
+  }
+
+}
@@ -0,0 +1,293 @@
+/*
+ * ASTReader.java
+ *
+ * Rebuilds an AST written by ASTWriter through the usual constructors,
+ * so that parent links are set as the parser sets them. The cells of
+ * a list are read first and linked from the last one back, without
+ * recursion. Damaged input, whether truncated or not as ASTWriter
+ * writes it, is reported by an ASTFormatException.
+ */
+
+package VC.ASTCache;
+
+import VC.ASTs.*;
+import VC.Scanner.SourcePosition;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+class ASTReader {
+
+  private byte[] in;
+  private int next;
+  private ArrayList<String> spellings = new ArrayList<String>();
+  private long[] starts = new long[64], finishes = new long[64]; // see SourcePosition.point
+  private int positionCount = 1; // the first is line 0, column 0
+  private ArrayList<Type> types = new ArrayList<Type>();
+  private int lastLine = 0;
+
+  ASTReader(byte[] in, int from) {
+    this.in = in;
+    this.next = from;
+  }
+
+  AST read() throws ASTFormatException {
+    AST ast = readNode(AST.class);
+    if (next != in.length)
+      throw new ASTFormatException("trailing bytes");
+    return ast;
+  }
+
+  private int readByte() throws ASTFormatException {
+    if (next == in.length)
+      throw new ASTFormatException("truncated");
+    return in[next++];
+  }
+
+  private int readNumber() throws ASTFormatException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = readByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0)
+        return value;
+    }
+    throw new ASTFormatException("number too long");
+  }
+
+  // A count of items that take a byte each at least.
+
+  private int readCount() throws ASTFormatException {
+    int count = readNumber();
+    if (count < 0 || count > in.length - next)
+      throw new ASTFormatException("bad count " + count);
+    return count;
+  }
+
+  private int readSigned() throws ASTFormatException {
+    int value = readNumber();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  // Reads a position into starts and finishes and returns its index
+  // there.
+
+  private int readPosition() throws ASTFormatException {
+    int number = readNumber();
+    if (number == 0)
+      return 0;
+    if (number > 1) {
+      if (number - 1 >= positionCount)
+        throw new ASTFormatException("bad position number " + number);
+      return number - 1;
+    }
+    int lineStart = lastLine + readSigned();
+    int charStart = readNumber();
+    int lineFinish = lineStart + readSigned();
+    int charFinish = readNumber();
+    lastLine = lineStart;
+    if (positionCount == starts.length) {
+      starts = Arrays.copyOf(starts, 2 * positionCount);
+      finishes = Arrays.copyOf(finishes, 2 * positionCount);
+    }
+    starts[positionCount] = SourcePosition.point(lineStart, charStart);
+    finishes[positionCount] = SourcePosition.point(lineFinish, charFinish);
+    return positionCount++;
+  }
+
+  private String readSpelling() throws ASTFormatException {
+    int number = readNumber();
+    if (0 <= number && number < spellings.size())
+      return spellings.get(number);
+    if (number != spellings.size())
+      throw new ASTFormatException("bad spelling number " + number);
+    char[] chars = new char[readCount()];
+    for (int i = 0; i < chars.length; i++)
+      chars[i] = (char) readNumber();
+    String spelling = new String(chars);
+    spellings.add(spelling);
+    return spelling;
+  }
+
+  // Reads a node that must be a T. Numbers every Type read, as
+  // ASTWriter does, in the order in which they are finished.
+
+  private <T extends AST> T readNode(Class<T> c) throws ASTFormatException {
+    int kind = readByte();
+    AST ast;
+    if (kind == ASTCache.SHARED) {
+      int number = readNumber();
+      if (number < 0 || number >= types.size())
+        throw new ASTFormatException("bad type number " + number);
+      ast = types.get(number);
+    } else {
+      ast = readNewNode(kind);
+      if (ast instanceof Type)
+        types.add((Type) ast);
+    }
+    if (!c.isInstance(ast))
+      throw new ASTFormatException(ast.getClass().getSimpleName() + " where "
+                                   + c.getSimpleName() + " expected");
+    return c.cast(ast);
+  }
+
+  private AST readNewNode(int kind) throws ASTFormatException {
+    switch (kind) {
+    case ASTCache.DECL_LIST:
+    case ASTCache.STMT_LIST:
+    case ASTCache.EXPR_LIST:
+    case ASTCache.PARA_LIST:
+    case ASTCache.ARG_LIST:
+      return readList(kind);
+    }
+
+    int position = readPosition();
+    long start = starts[position], finish = finishes[position];
+    switch (kind) {
+    case ASTCache.PROGRAM:
+      return new Program(readNode(List.class), start, finish);
+
+    case ASTCache.EMPTY_DECL_LIST:
+      return new EmptyDeclList(start, finish);
+    case ASTCache.EMPTY_STMT_LIST:
+      return new EmptyStmtList(start, finish);
+    case ASTCache.EMPTY_EXPR_LIST:
+      return new EmptyExprList(start, finish);
+    case ASTCache.EMPTY_PARA_LIST:
+      return new EmptyParaList(start, finish);
+    case ASTCache.EMPTY_ARG_LIST:
+      return new EmptyArgList(start, finish);
+
+    case ASTCache.FUNC_DECL:
+      return new FuncDecl(readNode(Type.class), readNode(Ident.class),
+                          readNode(List.class), readNode(Stmt.class), start, finish);
+    case ASTCache.GLOBAL_VAR_DECL:
+      return new GlobalVarDecl(readNode(Type.class), readNode(Ident.class),
+                               readNode(Expr.class), start, finish);
+    case ASTCache.LOCAL_VAR_DECL:
+      return new LocalVarDecl(readNode(Type.class), readNode(Ident.class),
+                              readNode(Expr.class), start, finish);
+
+    case ASTCache.IF_STMT:
+      return new IfStmt(readNode(Expr.class), readNode(Stmt.class),
+                        readNode(Stmt.class), start, finish);
+    case ASTCache.WHILE_STMT:
+      return new WhileStmt(readNode(Expr.class), readNode(Stmt.class), start, finish);
+    case ASTCache.FOR_STMT:
+      return new ForStmt(readNode(Expr.class), readNode(Expr.class),
+                         readNode(Expr.class), readNode(Stmt.class), start, finish);
+    case ASTCache.BREAK_STMT:
+      return new BreakStmt(start, finish);
+    case ASTCache.CONTINUE_STMT:
+      return new ContinueStmt(start, finish);
+    case ASTCache.RETURN_STMT:
+      return new ReturnStmt(readNode(Expr.class), start, finish);
+    case ASTCache.COMPOUND_STMT:
+      return new CompoundStmt(readNode(List.class), readNode(List.class), start, finish);
+    case ASTCache.EXPR_STMT:
+      return new ExprStmt(readNode(Expr.class), start, finish);
+    case ASTCache.EMPTY_COMP_STMT:
+      return new EmptyCompStmt(start, finish);
+    case ASTCache.EMPTY_STMT:
+      return new EmptyStmt(start, finish);
+
+    case ASTCache.INT_EXPR:
+      return new IntExpr(readNode(IntLiteral.class), start, finish);
+    case ASTCache.FLOAT_EXPR:
+      return new FloatExpr(readNode(FloatLiteral.class), start, finish);
+    case ASTCache.BOOLEAN_EXPR:
+      return new BooleanExpr(readNode(BooleanLiteral.class), start, finish);
+    case ASTCache.STRING_EXPR:
+      return new StringExpr(readNode(StringLiteral.class), start, finish);
+    case ASTCache.UNARY_EXPR:
+      return new UnaryExpr(readNode(Operator.class), readNode(Expr.class), start, finish);
+    case ASTCache.BINARY_EXPR:
+      return new BinaryExpr(readNode(Expr.class), readNode(Operator.class),
+                            readNode(Expr.class), start, finish);
+    case ASTCache.INIT_EXPR:
+      return new InitExpr(readNode(List.class), start, finish);
+    case ASTCache.ARRAY_EXPR:
+      return new ArrayExpr(readNode(Var.class), readNode(Expr.class), start, finish);
+    case ASTCache.VAR_EXPR:
+      return new VarExpr(readNode(Var.class), start, finish);
+    case ASTCache.CALL_EXPR:
+      return new CallExpr(readNode(Ident.class), readNode(List.class), start, finish);
+    case ASTCache.ASSIGN_EXPR:
+      return new AssignExpr(readNode(Expr.class), readNode(Expr.class), start, finish);
+    case ASTCache.EMPTY_EXPR:
+      return new EmptyExpr(start, finish);
+
+    case ASTCache.INT_LITERAL:
+      return new IntLiteral(readSpelling(), start, finish);
+    case ASTCache.FLOAT_LITERAL:
+      return new FloatLiteral(readSpelling(), start, finish);
+    case ASTCache.BOOLEAN_LITERAL:
+      return new BooleanLiteral(readSpelling(), start, finish);
+    case ASTCache.STRING_LITERAL:
+      return new StringLiteral(readSpelling(), start, finish);
+    case ASTCache.IDENT:
+      return new Ident(readSpelling(), start, finish);
+    case ASTCache.OPERATOR:
+      return new Operator(readSpelling(), start, finish);
+
+    case ASTCache.PARA_DECL:
+      return new ParaDecl(readNode(Type.class), readNode(Ident.class), start, finish);
+    case ASTCache.ARG:
+      return new Arg(readNode(Expr.class), start, finish);
+
+    case ASTCache.VOID_TYPE:
+      return new VoidType(start, finish);
+    case ASTCache.BOOLEAN_TYPE:
+      return new BooleanType(start, finish);
+    case ASTCache.INT_TYPE:
+      return new IntType(start, finish);
+    case ASTCache.FLOAT_TYPE:
+      return new FloatType(start, finish);
+    case ASTCache.STRING_TYPE:
+      return new StringType(start, finish);
+    case ASTCache.ARRAY_TYPE:
+      return new ArrayType(readNode(Type.class), readNode(Expr.class), start, finish);
+    case ASTCache.ERROR_TYPE:
+      return new ErrorType(start, finish);
+
+    case ASTCache.SIMPLE_VAR:
+      return new SimpleVar(readNode(Ident.class), start, finish);
+
+    default:
+      throw new ASTFormatException("bad node kind " + kind);
+    }
+  }
+
+  private List readList(int kind) throws ASTFormatException {
+    Class<? extends AST> element = kind == ASTCache.DECL_LIST ? Decl.class
+      : kind == ASTCache.STMT_LIST ? Stmt.class
+      : kind == ASTCache.EXPR_LIST ? Expr.class
+      : kind == ASTCache.PARA_LIST ? ParaDecl.class : Arg.class;
+    int count = readCount();
+    long[] cellStarts = new long[count], cellFinishes = new long[count];
+    AST[] elements = new AST[count];
+    for (int i = 0; i < count; i++) {
+      int position = readPosition();
+      cellStarts[i] = starts[position];
+      cellFinishes[i] = finishes[position];
+      elements[i] = readNode(element);
+    }
+    List list = readNode(List.class);
+    if (!list.isEmpty())
+      throw new ASTFormatException("list not terminated");
+    if (count == 0)
+      return list;
+    switch (kind) {
+    case ASTCache.DECL_LIST:
+      return new DeclArray(Arrays.copyOf(elements, count, Decl[].class), cellStarts, cellFinishes);
+    case ASTCache.STMT_LIST:
+      return new StmtArray(Arrays.copyOf(elements, count, Stmt[].class), cellStarts, cellFinishes);
+    case ASTCache.EXPR_LIST:
+      return new ExprArray(Arrays.copyOf(elements, count, Expr[].class), cellStarts, cellFinishes);
+    case ASTCache.PARA_LIST:
+      return new ParaArray(Arrays.copyOf(elements, count, ParaDecl[].class), cellStarts, cellFinishes);
+    default:
+      return new ArgArray(Arrays.copyOf(elements, count, Arg[].class), cellStarts, cellFinishes);
+    }
+  }
+
+}
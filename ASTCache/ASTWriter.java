@@ -0,0 +1,476 @@
+/*
+ * ASTWriter.java
+ *
+ * Serialises an AST for ASTCache. Every node is written in pre-order
+ * as its kind (one byte), its position and then its children in the
+ * order its constructor takes them. Spellings and positions are
+ * interned: the first occurrence is written out in full and numbered,
+ * later ones are written as that number. A list is written as the
+ * number of its cells, the position and element of each cell, and
+ * then its Empty*List terminator. Numbers are written as varints.
+ */
+
+package VC.ASTCache;
+
+import VC.ASTs.*;
+import VC.Scanner.SourcePosition;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+class ASTWriter implements GenericVisitor<Void, Void> {
+
+  private static final int RECENT = 1 << 12;
+
+  private byte[] out = new byte[1 << 16];
+  private int size = 0;
+  private HashMap<String, Integer> spellings = new HashMap<String, Integer>();
+  private long[] recentStarts = new long[RECENT], recentFinishes = new long[RECENT];
+  private int[] recentNumbers = new int[RECENT];
+  private int positionCount = 0;
+  private IdentityHashMap<Type, Integer> types = new IdentityHashMap<Type, Integer>();
+  private int lastLine = 0;
+
+  byte[] toBytes(AST ast) {
+    Arrays.fill(recentNumbers, -1);
+    write(ast);
+    return Arrays.copyOf(out, size);
+  }
+
+  private void writeByte(int b) {
+    if (size == out.length)
+      out = Arrays.copyOf(out, 2 * size);
+    out[size++] = (byte) b;
+  }
+
+  // The parser lets the declarators of one declaration share their
+  // Type, so a Type written before is written again as SHARED and its
+  // number; Types are numbered as they are finished.
+
+  private void write(AST ast) {
+    if (!(ast instanceof Type)) {
+      ast.visit(this, null);
+      return;
+    }
+    Integer number = types.get(ast);
+    if (number != null) {
+      writeByte(ASTCache.SHARED);
+      writeNumber(number);
+      return;
+    }
+    ast.visit(this, null);
+    types.put((Type) ast, types.size());
+  }
+
+  private void writeNumber(int value) {
+    while ((value & ~0x7F) != 0) {
+      writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    writeByte(value);
+  }
+
+  private void writeSigned(int value) {
+    writeNumber((value << 1) ^ (value >> 31));
+  }
+
+  // 0 stands for the position made up at line 0, column 0 and 1 for a
+  // new position, whose fields follow; n + 2 stands for the nth
+  // position written so far. Lines are written relative to the line of
+  // the last new position, so that most fields fit in a byte.
+  //
+  // Equal positions come from nodes built close together, so the
+  // positions written are remembered in a small table indexed by hash
+  // rather than in a map of all of them; a position that has dropped
+  // out of it is merely written again.
+
+  private void writePosition(long start, long finish) {
+    if (start == 0 && finish == 0) {
+      writeNumber(0);
+      return;
+    }
+    long hash = (start * 31 + finish) * 0x9E3779B97F4A7C15L;
+    int slot = (int) (hash >>> 52) & (RECENT - 1);
+    if (recentNumbers[slot] >= 0 && recentStarts[slot] == start
+        && recentFinishes[slot] == finish) {
+      writeNumber(recentNumbers[slot] + 2);
+      return;
+    }
+    recentStarts[slot] = start;
+    recentFinishes[slot] = finish;
+    recentNumbers[slot] = positionCount++;
+    int lineStart = SourcePosition.line(start);
+    writeNumber(1);
+    writeSigned(lineStart - lastLine);
+    writeNumber(SourcePosition.column(start));
+    writeSigned(SourcePosition.line(finish) - lineStart);
+    writeNumber(SourcePosition.column(finish));
+    lastLine = lineStart;
+  }
+
+  private void writeSpelling(String spelling) {
+    Integer number = spellings.get(spelling);
+    if (number != null) {
+      writeNumber(number);
+      return;
+    }
+    number = spellings.size();
+    spellings.put(spelling, number);
+    writeNumber(number);
+    writeNumber(spelling.length());
+    for (int i = 0; i < spelling.length(); i++)
+      writeNumber(spelling.charAt(i));
+  }
+
+  private void writeNode(int kind, AST ast) {
+    writeByte(kind);
+    writePosition(ast.start, ast.finish);
+  }
+
+  // The terminator of a list is written as the parser would have made
+  // it, at position 0.
+
+  private void writeList(int kind, ListArray ast, int terminator) {
+    writeByte(kind);
+    writeNumber(ast.size());
+    for (int i = 0; i < ast.size(); i++) {
+      writePosition(ast.starts[i], ast.finishes[i]);
+      write(ast.get(i));
+    }
+    writeByte(terminator);
+    writePosition(0, 0);
+  }
+
+  private void writeTerminal(int kind, Terminal ast) {
+    writeNode(kind, ast);
+    writeSpelling(ast.spelling);
+  }
+
+  // Programs
+
+  public Void visitProgram(Program ast, Void o) {
+    writeNode(ASTCache.PROGRAM, ast);
+    write(ast.FL);
+    return null;
+  }
+
+  // Lists for denoting the null reference
+
+  public Void visitEmptyDeclList(EmptyDeclList ast, Void o) {
+    writeNode(ASTCache.EMPTY_DECL_LIST, ast);
+    return null;
+  }
+
+  public Void visitEmptyStmtList(EmptyStmtList ast, Void o) {
+    writeNode(ASTCache.EMPTY_STMT_LIST, ast);
+    return null;
+  }
+
+  public Void visitEmptyExprList(EmptyExprList ast, Void o) {
+    writeNode(ASTCache.EMPTY_EXPR_LIST, ast);
+    return null;
+  }
+
+  public Void visitEmptyParaList(EmptyParaList ast, Void o) {
+    writeNode(ASTCache.EMPTY_PARA_LIST, ast);
+    return null;
+  }
+
+  public Void visitEmptyArgList(EmptyArgList ast, Void o) {
+    writeNode(ASTCache.EMPTY_ARG_LIST, ast);
+    return null;
+  }
+
+  // Declarations
+
+  public Void visitDeclArray(DeclArray ast, Void o) {
+    writeList(ASTCache.DECL_LIST, ast, ASTCache.EMPTY_DECL_LIST);
+    return null;
+  }
+
+  public Void visitFuncDecl(FuncDecl ast, Void o) {
+    writeNode(ASTCache.FUNC_DECL, ast);
+    write(ast.T);
+    write(ast.I);
+    write(ast.PL);
+    write(ast.S);
+    return null;
+  }
+
+  public Void visitGlobalVarDecl(GlobalVarDecl ast, Void o) {
+    writeNode(ASTCache.GLOBAL_VAR_DECL, ast);
+    write(ast.T);
+    write(ast.I);
+    write(ast.E);
+    return null;
+  }
+
+  public Void visitLocalVarDecl(LocalVarDecl ast, Void o) {
+    writeNode(ASTCache.LOCAL_VAR_DECL, ast);
+    write(ast.T);
+    write(ast.I);
+    write(ast.E);
+    return null;
+  }
+
+  // Statements
+
+  public Void visitStmtArray(StmtArray ast, Void o) {
+    writeList(ASTCache.STMT_LIST, ast, ASTCache.EMPTY_STMT_LIST);
+    return null;
+  }
+
+  public Void visitIfStmt(IfStmt ast, Void o) {
+    writeNode(ASTCache.IF_STMT, ast);
+    write(ast.E);
+    write(ast.S1);
+    write(ast.S2);
+    return null;
+  }
+
+  public Void visitWhileStmt(WhileStmt ast, Void o) {
+    writeNode(ASTCache.WHILE_STMT, ast);
+    write(ast.E);
+    write(ast.S);
+    return null;
+  }
+
+  public Void visitForStmt(ForStmt ast, Void o) {
+    writeNode(ASTCache.FOR_STMT, ast);
+    write(ast.E1);
+    write(ast.E2);
+    write(ast.E3);
+    write(ast.S);
+    return null;
+  }
+
+  public Void visitBreakStmt(BreakStmt ast, Void o) {
+    writeNode(ASTCache.BREAK_STMT, ast);
+    return null;
+  }
+
+  public Void visitContinueStmt(ContinueStmt ast, Void o) {
+    writeNode(ASTCache.CONTINUE_STMT, ast);
+    return null;
+  }
+
+  public Void visitReturnStmt(ReturnStmt ast, Void o) {
+    writeNode(ASTCache.RETURN_STMT, ast);
+    write(ast.E);
+    return null;
+  }
+
+  public Void visitCompoundStmt(CompoundStmt ast, Void o) {
+    writeNode(ASTCache.COMPOUND_STMT, ast);
+    write(ast.DL);
+    write(ast.SL);
+    return null;
+  }
+
+  public Void visitExprStmt(ExprStmt ast, Void o) {
+    writeNode(ASTCache.EXPR_STMT, ast);
+    write(ast.E);
+    return null;
+  }
+
+  public Void visitEmptyCompStmt(EmptyCompStmt ast, Void o) {
+    writeNode(ASTCache.EMPTY_COMP_STMT, ast);
+    return null;
+  }
+
+  public Void visitEmptyStmt(EmptyStmt ast, Void o) {
+    writeNode(ASTCache.EMPTY_STMT, ast);
+    return null;
+  }
+
+  // Expressions
+
+  public Void visitIntExpr(IntExpr ast, Void o) {
+    writeNode(ASTCache.INT_EXPR, ast);
+    write(ast.IL);
+    return null;
+  }
+
+  public Void visitFloatExpr(FloatExpr ast, Void o) {
+    writeNode(ASTCache.FLOAT_EXPR, ast);
+    write(ast.FL);
+    return null;
+  }
+
+  public Void visitBooleanExpr(BooleanExpr ast, Void o) {
+    writeNode(ASTCache.BOOLEAN_EXPR, ast);
+    write(ast.BL);
+    return null;
+  }
+
+  public Void visitStringExpr(StringExpr ast, Void o) {
+    writeNode(ASTCache.STRING_EXPR, ast);
+    write(ast.SL);
+    return null;
+  }
+
+  public Void visitUnaryExpr(UnaryExpr ast, Void o) {
+    writeNode(ASTCache.UNARY_EXPR, ast);
+    write(ast.O);
+    write(ast.E);
+    return null;
+  }
+
+  public Void visitBinaryExpr(BinaryExpr ast, Void o) {
+    writeNode(ASTCache.BINARY_EXPR, ast);
+    write(ast.E1);
+    write(ast.O);
+    write(ast.E2);
+    return null;
+  }
+
+  public Void visitInitExpr(InitExpr ast, Void o) {
+    writeNode(ASTCache.INIT_EXPR, ast);
+    write(ast.IL);
+    return null;
+  }
+
+  public Void visitExprArray(ExprArray ast, Void o) {
+    writeList(ASTCache.EXPR_LIST, ast, ASTCache.EMPTY_EXPR_LIST);
+    return null;
+  }
+
+  public Void visitArrayExpr(ArrayExpr ast, Void o) {
+    writeNode(ASTCache.ARRAY_EXPR, ast);
+    write(ast.V);
+    write(ast.E);
+    return null;
+  }
+
+  public Void visitVarExpr(VarExpr ast, Void o) {
+    writeNode(ASTCache.VAR_EXPR, ast);
+    write(ast.V);
+    return null;
+  }
+
+  public Void visitCallExpr(CallExpr ast, Void o) {
+    writeNode(ASTCache.CALL_EXPR, ast);
+    write(ast.I);
+    write(ast.AL);
+    return null;
+  }
+
+  public Void visitAssignExpr(AssignExpr ast, Void o) {
+    writeNode(ASTCache.ASSIGN_EXPR, ast);
+    write(ast.E1);
+    write(ast.E2);
+    return null;
+  }
+
+  public Void visitEmptyExpr(EmptyExpr ast, Void o) {
+    writeNode(ASTCache.EMPTY_EXPR, ast);
+    return null;
+  }
+
+  // Literals, Identifiers and Operators
+
+  public Void visitIntLiteral(IntLiteral ast, Void o) {
+    writeTerminal(ASTCache.INT_LITERAL, ast);
+    return null;
+  }
+
+  public Void visitFloatLiteral(FloatLiteral ast, Void o) {
+    writeTerminal(ASTCache.FLOAT_LITERAL, ast);
+    return null;
+  }
+
+  public Void visitBooleanLiteral(BooleanLiteral ast, Void o) {
+    writeTerminal(ASTCache.BOOLEAN_LITERAL, ast);
+    return null;
+  }
+
+  public Void visitStringLiteral(StringLiteral ast, Void o) {
+    writeTerminal(ASTCache.STRING_LITERAL, ast);
+    return null;
+  }
+
+  public Void visitIdent(Ident ast, Void o) {
+    writeTerminal(ASTCache.IDENT, ast);
+    return null;
+  }
+
+  public Void visitOperator(Operator ast, Void o) {
+    writeTerminal(ASTCache.OPERATOR, ast);
+    return null;
+  }
+
+  // Parameters
+
+  public Void visitParaArray(ParaArray ast, Void o) {
+    writeList(ASTCache.PARA_LIST, ast, ASTCache.EMPTY_PARA_LIST);
+    return null;
+  }
+
+  public Void visitParaDecl(ParaDecl ast, Void o) {
+    writeNode(ASTCache.PARA_DECL, ast);
+    write(ast.T);
+    write(ast.I);
+    return null;
+  }
+
+  // Arguments
+
+  public Void visitArgArray(ArgArray ast, Void o) {
+    writeList(ASTCache.ARG_LIST, ast, ASTCache.EMPTY_ARG_LIST);
+    return null;
+  }
+
+  public Void visitArg(Arg ast, Void o) {
+    writeNode(ASTCache.ARG, ast);
+    write(ast.E);
+    return null;
+  }
+
+  // Types
+
+  public Void visitVoidType(VoidType ast, Void o) {
+    writeNode(ASTCache.VOID_TYPE, ast);
+    return null;
+  }
+
+  public Void visitBooleanType(BooleanType ast, Void o) {
+    writeNode(ASTCache.BOOLEAN_TYPE, ast);
+    return null;
+  }
+
+  public Void visitIntType(IntType ast, Void o) {
+    writeNode(ASTCache.INT_TYPE, ast);
+    return null;
+  }
+
+  public Void visitFloatType(FloatType ast, Void o) {
+    writeNode(ASTCache.FLOAT_TYPE, ast);
+    return null;
+  }
+
+  public Void visitStringType(StringType ast, Void o) {
+    writeNode(ASTCache.STRING_TYPE, ast);
+    return null;
+  }
+
+  public Void visitArrayType(ArrayType ast, Void o) {
+    writeNode(ASTCache.ARRAY_TYPE, ast);
+    write(ast.T);
+    write(ast.E);
+    return null;
+  }
+
+  public Void visitErrorType(ErrorType ast, Void o) {
+    writeNode(ASTCache.ERROR_TYPE, ast);
+    return null;
+  }
+
+  // Variables
+
+  public Void visitSimpleVar(SimpleVar ast, Void o) {
+    writeNode(ASTCache.SIMPLE_VAR, ast);
+    write(ast.I);
+    return null;
+  }
+
+}
@@ -8,17 +8,23 @@ import VC.Scanner.SourcePosition;
 
 public abstract class AST {
 
-  public SourcePosition	position;
+  // Where the phrase starts and finishes, as points (see
+  // SourcePosition.point). A SourcePosition is only made when one is
+  // asked for, to report an error or to draw the tree.
+  public long start, finish;
   public AST parent;
  
-  public AST (SourcePosition Position) {
-    position = Position;
+  public AST (long start, long finish) {
+    this.start = start;
+    this.finish = finish;
   }
 
   public SourcePosition getPosition() {
-    return position;
+    return SourcePosition.of(start, finish);
   }
 
   public abstract Object visit(Visitor v, Object o);
 
+  public abstract <R, A> R visit(GenericVisitor<R, A> v, A arg);
+
 }
@@ -4,14 +4,12 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class Arg extends Expr {
 
   public Expr E;
 
-  public Arg (Expr eAST, SourcePosition position) {
-    super (position);
+  public Arg (Expr eAST, long start, long finish) {
+    super (start, finish);
     E = eAST;
     eAST.parent = this;
   }
@@ -20,4 +18,8 @@ public class Arg extends Expr {
     return v.visitArg(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitArg(this, arg);
+  }
+
 }
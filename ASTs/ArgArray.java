@@ -0,0 +1,33 @@
+/*
+ * ArgArray.java
+ */
+
+package VC.ASTs;
+
+public class ArgArray extends ListArray {
+
+  public Arg[] A;
+
+  public ArgArray(Arg[] aAST, long[] starts, long[] finishes) {
+    super (starts, finishes);
+    A = aAST;
+    for (Arg element : A)
+      element.parent = this;
+  }
+
+  public AST get(int i) {
+    return A[i];
+  }
+
+  public List cells() {
+    List list = new EmptyArgList(0, 0);
+    for (int i = A.length - 1; i >= 0; i--)
+      list = new ArgList(A[i], list, starts[i], finishes[i]);
+    return list;
+  }
+
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitArgArray(this, arg);
+  }
+
+}
@@ -4,14 +4,12 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class ArgList extends List {
   public Arg A;
   public List AL;
 
-  public ArgList(Arg aAST, List alAST, SourcePosition thePosition) {
-    super (thePosition);
+  public ArgList(Arg aAST, List alAST, long start, long finish) {
+    super (start, finish);
     A = aAST;
     AL = alAST;
     A.parent = AL.parent = this;
@@ -21,4 +19,10 @@ public class ArgList extends List {
     return v.visitArgList(this, o);
   }
 
+  // Cells are made only by ArgArray.cells(), for a Visitor.
+
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    throw new UnsupportedOperationException("ArgList visited by a GenericVisitor");
+  }
+
 }
@@ -4,15 +4,13 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class ArrayExpr extends Expr {
 
   public Var V;
   public Expr E; // index of array var
 
-  public ArrayExpr (Var idAST, Expr indexAST, SourcePosition position) {
-    super (position);
+  public ArrayExpr (Var idAST, Expr indexAST, long start, long finish) {
+    super (start, finish);
     V = idAST;
     E = indexAST;
     V.parent = E.parent = this;
@@ -22,4 +20,8 @@ public class ArrayExpr extends Expr {
     return v.visitArrayExpr(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitArrayExpr(this, arg);
+  }
+
 }
@@ -4,15 +4,13 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class ArrayType extends Type {
 
   public Type T;
   public Expr E;
 
-  public ArrayType (Type tAST, Expr dAST, SourcePosition Position) {
-    super (Position);
+  public ArrayType (Type tAST, Expr dAST, long start, long finish) {
+    super (start, finish, ARRAY);
     T = tAST;
     E = dAST;
     T.parent = E.parent = this;
@@ -22,29 +20,23 @@ public class ArrayType extends Type {
     return v.visitArrayType(this, o);
   }
 
-  public boolean equals(Object obj) {
-    return false; // An array name cannot appear alone in VC.
-                  // For example, a = b is not allowed if a and b are
-                  // array names. Thus, this method should never be called
-  }
-
-  public boolean assignable(Object obj) {
-    return false; // a = b is not a legal assignment in VC when a and b are arrays
-                  // But an array can be passed as an argument in a function call. So 
-                  // you need to handle this as a special case without relying on this method!
+  public <R, A> R visit (GenericVisitor<R, A> v, A arg) {
+    return v.visitArrayType(this, arg);
   }
 
   public String toString() {
-    if (T instanceof IntType)
+    switch (T.tag) {
+    case INT:
       return "[I";
-    else if (T instanceof FloatType)
+    case FLOAT:
       return "[F";
-    else if (T instanceof BooleanType)
+    case BOOLEAN:
       return "[B";
-    else if (T instanceof VoidType)
+    case VOID:
       return "[V";   // will be detected as semantic errors
-    else  // should not happen
+    default:  // should not happen
       return "[*";
+    }
   }
 
 }
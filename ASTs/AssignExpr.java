@@ -4,14 +4,12 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class AssignExpr extends Expr {
 
   public Expr E1, E2;
 
-  public AssignExpr (Expr e1AST, Expr e2AST, SourcePosition Position) {
-    super (Position);
+  public AssignExpr (Expr e1AST, Expr e2AST, long start, long finish) {
+    super (start, finish);
     E1 = e1AST;
     E2 = e2AST;
     E1.parent = E2.parent = this;
@@ -21,4 +19,8 @@ public class AssignExpr extends Expr {
     return v.visitAssignExpr(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitAssignExpr(this, arg);
+  }
+
 }
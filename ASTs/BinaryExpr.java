@@ -5,15 +5,13 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class BinaryExpr extends Expr {
 
   public Expr E1, E2;
   public Operator O;
 
-  public BinaryExpr(Expr e1AST, Operator oAST, Expr e2AST, SourcePosition Position) {
-    super (Position);
+  public BinaryExpr(Expr e1AST, Operator oAST, Expr e2AST, long start, long finish) {
+    super (start, finish);
     O = oAST;
     E1 = e1AST;
     E2 = e2AST;
@@ -24,4 +22,8 @@ public class BinaryExpr extends Expr {
     return v.visitBinaryExpr(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitBinaryExpr(this, arg);
+  }
+
 }
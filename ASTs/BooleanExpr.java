@@ -5,8 +5,6 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class BooleanExpr extends Expr {
 
   public BooleanLiteral BL;
@@ -15,8 +13,8 @@ public class BooleanExpr extends Expr {
   // The two fields below are not used for this year's assignments
   public AST trueSuccessor, falseSuccessor;
 
-  public BooleanExpr(BooleanLiteral blAST, SourcePosition position) {
-    super (position);
+  public BooleanExpr(BooleanLiteral blAST, long start, long finish) {
+    super (start, finish);
     BL = blAST;
     BL.parent = this;
   }
@@ -25,4 +23,8 @@ public class BooleanExpr extends Expr {
     return v.visitBooleanExpr(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitBooleanExpr(this, arg);
+  }
+
 }
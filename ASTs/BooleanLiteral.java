@@ -4,16 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class BooleanLiteral extends Terminal {
 
-  public BooleanLiteral (String value, SourcePosition position) {
-    super (value, position);
+  public BooleanLiteral (String value, long start, long finish) {
+    super (value, start, finish);
   }
 
   public Object visit(Visitor v, Object o) {
     return v.visitBooleanLiteral(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitBooleanLiteral(this, arg);
+  }
+
 }
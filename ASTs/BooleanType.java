@@ -4,27 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class BooleanType extends Type {
 
-  public BooleanType (SourcePosition Position) {
-    super (Position);
+  public BooleanType (long start, long finish) {
+    super (start, finish, BOOLEAN);
   }
 
   public Object visit (Visitor v, Object o) {
     return v.visitBooleanType(this, o);
   }
 
-  public boolean equals(Object obj) {
-    if (obj != null && obj instanceof ErrorType)
-      return true;
-    else    
-      return (obj != null && obj instanceof BooleanType);
-  }
-
-  public boolean assignable(Object obj) {
-    return equals(obj);
+  public <R, A> R visit (GenericVisitor<R, A> v, A arg) {
+    return v.visitBooleanType(this, arg);
   }
 
   public String toString() {
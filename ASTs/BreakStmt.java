@@ -4,16 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class BreakStmt extends Stmt {
 
-  public BreakStmt(SourcePosition Position) {
-    super (Position);
+  public BreakStmt(long start, long finish) {
+    super (start, finish);
   }
 
   public Object visit(Visitor v, Object o) {
     return v.visitBreakStmt(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitBreakStmt(this, arg);
+  }
+
 }
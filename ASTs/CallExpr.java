@@ -4,15 +4,13 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class CallExpr extends Expr {
 
   public Ident I;
   public List AL;
 
-  public CallExpr(Ident id, List aplAST, SourcePosition Position) {
-    super (Position);
+  public CallExpr(Ident id, List aplAST, long start, long finish) {
+    super (start, finish);
     I = id;
     AL = aplAST;
     I.parent = AL.parent = this;
@@ -22,4 +20,8 @@ public class CallExpr extends Expr {
     return v.visitCallExpr(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitCallExpr(this, arg);
+  }
+
 }
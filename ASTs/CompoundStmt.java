@@ -4,15 +4,13 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class CompoundStmt extends Stmt {
 
   public List DL;
   public List SL;
 
-  public CompoundStmt(List dlAST, List slAST, SourcePosition position) {
-    super (position);
+  public CompoundStmt(List dlAST, List slAST, long start, long finish) {
+    super (start, finish);
     DL = dlAST;
     SL = slAST;
     DL.parent = SL.parent = this;
@@ -22,4 +20,8 @@ public class CompoundStmt extends Stmt {
     return v.visitCompoundStmt(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitCompoundStmt(this, arg);
+  }
+
 }
@@ -4,16 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class ContinueStmt extends Stmt {
 
-  public ContinueStmt(SourcePosition Position) {
-    super (Position);
+  public ContinueStmt(long start, long finish) {
+    super (start, finish);
   }
 
   public Object visit(Visitor v, Object o) {
     return v.visitContinueStmt(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitContinueStmt(this, arg);
+  }
+
 }
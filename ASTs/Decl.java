@@ -4,8 +4,6 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public abstract class Decl extends AST {
 
   public Type T;
@@ -15,8 +13,8 @@ public abstract class Decl extends AST {
   // See page 72, the JVM spec, 2nd edition.
   public int index; 
 
-  public Decl(SourcePosition Position) {
-    super (Position);
+  public Decl(long start, long finish) {
+    super (start, finish);
   }
 
   // The following methods will be used in Assignments 4 and 5.
@@ -0,0 +1,33 @@
+/*
+ * DeclArray.java
+ */
+
+package VC.ASTs;
+
+public class DeclArray extends ListArray {
+
+  public Decl[] D;
+
+  public DeclArray(Decl[] dAST, long[] starts, long[] finishes) {
+    super (starts, finishes);
+    D = dAST;
+    for (Decl element : D)
+      element.parent = this;
+  }
+
+  public AST get(int i) {
+    return D[i];
+  }
+
+  public List cells() {
+    List list = new EmptyDeclList(0, 0);
+    for (int i = D.length - 1; i >= 0; i--)
+      list = new DeclList(D[i], list, starts[i], finishes[i]);
+    return list;
+  }
+
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitDeclArray(this, arg);
+  }
+
+}
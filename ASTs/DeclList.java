@@ -4,15 +4,13 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class DeclList extends List {
 
   public Decl D;
   public List DL;
 
-  public DeclList(Decl dAST, List dlAST, SourcePosition position) {
-    super (position);
+  public DeclList(Decl dAST, List dlAST, long start, long finish) {
+    super (start, finish);
     D = dAST;
     DL = dlAST;
     D.parent = DL.parent = this;
@@ -22,4 +20,10 @@ public class DeclList extends List {
     return v.visitDeclList(this, o);
   }
 
+  // Cells are made only by DeclArray.cells(), for a Visitor.
+
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    throw new UnsupportedOperationException("DeclList visited by a GenericVisitor");
+  }
+
 }
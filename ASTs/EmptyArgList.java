@@ -4,16 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class EmptyArgList extends List {
 
-  public EmptyArgList(SourcePosition position) {
-    super (position);
+  public EmptyArgList(long start, long finish) {
+    super (start, finish);
   }
 
   public Object visit(Visitor v, Object o) {
     return v.visitEmptyArgList(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitEmptyArgList(this, arg);
+  }
+
 }
@@ -4,15 +4,17 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class EmptyCompStmt extends Stmt {
 
-  public EmptyCompStmt(SourcePosition Position) {
-    super (Position);
+  public EmptyCompStmt(long start, long finish) {
+    super (start, finish);
   }
 
   public Object visit(Visitor v, Object o) {
     return v.visitEmptyCompStmt(this, o);
   }
+
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitEmptyCompStmt(this, arg);
+  }
 }
@@ -4,16 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class EmptyDeclList extends List {
 
-  public EmptyDeclList(SourcePosition Position) {
-    super (Position);
+  public EmptyDeclList(long start, long finish) {
+    super (start, finish);
   }
 
   public Object visit(Visitor v, Object o) {
     return v.visitEmptyDeclList(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitEmptyDeclList(this, arg);
+  }
+
 }
@@ -4,15 +4,17 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class EmptyExpr extends Expr {
 
-  public EmptyExpr (SourcePosition thePosition) {
-    super (thePosition);
+  public EmptyExpr (long start, long finish) {
+    super (start, finish);
   }
 
   public Object visit(Visitor v, Object o) {
     return v.visitEmptyExpr(this, o);
   }
+
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitEmptyExpr(this, arg);
+  }
 }
@@ -4,16 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class EmptyExprList extends List {
 
-  public EmptyExprList(SourcePosition Position) {
-    super (Position);
+  public EmptyExprList(long start, long finish) {
+    super (start, finish);
   }
 
   public Object visit(Visitor v, Object o) {
     return v.visitEmptyExprList(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitEmptyExprList(this, arg);
+  }
+
 }
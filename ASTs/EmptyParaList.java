@@ -4,16 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class EmptyParaList extends List {
 
-  public EmptyParaList(SourcePosition Position) {
-    super (Position);
+  public EmptyParaList(long start, long finish) {
+    super (start, finish);
   }
 
   public Object visit(Visitor v, Object o) {
     return v.visitEmptyParaList(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitEmptyParaList(this, arg);
+  }
+
 }
@@ -4,16 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class EmptyStmt extends Stmt {
 
-  public EmptyStmt(SourcePosition Position) {
-    super (Position);
+  public EmptyStmt(long start, long finish) {
+    super (start, finish);
   }
 
   public Object visit(Visitor v, Object o) {
     return v.visitEmptyStmt(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitEmptyStmt(this, arg);
+  }
+
 }
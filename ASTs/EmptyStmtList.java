@@ -4,16 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class EmptyStmtList extends List {
 
-  public EmptyStmtList(SourcePosition Position) {
-    super (Position);
+  public EmptyStmtList(long start, long finish) {
+    super (start, finish);
   }
 
   public Object visit(Visitor v, Object o) {
     return v.visitEmptyStmtList(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitEmptyStmtList(this, arg);
+  }
+
 }
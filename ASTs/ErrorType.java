@@ -4,23 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class ErrorType extends Type {
 
-  public ErrorType(SourcePosition thePosition) {
-    super (thePosition);
+  public ErrorType(long start, long finish) {
+    super (start, finish, ERROR);
   }
 
   public Object visit (Visitor v, Object o) {
     return v.visitErrorType(this, o);
   }
 
-  public boolean equals (Object obj) {
-    return true;
-  }
-  public boolean assignable (Object obj) {
-    return true;
+  public <R, A> R visit (GenericVisitor<R, A> v, A arg) {
+    return v.visitErrorType(this, arg);
   }
 
   public String toString() {
@@ -6,14 +6,12 @@ package VC.ASTs;
 
 import java.util.LinkedList;
 
-import VC.Scanner.SourcePosition;
-
 public abstract class Expr extends AST {
 
   public Type type;
 
-  public Expr (SourcePosition Position) {
-    super (Position);
+  public Expr (long start, long finish) {
+    super (start, finish);
     type = null;
   }
 
@@ -0,0 +1,33 @@
+/*
+ * ExprArray.java
+ */
+
+package VC.ASTs;
+
+public class ExprArray extends ListArray {
+
+  public Expr[] E;
+
+  public ExprArray(Expr[] eAST, long[] starts, long[] finishes) {
+    super (starts, finishes);
+    E = eAST;
+    for (Expr element : E)
+      element.parent = this;
+  }
+
+  public AST get(int i) {
+    return E[i];
+  }
+
+  public List cells() {
+    List list = new EmptyExprList(0, 0);
+    for (int i = E.length - 1; i >= 0; i--)
+      list = new ExprList(E[i], list, starts[i], finishes[i]);
+    return list;
+  }
+
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitExprArray(this, arg);
+  }
+
+}
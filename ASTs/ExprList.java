@@ -4,8 +4,6 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class ExprList extends List {
   public Expr E;
   public List EL;
@@ -13,8 +11,8 @@ public class ExprList extends List {
   // array index where this element should go
   public int index;
 
-  public ExprList(Expr eAST, List elAST, SourcePosition thePosition) {
-    super (thePosition);
+  public ExprList(Expr eAST, List elAST, long start, long finish) {
+    super (start, finish);
     E = eAST;
     EL = elAST;
     E.parent = EL.parent = this;
@@ -24,4 +22,10 @@ public class ExprList extends List {
     return v.visitExprList(this, o);
   }
 
+  // Cells are made only by ExprArray.cells(), for a Visitor.
+
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    throw new UnsupportedOperationException("ExprList visited by a GenericVisitor");
+  }
+
 }
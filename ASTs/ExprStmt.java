@@ -4,14 +4,12 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class ExprStmt extends Stmt {
 
   public Expr E;
 
-  public ExprStmt (Expr eAST, SourcePosition Position) {
-    super (Position);
+  public ExprStmt (Expr eAST, long start, long finish) {
+    super (start, finish);
     E = eAST;
     E.parent = this;
   }
@@ -20,4 +18,8 @@ public class ExprStmt extends Stmt {
     return v.visitExprStmt(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitExprStmt(this, arg);
+  }
+
 }
@@ -4,14 +4,12 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class FloatExpr extends Expr {
 
   public FloatLiteral FL;
 
-  public FloatExpr(FloatLiteral flAST, SourcePosition Position) {
-    super (Position);
+  public FloatExpr(FloatLiteral flAST, long start, long finish) {
+    super (start, finish);
     FL = flAST;
     FL.parent = this;
   }
@@ -20,4 +18,8 @@ public class FloatExpr extends Expr {
     return v.visitFloatExpr(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitFloatExpr(this, arg);
+  }
+
 }
@@ -4,16 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class FloatLiteral extends Terminal {
 
-  public FloatLiteral (String value, SourcePosition position) {
-    super (value, position);
+  public FloatLiteral (String value, long start, long finish) {
+    super (value, start, finish);
   }
 
   public Object visit(Visitor v, Object o) {
     return v.visitFloatLiteral(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitFloatLiteral(this, arg);
+  }
+
 }
@@ -4,31 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class FloatType extends Type {
 
-  public FloatType (SourcePosition Position) {
-    super (Position);
+  public FloatType (long start, long finish) {
+    super (start, finish, FLOAT);
   }
 
   public Object visit (Visitor v, Object o) {
     return v.visitFloatType(this, o);
   }
 
-  public boolean equals(Object obj) {
-    if (obj != null && obj instanceof ErrorType)
-      return true;
-    else    
-      return (obj != null && obj instanceof FloatType);
-  }
-
-  public boolean assignable(Object obj) {
-    if (obj != null && obj instanceof ErrorType)
-      return true;
-    else    
-      return (obj != null && (obj instanceof IntType
-	     || obj instanceof FloatType));
+  public <R, A> R visit (GenericVisitor<R, A> v, A arg) {
+    return v.visitFloatType(this, arg);
   }
 
   public String toString() {
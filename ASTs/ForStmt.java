@@ -1,7 +1,5 @@
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class ForStmt extends Stmt {
 
   public Expr E1;
@@ -10,8 +8,8 @@ public class ForStmt extends Stmt {
   public Stmt S;
 
   public ForStmt(Expr e1AST, Expr e2AST, Expr e3AST, Stmt sAST,
-                                              SourcePosition Position) {
-    super (Position);
+                                              long start, long finish) {
+    super (start, finish);
     E1 = e1AST;
     E2 = e2AST;
     E3 = e3AST;
@@ -21,4 +19,8 @@ public class ForStmt extends Stmt {
   public Object visit(Visitor v, Object o) {
     return v.visitForStmt(this, o);
   }
+
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitForStmt(this, arg);
+  }
 }
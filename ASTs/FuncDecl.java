@@ -4,8 +4,6 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class FuncDecl extends Decl {
 
   public List PL;
@@ -13,9 +11,15 @@ public class FuncDecl extends Decl {
 
   public AST entryNode;
 
+  // A hash of the tokens of the declaration, with their lines counted
+  // from its first line, set by the parser (see TokenBuffer.shape);
+  // 0 if not known. The Checker takes two declarations of the same
+  // shape to be the same but for their lines.
+  public long shape;
+
   public FuncDecl(Type tAST, Ident idAST, List fplAST, 
-         Stmt cAST, SourcePosition Position) {
-    super (Position);
+         Stmt cAST, long start, long finish) {
+    super (start, finish);
     T = tAST;
     I = idAST;
     PL = fplAST;
@@ -27,4 +31,8 @@ public class FuncDecl extends Decl {
     return v.visitFuncDecl(this, o);
   }
 
+  public <R, A> R visit (GenericVisitor<R, A> v, A arg) {
+    return v.visitFuncDecl(this, arg);
+  }
+
 }
@@ -4,14 +4,12 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class GlobalVarDecl extends Decl {
 
   public Expr E;
 
-  public GlobalVarDecl(Type tAST, Ident iAST, Expr eAST, SourcePosition position) {
-    super (position);
+  public GlobalVarDecl(Type tAST, Ident iAST, Expr eAST, long start, long finish) {
+    super (start, finish);
     T = tAST;
     I = iAST;
     E = eAST;
@@ -22,4 +20,8 @@ public class GlobalVarDecl extends Decl {
     return v.visitGlobalVarDecl(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitGlobalVarDecl(this, arg);
+  }
+
 }
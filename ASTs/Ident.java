@@ -4,14 +4,12 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class Ident extends Terminal {
 
   public AST decl; 
 
-  public Ident(String value , SourcePosition position) {
-    super (value, position);
+  public Ident(String value , long start, long finish) {
+    super (value, start, finish);
     decl = null;
   }
 
@@ -19,4 +17,8 @@ public class Ident extends Terminal {
     return v.visitIdent(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitIdent(this, arg);
+  }
+
 }
@@ -4,8 +4,6 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class IfStmt extends Stmt {
 
   public Expr E;
@@ -15,16 +13,16 @@ public class IfStmt extends Stmt {
   // The two fields below are not used for this year's assignments
   public AST trueSuccessor, falseSuccessor;
 
-  public IfStmt(Expr eAST, Stmt sAST, SourcePosition position) {
-    super (position);
+  public IfStmt(Expr eAST, Stmt sAST, long start, long finish) {
+    super (start, finish);
     E = eAST;
     S1 = sAST;
-    S2 = new EmptyStmt(new SourcePosition());
+    S2 = new EmptyStmt(0, 0);
     E.parent = S1.parent = S2.parent = this;
   }
 
-  public IfStmt(Expr eAST, Stmt s1AST, Stmt s2AST, SourcePosition Position) {
-    super (Position);
+  public IfStmt(Expr eAST, Stmt s1AST, Stmt s2AST, long start, long finish) {
+    super (start, finish);
     E = eAST;
     S1 = s1AST;
     S2 = s2AST;
@@ -35,4 +33,8 @@ public class IfStmt extends Stmt {
     return v.visitIfStmt(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitIfStmt(this, arg);
+  }
+
 }
@@ -4,14 +4,12 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class InitExpr extends Expr {
 
   public List IL;
 
-  public InitExpr (List ilAST, SourcePosition position) {
-    super (position);
+  public InitExpr (List ilAST, long start, long finish) {
+    super (start, finish);
     IL = ilAST;
     IL.parent = this;
   }
@@ -20,4 +18,8 @@ public class InitExpr extends Expr {
     return v.visitInitExpr(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitInitExpr(this, arg);
+  }
+
 }
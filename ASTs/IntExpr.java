@@ -4,14 +4,12 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class IntExpr extends Expr {
 
   public IntLiteral IL;
 
-  public IntExpr(IntLiteral ilAST, SourcePosition Position) {
-    super (Position);
+  public IntExpr(IntLiteral ilAST, long start, long finish) {
+    super (start, finish);
     IL = ilAST;
     IL.parent = this;
   }
@@ -20,4 +18,8 @@ public class IntExpr extends Expr {
     return v.visitIntExpr(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitIntExpr(this, arg);
+  }
+
 }
@@ -4,16 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class IntLiteral extends Terminal {
 
-  public IntLiteral (String value, SourcePosition position) {
-    super (value, position);
+  public IntLiteral (String value, long start, long finish) {
+    super (value, start, finish);
   }
 
   public Object visit(Visitor v, Object o) {
     return v.visitIntLiteral(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitIntLiteral(this, arg);
+  }
+
 }
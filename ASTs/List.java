@@ -5,12 +5,10 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public abstract class List extends AST {
 
-  public List (SourcePosition position) {
-    super (position);
+  public List (long start, long finish) {
+    super (start, finish);
   }
 
 
@@ -0,0 +1,48 @@
+/*
+ * ListArray.java
+ */
+
+package VC.ASTs;
+
+// A list of one element or more kept in an array, as the parser builds
+// it, instead of as a chain of cons cells ending in an Empty*List. The
+// chain it stands for is made by cells(), with the positions its cells
+// had, whenever a Visitor visits it: the printer, unparser and drawer
+// walk that chain as they always have, and the elements are children
+// of its cells only while they do. A GenericVisitor visits the array.
+
+public abstract class ListArray extends List {
+
+  // Where each cell of the chain starts and finishes (see
+  // SourcePosition.point). The list is where its first cell is.
+  public long[] starts, finishes;
+
+  public ListArray(long[] starts, long[] finishes) {
+    super (starts[0], finishes[0]);
+    this.starts = starts;
+    this.finishes = finishes;
+  }
+
+  public int size() {
+    return starts.length;
+  }
+
+  public abstract AST get(int i);
+
+  // The chain of cons cells the list stands for. Its first cell takes
+  // the place of the list under the list's parent.
+
+  public abstract List cells();
+
+  public Object visit(Visitor v, Object o) {
+    List cells = cells();
+    cells.parent = parent;
+    try {
+      return cells.visit(v, o);
+    } finally {
+      for (int i = 0; i < size(); i++)
+        get(i).parent = this;
+    }
+  }
+
+}
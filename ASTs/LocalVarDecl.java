@@ -4,14 +4,12 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class LocalVarDecl extends Decl {
 
   public Expr E;
 
-  public LocalVarDecl(Type tAST, Ident iAST, Expr eAST, SourcePosition position) {
-    super (position);
+  public LocalVarDecl(Type tAST, Ident iAST, Expr eAST, long start, long finish) {
+    super (start, finish);
     T = tAST;
     I = iAST;
     E = eAST;
@@ -22,4 +20,8 @@ public class LocalVarDecl extends Decl {
     return v.visitLocalVarDecl(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitLocalVarDecl(this, arg);
+  }
+
 }
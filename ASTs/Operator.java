@@ -4,16 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class Operator extends Terminal {
 
-  public Operator (String value, SourcePosition position) {
-    super (value, position);
+  public Operator (String value, long start, long finish) {
+    super (value, start, finish);
   }
 
   public Object visit(Visitor v, Object o) {
     return v.visitOperator(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitOperator(this, arg);
+  }
+
 }
@@ -0,0 +1,33 @@
+/*
+ * ParaArray.java
+ */
+
+package VC.ASTs;
+
+public class ParaArray extends ListArray {
+
+  public ParaDecl[] P;
+
+  public ParaArray(ParaDecl[] pAST, long[] starts, long[] finishes) {
+    super (starts, finishes);
+    P = pAST;
+    for (ParaDecl element : P)
+      element.parent = this;
+  }
+
+  public AST get(int i) {
+    return P[i];
+  }
+
+  public List cells() {
+    List list = new EmptyParaList(0, 0);
+    for (int i = P.length - 1; i >= 0; i--)
+      list = new ParaList(P[i], list, starts[i], finishes[i]);
+    return list;
+  }
+
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitParaArray(this, arg);
+  }
+
+}
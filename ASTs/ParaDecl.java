@@ -4,12 +4,10 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class ParaDecl extends Decl {
 
-  public ParaDecl (Type tAST, Ident idAST, SourcePosition position) {
-    super (position);
+  public ParaDecl (Type tAST, Ident idAST, long start, long finish) {
+    super (start, finish);
     T = tAST;
     I = idAST;
     T.parent = I.parent = this;
@@ -19,4 +17,8 @@ public class ParaDecl extends Decl {
     return v.visitParaDecl(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitParaDecl(this, arg);
+  }
+
 }
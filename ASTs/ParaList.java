@@ -4,15 +4,13 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class ParaList extends List {
   public ParaDecl P;
   public List PL;
 
   public ParaList(ParaDecl pAST, List plAST,
-                                   SourcePosition thePosition) {
-    super (thePosition);
+                                   long start, long finish) {
+    super (start, finish);
     P = pAST;
     PL = plAST;
     P.parent = PL.parent = this;
@@ -22,4 +20,10 @@ public class ParaList extends List {
     return v.visitParaList(this, o);
   }
 
+  // Cells are made only by ParaArray.cells(), for a Visitor.
+
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    throw new UnsupportedOperationException("ParaList visited by a GenericVisitor");
+  }
+
 }
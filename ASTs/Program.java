@@ -4,14 +4,12 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class Program extends AST {
 
   public List FL;
 
-  public Program (List dlAST, SourcePosition position) {
-    super (position);
+  public Program (List dlAST, long start, long finish) {
+    super (start, finish);
     FL = dlAST;
     FL.parent = this;
   }
@@ -20,4 +18,8 @@ public class Program extends AST {
     return v.visitProgram(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitProgram(this, arg);
+  }
+
 }
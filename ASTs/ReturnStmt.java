@@ -4,14 +4,12 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class ReturnStmt extends Stmt {
 
   public Expr E;
 
-  public ReturnStmt(Expr eAST, SourcePosition Position) {
-    super (Position);
+  public ReturnStmt(Expr eAST, long start, long finish) {
+    super (start, finish);
     E = eAST;
     E.parent = this;
   }
@@ -20,4 +18,8 @@ public class ReturnStmt extends Stmt {
     return v.visitReturnStmt(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitReturnStmt(this, arg);
+  }
+
 }
@@ -4,14 +4,12 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class SimpleVar extends Var {
 
   public Ident I;
 
-  public SimpleVar(Ident idAST, SourcePosition thePosition) {
-    super (thePosition);
+  public SimpleVar(Ident idAST, long start, long finish) {
+    super (start, finish);
     I = idAST;
     I.parent = this;
   }
@@ -20,4 +18,8 @@ public class SimpleVar extends Var {
     return v.visitSimpleVar(this, o);
   }
 
+  public <R, A> R visit (GenericVisitor<R, A> v, A arg) {
+    return v.visitSimpleVar(this, arg);
+  }
+
 }
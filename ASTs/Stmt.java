@@ -4,12 +4,10 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public abstract class Stmt extends AST {
 
-  public Stmt (SourcePosition Position) {
-    super (Position);
+  public Stmt (long start, long finish) {
+    super (start, finish);
   }
 
   // The following methods will be used in Assignments 4 and 5.
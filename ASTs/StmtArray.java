@@ -0,0 +1,33 @@
+/*
+ * StmtArray.java
+ */
+
+package VC.ASTs;
+
+public class StmtArray extends ListArray {
+
+  public Stmt[] S;
+
+  public StmtArray(Stmt[] sAST, long[] starts, long[] finishes) {
+    super (starts, finishes);
+    S = sAST;
+    for (Stmt element : S)
+      element.parent = this;
+  }
+
+  public AST get(int i) {
+    return S[i];
+  }
+
+  public List cells() {
+    List list = new EmptyStmtList(0, 0);
+    for (int i = S.length - 1; i >= 0; i--)
+      list = new StmtList(S[i], list, starts[i], finishes[i]);
+    return list;
+  }
+
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitStmtArray(this, arg);
+  }
+
+}
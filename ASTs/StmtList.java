@@ -4,15 +4,13 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class StmtList extends List {
 
   public Stmt S;
   public List SL;
 
-  public StmtList(Stmt sAST, List slAST, SourcePosition Position) {
-    super (Position);
+  public StmtList(Stmt sAST, List slAST, long start, long finish) {
+    super (start, finish);
     S = sAST;
     SL = slAST;
     S.parent = SL.parent = this;
@@ -22,4 +20,10 @@ public class StmtList extends List {
     return v.visitStmtList(this, o);
   }
 
+  // Cells are made only by StmtArray.cells(), for a Visitor.
+
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    throw new UnsupportedOperationException("StmtList visited by a GenericVisitor");
+  }
+
 }
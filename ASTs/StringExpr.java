@@ -5,14 +5,12 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class StringExpr extends Expr {
 
   public StringLiteral SL;
 
-  public StringExpr(StringLiteral slAST, SourcePosition position) {
-    super (position);
+  public StringExpr(StringLiteral slAST, long start, long finish) {
+    super (start, finish);
     SL = slAST;
     SL.parent = this;
   }
@@ -21,4 +19,8 @@ public class StringExpr extends Expr {
     return v.visitStringExpr(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitStringExpr(this, arg);
+  }
+
 }
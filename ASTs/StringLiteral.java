@@ -4,16 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class StringLiteral extends Terminal {
 
-  public StringLiteral (String value, SourcePosition position) {
-    super (value, position);
+  public StringLiteral (String value, long start, long finish) {
+    super (value, start, finish);
   }
 
   public Object visit(Visitor v, Object o) {
     return v.visitStringLiteral(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitStringLiteral(this, arg);
+  }
+
 }
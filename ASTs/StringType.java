@@ -4,31 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class StringType extends Type {
 
-  public StringType (SourcePosition Position) {
-    super (Position);
+  public StringType (long start, long finish) {
+    super (start, finish, STRING);
   }
 
   public Object visit (Visitor v, Object o) {
     return v.visitStringType(this, o);
   }
 
-  public boolean equals(Object obj) {
-    if (obj != null && obj instanceof ErrorType)
-      return true;
-    else    
-      return (obj != null && obj instanceof StringType);
-  }
-
-  // not used this year
-  public boolean assignable(Object obj) {
-    if (obj != null && obj instanceof ErrorType)
-      return true;
-    else    
-      return (obj != null && obj instanceof StringType);
+  public <R, A> R visit (GenericVisitor<R, A> v, A arg) {
+    return v.visitStringType(this, arg);
   }
 
   public String toString() {
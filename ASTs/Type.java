@@ -4,50 +4,82 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public abstract class Type extends AST {
 
-  public Type(SourcePosition Position) {
-    super (Position);
+  // Every kind of type has a tag, so that types are told apart by a
+  // switch on it rather than by instanceof or a virtual call.
+  public static final int VOID = 0, BOOLEAN = 1, INT = 2, FLOAT = 3,
+                          STRING = 4, ARRAY = 5, ERROR = 6;
+
+  public final int tag;
+
+  public Type(long start, long finish, int tag) {
+    super (start, finish);
+    this.tag = tag;
   }
 
   // The following methods will be used in Assignments 4 and 5.
+  // The types the checker gives to expressions are the canonical ones
+  // of StdEnvironment, which are the same object exactly when they are
+  // the same type; the tags make these methods work on any Type.
 
   // if obj and "this" are of the same type
-  public abstract boolean equals(Object obj);
+  public final boolean equals(Object obj) {
+    switch (tag) {
+    case ERROR:
+      return true;
+    case ARRAY:
+      return false; // An array name cannot appear alone in VC.
+                    // For example, a = b is not allowed if a and b are
+                    // array names. Thus, this method should never be called
+    default:
+      if (obj == this)
+        return true;
+      if (!(obj instanceof Type))
+        return false;
+      int other = ((Type) obj).tag;
+      return other == tag || other == ERROR;
+    }
+  }
 
   //  In v = e, let "this" be the type of v and obj be the type of e. 
   //  returns true if obj is assignment compatible with "this" and
   //  false otherwise.
-  public abstract boolean assignable(Object obj);
+  //  a = b is not a legal assignment in VC when a and b are arrays
+  //  But an array can be passed as an argument in a function call. So 
+  //  you need to handle this as a special case without relying on this method!
+  public final boolean assignable(Object obj) {
+    if (tag == FLOAT && obj instanceof Type && ((Type) obj).tag == INT)
+      return true;
+    return equals(obj);
+  }
 
   public boolean isVoidType() {
-    return (this instanceof VoidType);
+    return tag == VOID;
   }
 
   public boolean isIntType() {
-    return (this instanceof IntType);
+    return tag == INT;
   }
 
   public boolean isFloatType() {
-    return (this instanceof FloatType);
+    return tag == FLOAT;
   }
 
   public boolean isStringType() {
-    return (this instanceof StringType);
+    return tag == STRING;
   }
 
   public boolean isBooleanType() {
-    return (this instanceof BooleanType);
+    return tag == BOOLEAN;
   }
 
   public boolean isArrayType() {
-    return (this instanceof ArrayType);
+    return tag == ARRAY;
   }
 
   public boolean isErrorType() {
-    return (this instanceof ErrorType);
+    return tag == ERROR;
   }
 
 }
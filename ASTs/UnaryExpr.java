@@ -4,15 +4,13 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class UnaryExpr extends Expr {
 
   public Operator O;
   public Expr E;
 
-  public UnaryExpr(Operator oAST, Expr eAST, SourcePosition Position) {
-    super (Position);
+  public UnaryExpr(Operator oAST, Expr eAST, long start, long finish) {
+    super (start, finish);
     O = oAST;
     E = eAST;
     O.parent = E.parent = this;
@@ -22,4 +20,8 @@ public class UnaryExpr extends Expr {
     return v.visitUnaryExpr(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitUnaryExpr(this, arg);
+  }
+
 }
@@ -4,14 +4,12 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class VarExpr extends Expr {
 
   public Var V;
 
-  public VarExpr (Var vAST, SourcePosition position) {
-    super (position);
+  public VarExpr (Var vAST, long start, long finish) {
+    super (start, finish);
     V = vAST;
     V.parent = this;
   }
@@ -20,4 +18,8 @@ public class VarExpr extends Expr {
     return v.visitVarExpr(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitVarExpr(this, arg);
+  }
+
 }
@@ -4,28 +4,18 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
-
 public class VoidType extends Type {
 
-  public VoidType (SourcePosition Position) {
-    super (Position);
+  public VoidType (long start, long finish) {
+    super (start, finish, VOID);
   }
 
   public Object visit (Visitor v, Object o) {
     return v.visitVoidType(this, o);
   }
 
-  public boolean equals(Object obj) {
-    if (obj != null && obj instanceof ErrorType)
-      return true;
-    else    
-      return (obj != null && obj instanceof VoidType);
-  }
-
-  // not used this year
-  public boolean assignable(Object obj) {
-    return equals(obj);
+  public <R, A> R visit (GenericVisitor<R, A> v, A arg) {
+    return v.visitVoidType(this, arg);
   }
 
   public String toString() {
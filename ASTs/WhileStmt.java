@@ -4,7 +4,6 @@
 
 package VC.ASTs;
 
-import VC.Scanner.SourcePosition;
 import java.util.LinkedList;
 
 public class WhileStmt extends Stmt {
@@ -16,8 +15,8 @@ public class WhileStmt extends Stmt {
   // The two fields below are not used for this year's assignments
   public AST trueSuccessor, falseSuccessor;
 
-  public WhileStmt (Expr eAST, Stmt sAST, SourcePosition Position) {
-    super (Position);
+  public WhileStmt (Expr eAST, Stmt sAST, long start, long finish) {
+    super (start, finish);
     E = eAST;
     S = sAST;
     E.parent = S.parent = this;
@@ -27,4 +26,8 @@ public class WhileStmt extends Stmt {
     return v.visitWhileStmt(this, o);
   }
 
+  public <R, A> R visit(GenericVisitor<R, A> v, A arg) {
+    return v.visitWhileStmt(this, arg);
+  }
+
 }
@@ -0,0 +1,105 @@
+/*
+ * VisitorBenchmark.java
+ *
+ * Times the two passes that walk the whole AST with a GenericVisitor,
+ * the Checker and the Emitter, over a synthetic program of 400
+ * functions of 60 statements each (about 24,800 lines):
+ *
+ *   java VC.Bench.VisitorBenchmark [runs [file.vc]]
+ *
+ * Each run parses a fresh copy of the program before it starts timing,
+ * since the Checker decorates the AST it checks. The first half of the
+ * runs warm the JIT up; the median and the minimum of the second half
+ * are printed. The program is written to file.vc, by default a
+ * temporary file, and the Emitter writes its code next to it.
+ */
+
+package VC.Bench;
+
+import VC.CompilationContext;
+import VC.ErrorReporter;
+import VC.ASTs.AST;
+import VC.Checker.Checker;
+import VC.CodeGen.Emitter;
+import VC.Parser.Parser;
+import VC.Scanner.Scanner;
+import VC.Scanner.SourceFile;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+public final class VisitorBenchmark {
+
+	private static final int FUNCTIONS = 400, STATEMENTS = 60;
+
+	public static void main(String[] args) throws IOException {
+		int runs = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+		File file;
+		if (args.length > 1)
+			file = new File(args[1]);
+		else {
+			file = File.createTempFile("bench", ".vc");
+			file.deleteOnExit();
+		}
+		writeProgram(file);
+
+		ErrorReporter reporter = new ErrorReporter();
+		long[] check = new long[runs], emit = new long[runs];
+		for (int i = 0; i < runs; i++) {
+			AST ast = new Parser(new Scanner(new SourceFile(file.getPath()), reporter), reporter)
+					.parseProgram();
+			if (reporter.numErrors != 0)
+				throw new IllegalStateException("the synthetic program does not parse");
+			CompilationContext context = new CompilationContext(reporter);
+			System.gc();
+			long start = System.nanoTime();
+			new Checker(context).check(ast);
+			long checked = System.nanoTime();
+			new Emitter(file.getPath(), context).gen(ast);
+			long emitted = System.nanoTime();
+			check[i] = checked - start;
+			emit[i] = emitted - checked;
+		}
+		reporter.flush();
+		new File(file.getPath().replaceAll("\\.vc$", ".j")).delete();
+
+		System.out.println("runs: " + runs + ", errors: " + reporter.numErrors);
+		System.out.println("check: " + summary(check));
+		System.out.println("emit:  " + summary(emit));
+	}
+
+	// the median and the minimum of the second half of the times
+	private static String summary(long[] times) {
+		int half = times.length / 2;
+		Arrays.sort(times, half, times.length);
+		return "median " + millis(times[half + (times.length - half) / 2])
+				+ ", min " + millis(times[half]);
+	}
+
+	private static String millis(long nanos) {
+		return String.format("%.1f ms", nanos / 1e6);
+	}
+
+	// Each function mixes the arithmetic, relational and logical
+	// operators, so that every kind of expression node is visited.
+
+	private static void writeProgram(File file) throws IOException {
+		Writer out = new FileWriter(file);
+		try {
+			out.write("int g;\n");
+			for (int f = 0; f < FUNCTIONS; f++) {
+				out.write("int f" + f + "(int a, int b) { int x; int y; x = a; y = b;\n");
+				for (int s = 0; s < STATEMENTS; s++)
+					out.write("  x = (x + y * " + s + ") - (a / (b + 1)); "
+							+ "if (x > y && y >= 0 || !(x == a)) y = y + 1; else y = y - x;\n");
+				out.write("  return x + y; }\n");
+			}
+			out.write("int main() { putIntLn(f0(1,2)); return 0; }\n");
+		} finally {
+			out.close();
+		}
+	}
+
+}
@@ -5,11 +5,12 @@
 
 package VC.Checker;
 
+import VC.CompilationContext;
 import VC.ErrorReporter;
 import VC.StdEnvironment;
 import VC.ASTs.AST;
 import VC.ASTs.Arg;
-import VC.ASTs.ArgList;
+import VC.ASTs.ArgArray;
 import VC.ASTs.ArrayExpr;
 import VC.ASTs.ArrayType;
 import VC.ASTs.AssignExpr;
@@ -22,7 +23,7 @@ import VC.ASTs.CallExpr;
 import VC.ASTs.CompoundStmt;
 import VC.ASTs.ContinueStmt;
 import VC.ASTs.Decl;
-import VC.ASTs.DeclList;
+import VC.ASTs.DeclArray;
 import VC.ASTs.EmptyArgList;
 import VC.ASTs.EmptyCompStmt;
 import VC.ASTs.EmptyDeclList;
@@ -33,13 +34,14 @@ import VC.ASTs.EmptyStmt;
 import VC.ASTs.EmptyStmtList;
 import VC.ASTs.ErrorType;
 import VC.ASTs.Expr;
-import VC.ASTs.ExprList;
+import VC.ASTs.ExprArray;
 import VC.ASTs.ExprStmt;
 import VC.ASTs.FloatExpr;
 import VC.ASTs.FloatLiteral;
 import VC.ASTs.FloatType;
 import VC.ASTs.ForStmt;
 import VC.ASTs.FuncDecl;
+import VC.ASTs.GenericVisitor;
 import VC.ASTs.GlobalVarDecl;
 import VC.ASTs.Ident;
 import VC.ASTs.IfStmt;
@@ -50,12 +52,13 @@ import VC.ASTs.IntType;
 import VC.ASTs.List;
 import VC.ASTs.LocalVarDecl;
 import VC.ASTs.Operator;
+import VC.ASTs.ParaArray;
 import VC.ASTs.ParaDecl;
-import VC.ASTs.ParaList;
 import VC.ASTs.Program;
 import VC.ASTs.ReturnStmt;
 import VC.ASTs.SimpleVar;
-import VC.ASTs.StmtList;
+import VC.ASTs.Stmt;
+import VC.ASTs.StmtArray;
 import VC.ASTs.StringExpr;
 import VC.ASTs.StringLiteral;
 import VC.ASTs.StringType;
@@ -63,12 +66,16 @@ import VC.ASTs.Type;
 import VC.ASTs.UnaryExpr;
 import VC.ASTs.Var;
 import VC.ASTs.VarExpr;
-import VC.ASTs.Visitor;
 import VC.ASTs.VoidType;
 import VC.ASTs.WhileStmt;
 import VC.Scanner.SourcePosition;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
-public final class Checker implements Visitor {
+public final class Checker implements GenericVisitor<Type, AST> {
 
 	private String errMesg[] = {
 			"*0: main function is missing",                            
@@ -132,8 +139,12 @@ public final class Checker implements Visitor {
 
 
 	private SymbolTable idTable;
-	private static SourcePosition dummyPos = new SourcePosition();
 	private ErrorReporter reporter;
+	private StdEnvironment std;
+	private boolean checkingInParallel = false;
+	private HashMap<String, CheckedFunc> checkedFuncs; // if checking incrementally
+	private int numBodiesChecked = 0;
+	private ArrayList<Ident> globalIdents; // see bind
 
 	// Checks whether the source program, represented by its AST, 
 	// satisfies the language's scope rules and type rules.
@@ -142,13 +153,54 @@ public final class Checker implements Visitor {
 	//      the corresponding declaration of that identifier.
 	//  (2) Each expression and variable is decorated by its type.
 
-	public Checker (ErrorReporter reporter) {
-		this.reporter = reporter;
+	public Checker (CompilationContext context) {
+		this.reporter = context.reporter;
+		this.std = context.std;
 		this.idTable = new SymbolTable ();
 		establishStdEnvironment();
 	}
 
+	public Checker (ErrorReporter reporter) {
+		this(new CompilationContext(reporter));
+	}
+
+	// A Checker for the body of one function; see checkByDeclaration.
+
+	private Checker (StdEnvironment std, SymbolTable idTable, ErrorReporter reporter) {
+		this.reporter = reporter;
+		this.std = std;
+		this.idTable = idTable;
+	}
+
+	// Checks the bodies of the functions in parallel once the global
+	// declarations and the function headers have been checked.
+
+	public void enableParallelChecking() {
+		checkingInParallel = true;
+	}
+
+	// Keeps what each check finds out about every function, so that the
+	// next check of a new version of the program can reuse the decorated
+	// AST and the errors of each function whose declaration is unchanged
+	// but for its lines and which finds the same global declarations as
+	// before, instead of checking its body again.
+
+	public void enableIncrementalChecking() {
+		checkedFuncs = new HashMap<String, CheckedFunc>();
+	}
+
+	// The number of function bodies checked by the last check; the
+	// others were reused.
+
+	public int numBodiesChecked() {
+		return numBodiesChecked;
+	}
+
 	public void check(AST ast) {
+		if (checkedFuncs != null) {
+			idTable = new SymbolTable();
+			establishStdEnvironment();
+		}
 		ast.visit(this, null);
 	}
 
@@ -162,72 +214,88 @@ public final class Checker implements Visitor {
 		if (entry == null) {
 			; // no problem
 		} else
-			reporter.reportError(errMesg[2] + ": %", ident.spelling, ident.position);
+			reporter.reportError(errMesg[2] + ": %", ident.spelling, ident.start, ident.finish);
 		idTable.insert(ident.spelling, decl);
 	}
 
 
 	// Programs
 
-	public Object visitProgram(Program ast, Object o) {
-		ast.FL.visit(this, null);
+	public Type visitProgram(Program ast, AST o) {
+		if (checkingInParallel || checkedFuncs != null)
+			checkByDeclaration(ast.FL);
+		else
+			ast.FL.visit(this, null);
 		
 		Decl mainDecl = idTable.retrieve("main");
 		if (mainDecl == null) {
-				reporter.reportError(errMesg[0], "", ast.position);
+				reporter.reportError(errMesg[0], "", ast.start, ast.finish);
 		} else if (!mainDecl.isFuncDecl()) {
-				reporter.reportError(errMesg[0], "", ast.position);
+				reporter.reportError(errMesg[0], "", ast.start, ast.finish);
 		} else if (!mainDecl.T.isIntType()) {
-				reporter.reportError(errMesg[1], "", ast.position);
+				reporter.reportError(errMesg[1], "", ast.start, ast.finish);
 		}
 		return null;
 	}
 
 	// Statements
 
-	public Object visitCompoundStmt(CompoundStmt ast, Object o) {
-		Object retPresent;
-
+	public Type visitCompoundStmt(CompoundStmt ast, AST o) {
 		if (!(ast.parent instanceof FuncDecl)) {
 			idTable.openScope();
 		}
 		ast.DL.visit(this, o);
-		retPresent = ast.SL.visit(this, o);
-		idTable.closeScope();
+		ast.SL.visit(this, o);
+		// the scope of a function body is closed by checkFunctionBody
+		if (!(ast.parent instanceof FuncDecl)) {
+			idTable.closeScope();
+		}
 		
-		return retPresent;
+		return null;
 	}
 
-	public Object visitStmtList(StmtList ast, Object o) {
-		Object retPresent = false;
-		ast.S.visit(this, o);
-		if (ast.S instanceof ReturnStmt) {
-			retPresent = true;
-			if (ast.SL instanceof StmtList) {
-				reporter.reportError(errMesg[30], "", ast.SL.position);
-			} 
-		}
-		
-		if (!((Boolean) retPresent)) {
-			retPresent = ast.SL.visit(this, o);
-		} else {
-			ast.SL.visit(this, o);
+	// A statement after a return is reported where the rest of the
+	// list starts and finishes.
+
+	public Type visitStmtArray(StmtArray ast, AST o) {
+		for (int i = 0; i < ast.S.length; i++) {
+			ast.S[i].visit(this, o);
+			if (ast.S[i] instanceof ReturnStmt) {
+				if (i + 1 < ast.S.length) {
+					reporter.reportError(errMesg[30], "", ast.starts[i + 1], ast.finishes[i + 1]);
+				} 
+			}
 		}
-		return retPresent;
+		return null;
 	}
 
+	// Whether one of the statements directly in the body of a function
+	// is a return statement.
 
-	public Object visitExprStmt(ExprStmt ast, Object o) {
+	private boolean hasReturn(Stmt body) {
+		if (!(body instanceof CompoundStmt))
+			return false;
+		List list = ((CompoundStmt) body).SL;
+		if (!(list instanceof StmtArray))
+			return false;
+		for (Stmt stmt : ((StmtArray) list).S)
+			if (stmt instanceof ReturnStmt)
+				return true;
+		return false;
+	}
+
+
+	public Type visitExprStmt(ExprStmt ast, AST o) {
 		ast.E.visit(this, o);
 		return null;
 	}
 
-	public Object visitEmptyStmt(EmptyStmt ast, Object o) {
+	public Type visitEmptyStmt(EmptyStmt ast, AST o) {
 		return null;
 	}
 
-	public Object visitEmptyStmtList(EmptyStmtList ast, Object o) {
-		return false;
+	public Type visitEmptyStmtList(EmptyStmtList ast, AST o) {
+		return null;
 	}
 
 	// Expressions
@@ -236,35 +304,35 @@ public final class Checker implements Visitor {
 	// not use the given object.
 
 
-	public Object visitEmptyExpr(EmptyExpr ast, Object o) {
-		ast.type = StdEnvironment.errorType;
+	public Type visitEmptyExpr(EmptyExpr ast, AST o) {
+		ast.type = std.errorType;
 		return ast.type;
 	}
 
-	public Object visitBooleanExpr(BooleanExpr ast, Object o) {
-		ast.type = StdEnvironment.booleanType;
+	public Type visitBooleanExpr(BooleanExpr ast, AST o) {
+		ast.type = std.booleanType;
 		return ast.type;
 	}
 
-	public Object visitIntExpr(IntExpr ast, Object o) {
-		ast.type = StdEnvironment.intType;
+	public Type visitIntExpr(IntExpr ast, AST o) {
+		ast.type = std.intType;
 		return ast.type;
 	}
 
-	public Object visitFloatExpr(FloatExpr ast, Object o) {
-		ast.type = StdEnvironment.floatType;
+	public Type visitFloatExpr(FloatExpr ast, AST o) {
+		ast.type = std.floatType;
 		return ast.type;
 	}
 
-	public Object visitStringExpr(StringExpr ast, Object o) {
-		ast.type = StdEnvironment.stringType;
+	public Type visitStringExpr(StringExpr ast, AST o) {
+		ast.type = std.stringType;
 		return ast.type;
 	}
 
-	public Object visitVarExpr(VarExpr ast, Object o) {
-		ast.type = (Type) ast.V.visit(this, null);
+	public Type visitVarExpr(VarExpr ast, AST o) {
+		ast.type = ast.V.visit(this, null);
 		if (ast.type == null) {
-			ast.type = StdEnvironment.errorType;
+			ast.type = std.errorType;
 		}
 		return ast.type;
 	}
@@ -273,38 +341,232 @@ public final class Checker implements Visitor {
 
 	// Always returns null. Does not use the given object.
 
-	public Object visitFuncDecl(FuncDecl ast, Object o) {
+	public Type visitFuncDecl(FuncDecl ast, AST o) {
 		declareVariable(ast.I, ast);
 		//idTable.insert (ast.I.spelling, ast); 
 
 		// Your code goes here
 		ast.I.visit(this, null);
 
+		checkFunctionBody(ast);
+
+		return null;
+	}
+
+	private void checkFunctionBody(FuncDecl ast) {
 		idTable.openScope();
 		ast.PL.visit(this, ast);
 		// HINT
 		// Pass ast as the 2nd argument (as done below) so that the
 		// formal parameters of the function an be extracted from ast when the
 		// function body is later visited
-		Object retPresent;
-		retPresent = ast.S.visit(this, ast);
-		if (retPresent instanceof Boolean) {
-			if (!ast.T.isVoidType() && !((Boolean) retPresent).booleanValue()) {
-					reporter.reportError(errMesg[31] + "", null, ast.position);
-			}
+		ast.S.visit(this, ast);
+		if (!ast.T.isVoidType() && !hasReturn(ast.S)) {
+				reporter.reportError(errMesg[31] + "", null, ast.start, ast.finish);
 		}
 		idTable.closeScope();
+	}
 
-		return null;
+	// A function as checked by checkByDeclaration.
+
+	private static final class CheckedFunc {
+		FuncDecl decl;
+		int mark; // of the global table after decl was entered
+		DeferredReporter errors = new DeferredReporter(); // of its body
+
+		// If checking incrementally, the signatures of the global
+		// declarations its body looked up by name (the empty string if
+		// there was none), and the identifiers bound to them.
+		HashMap<String, String> dependencies;
+		ArrayList<Ident> globalIdents;
+
+		CheckedFunc(FuncDecl decl) {
+			this.decl = decl;
+		}
 	}
 
-	public Object visitDeclList(DeclList ast, Object o) {
-		ast.D.visit(this, null);
-		ast.DL.visit(this, null);
+	// The top-level declarations are first checked in order, except for
+	// the function bodies, which only need the global table as it was
+	// after their function was declared. The bodies are then checked,
+	// on the common fork-join pool if checking in parallel, each by a
+	// Checker with its own table layered over the global one, which no
+	// longer changes. The errors of each declaration and body are kept
+	// apart and reported in order at the end, as they would have been
+	// by checking the declarations one by one.
+	//
+	// If checking incrementally, the body of a function is not checked
+	// if it can be reused from the last check; the reused FuncDecl,
+	// moved to the new lines, takes the place of the new one.
+
+	private void checkByDeclaration(List decls) {
+		ErrorReporter out = reporter;
+		ArrayList<DeferredReporter> units = new ArrayList<DeferredReporter>();
+		ArrayList<CheckedFunc> bodies = new ArrayList<CheckedFunc>();
+		HashMap<String, CheckedFunc> checked = new HashMap<String, CheckedFunc>();
+
+		DeferredReporter unit = null;
+		Decl[] list = decls instanceof DeclArray ? ((DeclArray) decls).D : new Decl[0];
+		for (int i = 0; i < list.length; i++) {
+			if (unit == null) {
+				unit = new DeferredReporter();
+				units.add(unit);
+			}
+			reporter = unit;
+			if (list[i] instanceof FuncDecl) {
+				FuncDecl func = (FuncDecl) list[i];
+				CheckedFunc f;
+				boolean reused = false;
+				if (checkedFuncs != null) {
+					f = reusable(func);
+					reused = f != null;
+					if (reused) {
+						int lines = SourcePosition.line(func.start) - SourcePosition.line(f.decl.start);
+						new LineShifter(lines).shift(f.decl);
+						f.errors.shift(lines);
+						list[i] = f.decl;
+						f.decl.parent = decls;
+						func = f.decl;
+					} else
+						f = new CheckedFunc(func);
+					checked.put(func.I.spelling, f);
+				} else
+					f = new CheckedFunc(func);
+				declareVariable(func.I, func);
+				func.I.visit(this, null);
+				f.mark = idTable.mark();
+				if (reused) {
+					// The declarations found are equal to the old ones
+					// but need not be the same.
+					for (Ident I : f.globalIdents)
+						I.decl = idTable.retrieve(I.spelling);
+				} else
+					bodies.add(f);
+				units.add(f.errors);
+				unit = null; // the declarations after it come after its body
+			} else {
+				list[i].visit(this, null);
+				// A body indexing a global array types its size, which
+				// must not depend on which bodies are checked.
+				if (list[i].T.isArrayType())
+					list[i].T.visit(this, null);
+			}
+		}
+		reporter = out;
+
+		CheckedFunc[] funcs = bodies.toArray(new CheckedFunc[bodies.size()]);
+		if (checkingInParallel) {
+			ForkJoinPool.commonPool().invoke(new FuncBodies(funcs, 0, funcs.length));
+		} else {
+			for (CheckedFunc f : funcs)
+				checkBody(f);
+		}
+		numBodiesChecked = funcs.length;
+
+		for (DeferredReporter u : units)
+			u.replay(out);
+		if (checkedFuncs != null)
+			checkedFuncs = checked;
+	}
+
+	// Returns what the last check found out about the function named
+	// like func if it is of the same shape and the global declarations
+	// its body looked up still have the same signatures; the global
+	// table must be as it was before func was entered. Each is reused
+	// at most once.
+
+	private CheckedFunc reusable(FuncDecl func) {
+		CheckedFunc f = checkedFuncs.remove(func.I.spelling);
+		if (f == null || func.shape == 0 || f.decl.shape != func.shape)
+			return null;
+		for (Map.Entry<String, String> d : f.dependencies.entrySet()) {
+			// func itself is unchanged
+			if (!d.getKey().equals(func.I.spelling)
+					&& !signature(idTable.retrieve(d.getKey())).equals(d.getValue()))
+				return null;
+		}
+		return f;
+	}
+
+	// What the body of a function may depend on in a global declaration.
+
+	private static String signature(Decl decl) {
+		if (decl == null)
+			return "";
+		StringBuilder s = new StringBuilder();
+		s.append(decl.isFuncDecl() ? 'F' : 'V');
+		appendType(s, decl.T);
+		if (decl.isFuncDecl()) {
+			List list = ((FuncDecl) decl).PL;
+			if (list instanceof ParaArray) {
+				for (ParaDecl para : ((ParaArray) list).P) {
+					s.append(' ').append(para.I.spelling).append(':');
+					appendType(s, para.T);
+				}
+			}
+		}
+		return s.toString();
+	}
+
+	private static void appendType(StringBuilder s, Type t) {
+		s.append(t.tag);
+		if (t.isArrayType()) {
+			ArrayType at = (ArrayType) t;
+			s.append('[');
+			if (at.E instanceof IntExpr)
+				s.append(((IntExpr) at.E).IL.spelling);
+			s.append(']');
+			appendType(s, at.T);
+		}
+	}
+
+	// The table of a body is dropped with it, so the scope of the
+	// parameters is never closed.
+
+	private void checkBody(CheckedFunc f) {
+		SymbolTable table = new SymbolTable(idTable, f.mark);
+		Checker checker = new Checker(std, table, f.errors);
+		if (checkedFuncs != null) {
+			table.recordGlobalLookups();
+			checker.globalIdents = new ArrayList<Ident>();
+		}
+		checker.checkFunctionBody(f.decl);
+		if (checkedFuncs != null) {
+			f.dependencies = new HashMap<String, String>();
+			for (Map.Entry<String, Decl> d : table.globalLookups().entrySet())
+				f.dependencies.put(d.getKey(), signature(d.getValue()));
+			f.globalIdents = checker.globalIdents;
+		}
+	}
+
+	private final class FuncBodies extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private CheckedFunc[] funcs;
+		private int from, to;
+
+		FuncBodies(CheckedFunc[] funcs, int from, int to) {
+			this.funcs = funcs;
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			if (to - from == 1) {
+				checkBody(funcs[from]);
+			} else if (to - from > 1) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new FuncBodies(funcs, from, mid), new FuncBodies(funcs, mid, to));
+			}
+		}
+	}
+
+	public Type visitDeclArray(DeclArray ast, AST o) {
+		for (Decl decl : ast.D)
+			decl.visit(this, null);
 		return null;
 	}
 
-	public Object visitEmptyDeclList(EmptyDeclList ast, Object o) {
+	public Type visitEmptyDeclList(EmptyDeclList ast, AST o) {
 		return null;
 	}
 	
@@ -330,32 +592,32 @@ public final class Checker implements Visitor {
 			ArrayType arrType = (ArrayType) ast.T;
 				/* array decls have to have { } or no initialiser */
 				if (!(varExp instanceof InitExpr || varExp instanceof EmptyExpr)) {
-					reporter.reportError(errMesg[15] + ": %", ast.I.spelling, ast.position);
+					reporter.reportError(errMesg[15] + ": %", ast.I.spelling, ast.start, ast.finish);
 				} else if (varExp instanceof EmptyExpr) {
 					/* if there is no { } initialiser, then there has to be a size specified */
 					if (arrType.E.isEmptyExpr()) {
-						reporter.reportError(errMesg[18] + ": %", ast.I.spelling, ast.I.position);
+						reporter.reportError(errMesg[18] + ": %", ast.I.spelling, ast.I.start, ast.I.finish);
 					}
 				}
 		}
 
 		/* variables can not be of type void, or arrays of type void */
 		if (ast.T.isVoidType()) {
-			reporter.reportError(errMesg[3] + ": %", ast.I.spelling,  ast.position);
+			reporter.reportError(errMesg[3] + ": %", ast.I.spelling,  ast.start, ast.finish);
 		} else if (ast.T.isArrayType()) {
 			if (((ArrayType) ast.T).T.isVoidType())
-				reporter.reportError(errMesg[4] + ": %", ast.I.spelling, ast.I.position);
+				reporter.reportError(errMesg[4] + ": %", ast.I.spelling, ast.I.start, ast.I.finish);
 		}
 		
 
 		if (!ast.T.isArrayType()) {
 			if (!ast.T.assignable(varExp.type)) {
-				reporter.reportError(errMesg[6] + ": %", ast.I.spelling, ast.I.position);
+				reporter.reportError(errMesg[6] + ": %", ast.I.spelling, ast.I.start, ast.I.finish);
 			}
 		}
 	}
 
-	public Object visitGlobalVarDecl(GlobalVarDecl ast, Object o) {
+	public Type visitGlobalVarDecl(GlobalVarDecl ast, AST o) {
 		declareVariable(ast.I, ast);
 		checkVarTypes(ast);
 		
@@ -363,22 +625,22 @@ public final class Checker implements Visitor {
 		// fill the rest
 	}
 
-	public Object visitLocalVarDecl(LocalVarDecl ast, Object o) {
+	public Type visitLocalVarDecl(LocalVarDecl ast, AST o) {
 		declareVariable(ast.I, ast);
 
 		checkVarTypes(ast);
 
 /*		 TODO: check assignment types 
 		if (ast.T.isVoidType()) {
-			reporter.reportError(errMesg[3] + ": %", ast.I.spelling,  ast.position);
+			reporter.reportError(errMesg[3] + ": %", ast.I.spelling,  ast.start, ast.finish);
 		} else if (ast.T.isArrayType()) {
 			if (((ArrayType) ast.T).T.isVoidType())
-				reporter.reportError(errMesg[4] + ": %", ast.I.spelling, ast.I.position);
+				reporter.reportError(errMesg[4] + ": %", ast.I.spelling, ast.I.start, ast.I.finish);
 		}
 			Decl identDecl = (Decl) ast.I.decl;
 
 			if(!identDecl.T.assignable(ast.E.type)) {
-				reporter.reportError(errMesg[6] + ": %", ast.I.spelling, ast.I.position);
+				reporter.reportError(errMesg[6] + ": %", ast.I.spelling, ast.I.start, ast.I.finish);
 			}
 		 TODO: check if this is correct 
 */		return null;
@@ -386,7 +648,7 @@ public final class Checker implements Visitor {
 	}
 	
 	/* TODO */
-	public Object visitExpr(Expr ast) {
+	public Type visitExpr(Expr ast) {
 		return ast.type.visit(this, null);
 	}
 
@@ -394,25 +656,25 @@ public final class Checker implements Visitor {
 
 	// Always returns null. Does not use the given object.
 
-	public Object visitParaList(ParaList ast, Object o) {
-		ast.P.visit(this, null);
-		ast.PL.visit(this, null);
+	public Type visitParaArray(ParaArray ast, AST o) {
+		for (ParaDecl para : ast.P)
+			para.visit(this, null);
 		return null;
 	}
 
-	public Object visitParaDecl(ParaDecl ast, Object o) {
+	public Type visitParaDecl(ParaDecl ast, AST o) {
 		declareVariable(ast.I, ast);
 
 		if (ast.T.isVoidType()) {
-			reporter.reportError(errMesg[3] + ": %", ast.I.spelling, ast.I.position);
+			reporter.reportError(errMesg[3] + ": %", ast.I.spelling, ast.I.start, ast.I.finish);
 		} else if (ast.T.isArrayType()) {
 			if (((ArrayType) ast.T).T.isVoidType())
-				reporter.reportError(errMesg[4] + ": %", ast.I.spelling, ast.I.position);
+				reporter.reportError(errMesg[4] + ": %", ast.I.spelling, ast.I.start, ast.I.finish);
 		}
 		return null;
 	}
 
-	public Object visitEmptyParaList(EmptyParaList ast, Object o) {
+	public Type visitEmptyParaList(EmptyParaList ast, AST o) {
 		return null;
 	}
 
@@ -424,59 +686,71 @@ public final class Checker implements Visitor {
 
 	// Returns the type predefined in the standard environment. 
 
-	public Object visitErrorType(ErrorType ast, Object o) {
-		return StdEnvironment.errorType;
+	public Type visitErrorType(ErrorType ast, AST o) {
+		return std.errorType;
 	}
 
-	public Object visitBooleanType(BooleanType ast, Object o) {
-		return StdEnvironment.booleanType;
+	public Type visitBooleanType(BooleanType ast, AST o) {
+		return std.booleanType;
 	}
 
-	public Object visitIntType(IntType ast, Object o) {
-		return StdEnvironment.intType;
+	public Type visitIntType(IntType ast, AST o) {
+		return std.intType;
 	}
 
-	public Object visitFloatType(FloatType ast, Object o) {
-		return StdEnvironment.floatType;
+	public Type visitFloatType(FloatType ast, AST o) {
+		return std.floatType;
 	}
 
-	public Object visitStringType(StringType ast, Object o) {
-		return StdEnvironment.stringType;
+	public Type visitStringType(StringType ast, AST o) {
+		return std.stringType;
 	}
 
-	public Object visitVoidType(VoidType ast, Object o) {
-		return StdEnvironment.voidType;
+	public Type visitVoidType(VoidType ast, AST o) {
+		return std.voidType;
 	}
 
 	// Literals, Identifiers and Operators
 
-	public Object visitIdent(Ident I, Object o) {
+	public Type visitIdent(Ident I, AST o) {
+		bind(I);
+		return null;
+	}
+
+	// Links an applied occurrence of an identifier to its declaration,
+	// which is returned; returns null if there is none. When checking
+	// incrementally, the identifiers bound to global declarations, i.e.
+	// functions and global variables, are recorded.
+
+	private Decl bind(Ident I) {
 		Decl binding = idTable.retrieve(I.spelling);
 		if (binding != null) {
 			I.decl = binding;
+			if (globalIdents != null && (binding.isFuncDecl() || binding.isGlobalVarDecl()))
+				globalIdents.add(I);
 		} else {
-				reporter.reportError(errMesg[5] + ": %", I.spelling, I.position);
+				reporter.reportError(errMesg[5] + ": %", I.spelling, I.start, I.finish);
 		}
 		return binding;
 	}
 
-	public Object visitBooleanLiteral(BooleanLiteral SL, Object o) {
-		return StdEnvironment.booleanType;
+	public Type visitBooleanLiteral(BooleanLiteral SL, AST o) {
+		return std.booleanType;
 	}
 
-	public Object visitIntLiteral(IntLiteral IL, Object o) {
-		return StdEnvironment.intType;
+	public Type visitIntLiteral(IntLiteral IL, AST o) {
+		return std.intType;
 	}
 
-	public Object visitFloatLiteral(FloatLiteral IL, Object o) {
-		return StdEnvironment.floatType;
+	public Type visitFloatLiteral(FloatLiteral IL, AST o) {
+		return std.floatType;
 	}
 
-	public Object visitStringLiteral(StringLiteral IL, Object o) {
-		return StdEnvironment.stringType;
+	public Type visitStringLiteral(StringLiteral IL, AST o) {
+		return std.stringType;
 	}
 
-	public Object visitOperator(Operator O, Object o) {
+	public Type visitOperator(Operator O, AST o) {
 		return null;
 	}
 
@@ -487,8 +761,8 @@ public final class Checker implements Visitor {
 
 		FuncDecl binding;
 
-		binding = new FuncDecl(resultType, new Ident(id, dummyPos), pl, 
-				new EmptyStmt(dummyPos), dummyPos);
+		binding = new FuncDecl(resultType, new Ident(id, 0, 0), pl, 
+				new EmptyStmt(0, 0), 0, 0);
 		idTable.insert (id, binding);
 		return binding;
 	}
@@ -497,83 +771,75 @@ public final class Checker implements Visitor {
 	// build-in functions.
 	// Inserts these "declarations" into the symbol table.
 
-	private final static Ident dummyI = new Ident("x", dummyPos);
+	private final Ident dummyI = new Ident("x", 0, 0);
 
 	private void establishStdEnvironment () {
 
-		// Define four primitive types
-		// errorType is assigned to ill-typed expressions
-
-		StdEnvironment.booleanType = new BooleanType(dummyPos);
-		StdEnvironment.intType = new IntType(dummyPos);
-		StdEnvironment.floatType = new FloatType(dummyPos);
-		StdEnvironment.stringType = new StringType(dummyPos);
-		StdEnvironment.voidType = new VoidType(dummyPos);
-		StdEnvironment.errorType = new ErrorType(dummyPos);
+		// The primitive types are defined by std itself
 
 		// enter into the declarations for built-in functions into the table
 
-		StdEnvironment.getIntDecl = declareStdFunc( StdEnvironment.intType,
-				"getInt", new EmptyParaList(dummyPos)); 
-		StdEnvironment.putIntDecl = declareStdFunc( StdEnvironment.voidType,
-				"putInt", new ParaList(
-						new ParaDecl(StdEnvironment.intType, dummyI, dummyPos),
-						new EmptyParaList(dummyPos), dummyPos)); 
-		StdEnvironment.putIntLnDecl = declareStdFunc( StdEnvironment.voidType,
-				"putIntLn", new ParaList(
-						new ParaDecl(StdEnvironment.intType, dummyI, dummyPos),
-						new EmptyParaList(dummyPos), dummyPos)); 
-		StdEnvironment.getFloatDecl = declareStdFunc( StdEnvironment.floatType,
-				"getFloat", new EmptyParaList(dummyPos)); 
-		StdEnvironment.putFloatDecl = declareStdFunc( StdEnvironment.voidType,
-				"putFloat", new ParaList(
-						new ParaDecl(StdEnvironment.floatType, dummyI, dummyPos),
-						new EmptyParaList(dummyPos), dummyPos)); 
-		StdEnvironment.putFloatLnDecl = declareStdFunc( StdEnvironment.voidType,
-				"putFloatLn", new ParaList(
-						new ParaDecl(StdEnvironment.floatType, dummyI, dummyPos),
-						new EmptyParaList(dummyPos), dummyPos)); 
-		StdEnvironment.putBoolDecl = declareStdFunc( StdEnvironment.voidType,
-				"putBool", new ParaList(
-						new ParaDecl(StdEnvironment.booleanType, dummyI, dummyPos),
-						new EmptyParaList(dummyPos), dummyPos)); 
-		StdEnvironment.putBoolLnDecl = declareStdFunc( StdEnvironment.voidType,
-				"putBoolLn", new ParaList(
-						new ParaDecl(StdEnvironment.booleanType, dummyI, dummyPos),
-						new EmptyParaList(dummyPos), dummyPos)); 
-
-		StdEnvironment.putStringLnDecl = declareStdFunc( StdEnvironment.voidType,
-				"putStringLn", new ParaList(
-						new ParaDecl(StdEnvironment.stringType, dummyI, dummyPos),
-						new EmptyParaList(dummyPos), dummyPos)); 
-
-		StdEnvironment.putStringDecl = declareStdFunc( StdEnvironment.voidType,
-				"putString", new ParaList(
-						new ParaDecl(StdEnvironment.stringType, dummyI, dummyPos),
-						new EmptyParaList(dummyPos), dummyPos)); 
-
-		StdEnvironment.putLnDecl = declareStdFunc( StdEnvironment.voidType,
-				"putLn", new EmptyParaList(dummyPos));
+		std.getIntDecl = declareStdFunc( std.intType,
+				"getInt", new EmptyParaList(0, 0)); 
+		std.putIntDecl = declareStdFunc( std.voidType,
+				"putInt", new ParaArray(new ParaDecl[] {
+						new ParaDecl(std.intType, dummyI, 0, 0) },
+						new long[1], new long[1])); 
+		std.putIntLnDecl = declareStdFunc( std.voidType,
+				"putIntLn", new ParaArray(new ParaDecl[] {
+						new ParaDecl(std.intType, dummyI, 0, 0) },
+						new long[1], new long[1])); 
+		std.getFloatDecl = declareStdFunc( std.floatType,
+				"getFloat", new EmptyParaList(0, 0)); 
+		std.putFloatDecl = declareStdFunc( std.voidType,
+				"putFloat", new ParaArray(new ParaDecl[] {
+						new ParaDecl(std.floatType, dummyI, 0, 0) },
+						new long[1], new long[1])); 
+		std.putFloatLnDecl = declareStdFunc( std.voidType,
+				"putFloatLn", new ParaArray(new ParaDecl[] {
+						new ParaDecl(std.floatType, dummyI, 0, 0) },
+						new long[1], new long[1])); 
+		std.putBoolDecl = declareStdFunc( std.voidType,
+				"putBool", new ParaArray(new ParaDecl[] {
+						new ParaDecl(std.booleanType, dummyI, 0, 0) },
+						new long[1], new long[1])); 
+		std.putBoolLnDecl = declareStdFunc( std.voidType,
+				"putBoolLn", new ParaArray(new ParaDecl[] {
+						new ParaDecl(std.booleanType, dummyI, 0, 0) },
+						new long[1], new long[1])); 
+
+		std.putStringLnDecl = declareStdFunc( std.voidType,
+				"putStringLn", new ParaArray(new ParaDecl[] {
+						new ParaDecl(std.stringType, dummyI, 0, 0) },
+						new long[1], new long[1])); 
+
+		std.putStringDecl = declareStdFunc( std.voidType,
+				"putString", new ParaArray(new ParaDecl[] {
+						new ParaDecl(std.stringType, dummyI, 0, 0) },
+						new long[1], new long[1])); 
+
+		std.putLnDecl = declareStdFunc( std.voidType,
+				"putLn", new EmptyParaList(0, 0));
 
 	}
 
 	@Override
-	public Object visitEmptyExprList(EmptyExprList ast, Object o) {
+	public Type visitEmptyExprList(EmptyExprList ast, AST o) {
 		// TODO Auto-generated method stub
 		return null;
 	}
 
 	@Override
-	public Object visitEmptyArgList(EmptyArgList ast, Object o) {
+	public Type visitEmptyArgList(EmptyArgList ast, AST o) {
 		// TODO Auto-generated method stub
 		return null;
 	}
 
 	@Override
-	public Object visitIfStmt(IfStmt ast, Object o) {
-		Type ifExprType = (Type) ast.E.visit(this, null);
+	public Type visitIfStmt(IfStmt ast, AST o) {
+		Type ifExprType = ast.E.visit(this, null);
 		if (!ifExprType.isBooleanType()) {
-				reporter.reportError(errMesg[20] + ": ", null, ast.E.position);
+				reporter.reportError(errMesg[20] + ": ", null, ast.E.start, ast.E.finish);
 		}
 
 		ast.S1.visit(this, o);
@@ -584,10 +850,10 @@ public final class Checker implements Visitor {
 	}
 
 	@Override
-	public Object visitWhileStmt(WhileStmt ast, Object o) {
-		Type whileExprType = (Type) ast.E.visit(this, null);
+	public Type visitWhileStmt(WhileStmt ast, AST o) {
+		Type whileExprType = ast.E.visit(this, null);
 		if (!whileExprType.isBooleanType()) {
-				reporter.reportError(errMesg[22] + ": ", null, ast.E.position);
+				reporter.reportError(errMesg[22] + ": ", null, ast.E.start, ast.E.finish);
 		}
 
 		ast.S.visit(this, o);
@@ -596,20 +862,22 @@ public final class Checker implements Visitor {
 	}
 
 	@Override
-	public Object visitForStmt(ForStmt ast, Object o) {
-		Type forExprType = (Type) ast.E2.visit(this, null);
+	public Type visitForStmt(ForStmt ast, AST o) {
+		ast.E1.visit(this, null);
+		Type forExprType = ast.E2.visit(this, null);
 		if (!ast.E2.isEmptyExpr()) {
 			if (!forExprType.isBooleanType()) {
-					reporter.reportError(errMesg[21] + ": ", null, ast.E2.position);
+					reporter.reportError(errMesg[21] + ": ", null, ast.E2.start, ast.E2.finish);
 			}
 		}
+		ast.E3.visit(this, null);
 		ast.S.visit(this, o);
 	
 		return null;
 	}
 
 @Override
-public Object visitBreakStmt(BreakStmt ast, Object o) {
+public Type visitBreakStmt(BreakStmt ast, AST o) {
 	AST parent = ast.parent;
 	if (!(ast.parent instanceof WhileStmt || ast.parent instanceof ForStmt)) {
 		while (!(parent instanceof CompoundStmt)) {
@@ -617,14 +885,14 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 		}
 		
 		if (!(parent.parent instanceof ForStmt || parent.parent instanceof WhileStmt)) {
-			reporter.reportError(errMesg[23] + ": ", null, ast.position);
+			reporter.reportError(errMesg[23] + ": ", null, ast.start, ast.finish);
 		}
 	}
 	return null;
 	}
 
 	@Override
-	public Object visitContinueStmt(ContinueStmt ast, Object o) {
+	public Type visitContinueStmt(ContinueStmt ast, AST o) {
 		AST parent = ast.parent;
 		if (!(ast.parent instanceof WhileStmt || ast.parent instanceof ForStmt)) {
 			while (!(parent instanceof CompoundStmt)) {
@@ -632,23 +900,23 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 			}
 			
 			if (!(parent.parent instanceof ForStmt || parent.parent instanceof WhileStmt)) {
-				reporter.reportError(errMesg[24] + ": ", null, ast.position);
+				reporter.reportError(errMesg[24] + ": ", null, ast.start, ast.finish);
 			}
 		}
 		return null;
 	}
 
 	@Override
-	public Object visitReturnStmt(ReturnStmt ast, Object o) {
+	public Type visitReturnStmt(ReturnStmt ast, AST o) {
 		FuncDecl fd = (FuncDecl) o;
-		Type retType = (Type) ast.E.visit(this, null);
+		Type retType = ast.E.visit(this, null);
 		
 		/* if there is no return expression
 		 * then make sure func return type is void
 		 */
 		if (ast.E instanceof EmptyExpr) {
 			if (!fd.T.isVoidType()) {
-				reporter.reportError(errMesg[8] + ": ", null, ast.position);
+				reporter.reportError(errMesg[8] + ": ", null, ast.start, ast.finish);
 			}
 		} 
 		
@@ -659,22 +927,22 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 		
 		/* make sure two types are assignable */
 		if (!fd.T.assignable(retType)) {
-			reporter.reportError(errMesg[8] + ": ", null, ast.position);
+			reporter.reportError(errMesg[8] + ": ", null, ast.start, ast.finish);
 		}
 		
 		return null;
 	}
 
 	@Override
-	public Object visitEmptyCompStmt(EmptyCompStmt ast, Object o) {
+	public Type visitEmptyCompStmt(EmptyCompStmt ast, AST o) {
 		// TODO Auto-generated method stub
-		return false;
+		return null;
 	}
 
 	@Override
-	public Object visitUnaryExpr(UnaryExpr ast, Object o) {
+	public Type visitUnaryExpr(UnaryExpr ast, AST o) {
 		/* get the get type */
-		Type t = (Type) ast.E.visit(this, null);
+		Type t = ast.E.visit(this, null);
 		/* make expr is scalar */
 		checkScalar(ast.E);
 		/* assign type to current ast */
@@ -686,22 +954,21 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 		case("+"):
 		case("-"):
 			ast.type = t;
-			if (!(ast.E.type instanceof IntType || 
-					ast.E.type instanceof FloatType)) {
-				reporter.reportError(errMesg[10] + ": %", ast.O.spelling, ast.position);
-				ast.type = StdEnvironment.errorType;
+			if (!(t.isIntType() || t.isFloatType())) {
+				reporter.reportError(errMesg[10] + ": %", ast.O.spelling, ast.start, ast.finish);
+				ast.type = std.errorType;
 			}
 			break;
 		case("!"):
-			ast.type = StdEnvironment.booleanType;
-			if (!(ast.E.type instanceof BooleanType)) {
-				reporter.reportError(errMesg[10] + ": %", ast.O.spelling, ast.position);
-				ast.type = StdEnvironment.errorType;
+			ast.type = std.booleanType;
+			if (!t.isBooleanType()) {
+				reporter.reportError(errMesg[10] + ": %", ast.O.spelling, ast.start, ast.finish);
+				ast.type = std.errorType;
 			}
 			break;
 		default:
-			reporter.reportError(errMesg[10] + ": %", ast.O.spelling, ast.position);
-			ast.type = StdEnvironment.errorType;
+			reporter.reportError(errMesg[10] + ": %", ast.O.spelling, ast.start, ast.finish);
+			ast.type = std.errorType;
 		}
 		
 		return ast.type;
@@ -719,12 +986,12 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 		return true;
 	}
 	@Override
-	public Object visitBinaryExpr(BinaryExpr ast, Object o) {
-		Type t1 = (Type) ast.E1.visit(this, null);
-		Type t2 = (Type) ast.E2.visit(this, null);
+	public Type visitBinaryExpr(BinaryExpr ast, AST o) {
+		Type t1 = ast.E1.visit(this, null);
+		Type t2 = ast.E2.visit(this, null);
 		
 		if (t1.isErrorType() || t2.isErrorType()) {
-			ast.type = StdEnvironment.errorType;
+			ast.type = std.errorType;
 			return ast.type;
 		}
 		
@@ -739,8 +1006,8 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 		}
 		/* make sure two types are assignable */
 		if (!t1.equals(t2) || !checkIntFloatBool(t1, t2)) {
-			reporter.reportError(errMesg[9] + ": %", ast.O.spelling, ast.position);
-			ast.type = StdEnvironment.errorType;
+			reporter.reportError(errMesg[9] + ": %", ast.O.spelling, ast.start, ast.finish);
+			ast.type = std.errorType;
 			return ast.type;
 		}
 		
@@ -751,9 +1018,9 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 		case "*":
 		case "/":
 			if (t1.isFloatType()) {
-				ast.type = StdEnvironment.floatType;
+				ast.type = std.floatType;
 			} else {
-				ast.type = StdEnvironment.intType;
+				ast.type = std.intType;
 			}
 			break;
 		case "!":
@@ -766,7 +1033,7 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 		case ">=":
 		case "&&":
 		case "||":
-			ast.type = StdEnvironment.booleanType;
+			ast.type = std.booleanType;
 			break;
 		}
 
@@ -791,8 +1058,8 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 			}
 			type = decl.T;
 			if (decl instanceof FuncDecl ||
-					type instanceof ArrayType) {
-				reporter.reportError(errMesg[11] + ": %", i.spelling, i.position);
+					type.isArrayType()) {
+				reporter.reportError(errMesg[11] + ": %", i.spelling, i.start, i.finish);
 			}
 		}
 	}
@@ -800,13 +1067,13 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 
 	@Override
 	/* for array initialisation */
-	public Object visitInitExpr(InitExpr ast, Object o) {
+	public Type visitInitExpr(InitExpr ast, AST o) {
 		Decl varDecl = (Decl) o;
 		
 		/* Only arrays deal with arrays */
 		if (!varDecl.T.isArrayType()) {
-				reporter.reportError(errMesg[14] + ": %", varDecl.I.spelling, ast.position);
-				return StdEnvironment.errorType;
+				reporter.reportError(errMesg[14] + ": %", varDecl.I.spelling, ast.start, ast.finish);
+				return std.errorType;
 		}
 
 		ArrayType arrType = (ArrayType) varDecl.T;
@@ -815,9 +1082,9 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 		Expr origSize =  arrType.E;
 
 		/* set size to 0 for counting in recursion */
-		arrType.E = new IntExpr(new IntLiteral("0", dummyPos), dummyPos);
-		/* this will go to ExprList */
-		ast.type = (Type) ast.IL.visit(this, arrType);
+		arrType.E = new IntExpr(new IntLiteral("0", 0, 0), 0, 0);
+		/* this will go to ExprArray */
+		ast.type = ast.IL.visit(this, arrType);
 		
 		/* if there was initially an original size, set it back
 		 * otherwise do nothing, size has been set in recursion
@@ -829,7 +1096,7 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 			 * to the calculated size determined through recursion
 			 */
 			if(isArraySmall((IntExpr) origSize, calcSize)) {
-				reporter.reportError(errMesg[16] + ": %", varDecl.I.spelling, ast.position);
+				reporter.reportError(errMesg[16] + ": %", varDecl.I.spelling, ast.start, ast.finish);
 			}
 			/* set is back to original size */
 			arrType.E = origSize;
@@ -874,46 +1141,47 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 	/* takes in a expected to which it will check 
 	 * all elements in initialiser list are of same type
 	 */
-	public Object visitExprList(ExprList ast, Object o) {
+	public Type visitExprArray(ExprArray ast, AST o) {
 		ArrayType array = (ArrayType) o;
 		/* FIXME: below is not always true */
 		IntExpr arraySizeExpr = (IntExpr) array.E;
 		Type expectedType = array.T;
-		Type elementType = (Type) ast.E.visit(this, null);
-		if (!expectedType.assignable(elementType)) {
-				reporter.reportError(errMesg[13] + ": at position %", arraySizeExpr.IL.spelling, ast.E.position);
+		for (Expr element : ast.E) {
+			Type elementType = element.visit(this, null);
+			if (!expectedType.assignable(elementType)) {
+					reporter.reportError(errMesg[13] + ": at position %", arraySizeExpr.IL.spelling, element.start, element.finish);
+			}
+			incrementArraySize((IntExpr) array.E);
 		}
-		incrementArraySize((IntExpr) array.E);
-		ast.EL.visit(this, o);
 		return null;
 	}
 
 	@Override
-	public Object visitArrayExpr(ArrayExpr ast, Object o) {
-		if (!(ast.E.visit(this, o) instanceof IntType )) {
-				reporter.reportError(errMesg[17] + ": ", null, ast.E.position);
+	public Type visitArrayExpr(ArrayExpr ast, AST o) {
+		if (!ast.E.visit(this, o).isIntType()) {
+				reporter.reportError(errMesg[17] + ": ", null, ast.E.start, ast.E.finish);
 		}
 		
 		/* making sure it is in fact a legal variable */
-		ast.type = (Type) ast.V.visit(this, null);
+		ast.type = ast.V.visit(this, null);
 		SimpleVar arrVar = (SimpleVar) ast.V;
 		if (ast.type.isErrorType()) { 
 			return ast.type;
 		}
 
 		Type arrVarDeclType;
-		Decl arrVarDecl = (Decl) arrVar.I.visit(this, null);
+		Decl arrVarDecl = bind(arrVar.I);
 		arrVarDeclType = arrVarDecl.T;
 		
 		/* making sure decl is of array type */
 		if (arrVarDecl instanceof FuncDecl || !arrVarDeclType.isArrayType()) {
-			reporter.reportError(errMesg[12] + ": %", arrVar.I.spelling, arrVar.I.position);
-			ast.type = StdEnvironment.errorType;
+			reporter.reportError(errMesg[12] + ": %", arrVar.I.spelling, arrVar.I.start, arrVar.I.finish);
+			ast.type = std.errorType;
 			return ast.type;
 		}
 		
 		/* get the Type of 'ArrayType' */
-		ast.type = (Type) arrVarDeclType.visit(this, null);
+		ast.type = arrVarDeclType.visit(this, null);
 
 		/* visit the expr inside square brackets, i.e arr[expr] */
 		ast.E.visit(this, null);
@@ -922,17 +1190,17 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 	}
 
 	@Override
-	public Object visitCallExpr(CallExpr ast, Object o) {
+	public Type visitCallExpr(CallExpr ast, AST o) {
 		Ident callIdent = ast.I;
-		Decl callIdentDecl = (Decl) ast.I.visit(this, null);
+		Decl callIdentDecl = bind(ast.I);
 		
 		if (callIdentDecl == null)
-			return StdEnvironment.errorType;
+			return std.errorType;
 		
 		if (!callIdentDecl.isFuncDecl()) {
-				reporter.reportError(errMesg[19] + ": %", callIdent.spelling, callIdent.position);
+				reporter.reportError(errMesg[19] + ": %", callIdent.spelling, callIdent.start, callIdent.finish);
 				/* no point of visiting arguments if not a function */
-				return StdEnvironment.errorType;
+				return std.errorType;
 		}
 		
 		/* get number of parameters in declaration */
@@ -940,26 +1208,26 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 		Integer argCount = getArgCount(ast.AL);
 		
 		if (argCount > paraCount) {
-			reporter.reportError(errMesg[25] + ": ", null, ast.position);
+			reporter.reportError(errMesg[25] + ": ", null, ast.start, ast.finish);
 		} else if (argCount < paraCount) {
-				reporter.reportError(errMesg[26] + ": ", null, ast.position);
+				reporter.reportError(errMesg[26] + ": ", null, ast.start, ast.finish);
 		}
 		
 		/* populates the types for args in list */
 		ast.AL.visit(this, null);
 		checkArgTypes(ast.AL, ast.I);
 		
-		ast.type = callIdentDecl.T;
+		ast.type = std.canonical(callIdentDecl.T);
 		return ast.type;
 	}
 	
 	void checkArgTypes(List argList, Ident funcDeclIdent) {
 		FuncDecl fd = (FuncDecl) funcDeclIdent.decl;
-		List pl = fd.PL;
-		List al = argList;
-		while(!al.isEmptyArgList() && !pl.isEmptyParaList()) {
-			Arg arg = ((ArgList) al).A;
-			ParaDecl param = ((ParaList) pl).P; 
+		Arg[] args = argList instanceof ArgArray ? ((ArgArray) argList).A : new Arg[0];
+		ParaDecl[] params = fd.PL instanceof ParaArray ? ((ParaArray) fd.PL).P : new ParaDecl[0];
+		for (int k = 0; k < args.length && k < params.length; k++) {
+			Arg arg = args[k];
+			ParaDecl param = params[k]; 
 			if (arg.type.isArrayType() && param.T.isArrayType()) {
 				Type argArrayType = ((ArrayType) arg.type).T;
 				Type paramArrayType = ((ArrayType) param.T).T;
@@ -969,61 +1237,50 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 				} else if (argArrayType.isIntType() && paramArrayType.isFloatType()) {
 					return;
 				} else {
-					reporter.reportError(errMesg[27] + ": %", param.I.spelling, argList.position);
+					reporter.reportError(errMesg[27] + ": %", param.I.spelling, argList.start, argList.finish);
 				}
 			} else if (!arg.type.equals(param.T)) {
 				if (arg.type.isIntType() && param.T.isFloatType()) {
 					arg.E = coerceInt(arg.E);
 				} else {
-					reporter.reportError(errMesg[27] + ": %", param.I.spelling, argList.position);
+					reporter.reportError(errMesg[27] + ": %", param.I.spelling, argList.start, argList.finish);
 				}
 			} 
-			
-			al = ((ArgList) al).AL;
-			pl = ((ParaList) pl).PL;
 		}
 		
 	}
 	
 	Integer getArgCount(List argList) {
-		List temp = argList;
-		Integer count = 0;
-		
-		while (!temp.isEmptyArgList()) {
-			count++;
-			temp = ((ArgList) temp).AL;
+		if (argList.isEmptyArgList()) {
+			return 0;
 		}
-		
-		return count;
+		return ((ArgArray) argList).size();
 	}
 	
 	Integer getParaCount(Ident i) {
 		FuncDecl fd = (FuncDecl) i.decl;
 		List paramList= fd.PL;
-		Integer count = 0;
 		
-		while (!paramList.isEmptyParaList()) {
-			count++;
-			paramList = ((ParaList) paramList).PL;
+		if (paramList.isEmptyParaList()) {
+			return 0;
 		}
-		
-		return count;
+		return ((ParaArray) paramList).size();
 	}
 
 	private Expr coerceInt(Expr e) {
-		Operator op = new Operator("i2f", dummyPos);
-		UnaryExpr newNode = new UnaryExpr(op, e, dummyPos);
-		newNode.type = StdEnvironment.floatType;
+		Operator op = new Operator("i2f", 0, 0);
+		UnaryExpr newNode = new UnaryExpr(op, e, 0, 0);
+		newNode.type = std.floatType;
 		return newNode;
 	}
 
 	@Override
-	public Object visitAssignExpr(AssignExpr ast, Object o) {
-		Type t1 = (Type) ast.E1.visit(this, o);
-		Type t2 = (Type) ast.E2.visit(this, o);
+	public Type visitAssignExpr(AssignExpr ast, AST o) {
+		Type t1 = ast.E1.visit(this, o);
+		Type t2 = ast.E2.visit(this, o);
 		
 		if (t1.isErrorType() || t2.isErrorType()) {
-			ast.type = StdEnvironment.errorType;
+			ast.type = std.errorType;
 			return ast.type;
 		}
 		
@@ -1033,17 +1290,17 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 
 		/* making sure first expr is an identifier */
 		if (!(ast.E1 instanceof VarExpr || ast.E1 instanceof ArrayExpr)) {
-			reporter.reportError(errMesg[7] + ": ", null,  ast.position);
-			ast.type = StdEnvironment.errorType;
-			return StdEnvironment.errorType;
+			reporter.reportError(errMesg[7] + ": ", null,  ast.start, ast.finish);
+			ast.type = std.errorType;
+			return std.errorType;
 		} else if (!actuallyVar(ast.E1)) {
-			reporter.reportError(errMesg[7] + ": ", null,  ast.position);
+			reporter.reportError(errMesg[7] + ": ", null,  ast.start, ast.finish);
 		}
 
 		/* formatting Type for assignment check */
 
 		if (!(ast.E1 instanceof VarExpr || ast.E1 instanceof ArrayExpr)) {
-			ast.type = StdEnvironment.errorType;
+			ast.type = std.errorType;
 			return ast.type;
 		}
 
@@ -1056,8 +1313,8 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 		if (ast.E1.type.assignable(ast.E2.type)) { 
 			ast.type = ast.E1.type;
 		} else {
-			reporter.reportError(errMesg[6] + ": ", null,  ast.position);
-			ast.type = StdEnvironment.errorType;
+			reporter.reportError(errMesg[6] + ": ", null,  ast.start, ast.finish);
+			ast.type = std.errorType;
 		}
 		
 		/* we always return types for expr visit methods */
@@ -1088,36 +1345,36 @@ public Object visitBreakStmt(BreakStmt ast, Object o) {
 	}
 
 	@Override
-	public Object visitArgList(ArgList ast, Object o) {
-		ast.A.visit(this, null);
-		ast.AL.visit(this, null);
+	public Type visitArgArray(ArgArray ast, AST o) {
+		for (Arg arg : ast.A)
+			arg.visit(this, null);
 		return null;
 	}
 
 	@Override
-	public Object visitArg(Arg ast, Object o) {
-		ast.type = (Type) ast.E.visit(this, o);
+	public Type visitArg(Arg ast, AST o) {
+		ast.type = ast.E.visit(this, o);
 		if (ast.type == null) {
-			ast.type = StdEnvironment.errorType;
+			ast.type = std.errorType;
 		}
 		return ast.type;
 	}
 
 	@Override
-	public Object visitArrayType(ArrayType ast, Object o) {
-		Type t = (Type) ast.T.visit(this, o);
+	public Type visitArrayType(ArrayType ast, AST o) {
+		Type t = ast.T.visit(this, o);
 		ast.E.visit(this, o);
 		return t;
 	}
 
 	@Override
-	public Object visitSimpleVar(SimpleVar ast, Object o) {
-		Decl binding = (Decl) visitIdent(ast.I, o);
+	public Type visitSimpleVar(SimpleVar ast, AST o) {
+		Decl binding = bind(ast.I);
 		if (binding == null) {
-			ast.type = StdEnvironment.errorType;
+			ast.type = std.errorType;
 			return ast.type;
 		} 
-		ast.type = binding.T;
+		ast.type = std.canonical(binding.T);
 		return ast.type;
 	}
 
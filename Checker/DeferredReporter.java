@@ -0,0 +1,56 @@
+/*
+ * DeferredReporter.java
+ *
+ * Keeps the errors reported to it apart from the others, so that
+ * the errors found by Checkers running in parallel can be reported
+ * later in the order of the source.
+ */
+
+package VC.Checker;
+
+import VC.ErrorReporter;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+final class DeferredReporter extends ErrorReporter {
+
+  private ArrayList<String> messages = new ArrayList<String>();
+  private ArrayList<String> tokenNames = new ArrayList<String>();
+  private long[] starts = new long[4], finishes = new long[4]; // see SourcePosition.point
+
+  // Every reportError comes here, whether the position is given as
+  // points or as a SourcePosition.
+
+  @Override
+  public void reportError(String message, String tokenName, long start, long finish) {
+    if (numErrors == starts.length) {
+      starts = Arrays.copyOf(starts, 2 * numErrors);
+      finishes = Arrays.copyOf(finishes, 2 * numErrors);
+    }
+    messages.add(message);
+    tokenNames.add(tokenName);
+    starts[numErrors] = start;
+    finishes[numErrors] = finish;
+    numErrors++;
+  }
+
+  // Moves the errors by a number of lines, as LineShifter moves the
+  // AST they were found in.
+
+  void shift(int lines) {
+    long by = (long) lines << 32;
+    for (int i = 0; i < numErrors; i++)
+      if (starts[i] >> 32 != 0) {
+        starts[i] += by;
+        finishes[i] += by;
+      }
+  }
+
+  // Reports the errors kept, in the order they were reported here.
+
+  void replay(ErrorReporter reporter) {
+    for (int i = 0; i < numErrors; i++)
+      reporter.reportError(messages.get(i), tokenNames.get(i), starts[i], finishes[i]);
+  }
+
+}
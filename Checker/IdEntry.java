@@ -12,6 +12,8 @@ public class IdEntry {
   protected Decl attr;
   protected int level;
   protected IdEntry previousEntry;
+  protected IdEntry shadowed; // the entry for id it hides, if any
+  protected int stamp; // the number of entries inserted before it
 
   IdEntry (String id, Decl attr, int level, IdEntry previousEntry) {
     this.id = id;
@@ -0,0 +1,375 @@
+/*
+ * LineShifter.java
+ *
+ * Moves a subtree of a checked AST down or up by a number of lines,
+ * for a function whose decorated AST is reused after lines have been
+ * added or removed above it. The positions are moved in place, each
+ * node once however often it is reached, as the declarators of one
+ * declaration share its Type: the first walk moves a node and negates
+ * the line of its start to mark it as moved, the second walk clears
+ * the marks. Nodes on line 0 are made up by the parser and the
+ * checker, and may be shared with other parts of the tree, so they
+ * are left alone; no other node is shared between two functions.
+ */
+
+package VC.Checker;
+
+import VC.ASTs.*;
+import VC.Scanner.SourcePosition;
+
+final class LineShifter implements GenericVisitor<Void, Void> {
+
+  private int lines;
+  private boolean marking;
+
+  LineShifter(int lines) {
+    this.lines = lines;
+  }
+
+  void shift(AST ast) {
+    if (lines == 0)
+      return;
+    marking = true;
+    ast.visit(this, null);
+    marking = false;
+    ast.visit(this, null);
+  }
+
+  private void move(AST ast) {
+    int line = SourcePosition.line(ast.start);
+    int column = SourcePosition.column(ast.start);
+    if (marking) {
+      if (line > 0) {
+        ast.start = SourcePosition.point(-(line + lines), column);
+        if (SourcePosition.line(ast.finish) > 0)
+          ast.finish += (long) lines << 32;
+      }
+    } else if (line < 0)
+      ast.start = SourcePosition.point(-line, column);
+  }
+
+  private Void leaf(AST ast) {
+    move(ast);
+    return null;
+  }
+
+  // The positions of the cells of a list belong to the list alone, so
+  // they are moved by the first walk and are not marked.
+
+  private Void list(ListArray ast) {
+    move(ast);
+    if (marking)
+      for (int i = 0; i < ast.size(); i++) {
+        ast.starts[i] = moved(ast.starts[i]);
+        ast.finishes[i] = moved(ast.finishes[i]);
+      }
+    for (int i = 0; i < ast.size(); i++)
+      ast.get(i).visit(this, null);
+    return null;
+  }
+
+  private long moved(long point) {
+    return SourcePosition.line(point) > 0 ? point + ((long) lines << 32) : point;
+  }
+
+  // Programs
+
+  public Void visitProgram(Program ast, Void o) {
+    move(ast);
+    ast.FL.visit(this, null);
+    return null;
+  }
+
+  // Lists for denoting the null reference
+
+  public Void visitEmptyDeclList(EmptyDeclList ast, Void o) {
+    return leaf(ast);
+  }
+
+  public Void visitEmptyStmtList(EmptyStmtList ast, Void o) {
+    return leaf(ast);
+  }
+
+  public Void visitEmptyExprList(EmptyExprList ast, Void o) {
+    return leaf(ast);
+  }
+
+  public Void visitEmptyParaList(EmptyParaList ast, Void o) {
+    return leaf(ast);
+  }
+
+  public Void visitEmptyArgList(EmptyArgList ast, Void o) {
+    return leaf(ast);
+  }
+
+  // Declarations
+
+  public Void visitDeclArray(DeclArray ast, Void o) {
+    return list(ast);
+  }
+
+  public Void visitFuncDecl(FuncDecl ast, Void o) {
+    move(ast);
+    ast.T.visit(this, null);
+    ast.I.visit(this, null);
+    ast.PL.visit(this, null);
+    ast.S.visit(this, null);
+    return null;
+  }
+
+  public Void visitGlobalVarDecl(GlobalVarDecl ast, Void o) {
+    move(ast);
+    ast.T.visit(this, null);
+    ast.I.visit(this, null);
+    ast.E.visit(this, null);
+    return null;
+  }
+
+  public Void visitLocalVarDecl(LocalVarDecl ast, Void o) {
+    move(ast);
+    ast.T.visit(this, null);
+    ast.I.visit(this, null);
+    ast.E.visit(this, null);
+    return null;
+  }
+
+  // Statements
+
+  public Void visitStmtArray(StmtArray ast, Void o) {
+    return list(ast);
+  }
+
+  public Void visitIfStmt(IfStmt ast, Void o) {
+    move(ast);
+    ast.E.visit(this, null);
+    ast.S1.visit(this, null);
+    ast.S2.visit(this, null);
+    return null;
+  }
+
+  public Void visitWhileStmt(WhileStmt ast, Void o) {
+    move(ast);
+    ast.E.visit(this, null);
+    ast.S.visit(this, null);
+    return null;
+  }
+
+  public Void visitForStmt(ForStmt ast, Void o) {
+    move(ast);
+    ast.E1.visit(this, null);
+    ast.E2.visit(this, null);
+    ast.E3.visit(this, null);
+    ast.S.visit(this, null);
+    return null;
+  }
+
+  public Void visitBreakStmt(BreakStmt ast, Void o) {
+    return leaf(ast);
+  }
+
+  public Void visitContinueStmt(ContinueStmt ast, Void o) {
+    return leaf(ast);
+  }
+
+  public Void visitReturnStmt(ReturnStmt ast, Void o) {
+    move(ast);
+    ast.E.visit(this, null);
+    return null;
+  }
+
+  public Void visitCompoundStmt(CompoundStmt ast, Void o) {
+    move(ast);
+    ast.DL.visit(this, null);
+    ast.SL.visit(this, null);
+    return null;
+  }
+
+  public Void visitExprStmt(ExprStmt ast, Void o) {
+    move(ast);
+    ast.E.visit(this, null);
+    return null;
+  }
+
+  public Void visitEmptyCompStmt(EmptyCompStmt ast, Void o) {
+    return leaf(ast);
+  }
+
+  public Void visitEmptyStmt(EmptyStmt ast, Void o) {
+    return leaf(ast);
+  }
+
+  // Expressions
+
+  public Void visitIntExpr(IntExpr ast, Void o) {
+    move(ast);
+    ast.IL.visit(this, null);
+    return null;
+  }
+
+  public Void visitFloatExpr(FloatExpr ast, Void o) {
+    move(ast);
+    ast.FL.visit(this, null);
+    return null;
+  }
+
+  public Void visitBooleanExpr(BooleanExpr ast, Void o) {
+    move(ast);
+    ast.BL.visit(this, null);
+    return null;
+  }
+
+  public Void visitStringExpr(StringExpr ast, Void o) {
+    move(ast);
+    ast.SL.visit(this, null);
+    return null;
+  }
+
+  public Void visitUnaryExpr(UnaryExpr ast, Void o) {
+    move(ast);
+    ast.O.visit(this, null);
+    ast.E.visit(this, null);
+    return null;
+  }
+
+  public Void visitBinaryExpr(BinaryExpr ast, Void o) {
+    move(ast);
+    ast.E1.visit(this, null);
+    ast.O.visit(this, null);
+    ast.E2.visit(this, null);
+    return null;
+  }
+
+  public Void visitInitExpr(InitExpr ast, Void o) {
+    move(ast);
+    ast.IL.visit(this, null);
+    return null;
+  }
+
+  public Void visitExprArray(ExprArray ast, Void o) {
+    return list(ast);
+  }
+
+  public Void visitArrayExpr(ArrayExpr ast, Void o) {
+    move(ast);
+    ast.V.visit(this, null);
+    ast.E.visit(this, null);
+    return null;
+  }
+
+  public Void visitVarExpr(VarExpr ast, Void o) {
+    move(ast);
+    ast.V.visit(this, null);
+    return null;
+  }
+
+  public Void visitCallExpr(CallExpr ast, Void o) {
+    move(ast);
+    ast.I.visit(this, null);
+    ast.AL.visit(this, null);
+    return null;
+  }
+
+  public Void visitAssignExpr(AssignExpr ast, Void o) {
+    move(ast);
+    ast.E1.visit(this, null);
+    ast.E2.visit(this, null);
+    return null;
+  }
+
+  public Void visitEmptyExpr(EmptyExpr ast, Void o) {
+    return leaf(ast);
+  }
+
+  // Literals, Identifiers and Operators
+
+  public Void visitIntLiteral(IntLiteral ast, Void o) {
+    return leaf(ast);
+  }
+
+  public Void visitFloatLiteral(FloatLiteral ast, Void o) {
+    return leaf(ast);
+  }
+
+  public Void visitBooleanLiteral(BooleanLiteral ast, Void o) {
+    return leaf(ast);
+  }
+
+  public Void visitStringLiteral(StringLiteral ast, Void o) {
+    return leaf(ast);
+  }
+
+  public Void visitIdent(Ident ast, Void o) {
+    return leaf(ast);
+  }
+
+  public Void visitOperator(Operator ast, Void o) {
+    return leaf(ast);
+  }
+
+  // Parameters
+
+  public Void visitParaArray(ParaArray ast, Void o) {
+    return list(ast);
+  }
+
+  public Void visitParaDecl(ParaDecl ast, Void o) {
+    move(ast);
+    ast.T.visit(this, null);
+    ast.I.visit(this, null);
+    return null;
+  }
+
+  // Arguments
+
+  public Void visitArgArray(ArgArray ast, Void o) {
+    return list(ast);
+  }
+
+  public Void visitArg(Arg ast, Void o) {
+    move(ast);
+    ast.E.visit(this, null);
+    return null;
+  }
+
+  // Types
+
+  public Void visitVoidType(VoidType ast, Void o) {
+    return leaf(ast);
+  }
+
+  public Void visitBooleanType(BooleanType ast, Void o) {
+    return leaf(ast);
+  }
+
+  public Void visitIntType(IntType ast, Void o) {
+    return leaf(ast);
+  }
+
+  public Void visitFloatType(FloatType ast, Void o) {
+    return leaf(ast);
+  }
+
+  public Void visitStringType(StringType ast, Void o) {
+    return leaf(ast);
+  }
+
+  public Void visitArrayType(ArrayType ast, Void o) {
+    move(ast);
+    ast.T.visit(this, null);
+    ast.E.visit(this, null);
+    return null;
+  }
+
+  public Void visitErrorType(ErrorType ast, Void o) {
+    return leaf(ast);
+  }
+
+  // Variables
+
+  public Void visitSimpleVar(SimpleVar ast, Void o) {
+    move(ast);
+    ast.I.visit(this, null);
+    return null;
+  }
+
+}
@@ -11,6 +11,20 @@
  * openScope: increment the current scope level by 1 
  * closeScope: pop off all entries in the current scope level
  *
+ * The stack doubles as the undo log of the scopes: the entries of the
+ * current level are the ones on top of it. Lookups go through a hash
+ * map from an identifier to its top-most entry instead of searching the
+ * stack; each entry links to the entry it shadows, so that closeScope
+ * can put the outer one back into the map as the inner one is popped.
+ * Both lookups and closing a scope therefore cost only as much as the
+ * entries involved, however many identifiers are visible.
+ *
+ * Every entry is stamped with the number of entries inserted before
+ * it, so that retrieveAsOf can see the table as it was at an earlier
+ * mark. A table for the body of one function can be layered over the
+ * global table frozen after all declarations were entered: it holds
+ * only the local entries and looks an identifier up in the global
+ * table, as of the function's mark, if it has no entry for it.
  *
  * In an industry compiler for a block-structured language, it is
  * common to build a new symbol table for each scope and link the
@@ -28,15 +42,35 @@
 package VC.Checker;
 
 import VC.ASTs.*;
+import java.util.HashMap;
 
 public final class SymbolTable {
 
   private int level;
   private IdEntry latest;
+  private HashMap<String, IdEntry> visible;
+  private int count;
+  private SymbolTable globals;
+  private int globalsMark;
+  private HashMap<String, Decl> globalLookups;
 
   public SymbolTable () {
     level = 1;
     latest = null;
+    visible = new HashMap<String, IdEntry>();
+    count = 0;
+  }
+
+  // A table whose level 1 is globals as it was at globalsMark, which
+  // must not change while this table is in use. The local entries are
+  // stacked on top of the global ones, so that closing the scopes
+  // above level 1 stops at the global entries.
+
+  public SymbolTable (SymbolTable globals, int globalsMark) {
+    this();
+    this.latest = globals.latest;
+    this.globals = globals;
+    this.globalsMark = globalsMark;
   }
 
   // Opens a new level in the symbol table, 1 higher than the
@@ -55,8 +89,13 @@ public final class SymbolTable {
 
     // Presumably, idTable.level > 0.
     entry = this.latest;
-    while (entry.level == this.level)
+    while (entry.level == this.level) {
+      if (entry.shadowed == null)
+        visible.remove(entry.id);
+      else
+        visible.put(entry.id, entry.shadowed);
       entry = entry.previousEntry;
+    }
     this.level--;
     this.latest = entry;
   }
@@ -68,9 +107,17 @@ public final class SymbolTable {
 
     IdEntry entry;
     entry = new IdEntry(id, attr, this.level, this.latest);
+    entry.stamp = count++;
+    entry.shadowed = visible.put(id, entry);
     this.latest = entry;
   }
 
+  // The number of entries inserted so far.
+
+  public int mark () {
+    return count;
+  }
+
   // Finds an entry for the given identifier in the symbol table,
   // if any. If there are several entries for that identifier, finds the
   // entry at the highest level according to the scope rules.
@@ -80,36 +127,55 @@ public final class SymbolTable {
   public Decl retrieve (String id) {
 
     IdEntry entry;
-    Decl attr = null;
-    boolean present = false, searching = true;
 
-    entry = this.latest;
-    while (searching) {
-      if (entry == null)
-        searching = false;
-      else if (entry.id.equals(id)) {
-        present = true;
-        searching = false;
-        attr = entry.attr;
-      } else
-        entry = entry.previousEntry;
-    }
+    entry = visible.get(id);
+    if (entry != null)
+      return entry.attr;
+    if (globals == null)
+      return null;
+    Decl attr = globals.retrieveAsOf(id, globalsMark);
+    if (globalLookups != null)
+      globalLookups.put(id, attr);
     return attr;
   }
 
- public IdEntry retrieveOneLevel(String id) {
+  // Makes retrieve keep what it finds for each identifier it looks up
+  // in the global table, if this table is layered over one.
+
+  public void recordGlobalLookups () {
+    globalLookups = new HashMap<String, Decl>();
+  }
+
+  public HashMap<String, Decl> globalLookups () {
+    return globalLookups;
+  }
+
+  // Finds the entry for the given identifier as retrieve would have
+  // before the entries from mark on were inserted, provided that no
+  // scope has been closed since.
+
+  public Decl retrieveAsOf (String id, int mark) {
+
     IdEntry entry;
 
-    entry = this.latest;
+    entry = visible.get(id);
+    while (entry != null && entry.stamp >= mark)
+      entry = entry.shadowed;
+    if (entry == null)
+      return globals == null ? null : globals.retrieveAsOf(id, globalsMark);
+    return entry.attr;
+  }
 
-    while (entry != null) {
-      if (entry.level != this.level)
-        return null;
-      if (entry.id.equals(id))
-        break;
-      entry = entry.previousEntry;
-    }
+  // Finds the entry for the given identifier in the current scope
+  // level only. Returns null iff there is none.
+
+  public IdEntry retrieveOneLevel(String id) {
+
+    IdEntry entry;
 
+    entry = visible.get(id);
+    if (entry == null || entry.level != this.level)
+      return null;
     return entry;
   }
 
@@ -0,0 +1,8 @@
+======= The VC compiler =======
+
+Pass 1: Lexical and syntactic Analysis
+ERROR: 4(6017)..4(6019): \q: illegal escape character
+Pass 2: Semantic Analysis
+ERROR: 4(6013)..4(6022): *6: incompatible type for =: 
+ERROR: 4(12024)..4(12024): *5: identifier undeclared: y
+Compilation was unsuccessful.
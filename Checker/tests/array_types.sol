@@ -0,0 +1,9 @@
+======= The VC compiler =======
+
+Pass 1: Lexical and syntactic Analysis
+Pass 2: Semantic Analysis
+ERROR: 20(14)..20(17): *27: wrong type for actual parameter: a
+ERROR: 21(14)..21(21): *27: wrong type for actual parameter: a
+ERROR: 24(13)..24(20): *27: wrong type for actual parameter: a
+ERROR: 25(9)..25(23): *6: incompatible type for =: 
+Compilation was unsuccessful.
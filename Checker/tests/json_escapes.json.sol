@@ -0,0 +1,7 @@
+======= The VC compiler =======
+
+Pass 1: Lexical and syntactic Analysis
+{"severity":"error","code":null,"message":"\\q: illegal escape character","token":"\\q","lineStart":5,"charStart":21,"lineFinish":5,"charFinish":26}
+{"severity":"error","code":null,"message":"say \"hi\" to c:\\dir);: unterminated string","token":"say \"hi\" to c:\\dir);","lineStart":6,"charStart":21,"lineFinish":6,"charFinish":21}
+{"severity":"error","code":null,"message":"\")\" expected here","token":")","lineStart":7,"charStart":9,"lineFinish":7,"charFinish":14}
+Compilation was unsuccessful.
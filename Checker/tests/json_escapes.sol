@@ -0,0 +1,7 @@
+======= The VC compiler =======
+
+Pass 1: Lexical and syntactic Analysis
+ERROR: 5(21)..5(26): \q: illegal escape character
+ERROR: 6(21)..6(21): say "hi" to c:\dir);: unterminated string
+ERROR: 7(9)..7(14): ")" expected here
+Compilation was unsuccessful.
@@ -0,0 +1,17 @@
+======= The VC compiler =======
+
+Pass 1: Lexical and syntactic Analysis
+Pass 2: Semantic Analysis
+ERROR: 10(9)..10(13): *6: incompatible type for =: 
+ERROR: 11(9)..11(13): *6: incompatible type for =: 
+ERROR: 12(9)..12(13): *6: incompatible type for =: 
+ERROR: 14(9)..14(19): *6: incompatible type for =: 
+ERROR: 17(13)..17(17): *9: incompatible type for this binary operator: +
+ERROR: 18(13)..18(14): *10: incompatible type for this unary operator: -
+ERROR: 19(13)..19(14): *10: incompatible type for this unary operator: !
+ERROR: 20(9)..20(17): *6: incompatible type for =: 
+ERROR: 21(19)..21(19): *27: wrong type for actual parameter: x
+ERROR: 22(21)..22(33): *9: incompatible type for this binary operator: +
+ERROR: 23(13)..23(22): *5: identifier undeclared: undeclared
+ERROR: 24(14)..24(23): *5: identifier undeclared: undeclared
+Compilation was unsuccessful.
@@ -0,0 +1,36 @@
+======= The VC compiler =======
+
+Pass 1: Lexical and syntactic Analysis
+Pass 2: Semantic Analysis
+ERROR: 12(17)..12(17): *5: identifier undeclared: x
+Compilation was unsuccessful.
+[# vc #]: Watching watched.vc
+
+[# vc #]: watched.vc changed
+ERROR: 14(17)..14(17): *5: identifier undeclared: x
+[# vc #]: 0 function bodies checked
+Checking was unsuccessful.
+
+[# vc #]: watched.vc changed
+ERROR: 13(17)..13(17): *5: identifier undeclared: x
+[# vc #]: 0 function bodies checked
+Checking was unsuccessful.
+
+[# vc #]: watched.vc changed
+ERROR: 9(3)..9(14): *8: incompatible type for return: 
+ERROR: 13(17)..13(17): *5: identifier undeclared: x
+[# vc #]: 2 function bodies checked
+Checking was unsuccessful.
+
+[# vc #]: watched.vc changed
+ERROR: 5(10)..5(14): *9: incompatible type for this binary operator: +
+ERROR: 9(3)..9(14): *8: incompatible type for return: 
+ERROR: 13(17)..13(17): *5: identifier undeclared: x
+[# vc #]: 1 function bodies checked
+Checking was unsuccessful.
+
+[# vc #]: watched.vc changed
+ERROR: 5(10)..5(14): *9: incompatible type for this binary operator: +
+ERROR: 9(3)..9(14): *8: incompatible type for return: 
+[# vc #]: 1 function bodies checked
+Checking was unsuccessful.
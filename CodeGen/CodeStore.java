@@ -0,0 +1,82 @@
+/*
+ * CodeStore.java
+ */
+
+package VC.CodeGen;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// The Jasmin instructions generated for one program. Every compilation
+// has a store of its own (see VC.CompilationContext), so a compiler
+// running several compilations never mixes up their code.
+//
+// The instructions are kept in chunks of CHUNK_SIZE: when the code
+// grows only a new chunk is allocated and the instructions already
+// stored are never copied.
+
+public final class CodeStore {
+
+	static final int CHUNK_BITS = 10;
+	static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private Instruction[][] chunks = new Instruction[8][];
+	private int nextInstAddr = 0;
+
+	// Appends an instruction to the code
+	public void append(Instruction inst) {
+		int chunk = nextInstAddr >>> CHUNK_BITS;
+		if (chunk == chunks.length) {
+			Instruction[][] newChunks = new Instruction[2 * chunks.length][];
+			System.arraycopy(chunks, 0, newChunks, 0, chunks.length);
+			chunks = newChunks;
+		}
+		if (chunks[chunk] == null)
+			chunks[chunk] = new Instruction[CHUNK_SIZE];
+		chunks[chunk][nextInstAddr & (CHUNK_SIZE - 1)] = inst;
+		nextInstAddr++;
+	}
+
+	public Instruction get(int addr) {
+		return chunks[addr >>> CHUNK_BITS][addr & (CHUNK_SIZE - 1)];
+	}
+
+	public int size() {
+		return nextInstAddr;
+	}
+
+	// Discards all the code, so that the store can be used again.
+	public void clear() {
+		chunks = new Instruction[8][];
+		nextInstAddr = 0;
+	}
+
+	// Writes the code to the given file a chunk at a time, through a
+	// buffer in front of the file's channel. Failing to open or to write
+	// the file is left to the caller.
+	public void dump(String filename) throws IOException {
+		FileChannel channel = FileChannel.open(Paths.get(filename),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+
+		PrintWriter writer = new PrintWriter(new BufferedWriter(
+				Channels.newWriter(channel, Charset.defaultCharset().newEncoder(), -1),
+				BUFFER_SIZE));
+		for (int chunk = 0; chunk << CHUNK_BITS < nextInstAddr; chunk++) {
+			int n = Math.min(CHUNK_SIZE, nextInstAddr - (chunk << CHUNK_BITS));
+			for (int i = 0; i < n; i++)
+				chunks[chunk][i].write(writer);
+		}
+		writer.close();
+
+		// a PrintWriter does not throw but remembers its errors
+		if (writer.checkError())
+			throw new IOException("error writing " + filename);
+	}
+}
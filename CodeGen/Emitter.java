@@ -16,14 +16,16 @@ import java.util.LinkedList;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.ListIterator;
+import java.io.IOException;
 
 import VC.ASTs.*;
+import VC.CompilationContext;
 import VC.ErrorReporter;
-import VC.StdEnvironment;
 
-public final class Emitter implements Visitor {
+public final class Emitter implements GenericVisitor<Void, Frame> {
 
 	private ErrorReporter errorReporter;
+	private CodeStore code;
 	private String inputFilename;
 	private String classname;
 	private String outputFilename;
@@ -31,9 +33,10 @@ public final class Emitter implements Visitor {
    // hashmap<varName, jasminType>
    HashMap<String, String> globals = new HashMap<String, String>();
 
-	public Emitter(String inputFilename, ErrorReporter reporter) {
+	public Emitter(String inputFilename, CompilationContext context) {
 		this.inputFilename = inputFilename;
-		errorReporter = reporter;
+		errorReporter = context.reporter;
+		code = context.code;
 
 		int i = inputFilename.lastIndexOf('.');
 		if (i > 0)
@@ -43,15 +46,19 @@ public final class Emitter implements Visitor {
 
 	}
 
+	public Emitter(String inputFilename, ErrorReporter reporter) {
+		this(inputFilename, new CompilationContext(reporter));
+	}
+
 	// PRE: ast must be a Program node
 
-	public final void gen(AST ast) {
+	public final void gen(AST ast) throws IOException {
 		ast.visit(this, null); 
-		JVM.dump(classname + ".j");
+		code.dump(classname + ".j");
 	}
 
 	// Programs
-	public Object visitProgram(Program ast, Object o) {
+	public Void visitProgram(Program ast, Frame o) {
 		/** This method works for scalar variables only. You need to modify
 		  it to handle all array-related declarations and initialisations.
 		 **/ 
@@ -67,14 +74,12 @@ public final class Emitter implements Visitor {
 
 		// (1) Generate .field definition statements since
 		//     these are required to appear before method definitions
-		List list = ast.FL;
-		while (!list.isEmpty()) {
-			DeclList dlAST = (DeclList) list;
-			if (dlAST.D instanceof GlobalVarDecl) {
-				GlobalVarDecl vAST = (GlobalVarDecl) dlAST.D;
+		Decl[] decls = ast.FL.isEmpty() ? new Decl[0] : ((DeclArray) ast.FL).D;
+		for (Decl decl : decls) {
+			if (decl instanceof GlobalVarDecl) {
+				GlobalVarDecl vAST = (GlobalVarDecl) decl;
 				emit(JVM.STATIC_FIELD, vAST.I.spelling, VCtoJavaType(vAST.T));
 			}
-			list = dlAST.DL;
 		}
 
 		emit("");
@@ -91,12 +96,10 @@ public final class Emitter implements Visitor {
 		/* you have to generate a new frame for each FuncDecl */
 		Frame frame = new Frame(false);
 
-		list = ast.FL;
-		while (!list.isEmpty()) {
-			DeclList dlAST = (DeclList) list;
-			if (dlAST.D instanceof GlobalVarDecl) {
+		for (Decl decl : decls) {
+			if (decl instanceof GlobalVarDecl) {
 				
-				GlobalVarDecl vAST = (GlobalVarDecl) dlAST.D;
+				GlobalVarDecl vAST = (GlobalVarDecl) decl;
 				/* special case for arrays */
 				if (vAST.T.isArrayType()) {
 					/* emit array size */
@@ -111,7 +114,7 @@ public final class Emitter implements Visitor {
 				if (!vAST.E.isEmptyExpr()) {
 					vAST.E.visit(this, frame);
 				} else {
-					if (vAST.T.equals(StdEnvironment.floatType))
+					if (vAST.T.isFloatType())
 						emit(JVM.FCONST_0);
 					else if (!vAST.T.isArrayType())
 						emit(JVM.ICONST_0);
@@ -121,7 +124,6 @@ public final class Emitter implements Visitor {
 				globals.put(vAST.I.spelling, VCtoJavaType(vAST.T));
 				frame.pop();
 			}
-			list = dlAST.DL;
 		}
 
 		emit("");
@@ -151,15 +153,13 @@ public final class Emitter implements Visitor {
 
 	// Statements
 
-	public Object visitStmtList(StmtList ast, Object o) {
-		ast.S.visit(this, o);
-		ast.SL.visit(this, o);
+	public Void visitStmtArray(StmtArray ast, Frame frame) {
+		for (Stmt stmt : ast.S)
+			stmt.visit(this, frame);
 		return null;
 	}
 
-	public Object visitCompoundStmt(CompoundStmt ast, Object o) {
-		Frame frame = (Frame) o; 
-
+	public Void visitCompoundStmt(CompoundStmt ast, Frame frame) {
 		String scopeStart = frame.getNewLabel();
 		String scopeEnd = frame.getNewLabel();
 		frame.scopeStart.push(scopeStart);
@@ -180,11 +180,11 @@ public final class Emitter implements Visitor {
 				frame.pop();
 			} else {
 				emit(JVM.VAR, "0 is this L" + classname + "; from " + (String) frame.scopeStart.peek() + " to " +  (String) frame.scopeEnd.peek());
-				((FuncDecl) ast.parent).PL.visit(this, o);
+				((FuncDecl) ast.parent).PL.visit(this, frame);
 			}
 		}
-		ast.DL.visit(this, o);
-		ast.SL.visit(this, o);
+		ast.DL.visit(this, frame);
+		ast.SL.visit(this, frame);
 		emit(scopeEnd + ":");
 
 		frame.scopeStart.pop();
@@ -192,9 +192,7 @@ public final class Emitter implements Visitor {
 		return null;
 	}
 
-	public Object visitReturnStmt(ReturnStmt ast, Object o) {
-		Frame frame = (Frame)o;
-
+	public Void visitReturnStmt(ReturnStmt ast, Frame frame) {
 		/*
 		   int main() { return 0; } must be interpretted as 
 		   public static void main(String[] args) { return ; }
@@ -207,7 +205,7 @@ public final class Emitter implements Visitor {
 			return null;
 		}
 		
-		ast.E.visit(this, o);
+		ast.E.visit(this, frame);
 		
 		if (ast.E.type.isIntType() || ast.E.type.isBooleanType()) {
 			emit(JVM.IRETURN);
@@ -221,66 +219,65 @@ public final class Emitter implements Visitor {
 
 	}
 
-	public Object visitEmptyStmtList(EmptyStmtList ast, Object o) {
+	public Void visitEmptyStmtList(EmptyStmtList ast, Frame frame) {
 		return null;
 	}
 
-	public Object visitEmptyCompStmt(EmptyCompStmt ast, Object o) {
+	public Void visitEmptyCompStmt(EmptyCompStmt ast, Frame frame) {
 		return null;
 	}
 
-	public Object visitEmptyStmt(EmptyStmt ast, Object o) {
+	public Void visitEmptyStmt(EmptyStmt ast, Frame frame) {
 		return null;
 	}
 
 	// Expressions
 
-	public Object visitCallExpr(CallExpr ast, Object o) {
-		Frame frame = (Frame) o;
+	public Void visitCallExpr(CallExpr ast, Frame frame) {
 		String fname = ast.I.spelling;
 		
 		if (fname.equals("getInt")) {
-			ast.AL.visit(this, o); // push args (if any) into the op stack
+			ast.AL.visit(this, frame); // push args (if any) into the op stack
 			emit("invokestatic VC/lang/System.getInt()I");
 			frame.push();
 		} else if (fname.equals("putInt")) {
-			ast.AL.visit(this, o); // push args (if any) into the op stack
+			ast.AL.visit(this, frame); // push args (if any) into the op stack
 			emit("invokestatic VC/lang/System.putInt(I)V");
 			frame.pop();
 		} else if (fname.equals("putIntLn")) {
-			ast.AL.visit(this, o); // push args (if any) into the op stack
+			ast.AL.visit(this, frame); // push args (if any) into the op stack
 			emit("invokestatic VC/lang/System/putIntLn(I)V");
 			frame.pop();
 		} else if (fname.equals("getFloat")) {
-			ast.AL.visit(this, o); // push args (if any) into the op stack
+			ast.AL.visit(this, frame); // push args (if any) into the op stack
 			emit("invokestatic VC/lang/System/getFloat()F");
 			frame.push();
 		} else if (fname.equals("putFloat")) {
-			ast.AL.visit(this, o); // push args (if any) into the op stack
+			ast.AL.visit(this, frame); // push args (if any) into the op stack
 			emit("invokestatic VC/lang/System/putFloat(F)V");
 			frame.pop();
 		} else if (fname.equals("putFloatLn")) {
-			ast.AL.visit(this, o); // push args (if any) into the op stack
+			ast.AL.visit(this, frame); // push args (if any) into the op stack
 			emit("invokestatic VC/lang/System/putFloatLn(F)V");
 			frame.pop();
 		} else if (fname.equals("putBool")) {
-			ast.AL.visit(this, o); // push args (if any) into the op stack
+			ast.AL.visit(this, frame); // push args (if any) into the op stack
 			emit("invokestatic VC/lang/System/putBool(Z)V");
 			frame.pop();
 		} else if (fname.equals("putBoolLn")) {
-			ast.AL.visit(this, o); // push args (if any) into the op stack
+			ast.AL.visit(this, frame); // push args (if any) into the op stack
 			emit("invokestatic VC/lang/System/putBoolLn(Z)V");
 			frame.pop();
 		} else if (fname.equals("putString")) {
-			ast.AL.visit(this, o);
+			ast.AL.visit(this, frame);
 			emit(JVM.INVOKESTATIC, "VC/lang/System/putString(Ljava/lang/String;)V");
 			frame.pop();
 		} else if (fname.equals("putStringLn")) {
-			ast.AL.visit(this, o);
+			ast.AL.visit(this, frame);
 			emit(JVM.INVOKESTATIC, "VC/lang/System/putStringLn(Ljava/lang/String;)V");
 			frame.pop();
 		} else if (fname.equals("putLn")) {
-			ast.AL.visit(this, o); // push args (if any) into the op stack
+			ast.AL.visit(this, frame); // push args (if any) into the op stack
 			emit("invokestatic VC/lang/System/putLn()V");
 		} else { // programmer-defined functions
 
@@ -293,7 +290,7 @@ public final class Emitter implements Visitor {
 				emit("aload_0"); // this.funcname(...)
 			frame.push();
 
-			ast.AL.visit(this, o);
+			ast.AL.visit(this, frame);
 
 			String retType = VCtoJavaType(fAST.T);
 
@@ -302,10 +299,9 @@ public final class Emitter implements Visitor {
 			// by traversing its field PL.
 
 			StringBuffer argsTypes = new StringBuffer("");
-			List fpl = fAST.PL;
-			while (! fpl.isEmpty()) {
-				argsTypes.append(VCtoJavaType(((ParaList) fpl).P.T));
-				fpl = ((ParaList) fpl).PL;
+			if (! fAST.PL.isEmpty()) {
+				for (ParaDecl para : ((ParaArray) fAST.PL).P)
+					argsTypes.append(VCtoJavaType(para.T));
 			}
 
 			emit("invokevirtual", classname + "/" + fname + "(" + argsTypes + ")" + retType);
@@ -328,43 +324,43 @@ public final class Emitter implements Visitor {
 		return count;
 	}
 
-	public Object visitEmptyExpr(EmptyExpr ast, Object o) {
+	public Void visitEmptyExpr(EmptyExpr ast, Frame frame) {
 		return null;
 	}
 
-	public Object visitIntExpr(IntExpr ast, Object o) {
-		ast.IL.visit(this, o);
+	public Void visitIntExpr(IntExpr ast, Frame frame) {
+		ast.IL.visit(this, frame);
 		return null;
 	}
 
-	public Object visitFloatExpr(FloatExpr ast, Object o) {
-		ast.FL.visit(this, o);
+	public Void visitFloatExpr(FloatExpr ast, Frame frame) {
+		ast.FL.visit(this, frame);
 		return null;
 	}
 
-	public Object visitBooleanExpr(BooleanExpr ast, Object o) {
-		ast.BL.visit(this, o);
+	public Void visitBooleanExpr(BooleanExpr ast, Frame frame) {
+		ast.BL.visit(this, frame);
 		return null;
 	}
 
-	public Object visitStringExpr(StringExpr ast, Object o) {
-		ast.SL.visit(this, o);
+	public Void visitStringExpr(StringExpr ast, Frame frame) {
+		ast.SL.visit(this, frame);
 		return null;
 	}
 
 	// Declarations
 
-	public Object visitDeclList(DeclList ast, Object o) {
-		ast.D.visit(this, o);
-		ast.DL.visit(this, o);
+	public Void visitDeclArray(DeclArray ast, Frame frame) {
+		for (Decl decl : ast.D)
+			decl.visit(this, frame);
 		return null;
 	}
 
-	public Object visitEmptyDeclList(EmptyDeclList ast, Object o) {
+	public Void visitEmptyDeclList(EmptyDeclList ast, Frame frame) {
 		return null;
 	}
 
-	public Object visitFuncDecl(FuncDecl ast, Object o) {
+	public Void visitFuncDecl(FuncDecl ast, Frame o) {
 
 		Frame frame; 
 
@@ -398,10 +394,9 @@ public final class Emitter implements Visitor {
 			// by traversing its field PL.
 
 			StringBuffer argsTypes = new StringBuffer("");
-			List fpl = ast.PL;
-			while (! fpl.isEmpty()) {
-				argsTypes.append(VCtoJavaType(((ParaList) fpl).P.T));
-				fpl = ((ParaList) fpl).PL;
+			if (! ast.PL.isEmpty()) {
+				for (ParaDecl para : ((ParaArray) ast.PL).P)
+					argsTypes.append(VCtoJavaType(para.T));
 			}
 
 			emit(JVM.METHOD_START, ast.I.spelling + "(" + argsTypes + ")" + retType);
@@ -414,7 +409,7 @@ public final class Emitter implements Visitor {
 		// a function returning int or float is not guaranteed to contain
 		// a return. Therefore, we add one at the end just to be sure.
 
-		if (ast.T.equals(StdEnvironment.voidType)) {
+		if (ast.T.isVoidType()) {
 			emit("");
 			emit("; return may not be present in a VC function returning void"); 
 			emit("; The following return inserted by the VC compiler");
@@ -436,13 +431,12 @@ public final class Emitter implements Visitor {
 		return null;
 	}
 
-	public Object visitGlobalVarDecl(GlobalVarDecl ast, Object o) {
+	public Void visitGlobalVarDecl(GlobalVarDecl ast, Frame frame) {
 		// nothing to be done
 		return null;
 	}
 
-	public Object visitLocalVarDecl(LocalVarDecl ast, Object o) {
-		Frame frame = (Frame) o;
+	public Void visitLocalVarDecl(LocalVarDecl ast, Frame frame) {
 		ast.index = frame.getNewIndex();
 		String T = VCtoJavaType(ast.T);
 
@@ -458,7 +452,7 @@ public final class Emitter implements Visitor {
 			emit(JVM.VAR + " " + ast.index + " is " + ast.I.spelling + " [" + T + " from "
 			+ (String) frame.scopeStart.peek() + " to " +  (String) frame.scopeEnd.peek());
 			/* emit array size */
-			at.E.visit(this, o);
+			at.E.visit(this, frame);
 			/* emit array obj refercne */
 			frame.push();
 			emit(JVM.NEWARRAY, VCtoArrayType(at));
@@ -466,7 +460,7 @@ public final class Emitter implements Visitor {
 				/* set type for init Expr */
 				ast.E.type = actualArrayType;
 				/* store initialised stuff */
-				ast.E.visit(this, o);
+				ast.E.visit(this, frame);
 			}
 			/* store obj ref in array variable */
 			frame.pop();
@@ -479,10 +473,10 @@ public final class Emitter implements Visitor {
 		/* if there is a expr after decl then store it */
 		if (!ast.E.isEmptyExpr()) {
 			if (!ast.T.isArrayType())  {
-				ast.E.visit(this, o);
+				ast.E.visit(this, frame);
 			}
 
-			if (ast.T.equals(StdEnvironment.floatType)) {
+			if (ast.T.isFloatType()) {
 				// cannot call emitFSTORE(ast.I) since this I is not an
 				// applied occurrence 
 				if (ast.index >= 0 && ast.index <= 3) 
@@ -490,7 +484,7 @@ public final class Emitter implements Visitor {
 				else
 					emit(JVM.FSTORE, ast.index); 
 				frame.pop();
-			} else if (ast.T.equals(StdEnvironment.intType)) {
+			} else if (ast.T.isIntType()) {
 				// cannot call emitISTORE(ast.I) since this I is not an
 				// applied occurrence 
 				if (ast.index >= 0 && ast.index <= 3) 
@@ -507,14 +501,13 @@ public final class Emitter implements Visitor {
 
 	// Parameters
 
-	public Object visitParaList(ParaList ast, Object o) {
-		ast.P.visit(this, o);
-		ast.PL.visit(this, o);
+	public Void visitParaArray(ParaArray ast, Frame frame) {
+		for (ParaDecl para : ast.P)
+			para.visit(this, frame);
 		return null;
 	}
 
-	public Object visitParaDecl(ParaDecl ast, Object o) {
-		Frame frame = (Frame) o;
+	public Void visitParaDecl(ParaDecl ast, Frame frame) {
 		ast.index = frame.getNewIndex();
 		String T = VCtoJavaType(ast.T);
 
@@ -533,92 +526,87 @@ public final class Emitter implements Visitor {
 		return null;
 	}
 
-	public Object visitEmptyParaList(EmptyParaList ast, Object o) {
+	public Void visitEmptyParaList(EmptyParaList ast, Frame frame) {
 		return null;
 	}
 
 	// Arguments
 
-	public Object visitArgList(ArgList ast, Object o) {
-		ast.A.visit(this, o);
-		ast.AL.visit(this, o);
+	public Void visitArgArray(ArgArray ast, Frame frame) {
+		for (Arg arg : ast.A)
+			arg.visit(this, frame);
 		return null;
 	}
 
-	public Object visitArg(Arg ast, Object o) {
-		ast.E.visit(this, o);
+	public Void visitArg(Arg ast, Frame frame) {
+		ast.E.visit(this, frame);
 		return null;
 	}
 
-	public Object visitEmptyArgList(EmptyArgList ast, Object o) {
+	public Void visitEmptyArgList(EmptyArgList ast, Frame frame) {
 		return null;
 	}
 
 	// Types
 	/* TODO: I don't think we need to worry about types */
-	public Object visitIntType(IntType ast, Object o) {
+	public Void visitIntType(IntType ast, Frame frame) {
 		return null;
 	}
 
-	public Object visitFloatType(FloatType ast, Object o) {
+	public Void visitFloatType(FloatType ast, Frame frame) {
 		return null;
 	}
 
-	public Object visitBooleanType(BooleanType ast, Object o) {
+	public Void visitBooleanType(BooleanType ast, Frame frame) {
 		return null;
 	}
 
-	public Object visitVoidType(VoidType ast, Object o) {
+	public Void visitVoidType(VoidType ast, Frame frame) {
 		return null;
 	}
 
-	public Object visitErrorType(ErrorType ast, Object o) {
+	public Void visitErrorType(ErrorType ast, Frame frame) {
 		return null;
 	}
 
 	// Literals, Identifiers and Operators 
 
-	public Object visitIdent(Ident ast, Object o) {
+	public Void visitIdent(Ident ast, Frame frame) {
 		return null;
 	}
 
-	public Object visitIntLiteral(IntLiteral ast, Object o) {
-		Frame frame = (Frame) o;
+	public Void visitIntLiteral(IntLiteral ast, Frame frame) {
 		Integer i = Integer.parseInt(ast.spelling);
 		emitICONST(i);
 		frame.push();
 		return null;
 	}
 
-	public Object visitFloatLiteral(FloatLiteral ast, Object o) {
-		Frame frame = (Frame) o;
+	public Void visitFloatLiteral(FloatLiteral ast, Frame frame) {
 		emitFCONST(Float.parseFloat(ast.spelling));
 		frame.push();
 		return null;
 	}
 
-	public Object visitBooleanLiteral(BooleanLiteral ast, Object o) {
-		Frame frame = (Frame) o;
+	public Void visitBooleanLiteral(BooleanLiteral ast, Frame frame) {
 		emitBCONST(ast.spelling.equals("true"));
 		frame.push();
 		return null;
 	}
 
-	public Object visitStringLiteral(StringLiteral ast, Object o) {
-		Frame frame = (Frame) o;
+	public Void visitStringLiteral(StringLiteral ast, Frame frame) {
 		emit(JVM.LDC, "\"" + ast.spelling + "\"");
 		frame.push();
 		return null;
 	}
 
-	public Object visitOperator(Operator ast, Object o) {
+	public Void visitOperator(Operator ast, Frame frame) {
 		return null;
 	}
 
 	// Variables 
 
-	public Object visitSimpleVar(SimpleVar ast, Object o) {
-		Frame frame = (Frame) o;
+	public Void visitSimpleVar(SimpleVar ast, Frame frame) {
 		Ident i = (Ident) ast.I;
 		Decl d = (Decl) i.decl;
 		
@@ -647,7 +635,7 @@ public final class Emitter implements Visitor {
 	// Code Store. It is called by all other overloaded emit methods.
 
 	private void emit(String s) {
-		JVM.append(new Instruction(s)); 
+		code.append(new Instruction(s)); 
 	}
 
 	private void emit(String s1, String s2) {
@@ -820,64 +808,60 @@ public final class Emitter implements Visitor {
 			emit(JVM.ICONST_0);
 	}
 
-	private String VCtoJavaType(Type t) {
-		String ret = ""; 
-		
-		if (t.isArrayType()) {
-			ret = "[";
-			t = ((ArrayType) t).T;
-		}
+	// The JVM descriptors of the types, indexed by Type tag, and those
+	// of the arrays, indexed by the tag of their element type.
 
-		if (t.equals(StdEnvironment.booleanType))
-			ret += "Z";
-		else if (t.equals(StdEnvironment.intType))
-			ret += "I";
-		else if (t.equals(StdEnvironment.floatType))
-			ret += "F";
-		else // if (t.equals(StdEnvironment.voidType))
-			ret += "V";
-		
-		return ret;
+	private static final String[] descriptors = {
+		"V", "Z", "I", "F", "V", "V", "V"
+	};
+	private static final String[] arrayDescriptors = {
+		"[V", "[Z", "[I", "[F", "[V", "[V", "[V"
+	};
+
+	private String VCtoJavaType(Type t) {
+		if (t.isArrayType())
+			return arrayDescriptors[((ArrayType) t).T.tag];
+		return descriptors[t.tag];
 	}
 	
 	private String VCtoArrayType(Type t) {
-		Type actualArrayType = ((ArrayType) t).T;
-		if (actualArrayType.equals(StdEnvironment.booleanType))
+		switch (((ArrayType) t).T.tag) {
+		case Type.BOOLEAN:
 			return JVM.BOOLEAN;
-		else if (actualArrayType.equals(StdEnvironment.intType))
+		case Type.INT:
 			return JVM.INT;
-		else if (actualArrayType.equals(StdEnvironment.floatType))
+		case Type.FLOAT:
 			return JVM.FLOAT;
-		else 
+		default:
 			throw new AssertionError("should only get boolean int or float for array type");
+		}
 	}
 
 	@Override
-	public Object visitEmptyExprList(EmptyExprList ast, Object o) {
+	public Void visitEmptyExprList(EmptyExprList ast, Frame frame) {
 		// TODO Auto-generated method stub
 		return null;
 	}
 
 	@Override
-	public Object visitIfStmt(IfStmt ast, Object o) {
-		Frame frame = (Frame) o;
+	public Void visitIfStmt(IfStmt ast, Frame frame) {
 		String failLabel = frame.getNewLabel();
 		String doneLabel = frame.getNewLabel();
 
 		/* push 'if' expr on to stack */
-		ast.E.visit(this, o);
+		ast.E.visit(this, frame);
 		
 		/* check if 'if' expr is true */
 		frame.pop();
 		emit(JVM.IFEQ, failLabel);
 		/* expr is true, visit body of if */
-		ast.S1.visit(this, o);
+		ast.S1.visit(this, frame);
 		/* skip the else's */
 		emit(JVM.GOTO, doneLabel);
 
 		/* expr not true, visit supplementary condition (if any) */
 		emit(failLabel + ":" );
-		ast.S2.visit(this, o);
+		ast.S2.visit(this, frame);
 		
 		/* come here after conditional */
 		emit(doneLabel + ":");
@@ -886,8 +870,7 @@ public final class Emitter implements Visitor {
 	}
 
 	@Override
-	public Object visitWhileStmt(WhileStmt ast, Object o) {
-		Frame frame = (Frame) o;
+	public Void visitWhileStmt(WhileStmt ast, Frame frame) {
 		String startLabel = frame.getNewLabel();
 		String doneLabel = frame.getNewLabel();
 		
@@ -897,12 +880,12 @@ public final class Emitter implements Visitor {
 				
 		emit(startLabel + ":");
 		/* push 1 or 0 onto stack */
-		ast.E.visit(this, o);
+		ast.E.visit(this, frame);
 		/* check if 'while' expr is true */
 		frame.pop();
 		emit(JVM.IFEQ, doneLabel);
 		/* expr is true perform while body and loop back */
-		ast.S.visit(this, o);
+		ast.S.visit(this, frame);
 		emit(JVM.GOTO, startLabel);
 		/* come here on 'while' expr fail */
 		emit(doneLabel + ":");
@@ -914,8 +897,7 @@ public final class Emitter implements Visitor {
 	}
 
 	@Override
-	public Object visitForStmt(ForStmt ast, Object o) {
-		Frame frame = (Frame) o;
+	public Void visitForStmt(ForStmt ast, Frame frame) {
 		String startLabel = frame.getNewLabel();
 		String incrementLabel = frame.getNewLabel();
 		String doneLabel = frame.getNewLabel();
@@ -925,18 +907,18 @@ public final class Emitter implements Visitor {
 		frame.brkStack.push(doneLabel);
 
 		/* perform 'for' initialisation */
-		ast.E1.visit(this, o);
+		ast.E1.visit(this, frame);
 		emit(startLabel + ":");
 		/* push 0 or 1 onto stack */
-		ast.E2.visit(this, o);
+		ast.E2.visit(this, frame);
 		/* check if 'for' expr is false */
 		frame.pop();
 		emit(JVM.IFEQ, doneLabel);
 		/* 'for' expr is true, perform 'for' body */
-		ast.S.visit(this, o);
+		ast.S.visit(this, frame);
 		/* perform increment step */
 		emit(incrementLabel + ":");
-		ast.E3.visit(this, o);
+		ast.E3.visit(this, frame);
 		/* loop back to start */
 		emit(JVM.GOTO, startLabel);
 		/* come here after 'while' cond fail */
@@ -953,8 +935,7 @@ public final class Emitter implements Visitor {
 	 */
 
 	@Override
-	public Object visitBreakStmt(BreakStmt ast, Object o) {
-		Frame frame = (Frame) o;
+	public Void visitBreakStmt(BreakStmt ast, Frame frame) {
 		/* get the done label from parent loop */
 		String doneLabel = frame.brkStack.peek();
 		emit(JVM.GOTO, doneLabel);
@@ -963,27 +944,25 @@ public final class Emitter implements Visitor {
 	}
 
 	@Override
-	public Object visitContinueStmt(ContinueStmt ast, Object o) {
-		Frame frame = (Frame) o;
+	public Void visitContinueStmt(ContinueStmt ast, Frame frame) {
 		String startLabel = frame.conStack.peek();
 		emit(JVM.GOTO, startLabel);
 		return null;
 	}
 
 	@Override
-	public Object visitExprStmt(ExprStmt ast, Object o) {
-		ast.E.visit(this, o);
+	public Void visitExprStmt(ExprStmt ast, Frame frame) {
+		ast.E.visit(this, frame);
 		return null;
 	}
 
 	@Override
-	public Object visitUnaryExpr(UnaryExpr ast, Object o) {
-		Frame frame = (Frame) o;
+	public Void visitUnaryExpr(UnaryExpr ast, Frame frame) {
 		String op = ast.O.spelling;
 
 		/* TODO: test short circuit  for boolean  */
 		/* push expr onto stack */
-		ast.E.visit(this, o);
+		ast.E.visit(this, frame);
 		
 		if (op.equals("i!")) {
 			String falseLabel = frame.getNewLabel();
@@ -1017,8 +996,7 @@ public final class Emitter implements Visitor {
 	}
 
 	@Override
-	public Object visitBinaryExpr(BinaryExpr ast, Object o) {
-		Frame frame = (Frame) o;
+	public Void visitBinaryExpr(BinaryExpr ast, Frame frame) {
 		String op = ast.O.spelling;
 		
 		if (op.equals("i&&")) {
@@ -1026,10 +1004,10 @@ public final class Emitter implements Visitor {
 			String doneLabel = frame.getNewLabel();
 
 			/* check both expr are true */
-			ast.E1.visit(this, o);
+			ast.E1.visit(this, frame);
 			frame.pop();
 			emit(JVM.IFEQ, failLabel);
-			ast.E2.visit(this, o);
+			ast.E2.visit(this, frame);
 			frame.pop();
 			emit(JVM.IFEQ, failLabel);
 
@@ -1050,10 +1028,10 @@ public final class Emitter implements Visitor {
 			String doneLabel = frame.getNewLabel();
 			
 			/* check if either expr are true */
-			ast.E1.visit(this, o);
+			ast.E1.visit(this, frame);
 			frame.pop();
 			emit(JVM.IFNE, successLabel);
-			ast.E2.visit(this, o);
+			ast.E2.visit(this, frame);
 			frame.pop();
 			emit(JVM.IFNE, successLabel);
 			
@@ -1072,8 +1050,8 @@ public final class Emitter implements Visitor {
 		}
 		
 		/* push both expr on to stack */
-		ast.E1.visit(this, o);
-		ast.E2.visit(this, o);
+		ast.E1.visit(this, frame);
+		ast.E2.visit(this, frame);
 		
 		/* the operands are already on the stack */
 		/* TODO: pushing and popping of the frame */
@@ -1120,13 +1098,11 @@ public final class Emitter implements Visitor {
 	}
 
 	@Override
-	public Object visitInitExpr(InitExpr ast, Object o) {
-		Frame frame = (Frame) o;
-		List l =  ast.IL;
+	public Void visitInitExpr(InitExpr ast, Frame frame) {
+		Expr[] elements = ast.IL.isEmpty() ? new Expr[0] : ((ExprArray) ast.IL).E;
 		Integer sizeCounter = 0;
 		
-		while (!l.isEmpty()) {
-			ExprList el = (ExprList) l;
+		for (Expr element : elements) {
 			/* duplicate the array obj ref */
 			frame.push();
 			emit(JVM.DUP);
@@ -1134,7 +1110,7 @@ public final class Emitter implements Visitor {
 			frame.push();
 			emitICONST(sizeCounter);
 			/* emit value which we want to store */
-			el.E.visit(this, o);
+			element.visit(this, frame);
 			/* store instrcution */
 			frame.pop(3);
 			if (ast.type.isIntType()) {
@@ -1146,23 +1122,19 @@ public final class Emitter implements Visitor {
 			} else {
 				throw new AssertionError("visitInitExpr: expect int, boolean, float type");
 			}
-			/* feed the iteration */
-			/* TODO: will this always be true */
-			l = el.EL;
 			sizeCounter++;
 		}
 		return null;
 	}
 
 	@Override
-	public Object visitExprList(ExprList ast, Object o) {
+	public Void visitExprArray(ExprArray ast, Frame frame) {
 		// TODO Auto-generated method stub
 		return null;
 	}
 
 	@Override
-	public Object visitArrayExpr(ArrayExpr ast, Object o) {
-		Frame frame = (Frame) o;
+	public Void visitArrayExpr(ArrayExpr ast, Frame frame) {
 		SimpleVar sv = (SimpleVar) ast.V;
 		Decl arrayDecl = (Decl) sv.I.decl;
 		String globalArrayType = globals.get(sv.I.spelling);
@@ -1178,7 +1150,7 @@ public final class Emitter implements Visitor {
 			emit(JVM.ALOAD, varIndex);
 		}
 		/* load index to store at */
-		ast.E.visit(this, o);
+		ast.E.visit(this, frame);
 		/* if not lhs in assignment, load value onto stack */
 		if (ast.parent instanceof AssignExpr) {
 			AssignExpr e = (AssignExpr) ast.parent;
@@ -1202,22 +1174,21 @@ public final class Emitter implements Visitor {
 	}
 
 	@Override
-	public Object visitVarExpr(VarExpr ast, Object o) {
-		ast.V.visit(this, o);
+	public Void visitVarExpr(VarExpr ast, Frame frame) {
+		ast.V.visit(this, frame);
 		return null;
 	}
 
 	@Override
-	public Object visitAssignExpr(AssignExpr ast, Object o) {
-		Frame frame = (Frame) o;
+	public Void visitAssignExpr(AssignExpr ast, Frame frame) {
 		/* TODO: assignment for global variables */
 
 		/* special case if array */
 		if (ast.E1 instanceof ArrayExpr) {
 			/* put index and obj ref on stack */
-			ast.E1.visit(this, o);
+			ast.E1.visit(this, frame);
 			/* put whatever RHS expr onto stack */
-			ast.E2.visit(this, o);
+			ast.E2.visit(this, frame);
 			/* special case if parent is assign expr */
 			if (ast.parent instanceof AssignExpr) {
 				frame.push();
@@ -1237,7 +1208,7 @@ public final class Emitter implements Visitor {
 		}
 
 		/* put whatever RHS expr onto stack */
-		ast.E2.visit(this, o);
+		ast.E2.visit(this, frame);
 		
 		/* special case if parent is assign expr */
 		if (ast.parent instanceof AssignExpr) {
@@ -1276,13 +1247,13 @@ public final class Emitter implements Visitor {
 	}
 
 	@Override
-	public Object visitStringType(StringType ast, Object o) {
+	public Void visitStringType(StringType ast, Frame frame) {
 		// TODO Auto-generated method stub
 		return null;
 	}
 
 	@Override
-	public Object visitArrayType(ArrayType ast, Object o) {
+	public Void visitArrayType(ArrayType ast, Frame frame) {
 		// TODO Auto-generated method stub
 		return null;
 	}
@@ -4,55 +4,11 @@
 
 package VC.CodeGen;
 
-import java.io.*;
-
 // This JVM includes only a subset the JVM instructions
 
 public final class JVM {
 
-	// CODE STORE
-
-	public static int nextInstAddr = 0;
-	public static int codeSize = 512;
-	public static Instruction[] code = new Instruction[codeSize];
-
-	// In production compilers, expensive array copies will be avoided
-	// when dynamic data structures such as linked lists are used.
-	// This function appends an instructino into the code data structure
-	public static void append(Instruction inst) {
-		/* we don't know how big the code will be
-		 * so we give it a size and if the code array over flows
-		 * then we increase the size of the array */
-		if (nextInstAddr >= codeSize) {
-			Instruction[] newCode = new Instruction[2 * codeSize];
-			/* copy contents of old code array into new */
-			System.arraycopy(code, 0, newCode, 0, codeSize); 
-			/* increase the max code size */
-			codeSize = 2 * code.length;
-			/* make the old code array point to new array */
-			code = newCode;
-		}
-		/* append the instruction to the code array */
-		code[nextInstAddr++] = inst;
-	}
-
-
-	public static void dump(String filename) {
-		PrintWriter writer;
-		try {
-			writer = new PrintWriter(new FileOutputStream(filename));
-			for (int addr = 0; addr < nextInstAddr; addr++)
-				JVM.code[addr].write(writer);
-
-			writer.close();
-		} catch (FileNotFoundException e) {
-			System.out.println ("Error opening object file: " + e); 
-			System.exit(1);
-		} catch (Exception e) {
-			System.out.println ("Error writing object file: " + e); 
-			System.exit(1);
-		}
-	}
+	// The generated code is kept in a CodeStore.
 
 	// Jasmin ASSEMBLY INSTRUCTIONS
 
@@ -173,10 +129,25 @@ public final class JVM {
 
 		       // Object creation and manipulation
 		       NEW = "new",
+		       NEWARRAY = "newarray",
+
+		       // the element types of newarray
+		       BOOLEAN = "boolean",
+		       INT = "int",
+		       FLOAT = "float",
+
+		       // Array loads and stores
+		       IALOAD = "iaload",
+		       FALOAD = "faload",
+		       BALOAD = "baload",
+		       IASTORE = "iastore",
+		       FASTORE = "fastore",
+		       BASTORE = "bastore",
 
 		       // Operand Stack management instructions
 
 		       DUP = "dup",
+		       DUP_X2 = "dup_x2",
 		       POP = "pop", 
 		       NOP = "nop"; 
 
@@ -0,0 +1,26 @@
+======= The VC compiler =======
+
+Pass 1: Lexical and syntactic Analysis
+Pass 2: Semantic Analysis
+Pass 3: Code Generation
+
+dead code: <clinit>: 0 of 1 instructions removed
+dead code: main: 6 of 12 instructions removed
+
+function <clinit>() void
+L0:
+	return
+
+function main() void
+L0:
+	jump L2
+L2:		; preds L0
+	callstatic putIntLn, 20
+	jump L7
+L7:		; preds L2
+	callstatic putStringLn, "taken"
+	jump L8
+L8:		; preds L7
+	return
+
+Compilation was successful.
@@ -0,0 +1,2 @@
+20
+taken
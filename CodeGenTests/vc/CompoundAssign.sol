@@ -0,0 +1,9 @@
+5
+5
+5
+2
+0
+5
+5
+5
+5
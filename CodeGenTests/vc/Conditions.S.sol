@@ -0,0 +1,73 @@
+======= The VC compiler =======
+
+Pass 1: Lexical and syntactic Analysis
+Pass 2: Semantic Analysis
+Pass 3: Code Generation
+
+dead code: <clinit>: 0 of 1 instructions removed
+dead code: check: 1 of 36 instructions removed
+dead code: main: 0 of 6 instructions removed
+
+function <clinit>() void
+L0:
+	return
+
+function check(int a.0, int b.1) void
+L0:
+	t3 = move a.0
+	t4 = move b.1
+	t5 = lt t3, t4
+	branch t5, L5, L4
+L5:		; preds L0
+	t6 = move b.1
+	t7 = lt t6, 10
+	branch t7, L1, L4
+L4:		; preds L0 L5
+	t8 = move a.0
+	t9 = eq t8, 7
+	branch t9, L1, L3
+L1:		; preds L4 L5
+	callstatic putString, "yes "
+	jump L2
+L3:		; preds L4
+	callstatic putString, "no "
+	jump L2
+L2:		; preds L3 L1
+	t10 = move a.0
+	t11 = move b.1
+	t12 = ge t10, t11
+	branch t12, L7, L6
+L6:		; preds L2
+	callstatic putString, "less "
+	jump L7
+L7:		; preds L2 L6
+	t14 = move a.0
+	t15 = move b.1
+	t16 = gt t14, t15
+	branch t16, L8, L11
+L11:		; preds L7
+	t17 = move a.0
+	t18 = eq t17, 0
+	branch t18, L8, L9
+L8:		; preds L7 L11
+	t13 = move true
+	jump L10
+L9:		; preds L11
+	t13 = move false
+	jump L10
+L10:		; preds L9 L8
+	c.2 = move t13
+	t19 = move c.2
+	callstatic putBoolLn, t19
+	return
+
+function main() void
+L0:
+	call check, 1, 2
+	call check, 1, 20
+	call check, 7, 0
+	call check, 0, 0
+	call check, 5, 3
+	return
+
+Compilation was successful.
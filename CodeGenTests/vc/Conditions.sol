@@ -0,0 +1,5 @@
+yes less false
+no less false
+yes true
+no true
+no true
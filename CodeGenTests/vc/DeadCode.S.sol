@@ -0,0 +1,44 @@
+======= The VC compiler =======
+
+Pass 1: Lexical and syntactic Analysis
+Pass 2: Semantic Analysis
+Pass 3: Code Generation
+
+dead code: <clinit>: 0 of 2 instructions removed
+dead code: side: 0 of 5 instructions removed
+dead code: main: 6 of 22 instructions removed
+global int g
+
+function <clinit>() void
+L0:
+	putglobal g, 0
+	return
+
+function side() int
+L0:
+	t0 = getglobal g
+	t1 = add t0, 1
+	putglobal g, t1
+	t2 = getglobal g
+	return t2
+
+function main() void
+L0:
+	t3 = newarray 3
+	a.2 = move t3
+	t4 = call side
+	x.0 = move t4
+	t7 = call side
+	t8 = move x.0
+	t9 = mul t8, 2
+	store a.2, 1, t9
+	t10 = load a.2, 1
+	t11 = move x.0
+	t12 = div t10, t11
+	t13 = move x.0
+	callstatic putIntLn, t13
+	t14 = getglobal g
+	callstatic putIntLn, t14
+	return
+
+Compilation was successful.
@@ -0,0 +1,37 @@
+======= The VC compiler =======
+
+Pass 1: Lexical and syntactic Analysis
+Pass 2: Semantic Analysis
+Pass 3: Code Generation
+
+dead code: <clinit>: 0 of 1 instructions removed
+dead code: f: 0 of 9 instructions removed
+dead code: main: 0 of 5 instructions removed
+
+function <clinit>() void
+L0:
+	return
+
+function f(int n.0) int
+L0:
+	t2 = move n.0
+	t3 = gt t2, 100
+	branch t3, L1, L2
+L1:		; preds L0
+	t4 = move n.0
+	t6 = div t4, 0
+	return t6
+L2:		; preds L0
+	t8 = move n.0
+	t9 = add 3, t8
+	return t9
+
+function main() void
+L0:
+	t0 = call f, 5
+	callstatic putIntLn, t0
+	t1 = call f, 100
+	callstatic putIntLn, t1
+	return
+
+Compilation was successful.
@@ -0,0 +1,34 @@
+======= The VC compiler =======
+
+Pass 1: Lexical and syntactic Analysis
+Pass 2: Semantic Analysis
+Pass 3: Code Generation
+
+dead code: <clinit>: 0 of 1 instructions removed
+dead code: main: 0 of 17 instructions removed
+
+function <clinit>() void
+L0:
+	return
+
+function main() void
+L0:
+	callstatic putFloatLn, 0.33333334f
+	callstatic putFloatLn, 0.3f
+	callstatic putFloatLn, 3.3000002E38f
+	t7 = div 1.0f, 0.0f
+	callstatic putFloatLn, t7
+	t10 = div -1.0f, 0.0f
+	callstatic putFloatLn, t10
+	t13 = div 0.0f, 0.0f
+	callstatic putFloatLn, t13
+	t15 = mul 3.0E38f, 10.0f
+	callstatic putFloatLn, t15
+	t18 = div 0.0f, 0.0f
+	t21 = div 0.0f, 0.0f
+	t22 = eq t18, t21
+	callstatic putBoolLn, t22
+	callstatic putBoolLn, true
+	return
+
+Compilation was successful.
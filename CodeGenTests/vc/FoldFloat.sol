@@ -0,0 +1,9 @@
+0.33333334
+0.3
+3.3000002E38
+Infinity
+-Infinity
+NaN
+Infinity
+false
+true
@@ -0,0 +1,25 @@
+======= The VC compiler =======
+
+Pass 1: Lexical and syntactic Analysis
+Pass 2: Semantic Analysis
+Pass 3: Code Generation
+
+dead code: <clinit>: 0 of 1 instructions removed
+dead code: main: 0 of 8 instructions removed
+
+function <clinit>() void
+L0:
+	return
+
+function main() void
+L0:
+	callstatic putIntLn, -2147483648
+	callstatic putIntLn, 0
+	callstatic putIntLn, -2147479015
+	callstatic putIntLn, 2147483647
+	callstatic putIntLn, -2147483648
+	callstatic putIntLn, 3
+	callstatic putIntLn, -3
+	return
+
+Compilation was successful.
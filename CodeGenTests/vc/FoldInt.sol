@@ -0,0 +1,7 @@
+-2147483648
+0
+-2147479015
+2147483647
+-2147483648
+3
+-3
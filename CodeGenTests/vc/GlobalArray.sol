@@ -0,0 +1,8 @@
+3.1
+0.0
+1
+2
+3
+1
+2
+4
@@ -0,0 +1,102 @@
+======= The VC compiler =======
+
+Pass 1: Lexical and syntactic Analysis
+Pass 2: Semantic Analysis
+Pass 3: Code Generation
+
+dead code: <clinit>: 0 of 3 instructions removed
+dead code: tick: 0 of 4 instructions removed
+dead code: main: 4 of 64 instructions removed
+global int g
+global int count
+
+function <clinit>() void
+L0:
+	putglobal g, 6
+	putglobal count, 0
+	return
+
+function tick() void
+L0:
+	t0 = getglobal count
+	t1 = add t0, 1
+	putglobal count, t1
+	return
+
+function main() void
+L0:
+	s.1 = move 0
+	i.0 = move 0
+	jump L13
+L13:		; preds L0
+	t5 = getglobal g
+	t6 = mul t5, 2
+	jump L1
+L1:		; preds L13 L3
+	t2 = move i.0
+	t3 = lt t2, 5
+	branch t3, L2, L4
+L2:		; preds L1
+	t4 = move s.1
+	t7 = add t4, t6
+	s.1 = move t7
+	jump L3
+L3:		; preds L2
+	t8 = move i.0
+	t9 = add t8, 1
+	i.0 = move t9
+	jump L1
+L4:		; preds L1
+	t10 = move s.1
+	callstatic putIntLn, t10
+	s.1 = move 0
+	i.0 = move 0
+	jump L5
+L5:		; preds L4 L7
+	t11 = move i.0
+	t12 = lt t11, 5
+	branch t12, L6, L8
+L6:		; preds L5
+	t13 = move s.1
+	t14 = getglobal g
+	t15 = add t13, t14
+	s.1 = move t15
+	call tick
+	jump L7
+L7:		; preds L6
+	t16 = move i.0
+	t17 = add t16, 1
+	i.0 = move t17
+	jump L5
+L8:		; preds L5
+	t18 = move s.1
+	callstatic putIntLn, t18
+	s.1 = move 0
+	i.0 = move 0
+	jump L9
+L9:		; preds L8 L11
+	t19 = move i.0
+	t20 = lt t19, 5
+	branch t20, L10, L12
+L10:		; preds L9
+	t21 = move s.1
+	t22 = getglobal g
+	t23 = add t21, t22
+	s.1 = move t23
+	t24 = getglobal g
+	t25 = add t24, 1
+	putglobal g, t25
+	jump L11
+L11:		; preds L10
+	t26 = move i.0
+	t27 = add t26, 1
+	i.0 = move t27
+	jump L9
+L12:		; preds L9
+	t28 = move s.1
+	callstatic putIntLn, t28
+	t29 = getglobal count
+	callstatic putIntLn, t29
+	return
+
+Compilation was successful.
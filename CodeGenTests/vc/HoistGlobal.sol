@@ -0,0 +1,4 @@
+60
+30
+40
+5
@@ -0,0 +1,5 @@
+Given array is 
+12 11 13 5 6 7 
+
+Sorted array is 
+5 6 7 11 12 13 
@@ -0,0 +1,6 @@
+1
+2
+3
+1
+2
+4
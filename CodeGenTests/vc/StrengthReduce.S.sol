@@ -0,0 +1,77 @@
+======= The VC compiler =======
+
+Pass 1: Lexical and syntactic Analysis
+Pass 2: Semantic Analysis
+Pass 3: Code Generation
+
+dead code: <clinit>: 0 of 1 instructions removed
+dead code: sum: 4 of 25 instructions removed
+dead code: main: 3 of 28 instructions removed
+
+function <clinit>() void
+L0:
+	return
+
+function sum(int k.0, int n.1) int
+L0:
+	s.3 = move 0
+	i.2 = move 0
+	jump L5
+L5:		; preds L0
+	t15 = mul i.2, k.0
+	jump L1
+L1:		; preds L5 L3
+	t4 = move i.2
+	t5 = move n.1
+	t6 = lt t4, t5
+	branch t6, L2, L4
+L2:		; preds L1
+	t7 = move s.3
+	t10 = move t15
+	t11 = add t7, t10
+	s.3 = move t11
+	jump L3
+L3:		; preds L2
+	t12 = move i.2
+	t13 = add t12, 1
+	i.2 = move t13
+	t15 = add t15, k.0
+	jump L1
+L4:		; preds L1
+	t14 = move s.3
+	return t14
+
+function main() void
+L0:
+	s.1 = move 0
+	i.0 = move 0
+	jump L5
+L5:		; preds L0
+	t14 = mul i.0, 7
+	jump L1
+L1:		; preds L5 L3
+	t2 = move i.0
+	t3 = lt t2, 10
+	branch t3, L2, L4
+L2:		; preds L1
+	t4 = move s.1
+	t6 = move t14
+	t7 = add t4, t6
+	s.1 = move t7
+	jump L3
+L3:		; preds L2
+	t8 = move i.0
+	t9 = add t8, 2
+	i.0 = move t9
+	t14 = add t14, 14
+	jump L1
+L4:		; preds L1
+	t10 = move s.1
+	callstatic putIntLn, t10
+	t11 = call sum, 3, 4
+	callstatic putIntLn, t11
+	t13 = call sum, -2, 10
+	callstatic putIntLn, t13
+	return
+
+Compilation was successful.
@@ -0,0 +1,3 @@
+140
+18
+-90
@@ -0,0 +1,27 @@
+/*
+ * CompilationContext.java
+ *
+ * Everything that belongs to the compilation of one VC program and
+ * used to be kept in static fields: the standard environment, the
+ * error reporter and the store for the generated code. The Checker
+ * and the Emitter of a compilation are given the same context, and
+ * compilations with different contexts can run in parallel threads.
+ */
+
+package VC;
+
+import VC.CodeGen.CodeStore;
+
+public final class CompilationContext {
+
+  public final ErrorReporter reporter;
+  public final StdEnvironment std;
+  public final CodeStore code;
+
+  public CompilationContext(ErrorReporter reporter) {
+    this.reporter = reporter;
+    this.std = new StdEnvironment();
+    this.code = new CodeStore();
+  }
+
+}
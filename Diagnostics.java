@@ -0,0 +1,254 @@
+/*
+ * Diagnostics.java
+ *
+ * The errors reported by a compilation, kept as compact records until
+ * they are printed: the message template, interned to a number, the
+ * name that replaces its '%' and the points where it starts and
+ * finishes (see SourcePosition.point).
+ * Printing sorts the errors by position, keeping
+ * the order of those reported at the same one, drops repeated ones and
+ * writes them all at once, either in the format vc has always used or
+ * as one JSON object per line. A restriction has no position and stays
+ * where it was reported: after the errors reported before it and
+ * before those reported after it.
+ */
+
+package VC;
+
+import VC.Scanner.SourcePosition;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+final class Diagnostics {
+
+  static final int TEXT = 0, JSON = 1;
+
+  // the kinds of records
+  private static final byte ERROR = 0, RESTRICTION = 1;
+
+  private int format = TEXT;
+
+  private ArrayList<String> templates = new ArrayList<String>();
+  private ArrayList<Integer> codes = new ArrayList<Integer>();
+  private HashMap<String, Integer> templateNumbers = new HashMap<String, Integer>();
+
+  private int count = 0;
+  private byte[] kinds = new byte[16];
+  private int[] templateOf = new int[16];
+  private String[] tokenNames = new String[16];
+  private long[] starts = new long[16], finishes = new long[16];
+
+  void setFormat(int format) {
+    this.format = format;
+  }
+
+  // The reporters sharing a Diagnostics all report from the thread
+  // running the pass; errors found in other threads are deferred and
+  // replayed there.
+
+  void add(String template, String tokenName, long start, long finish) {
+    add(ERROR, template, tokenName, start, finish);
+  }
+
+  void addRestriction(String message) {
+    add(RESTRICTION, message, null, 0, 0);
+  }
+
+  private void add(byte kind, String template, String tokenName, long start,
+                   long finish) {
+    if (count == kinds.length) {
+      int capacity = 2 * count;
+      kinds = Arrays.copyOf(kinds, capacity);
+      templateOf = Arrays.copyOf(templateOf, capacity);
+      tokenNames = Arrays.copyOf(tokenNames, capacity);
+      starts = Arrays.copyOf(starts, capacity);
+      finishes = Arrays.copyOf(finishes, capacity);
+    }
+    kinds[count] = kind;
+    templateOf[count] = number(template);
+    tokenNames[count] = tokenName;
+    starts[count] = start;
+    finishes[count] = finish;
+    count++;
+  }
+
+  private int number(String template) {
+    Integer n = templateNumbers.get(template);
+    if (n == null) {
+      n = templates.size();
+      templates.add(template);
+      codes.add(code(template));
+      templateNumbers.put(template, n);
+    }
+    return n;
+  }
+
+  // The Checker's messages start with their number, as in
+  // "*5: identifier undeclared"; the others have no code (-1).
+
+  private static int code(String template) {
+    int i = 1, code = 0;
+    if (!template.startsWith("*"))
+      return -1;
+    for (; i < template.length() && Character.isDigit(template.charAt(i)); i++)
+      code = 10 * code + template.charAt(i) - '0';
+    return i > 1 && i < template.length() && template.charAt(i) == ':' ? code : -1;
+  }
+
+  // Prints the records kept so far and forgets them.
+
+  void flush(PrintStream out) {
+    if (count == 0)
+      return;
+    int[] order = new int[count], work = new int[count];
+    for (int i = 0; i < count; i++)
+      order[i] = i;
+
+    StringBuilder buffer = new StringBuilder(64 * count);
+    int from = 0;
+    while (from < count) {
+      // the errors up to the next restriction
+      int to = from;
+      while (to < count && kinds[to] == ERROR)
+        to++;
+      sort(order, work, from, to);
+      int first = from; // of the records at the current position
+      for (int k = from; k < to; k++) {
+        int i = order[k];
+        if (comparePositions(i, order[first]) != 0)
+          first = k;
+        if (!repeated(order, first, k))
+          render(buffer, i);
+      }
+      if (to < count)
+        render(buffer, to++);
+      from = to;
+    }
+    out.print(buffer);
+    out.flush();
+
+    count = 0;
+    Arrays.fill(tokenNames, null);
+  }
+
+  // Sorts order[from..to) by position, lines before columns, keeping
+  // the order of records at the same one: a merge sort through work.
+
+  private void sort(int[] order, int[] work, int from, int to) {
+    if (to - from < 2)
+      return;
+    int middle = (from + to) >>> 1;
+    sort(order, work, from, middle);
+    sort(order, work, middle, to);
+    if (comparePositions(order[middle - 1], order[middle]) <= 0)
+      return;
+    System.arraycopy(order, from, work, from, to - from);
+    int i = from, j = middle;
+    for (int k = from; k < to; k++)
+      if (j == to || i < middle && comparePositions(work[i], work[j]) <= 0)
+        order[k] = work[i++];
+      else
+        order[k] = work[j++];
+  }
+
+  // Points compare as their longs do.
+
+  private int comparePositions(int a, int b) {
+    int c = compare(starts[a], starts[b]);
+    if (c == 0)
+      c = compare(finishes[a], finishes[b]);
+    return c;
+  }
+
+  private static int compare(long x, long y) {
+    return x < y ? -1 : x > y ? 1 : 0;
+  }
+
+  private boolean repeated(int[] order, int first, int k) {
+    int i = order[k];
+    for (int j = first; j < k; j++) {
+      int r = order[j];
+      if (kinds[r] == kinds[i] && templateOf[r] == templateOf[i]
+          && (tokenNames[r] == null ? tokenNames[i] == null
+                                    : tokenNames[r].equals(tokenNames[i])))
+        return true;
+    }
+    return false;
+  }
+
+  private void render(StringBuilder buffer, int i) {
+    String template = templates.get(templateOf[i]);
+    if (kinds[i] == RESTRICTION) {
+      if (format == JSON) {
+        buffer.append("{\"severity\":\"restriction\",\"message\":");
+        appendString(buffer, template);
+        buffer.append("}\n");
+      } else
+        buffer.append("RESTRICTION: ").append(template).append('\n');
+      return;
+    }
+
+    if (format == JSON) {
+      int code = codes.get(templateOf[i]);
+      buffer.append("{\"severity\":\"error\",\"code\":");
+      if (code < 0)
+        buffer.append("null");
+      else
+        buffer.append(code);
+      buffer.append(",\"message\":");
+      appendString(buffer, message(template, tokenNames[i]));
+      buffer.append(",\"token\":");
+      if (tokenNames[i] == null)
+        buffer.append("null");
+      else
+        appendString(buffer, tokenNames[i]);
+      buffer.append(",\"lineStart\":").append(SourcePosition.line(starts[i]))
+        .append(",\"charStart\":").append(SourcePosition.column(starts[i]))
+        .append(",\"lineFinish\":").append(SourcePosition.line(finishes[i]))
+        .append(",\"charFinish\":").append(SourcePosition.column(finishes[i]))
+        .append("}\n");
+    } else {
+      buffer.append("ERROR: ")
+        .append(SourcePosition.line(starts[i])).append('(')
+        .append(SourcePosition.column(starts[i])).append(")..")
+        .append(SourcePosition.line(finishes[i])).append('(')
+        .append(SourcePosition.column(finishes[i])).append("): ")
+        .append(message(template, tokenNames[i])).append('\n');
+    }
+  }
+
+  // Each '%' in the template stands for the token's name.
+
+  private static String message(String template, String tokenName) {
+    if (template.indexOf('%') < 0)
+      return template;
+    StringBuilder message = new StringBuilder();
+    for (int p = 0; p < template.length(); p++)
+      if (template.charAt(p) == '%')
+        message.append(tokenName);
+      else
+        message.append(template.charAt(p));
+    return message.toString();
+  }
+
+  private static void appendString(StringBuilder buffer, String s) {
+    buffer.append('"');
+    for (int p = 0; p < s.length(); p++) {
+      char c = s.charAt(p);
+      if (c == '"' || c == '\\')
+        buffer.append('\\').append(c);
+      else if (c == '\n')
+        buffer.append("\\n");
+      else if (c == '\t')
+        buffer.append("\\t");
+      else if (c < ' ')
+        buffer.append(String.format("\\u%04x", (int) c));
+      else
+        buffer.append(c);
+    }
+    buffer.append('"');
+  }
+
+}
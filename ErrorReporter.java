@@ -1,5 +1,8 @@
 /*
  * ErrorReporter.java     
+ *
+ * Errors are not printed as they are reported but kept in a
+ * Diagnostics, and printed together by flush() at the end of a pass.
  */
 
 package VC;
@@ -8,28 +11,50 @@ import VC.Scanner.SourcePosition;
 
 public class ErrorReporter {
 
+  public static final int TEXT = Diagnostics.TEXT, JSON = Diagnostics.JSON;
+
   public int numErrors;
 
+  private Diagnostics diagnostics;
+
   public ErrorReporter() {
     numErrors = 0;
+    diagnostics = new Diagnostics();
   }
 
-  public void reportError(String message, String tokenName, SourcePosition pos) {
-    System.out.print ("ERROR: ");
-    System.out.print(pos.lineStart + "(" + pos.charStart + ").." +
-                     pos.lineFinish+ "(" + pos.charFinish + "): ");
+  // A reporter that counts its own errors but has them printed with
+  // those of reporter.
+
+  public ErrorReporter(ErrorReporter reporter) {
+    numErrors = 0;
+    diagnostics = reporter.diagnostics;
+  }
 
-    for (int p = 0; p < message.length(); p++)
-    if (message.charAt(p) == '%')
-      System.out.print(tokenName);
-    else
-      System.out.print(message.charAt(p));
+  // TEXT or JSON (one object per line)
+
+  public void setFormat(int format) {
+    diagnostics.setFormat(format);
+  }
 
-    System.out.println();
+  // The position is given by the points where it starts and finishes
+  // (see SourcePosition.point), as the tokens and the AST keep it.
+
+  public void reportError(String message, String tokenName, long start, long finish) {
+    diagnostics.add(message, tokenName, start, finish);
     numErrors++;
   }
 
+  public void reportError(String message, String tokenName, SourcePosition pos) {
+    reportError(message, tokenName, pos.start(), pos.finish());
+  }
+
   public void reportRestriction(String message) {
-    System.out.println("RESTRICTION: " + message);
+    diagnostics.addRestriction(message);
+  }
+
+  // Prints the errors reported so far, in the order of the source.
+
+  public void flush() {
+    diagnostics.flush(System.out);
   }
 }
@@ -0,0 +1,38 @@
+/*
+ * Block.java
+ *
+ * A basic block: instructions that are executed one after the other,
+ * ending in a terminator, which names the successors of the block.
+ * The edges of the control-flow graph are kept in succs and preds by
+ * Function.buildCFG.
+ */
+
+package VC.IR;
+
+import java.util.ArrayList;
+
+public final class Block {
+
+	public final int number; // unique within the function
+
+	public final ArrayList<Instr> instrs = new ArrayList<Instr>();
+	public final ArrayList<Block> succs = new ArrayList<Block>();
+	public final ArrayList<Block> preds = new ArrayList<Block>();
+
+	Block(int number) {
+		this.number = number;
+	}
+
+	public String label() {
+		return "L" + number;
+	}
+
+	// the terminator, or null while the block is being built
+	public Instr last() {
+		if (instrs.isEmpty())
+			return null;
+		Instr last = instrs.get(instrs.size() - 1);
+		return last.isTerminator() ? last : null;
+	}
+
+}
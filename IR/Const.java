@@ -0,0 +1,92 @@
+/*
+ * Const.java
+ *
+ * A constant operand. Booleans are held as the ints 0 and 1, as the
+ * JVM holds them.
+ */
+
+package VC.IR;
+
+public final class Const extends Value {
+
+	public final int intValue; // of an int or a boolean
+	public final float floatValue;
+	public final String stringValue;
+
+	private Const(int type, int intValue, float floatValue, String stringValue) {
+		super(type);
+		this.intValue = intValue;
+		this.floatValue = floatValue;
+		this.stringValue = stringValue;
+	}
+
+	public static Const ofInt(int value) {
+		return new Const(INT, value, 0, null);
+	}
+
+	public static Const ofFloat(float value) {
+		return new Const(FLOAT, 0, value, null);
+	}
+
+	public static Const ofBoolean(boolean value) {
+		return new Const(BOOLEAN, value ? 1 : 0, 0, null);
+	}
+
+	public static Const ofString(String value) {
+		return new Const(STRING, 0, 0, value);
+	}
+
+	// the zero of a scalar type, which a variable without an
+	// initialiser starts with
+	public static Const zero(int type) {
+		switch (type) {
+		case FLOAT:
+			return ofFloat(0);
+		case BOOLEAN:
+			return ofBoolean(false);
+		default:
+			return ofInt(0);
+		}
+	}
+
+	public boolean booleanValue() {
+		return intValue != 0;
+	}
+
+	public String toString() {
+		switch (type) {
+		case BOOLEAN:
+			return booleanValue() ? "true" : "false";
+		case FLOAT:
+			return floatValue + "f";
+		case STRING:
+			return quote(stringValue);
+		default:
+			return Integer.toString(intValue);
+		}
+	}
+
+	// s as a string literal of Jasmin, which has no escape for a
+	// backslash but the octal one
+
+	static String quote(String s) {
+		StringBuilder quoted = new StringBuilder(s.length() + 2);
+		quoted.append('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+			case '\b': quoted.append("\\b"); break;
+			case '\t': quoted.append("\\t"); break;
+			case '\n': quoted.append("\\n"); break;
+			case '\f': quoted.append("\\f"); break;
+			case '\r': quoted.append("\\r"); break;
+			case '"': quoted.append("\\\""); break;
+			case '\\': quoted.append("\\134"); break;
+			default: quoted.append(c);
+			}
+		}
+		quoted.append('"');
+		return quoted.toString();
+	}
+
+}
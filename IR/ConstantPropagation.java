@@ -0,0 +1,466 @@
+/*
+ * ConstantPropagation.java
+ *
+ * Folds the operations of the IR whose operands are constants, and
+ * propagates the constants assigned to temps into the instructions
+ * using them. Only the paths the program can take are followed: a
+ * branch on a constant leads to one of its targets, so the other one
+ * contributes nothing to the values known where the two paths meet
+ * (the conditional constant propagation of Wegman and Zadeck).
+ *
+ * As the temps of a function are assigned more than once, the values
+ * are kept by definition rather than by temp, and each operand is
+ * linked to the definitions of its temp that reach it (its def-use
+ * chains, found once from the reaching definitions). The value of an
+ * operand is the meet of the values of those definitions; a definition
+ * in a block that cannot be reached keeps none. When the value of a
+ * definition changes, only the instructions using it are evaluated
+ * again.
+ *
+ * Operations are evaluated as the JVM evaluates them: ints wrap around
+ * and floats are rounded to single precision. A division of ints by
+ * zero is left to trap when the program runs, and so is every float
+ * operation that yields an infinity or NaN, which Jasmin cannot write
+ * as a literal.
+ */
+
+package VC.IR;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+public final class ConstantPropagation {
+
+	// The value of a temp that may hold different values, or one that is
+	// not known until the program runs. A definition whose value is null
+	// has not been evaluated on any path followed so far.
+	private static final Value VARYING = new Value(Value.VOID) {};
+
+	// The instructions of the function, numbered in the order of its
+	// blocks, and its definitions: one for each parameter, then one for
+	// each instruction assigning a temp.
+
+	private Instr[] instrs;
+	private Block[] blockOf;     // by instruction
+	private int[] first;         // by block number: the number of its first instruction
+	private int[] defOf;         // by instruction: the definition it makes, or -1
+	private int[][] defsOf;      // by temp number: its definitions
+	private int[][][] reaching;  // by instruction and operand: the definitions reaching it
+	private int[][] users;       // by definition: the instructions using it
+	private Value[] values;      // by definition
+
+	private boolean[] reached;   // by block number
+	private ArrayList<Block> blockWork = new ArrayList<Block>();
+	private int[] instrWork = new int[16];
+	private int numInstrWork = 0;
+
+	public void run(Module module) {
+		run(module.init);
+		for (Function f : module.functions)
+			run(f);
+	}
+
+	public void run(Function f) {
+		number(f);
+		chain(f, reachingDefinitions(f));
+		values = new Value[defsCount()];
+		for (int d = 0; d < f.params.size(); d++)
+			values[d] = VARYING;
+
+		reached = new boolean[f.numBlocks()];
+		reach(f.entry());
+		while (!blockWork.isEmpty() || numInstrWork > 0) {
+			if (!blockWork.isEmpty()) {
+				Block b = blockWork.remove(blockWork.size() - 1);
+				for (int k = first[b.number]; k < first[b.number] + b.instrs.size(); k++)
+					visit(k);
+			} else {
+				int k = instrWork[--numInstrWork];
+				if (reached[blockOf[k].number])
+					visit(k);
+			}
+		}
+
+		for (int k = 0; k < instrs.length; k++)
+			if (reached[blockOf[k].number])
+				rewrite(k);
+		removeUnusedConstants(f);
+		f.buildCFG();
+	}
+
+	private int defsCount() {
+		int n = 0;
+		for (int[] defs : defsOf)
+			n += defs.length;
+		return n;
+	}
+
+	// Numbering
+
+	private void number(Function f) {
+		int n = 0;
+		first = new int[f.numBlocks()];
+		for (Block b : f.blocks) {
+			first[b.number] = n;
+			n += b.instrs.size();
+		}
+		instrs = new Instr[n];
+		blockOf = new Block[n];
+		defOf = new int[n];
+
+		int[] count = new int[f.temps.size()];
+		for (Temp p : f.params)
+			count[p.number]++;
+		int k = 0, numDefs = f.params.size();
+		for (Block b : f.blocks)
+			for (Instr i : b.instrs) {
+				instrs[k] = i;
+				blockOf[k] = b;
+				defOf[k] = i.dst == null ? -1 : numDefs++;
+				if (i.dst != null)
+					count[i.dst.number]++;
+				k++;
+			}
+
+		defsOf = new int[count.length][];
+		for (int t = 0; t < count.length; t++) {
+			defsOf[t] = new int[count[t]];
+			count[t] = 0;
+		}
+		for (int d = 0; d < f.params.size(); d++) {
+			int t = f.params.get(d).number;
+			defsOf[t][count[t]++] = d;
+		}
+		for (k = 0; k < n; k++)
+			if (defOf[k] >= 0) {
+				int t = instrs[k].dst.number;
+				defsOf[t][count[t]++] = defOf[k];
+			}
+	}
+
+	// Def-use chains
+
+	// The definitions reaching the start of each block, by block number,
+	// whether or not the paths they take can be followed.
+
+	private BitSet[] reachingDefinitions(Function f) {
+		int numBlocks = f.numBlocks();
+		BitSet[] gen = new BitSet[numBlocks], kill = new BitSet[numBlocks];
+		BitSet[] in = new BitSet[numBlocks], out = new BitSet[numBlocks];
+		for (Block b : f.blocks) {
+			gen[b.number] = new BitSet();
+			kill[b.number] = new BitSet();
+			for (int k = first[b.number]; k < first[b.number] + b.instrs.size(); k++)
+				if (defOf[k] >= 0) {
+					for (int d : defsOf[instrs[k].dst.number]) {
+						kill[b.number].set(d);
+						gen[b.number].clear(d);
+					}
+					gen[b.number].set(defOf[k]);
+				}
+			in[b.number] = new BitSet();
+			out[b.number] = (BitSet) gen[b.number].clone();
+		}
+		in[f.entry().number].set(0, f.params.size());
+
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (Block b : f.blocks) {
+				BitSet reaching = in[b.number];
+				for (Block p : b.preds)
+					reaching.or(out[p.number]);
+				BitSet leaving = (BitSet) reaching.clone();
+				leaving.andNot(kill[b.number]);
+				leaving.or(gen[b.number]);
+				if (!leaving.equals(out[b.number])) {
+					out[b.number] = leaving;
+					changed = true;
+				}
+			}
+		}
+		return in;
+	}
+
+	// Links each operand to the definitions reaching it, and each
+	// definition to the instructions using it.
+
+	private void chain(Function f, BitSet[] in) {
+		reaching = new int[instrs.length][][];
+		int[] local = new int[f.temps.size()]; // the last definition in the block, if any
+		int[] localIn = new int[f.temps.size()]; // 1 + the block it is in
+		int[] uses = new int[defsCount()];
+		int blockIndex = 0;
+		for (Block b : f.blocks) {
+			blockIndex++;
+			for (int k = first[b.number]; k < first[b.number] + b.instrs.size(); k++) {
+				Value[] args = instrs[k].args;
+				reaching[k] = new int[args.length][];
+				for (int a = 0; a < args.length; a++) {
+					if (!(args[a] instanceof Temp))
+						continue;
+					int t = ((Temp) args[a]).number;
+					int[] defs;
+					if (localIn[t] == blockIndex)
+						defs = new int[] { local[t] };
+					else
+						defs = reachingOf(defsOf[t], in[b.number]);
+					reaching[k][a] = defs;
+					for (int d : defs)
+						uses[d]++;
+				}
+				if (defOf[k] >= 0) {
+					int t = instrs[k].dst.number;
+					local[t] = defOf[k];
+					localIn[t] = blockIndex;
+				}
+			}
+		}
+
+		users = new int[uses.length][];
+		for (int d = 0; d < uses.length; d++) {
+			users[d] = new int[uses[d]];
+			uses[d] = 0;
+		}
+		for (int k = 0; k < instrs.length; k++)
+			for (int[] defs : reaching[k])
+				if (defs != null)
+					for (int d : defs)
+						users[d][uses[d]++] = k;
+	}
+
+	private static int[] reachingOf(int[] defs, BitSet in) {
+		int n = 0;
+		for (int d : defs)
+			if (in.get(d))
+				n++;
+		int[] reaching = new int[n];
+		n = 0;
+		for (int d : defs)
+			if (in.get(d))
+				reaching[n++] = d;
+		return reaching;
+	}
+
+	// Propagation
+
+	private void reach(Block b) {
+		if (!reached[b.number]) {
+			reached[b.number] = true;
+			blockWork.add(b);
+		}
+	}
+
+	// Evaluates instruction k again: the value of its definition, whose
+	// users are then evaluated again if it changes, or the targets of its
+	// jump or branch that can be taken.
+
+	private void visit(int k) {
+		Instr i = instrs[k];
+		int d = defOf[k];
+		if (d >= 0) {
+			Value v = evaluate(k);
+			if (!equal(v, values[d])) {
+				values[d] = v;
+				for (int u : users[d])
+					push(u);
+			}
+		} else if (i.op == Instr.JUMP)
+			reach(i.target);
+		else if (i.op == Instr.BRANCH) {
+			Value c = operand(k, 0);
+			if (c == VARYING) {
+				reach(i.target);
+				reach(i.other);
+			} else if (c != null)
+				reach(((Const) c).booleanValue() ? i.target : i.other);
+		}
+	}
+
+	private void push(int k) {
+		if (numInstrWork == instrWork.length)
+			instrWork = Arrays.copyOf(instrWork, 2 * numInstrWork);
+		instrWork[numInstrWork++] = k;
+	}
+
+	private static boolean equal(Value a, Value b) {
+		if (a == b)
+			return true;
+		if (a instanceof Const && b instanceof Const)
+			return same((Const) a, (Const) b);
+		return false;
+	}
+
+	// The value of operand a of instruction k: the meet of those of the
+	// definitions reaching it.
+
+	private Value operand(int k, int a) {
+		Value v = instrs[k].args[a];
+		if (v instanceof Const)
+			return v;
+		Value m = null;
+		for (int d : reaching[k][a])
+			m = meet(m, values[d]);
+		return m;
+	}
+
+	private static Value meet(Value a, Value b) {
+		if (a == null)
+			return b;
+		if (b == null || a == b)
+			return a;
+		if (a == VARYING || b == VARYING || !same((Const) a, (Const) b))
+			return VARYING;
+		return a;
+	}
+
+	private static boolean same(Const a, Const b) {
+		return a.type == b.type && a.intValue == b.intValue
+			&& Float.floatToIntBits(a.floatValue) == Float.floatToIntBits(b.floatValue)
+			&& (a.stringValue == null ? b.stringValue == null : a.stringValue.equals(b.stringValue));
+	}
+
+	// The value instruction k assigns, given those of its operands.
+
+	private Value evaluate(int k) {
+		Instr i = instrs[k];
+		switch (i.op) {
+		case Instr.MOVE:
+			return operand(k, 0);
+		case Instr.ADD:
+		case Instr.SUB:
+		case Instr.MUL:
+		case Instr.DIV:
+		case Instr.NEG:
+		case Instr.NOT:
+		case Instr.I2F:
+		case Instr.EQ:
+		case Instr.NE:
+		case Instr.LT:
+		case Instr.LE:
+		case Instr.GT:
+		case Instr.GE:
+			Value a = operand(k, 0);
+			Value b = i.args.length > 1 ? operand(k, 1) : a;
+			if (a == null || b == null)
+				return null;
+			if (a == VARYING || b == VARYING)
+				return VARYING;
+			return fold(i.op, (Const) a, (Const) b);
+		default:
+			return VARYING;
+		}
+	}
+
+	// a op b, or op a for the unary operations, which ignore b
+
+	private static Value fold(int op, Const a, Const b) {
+		if (a.type == Value.FLOAT) {
+			float x = a.floatValue, y = b.floatValue;
+			switch (op) {
+			case Instr.ADD:
+				return floatResult(x + y);
+			case Instr.SUB:
+				return floatResult(x - y);
+			case Instr.MUL:
+				return floatResult(x * y);
+			case Instr.DIV:
+				return floatResult(x / y);
+			case Instr.NEG:
+				return floatResult(-x);
+			case Instr.EQ:
+				return Const.ofBoolean(x == y);
+			case Instr.NE:
+				return Const.ofBoolean(x != y);
+			case Instr.LT:
+				return Const.ofBoolean(x < y);
+			case Instr.LE:
+				return Const.ofBoolean(x <= y);
+			case Instr.GT:
+				return Const.ofBoolean(x > y);
+			default:
+				return Const.ofBoolean(x >= y);
+			}
+		}
+
+		int x = a.intValue, y = b.intValue;
+		switch (op) {
+		case Instr.ADD:
+			return Const.ofInt(x + y);
+		case Instr.SUB:
+			return Const.ofInt(x - y);
+		case Instr.MUL:
+			return Const.ofInt(x * y);
+		case Instr.DIV:
+			return y == 0 ? VARYING : Const.ofInt(x / y);
+		case Instr.NEG:
+			return Const.ofInt(-x);
+		case Instr.NOT:
+			return Const.ofBoolean(x == 0);
+		case Instr.I2F:
+			return floatResult((float) x);
+		case Instr.EQ:
+			return Const.ofBoolean(x == y);
+		case Instr.NE:
+			return Const.ofBoolean(x != y);
+		case Instr.LT:
+			return Const.ofBoolean(x < y);
+		case Instr.LE:
+			return Const.ofBoolean(x <= y);
+		case Instr.GT:
+			return Const.ofBoolean(x > y);
+		default:
+			return Const.ofBoolean(x >= y);
+		}
+	}
+
+	private static Value floatResult(float f) {
+		return Float.isInfinite(f) || Float.isNaN(f) ? VARYING : Const.ofFloat(f);
+	}
+
+	// Replaces the temps known to be constant in instruction k by their
+	// values, an operation yielding a constant by a move and a branch on
+	// a constant by a jump.
+
+	private void rewrite(int k) {
+		Instr i = instrs[k];
+		for (int a = 0; a < i.args.length; a++) {
+			Value v = operand(k, a);
+			if (v instanceof Const)
+				i.args[a] = v;
+		}
+		if (i.dst != null) {
+			Value v = values[defOf[k]];
+			if (v instanceof Const && i.op <= Instr.GE) {
+				i.op = Instr.MOVE;
+				i.args = new Value[] { v };
+			}
+		} else if (i.op == Instr.BRANCH && i.args[0] instanceof Const) {
+			if (!((Const) i.args[0]).booleanValue())
+				i.target = i.other;
+			i.op = Instr.JUMP;
+			i.other = null;
+			i.args = new Value[0];
+		}
+	}
+
+	// Removes the moves of constants to temps that are no longer used,
+	// now that their uses have the constants instead.
+
+	private static void removeUnusedConstants(Function f) {
+		boolean[] used = new boolean[f.temps.size()];
+		for (Block b : f.blocks)
+			for (Instr i : b.instrs)
+				for (Value v : i.args)
+					if (v instanceof Temp)
+						used[((Temp) v).number] = true;
+		for (Block b : f.blocks)
+			for (int k = b.instrs.size() - 1; k >= 0; k--) {
+				Instr i = b.instrs.get(k);
+				if (i.op == Instr.MOVE && i.args[0] instanceof Const && !used[i.dst.number])
+					b.instrs.remove(k);
+			}
+	}
+
+}
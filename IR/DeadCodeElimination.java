@@ -0,0 +1,170 @@
+/*
+ * DeadCodeElimination.java
+ *
+ * Removes from the IR of a function:
+ *
+ *   - the instructions computing values that are never used, such as
+ *     the value of an expression statement or a store to a variable
+ *     that is assigned again before it is read, as long as computing
+ *     them has no effect of its own (a call, a store into an array, a
+ *     load from one or an int division that may trap);
+ *   - the blocks that only jump to another one, by jumping to where
+ *     they lead directly; and
+ *   - the blocks that the program cannot reach.
+ *
+ * Whether a temp is used is found from its liveness, which is computed
+ * over the control-flow graph. Removing an instruction may leave its
+ * operands unused in turn, or its block with only a jump, so this is
+ * repeated until nothing changes.
+ */
+
+package VC.IR;
+
+import java.io.PrintStream;
+import java.util.BitSet;
+
+public final class DeadCodeElimination {
+
+	private final PrintStream stats; // null if the instructions removed are not reported
+
+	public DeadCodeElimination(PrintStream stats) {
+		this.stats = stats;
+	}
+
+	public void run(Module module) {
+		run(module.init);
+		for (Function f : module.functions)
+			run(f);
+	}
+
+	public void run(Function f) {
+		int before = size(f);
+		// removing instructions may leave blocks that only jump, such
+		// as the preheader of a loop whose invariants were all dead
+		boolean removed;
+		do {
+			bypassJumps(f);
+			f.buildCFG();
+			removed = false;
+			while (removeDeadInstrs(f))
+				removed = true;
+		} while (removed);
+		if (stats != null)
+			stats.println("dead code: " + f.name + ": " + (before - size(f)) + " of "
+				+ before + " instructions removed");
+	}
+
+	private static int size(Function f) {
+		int n = 0;
+		for (Block b : f.blocks)
+			n += b.instrs.size();
+		return n;
+	}
+
+	// Jumps and branches
+
+	// Makes the terminators go directly where the blocks they lead to
+	// would jump to; the blocks bypassed are then no longer reached. A
+	// branch with both targets the same becomes a jump.
+
+	private static void bypassJumps(Function f) {
+		for (Block b : f.blocks) {
+			Instr last = b.last();
+			if (last.target != null)
+				last.target = destination(last.target, f.numBlocks());
+			if (last.other != null)
+				last.other = destination(last.other, f.numBlocks());
+			if (last.op == Instr.BRANCH && last.target == last.other) {
+				last.op = Instr.JUMP;
+				last.other = null;
+				last.args = new Value[0];
+			}
+		}
+	}
+
+	// Where the program goes to from b after the jumps it finds there;
+	// limit stops at a loop made of jumps only.
+
+	private static Block destination(Block b, int limit) {
+		while (limit-- > 0 && b.instrs.size() == 1 && b.instrs.get(0).op == Instr.JUMP)
+			b = b.instrs.get(0).target;
+		return b;
+	}
+
+	// Instructions
+
+	// Removes the instructions whose results are dead; returns false if
+	// there are none.
+
+	private static boolean removeDeadInstrs(Function f) {
+		BitSet[] liveOut = liveness(f);
+		boolean removed = false;
+		for (Block b : f.blocks) {
+			BitSet live = (BitSet) liveOut[b.number].clone();
+			for (int k = b.instrs.size() - 1; k >= 0; k--) {
+				Instr i = b.instrs.get(k);
+				if (i.dst != null && !live.get(i.dst.number) && isPure(i)) {
+					b.instrs.remove(k);
+					removed = true;
+				} else
+					transfer(i, live);
+			}
+		}
+		return removed;
+	}
+
+	// The temps live at the end of each block, by block number.
+
+	private static BitSet[] liveness(Function f) {
+		BitSet[] liveIn = new BitSet[f.numBlocks()];
+		BitSet[] liveOut = new BitSet[f.numBlocks()];
+		for (Block b : f.blocks) {
+			liveIn[b.number] = new BitSet();
+			liveOut[b.number] = new BitSet();
+		}
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int j = f.blocks.size() - 1; j >= 0; j--) {
+				Block b = f.blocks.get(j);
+				BitSet live = liveOut[b.number];
+				for (Block s : b.succs)
+					live.or(liveIn[s.number]);
+				live = (BitSet) live.clone();
+				for (int k = b.instrs.size() - 1; k >= 0; k--)
+					transfer(b.instrs.get(k), live);
+				if (!live.equals(liveIn[b.number])) {
+					liveIn[b.number] = live;
+					changed = true;
+				}
+			}
+		}
+		return liveOut;
+	}
+
+	// The temps live before i, given those live after it.
+
+	private static void transfer(Instr i, BitSet live) {
+		if (i.dst != null)
+			live.clear(i.dst.number);
+		for (Value v : i.args)
+			if (v instanceof Temp)
+				live.set(((Temp) v).number);
+	}
+
+	// whether i has no effect but assigning its result
+	private static boolean isPure(Instr i) {
+		switch (i.op) {
+		case Instr.DIV:
+			return i.dst.type == Value.FLOAT
+				|| i.args[1] instanceof Const && ((Const) i.args[1]).intValue != 0;
+		case Instr.NEWARRAY:
+			return i.args[0] instanceof Const && ((Const) i.args[0]).intValue >= 0;
+		case Instr.GETGLOBAL:
+			return true;
+		default:
+			return i.op <= Instr.GE;
+		}
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Function.java
+ *
+ * The IR of a VC function, or of the static initialiser of the
+ * globals: its parameters and other temps, and its basic blocks in the
+ * order they are laid out in the code, the entry block first.
+ *
+ * All the functions are static methods of the class generated; main
+ * has the parameter argv besides, which the IR does not use.
+ */
+
+package VC.IR;
+
+import java.util.ArrayList;
+
+public final class Function {
+
+	public final String name;
+	public final int returnType;
+	public final boolean isMain;
+
+	public final ArrayList<Temp> params = new ArrayList<Temp>();
+	public final ArrayList<Temp> temps = new ArrayList<Temp>(); // by number
+	public final ArrayList<Block> blocks = new ArrayList<Block>();
+
+	private int numBlocks = 0;
+
+	public Function(String name, int returnType, boolean isMain) {
+		this.name = name;
+		this.returnType = returnType;
+		this.isMain = isMain;
+	}
+
+	public Temp newTemp(int type) {
+		return newVariable(null, type);
+	}
+
+	public Temp newVariable(String name, int type) {
+		Temp t = new Temp(temps.size(), name, type);
+		temps.add(t);
+		return t;
+	}
+
+	public Temp newParam(String name, int type) {
+		Temp t = newVariable(name, type);
+		params.add(t);
+		return t;
+	}
+
+	// A new block, which is not laid out until it is added to blocks.
+	public Block newBlock() {
+		return new Block(numBlocks++);
+	}
+
+	// the number of blocks made so far, which is larger than the number
+	// of every block
+	public int numBlocks() {
+		return numBlocks;
+	}
+
+	public Block entry() {
+		return blocks.get(0);
+	}
+
+	// The JVM descriptor of the method.
+	public String descriptor() {
+		if (isMain)
+			return "([Ljava/lang/String;)V";
+		StringBuilder d = new StringBuilder("(");
+		for (Temp p : params)
+			d.append(Value.descriptor(p.type));
+		return d.append(')').append(Value.descriptor(returnType)).toString();
+	}
+
+	// Recomputes the edges of the control-flow graph from the
+	// terminators and drops the blocks that cannot be reached from the
+	// entry block.
+
+	public void buildCFG() {
+		for (Block b : blocks) {
+			b.succs.clear();
+			b.preds.clear();
+		}
+		boolean[] reached = new boolean[numBlocks];
+		ArrayList<Block> work = new ArrayList<Block>();
+		work.add(entry());
+		reached[entry().number] = true;
+		while (!work.isEmpty()) {
+			Block b = work.remove(work.size() - 1);
+			Instr last = b.last();
+			addEdge(b, last.target, reached, work);
+			addEdge(b, last.other, reached, work);
+		}
+
+		int kept = 0;
+		for (Block b : blocks)
+			if (reached[b.number])
+				blocks.set(kept++, b);
+		while (blocks.size() > kept)
+			blocks.remove(blocks.size() - 1);
+	}
+
+	private static void addEdge(Block from, Block to, boolean[] reached,
+			ArrayList<Block> work) {
+		if (to == null || from.succs.contains(to))
+			return;
+		from.succs.add(to);
+		to.preds.add(from);
+		if (!reached[to.number]) {
+			reached[to.number] = true;
+			work.add(to);
+		}
+	}
+
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		s.append("function ").append(name).append('(');
+		for (int i = 0; i < params.size(); i++) {
+			Temp p = params.get(i);
+			s.append(i == 0 ? "" : ", ").append(Value.name(p.type)).append(' ').append(p);
+		}
+		s.append(") ").append(Value.name(returnType)).append('\n');
+		for (Block b : blocks) {
+			s.append(b.label()).append(':');
+			if (!b.preds.isEmpty()) {
+				s.append("\t\t; preds");
+				for (Block p : b.preds)
+					s.append(' ').append(p.label());
+			}
+			s.append('\n');
+			for (Instr i : b.instrs)
+				s.append('\t').append(i).append('\n');
+		}
+		return s.toString();
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Instr.java
+ *
+ * A three-address instruction: an operation, the Temp it assigns, if
+ * any, and its operands. The last instruction of every Block, and only
+ * that one, is a terminator: JUMP, BRANCH or RETURN.
+ */
+
+package VC.IR;
+
+public final class Instr {
+
+	public static final int
+		MOVE = 0,        // dst = a
+		ADD = 1,         // dst = a + b, of ints or of floats
+		SUB = 2,         // dst = a - b
+		MUL = 3,         // dst = a * b
+		DIV = 4,         // dst = a / b
+		NEG = 5,         // dst = -a
+		NOT = 6,         // dst = !a
+		I2F = 7,         // dst = (float) a
+		EQ = 8,          // dst = a == b, a boolean
+		NE = 9,          // dst = a != b
+		LT = 10,         // dst = a < b
+		LE = 11,         // dst = a <= b
+		GT = 12,         // dst = a > b
+		GE = 13,         // dst = a >= b
+		GETGLOBAL = 14,  // dst = name
+		PUTGLOBAL = 15,  // name = a
+		NEWARRAY = 16,   // dst = new element[a]
+		LOAD = 17,       // dst = a[b]
+		STORE = 18,      // a[b] = c
+		CALL = 19,       // [dst =] name(args), a function of the program
+		CALLSTATIC = 20, // [dst =] name(args), a method of VC.lang.System
+		JUMP = 21,       // goto target
+		BRANCH = 22,     // if a goto target else goto other
+		RETURN = 23;     // return [a]
+
+	private static final String[] mnemonics = {
+		"move", "add", "sub", "mul", "div", "neg", "not", "i2f",
+		"eq", "ne", "lt", "le", "gt", "ge",
+		"getglobal", "putglobal", "newarray", "load", "store",
+		"call", "callstatic", "jump", "branch", "return"
+	};
+
+	private static final Value[] NO_ARGS = new Value[0];
+
+	public int op;
+	public Temp dst;
+	public Value[] args;
+
+	// the global variable or the function, with its JVM descriptor
+	public String name, descriptor;
+
+	public Block target, other;
+
+	public Instr(int op, Temp dst, Value... args) {
+		this.op = op;
+		this.dst = dst;
+		this.args = args == null ? NO_ARGS : args;
+	}
+
+	public boolean isTerminator() {
+		return op >= JUMP;
+	}
+
+	public boolean isComparison() {
+		return EQ <= op && op <= GE;
+	}
+
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		if (dst != null)
+			s.append(dst).append(" = ");
+		s.append(mnemonics[op]);
+		if (name != null)
+			s.append(' ').append(name);
+		for (int i = 0; i < args.length; i++)
+			s.append(i == 0 && name == null ? " " : ", ").append(args[i]);
+		if (target != null)
+			s.append(args.length == 0 ? " " : ", ").append(target.label());
+		if (other != null)
+			s.append(", ").append(other.label());
+		return s.toString();
+	}
+
+}
@@ -0,0 +1,476 @@
+/*
+ * JasminBackend.java
+ *
+ * Translates the IR of a program into Jasmin assembly, into the code
+ * store of the compilation, and writes it to classname + ".j".
+ *
+ * Every temp lives in a local variable of its own, except those used
+ * exactly once, in the block that computes them: these are left on
+ * the operand stack for the instruction that uses them, as long as it
+ * finds them there in the order of its operands. Otherwise they are
+ * stored after all. Between two IR instructions the operand stack thus
+ * holds exactly the temps in pending, and it is empty at the start and
+ * at the end of every block.
+ */
+
+package VC.IR;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+
+import VC.CodeGen.CodeStore;
+import VC.CodeGen.Instruction;
+import VC.CodeGen.JVM;
+import VC.CompilationContext;
+
+public final class JasminBackend {
+
+	private static final String SYSTEM = "VC/lang/System";
+
+	// the conditional jumps of the comparisons, in the order Instr.EQ to
+	// Instr.GE, and the negation of each comparison
+	private static final String[] IF = {
+		JVM.IFEQ, JVM.IFNE, JVM.IFLT, JVM.IFLE, JVM.IFGT, JVM.IFGE
+	};
+
+	private static final String[] IF_ICMP = {
+		JVM.IF_ICMPEQ, JVM.IF_ICMPNE, JVM.IF_ICMPLT, JVM.IF_ICMPLE, JVM.IF_ICMPGT, JVM.IF_ICMPGE
+	};
+
+	private static final int[] NEGATION = { 1, 0, 5, 4, 3, 2 }; // of EQ, NE, LT, LE, GT, GE
+
+	private final CodeStore code;
+	private String classname;
+
+	// The function being translated, and what is known about its temps,
+	// by number
+	private Function function;
+	private int[] uses;
+	private boolean[] stacked;
+	private int[] slots; // -1 until given a local variable
+	private int numSlots;
+
+	private ArrayList<Temp> pending = new ArrayList<Temp>(); // bottom first
+	private int depth, maxDepth;
+	private int nextLabel;
+	private Block next; // laid out after the block being translated
+
+	public JasminBackend(CompilationContext context) {
+		code = context.code;
+	}
+
+	public void gen(Module module) throws IOException {
+		classname = module.classname;
+
+		emit(JVM.CLASS + " public " + classname);
+		emit(JVM.SUPER + " java/lang/Object");
+		emit("");
+		for (Map.Entry<String, Integer> g : module.globals.entrySet())
+			emit(JVM.STATIC_FIELD + " " + g.getKey() + " " + Value.descriptor(g.getValue()));
+		emit("");
+
+		emit("; standard class static initializer ");
+		genFunction(module.init, "static <clinit>()V");
+		emit("");
+
+		emit("; standard constructor initializer ");
+		emit(JVM.METHOD_START + " public <init>()V");
+		emit(JVM.LIMIT + " stack 1");
+		emit(JVM.LIMIT + " locals 1");
+		emit(JVM.ALOAD_0);
+		emit(JVM.INVOKESPECIAL + " java/lang/Object/<init>()V");
+		emit(JVM.RETURN);
+		emit(JVM.METHOD_END + " method");
+
+		for (Function f : module.functions) {
+			emit("");
+			genFunction(f, f.isMain ? "public static main" + f.descriptor()
+					: "static " + f.name + f.descriptor());
+		}
+
+		code.dump(classname + ".j");
+	}
+
+	// Functions
+
+	private void genFunction(Function f, String header) {
+		function = f;
+		analyse();
+		depth = maxDepth = 0;
+		nextLabel = f.numBlocks();
+		String end = newLabel();
+
+		emit(JVM.METHOD_START + " " + header);
+		for (Temp t : f.temps)
+			if (t.isVariable() && slots[t.number] >= 0)
+				emit(JVM.VAR + " " + slots[t.number] + " is " + t.name + " "
+						+ Value.descriptor(t.type) + " from " + f.entry().label()
+						+ " to " + end);
+
+		for (int i = 0; i < f.blocks.size(); i++) {
+			Block b = f.blocks.get(i);
+			next = i + 1 < f.blocks.size() ? f.blocks.get(i + 1) : null;
+			emit(b.label() + ":");
+			for (int k = 0; k < b.instrs.size(); k++) {
+				Instr instr = b.instrs.get(k);
+				if (k + 2 == b.instrs.size() && isBranchOn(b.last(), instr)) {
+					genBranch(instr, b.last());
+					break;
+				}
+				gen(instr);
+			}
+		}
+		emit(end + ":");
+
+		emit("");
+		emit("; set limits used by this method");
+		emit(JVM.LIMIT + " locals " + numSlots);
+		emit(JVM.LIMIT + " stack " + maxDepth);
+		emit(JVM.METHOD_END + " method");
+	}
+
+	// Counts the uses of the temps, decides which are left on the stack
+	// and gives the others their local variables: first the parameters,
+	// after argv for main, then the rest in the order they were made.
+
+	private void analyse() {
+		int n = function.temps.size();
+		uses = new int[n];
+		stacked = new boolean[n];
+		slots = new int[n];
+		int[] defs = new int[n];
+		Instr[] def = new Instr[n];
+		Block[] defBlock = new Block[n], useBlock = new Block[n];
+		int[] defAt = new int[n], useAt = new int[n];
+
+		for (Block b : function.blocks)
+			for (int k = 0; k < b.instrs.size(); k++) {
+				Instr i = b.instrs.get(k);
+				for (Value v : i.args)
+					if (v instanceof Temp) {
+						int t = ((Temp) v).number;
+						uses[t]++;
+						useBlock[t] = b;
+						useAt[t] = k;
+					}
+				if (i.dst != null) {
+					int t = i.dst.number;
+					defs[t]++;
+					defBlock[t] = b;
+					defAt[t] = k;
+				}
+			}
+
+		numSlots = function.isMain ? 1 : 0;
+		for (int t = 0; t < n; t++)
+			slots[t] = -1;
+		for (Temp p : function.params)
+			slots[p.number] = numSlots++;
+		for (Temp t : function.temps) {
+			int k = t.number;
+			stacked[k] = !t.isVariable() && defs[k] == 1 && uses[k] == 1
+				&& defBlock[k] == useBlock[k] && defAt[k] < useAt[k];
+			if (slots[k] < 0 && !stacked[k] && uses[k] > 0)
+				slots[k] = numSlots++;
+		}
+		pending.clear();
+	}
+
+	// Instructions
+
+	private void gen(Instr i) {
+		switch (i.op) {
+		case Instr.MOVE:
+			operands(i.args);
+			break;
+		case Instr.ADD:
+		case Instr.SUB:
+		case Instr.MUL:
+		case Instr.DIV:
+			operands(i.args);
+			emit(arithmetic(i.op, i.dst.type), -1);
+			break;
+		case Instr.NEG:
+			operands(i.args);
+			emit(i.dst.type == Value.FLOAT ? JVM.FNEG : JVM.INEG, 0);
+			break;
+		case Instr.NOT:
+			operands(i.args);
+			emit(JVM.ICONST_1, 1);
+			emit(JVM.IXOR, -1);
+			break;
+		case Instr.I2F:
+			operands(i.args);
+			emit(JVM.I2F, 0);
+			break;
+		case Instr.EQ:
+		case Instr.NE:
+		case Instr.LT:
+		case Instr.LE:
+		case Instr.GT:
+		case Instr.GE:
+			operands(i.args);
+			compare(i.op, i.args[0].type);
+			break;
+		case Instr.GETGLOBAL:
+			operands(i.args);
+			emit(JVM.GETSTATIC + " " + classname + "/" + i.name + " " + i.descriptor, 1);
+			break;
+		case Instr.PUTGLOBAL:
+			operands(i.args);
+			emit(JVM.PUTSTATIC + " " + classname + "/" + i.name + " " + i.descriptor, -1);
+			break;
+		case Instr.NEWARRAY:
+			operands(i.args);
+			emit(JVM.NEWARRAY + " " + arrayAccess(Value.elementOf(i.dst.type),
+					JVM.INT, JVM.FLOAT, JVM.BOOLEAN), 0);
+			break;
+		case Instr.LOAD:
+			operands(i.args);
+			emit(arrayAccess(i.dst.type, JVM.IALOAD, JVM.FALOAD, JVM.BALOAD), -1);
+			break;
+		case Instr.STORE:
+			operands(i.args);
+			emit(arrayAccess(i.args[2].type, JVM.IASTORE, JVM.FASTORE, JVM.BASTORE), -3);
+			break;
+		case Instr.CALL:
+		case Instr.CALLSTATIC:
+			operands(i.args);
+			emit(JVM.INVOKESTATIC + " " + (i.op == Instr.CALL ? classname : SYSTEM)
+					+ "/" + i.name + i.descriptor,
+					(i.dst == null ? 0 : 1) - i.args.length);
+			break;
+		case Instr.JUMP:
+			flush();
+			if (i.target != next)
+				emit(JVM.GOTO + " " + i.target.label(), 0);
+			break;
+		case Instr.BRANCH:
+			operands(i.args);
+			flush();
+			if (i.target == next)
+				emit(JVM.IFEQ + " " + i.other.label(), -1);
+			else {
+				emit(JVM.IFNE + " " + i.target.label(), -1);
+				if (i.other != next)
+					emit(JVM.GOTO + " " + i.other.label(), 0);
+			}
+			break;
+		case Instr.RETURN:
+			operands(i.args);
+			flush();
+			if (i.args.length == 0)
+				emit(JVM.RETURN, 0);
+			else
+				emit(i.args[0].type == Value.FLOAT ? JVM.FRETURN : JVM.IRETURN, -1);
+			break;
+		}
+		if (i.dst != null)
+			result(i.dst);
+	}
+
+	// Whether branch tests the result of compare, which is left on the
+	// stack for it, so that the two become a conditional jump.
+
+	private boolean isBranchOn(Instr branch, Instr compare) {
+		return branch.op == Instr.BRANCH && compare.isComparison()
+			&& branch.args[0] == compare.dst && stacked[compare.dst.number];
+	}
+
+	private void genBranch(Instr compare, Instr branch) {
+		Value[] args = compare.args;
+		boolean againstZero = args[0].type != Value.FLOAT && isZero(args[1]);
+		operands(againstZero ? new Value[] { args[0] } : args);
+		if (branch.target == next)
+			jumpIf(compare.op, args[0].type, againstZero, true, branch.other.label());
+		else {
+			jumpIf(compare.op, args[0].type, againstZero, false, branch.target.label());
+			if (branch.other != next)
+				emit(JVM.GOTO + " " + branch.other.label(), 0);
+		}
+	}
+
+	private static boolean isZero(Value v) {
+		return v instanceof Const && ((Const) v).intValue == 0;
+	}
+
+	private static String arithmetic(int op, int type) {
+		boolean f = type == Value.FLOAT;
+		switch (op) {
+		case Instr.ADD:
+			return f ? JVM.FADD : JVM.IADD;
+		case Instr.SUB:
+			return f ? JVM.FSUB : JVM.ISUB;
+		case Instr.MUL:
+			return f ? JVM.FMUL : JVM.IMUL;
+		default:
+			return f ? JVM.FDIV : JVM.IDIV;
+		}
+	}
+
+	// Jumps to label if a op b, or if not when negated, taking a and b
+	// off the stack; or only a, when b is an int 0 that was not pushed.
+	// Floats are compared so that the comparisons with NaN are false,
+	// but !=, and the negations of these true.
+
+	private void jumpIf(int op, int type, boolean againstZero, boolean negated, String label) {
+		int cond = negated ? NEGATION[op - Instr.EQ] : op - Instr.EQ;
+		if (type == Value.FLOAT) {
+			emit(op == Instr.GT || op == Instr.GE ? JVM.FCMPL : JVM.FCMPG, -1);
+			emit(IF[cond] + " " + label, -1);
+		} else if (againstZero)
+			emit(IF[cond] + " " + label, -1);
+		else
+			emit(IF_ICMP[cond] + " " + label, -2);
+	}
+
+	private static String arrayAccess(int element, String ints, String floats, String booleans) {
+		return element == Value.FLOAT ? floats : element == Value.BOOLEAN ? booleans : ints;
+	}
+
+	// Leaves 1 on the stack if a op b and 0 otherwise.
+
+	private void compare(int op, int type) {
+		String ifTrue = newLabel(), done = newLabel();
+		jumpIf(op, type, false, false, ifTrue);
+		emit(JVM.ICONST_0, 1);
+		emit(JVM.GOTO + " " + done, 0);
+		emit(ifTrue + ":");
+		depth--;
+		emit(JVM.ICONST_1, 1);
+		emit(done + ":");
+	}
+
+	// The operand stack
+
+	// Puts the operands on the stack. Those already there are used if
+	// they are the first operands and are on top of the stack in order;
+	// if some operand is on the stack anywhere else, everything there is
+	// stored and loaded again.
+
+	private void operands(Value[] args) {
+		int k = Math.min(args.length, pending.size());
+		while (k > 0 && !onTop(args, k))
+			k--;
+		for (int j = k; j < args.length; j++)
+			if (pending.indexOf(args[j]) >= 0) {
+				flush();
+				k = 0;
+				break;
+			}
+		for (int j = 0; j < k; j++)
+			pending.remove(pending.size() - 1);
+		for (int j = k; j < args.length; j++)
+			load(args[j]);
+	}
+
+	private boolean onTop(Value[] args, int k) {
+		int base = pending.size() - k;
+		for (int j = 0; j < k; j++)
+			if (pending.get(base + j) != args[j])
+				return false;
+		return true;
+	}
+
+	// Stores all that is on the stack.
+
+	private void flush() {
+		for (int j = pending.size() - 1; j >= 0; j--) {
+			Temp t = pending.get(j);
+			stacked[t.number] = false;
+			store(t);
+		}
+		pending.clear();
+	}
+
+	// The result of an instruction is on the stack: it is left there,
+	// stored or, if it is not used, popped.
+
+	private void result(Temp t) {
+		if (uses[t.number] == 0)
+			emit(JVM.POP, -1);
+		else if (stacked[t.number])
+			pending.add(t);
+		else
+			store(t);
+	}
+
+	private void load(Value v) {
+		if (v instanceof Const) {
+			Const c = (Const) v;
+			switch (c.type) {
+			case Value.FLOAT:
+				loadFloat(c.floatValue);
+				break;
+			case Value.STRING:
+				emit(JVM.LDC + " " + Const.quote(c.stringValue), 1);
+				break;
+			default:
+				loadInt(c.intValue);
+			}
+			return;
+		}
+		Temp t = (Temp) v;
+		emit(local(t.type, JVM.ILOAD, JVM.FLOAD, JVM.ALOAD) + slot(t), 1);
+	}
+
+	private void store(Temp t) {
+		emit(local(t.type, JVM.ISTORE, JVM.FSTORE, JVM.ASTORE) + slot(t), -1);
+	}
+
+	private String local(int type, String ints, String floats, String refs) {
+		return type == Value.FLOAT ? floats : Value.isArray(type) || type == Value.STRING ? refs : ints;
+	}
+
+	// " n", or "_n" for the slots with an instruction of their own
+	private String slot(Temp t) {
+		if (slots[t.number] < 0)
+			slots[t.number] = numSlots++;
+		int n = slots[t.number];
+		return (n <= 3 ? "_" : " ") + n;
+	}
+
+	private void loadInt(int value) {
+		if (value == -1)
+			emit(JVM.ICONST_M1, 1);
+		else if (value >= 0 && value <= 5)
+			emit(JVM.ICONST + "_" + value, 1);
+		else if (value >= -128 && value <= 127)
+			emit(JVM.BIPUSH + " " + value, 1);
+		else if (value >= -32768 && value <= 32767)
+			emit(JVM.SIPUSH + " " + value, 1);
+		else
+			emit(JVM.LDC + " " + value, 1);
+	}
+
+	private void loadFloat(float value) {
+		if (Float.floatToIntBits(value) == 0)
+			emit(JVM.FCONST_0, 1);
+		else if (value == 1.0f)
+			emit(JVM.FCONST_1, 1);
+		else if (value == 2.0f)
+			emit(JVM.FCONST_2, 1);
+		else
+			emit(JVM.LDC + " " + value, 1);
+	}
+
+	// Code
+
+	private String newLabel() {
+		return "L" + nextLabel++;
+	}
+
+	private void emit(String s) {
+		code.append(new Instruction(s));
+	}
+
+	// an instruction that changes the depth of the stack by delta
+	private void emit(String s, int delta) {
+		emit(s);
+		depth += delta;
+		if (depth > maxDepth)
+			maxDepth = depth;
+	}
+
+}
@@ -0,0 +1,415 @@
+/*
+ * LoopOptimisation.java
+ *
+ * Finds the natural loops of a function from the back edges of its
+ * control-flow graph, those to a block that dominates the block they
+ * leave, and gives each loop a preheader: a block that the edges from
+ * outside the loop go through to reach its header. Then, from the
+ * innermost loop outwards:
+ *
+ *   - the operations whose operands do not change in the loop are
+ *     moved into the preheader, to be computed once; and
+ *   - the products i * k of a basic induction variable i, one that the
+ *     loop only increases or decreases by a constant, and a k that does
+ *     not change in the loop, are replaced by a temp initialised to
+ *     i * k in the preheader and increased by the step of i times k
+ *     wherever i is.
+ *
+ * Only the operations that cannot trap are moved, since the preheader
+ * computes them even if the loop does not. Comparisons are left where
+ * they are, to become conditional jumps with the branches they feed
+ * (see JasminBackend). The products are exact, as ints wrap around.
+ */
+
+package VC.IR;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+
+public final class LoopOptimisation {
+
+	private Function function;
+
+	private static final class Loop {
+		final Block header;
+		final BitSet body = new BitSet(); // the numbers of its blocks
+		Block preheader;
+
+		Loop(Block header) {
+			this.header = header;
+		}
+	}
+
+	public void run(Module module) {
+		run(module.init);
+		for (Function f : module.functions)
+			run(f);
+	}
+
+	public void run(Function f) {
+		function = f;
+		ArrayList<Loop> loops = findLoops();
+		if (loops.isEmpty())
+			return;
+		for (Loop loop : loops)
+			addPreheader(loop, loops);
+		f.buildCFG();
+		for (Loop loop : loops) {
+			hoistInvariants(loop);
+			reduceStrength(loop);
+		}
+	}
+
+	// Loops
+
+	// The natural loops, innermost first; the loops of the back edges
+	// to the same header make one loop.
+
+	private ArrayList<Loop> findLoops() {
+		BitSet[] dominators = dominators();
+		HashMap<Block, Loop> byHeader = new HashMap<Block, Loop>();
+		ArrayList<Loop> loops = new ArrayList<Loop>();
+		for (Block b : function.blocks)
+			for (Block h : b.succs)
+				if (dominators[b.number].get(h.number)) {
+					Loop loop = byHeader.get(h);
+					if (loop == null) {
+						loop = new Loop(h);
+						loop.body.set(h.number);
+						byHeader.put(h, loop);
+						loops.add(loop);
+					}
+					addBody(loop, b);
+				}
+
+		// an inner loop has fewer blocks than those containing it
+		Collections.sort(loops, new Comparator<Loop>() {
+			public int compare(Loop a, Loop b) {
+				return a.body.cardinality() - b.body.cardinality();
+			}
+		});
+		return loops;
+	}
+
+	// Adds to the loop the blocks from which b is reached without going
+	// through its header.
+
+	private static void addBody(Loop loop, Block b) {
+		ArrayList<Block> work = new ArrayList<Block>();
+		if (!loop.body.get(b.number)) {
+			loop.body.set(b.number);
+			work.add(b);
+		}
+		while (!work.isEmpty())
+			for (Block p : work.remove(work.size() - 1).preds)
+				if (!loop.body.get(p.number)) {
+					loop.body.set(p.number);
+					work.add(p);
+				}
+	}
+
+	// The blocks dominating each block, by block number.
+
+	private BitSet[] dominators() {
+		BitSet all = new BitSet();
+		for (Block b : function.blocks)
+			all.set(b.number);
+		BitSet[] dom = new BitSet[function.numBlocks()];
+		for (Block b : function.blocks)
+			dom[b.number] = (BitSet) all.clone();
+		Block entry = function.entry();
+		dom[entry.number].clear();
+		dom[entry.number].set(entry.number);
+
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (Block b : function.blocks) {
+				if (b == entry)
+					continue;
+				BitSet d = (BitSet) all.clone();
+				for (Block p : b.preds)
+					d.and(dom[p.number]);
+				d.set(b.number);
+				if (!d.equals(dom[b.number])) {
+					dom[b.number] = d;
+					changed = true;
+				}
+			}
+		}
+		return dom;
+	}
+
+	// Lays out a new block before the header of the loop, and makes the
+	// edges into the header from outside the loop go to it. It is in
+	// the loops containing this one.
+
+	private void addPreheader(Loop loop, ArrayList<Loop> loops) {
+		Block h = loop.header;
+		Block p = function.newBlock();
+		Instr jump = new Instr(Instr.JUMP, null);
+		jump.target = h;
+		p.instrs.add(jump);
+		function.blocks.add(function.blocks.indexOf(h), p);
+
+		for (Block pred : h.preds)
+			if (!loop.body.get(pred.number)) {
+				Instr last = pred.last();
+				if (last.target == h)
+					last.target = p;
+				if (last.other == h)
+					last.other = p;
+			}
+		for (Loop outer : loops)
+			if (outer != loop && outer.body.get(h.number))
+				outer.body.set(p.number);
+		loop.preheader = p;
+	}
+
+	// Loop-invariant code motion
+
+	private void hoistInvariants(Loop loop) {
+		int[] defs = defsIn(loop);
+		int[] allDefs = defsIn(null);
+
+		// the globals the loop may assign, or null if it calls a function,
+		// which may assign any
+		HashSet<String> assigned = new HashSet<String>();
+		for (Block b : blocksOf(loop))
+			for (Instr i : b.instrs)
+				if (i.op == Instr.PUTGLOBAL && assigned != null)
+					assigned.add(i.name);
+				else if (i.op == Instr.CALL)
+					assigned = null;
+
+		// the invariant instructions, each after those computing its
+		// operands
+		ArrayList<Instr> invariant = new ArrayList<Instr>();
+		BitSet computed = new BitSet(); // by the invariant instructions
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (Block b : blocksOf(loop))
+				for (Instr i : b.instrs)
+					if (!invariant.contains(i) && isMovable(i, assigned) && allDefs[i.dst.number] == 1
+							&& isInvariant(i.args, defs, computed)) {
+						invariant.add(i);
+						computed.set(i.dst.number);
+						changed = true;
+					}
+		}
+
+		// A copy of a variable is worth moving only with an operation
+		// using it.
+		BitSet needed = new BitSet();
+		for (int k = invariant.size() - 1; k >= 0; k--) {
+			Instr i = invariant.get(k);
+			if (i.op != Instr.MOVE || needed.get(i.dst.number)) {
+				for (Value v : i.args)
+					if (v instanceof Temp)
+						needed.set(((Temp) v).number);
+			} else
+				invariant.remove(k);
+		}
+
+		Block p = loop.preheader;
+		for (Instr i : invariant) {
+			for (Block b : blocksOf(loop))
+				b.instrs.remove(i);
+			p.instrs.add(p.instrs.size() - 1, i);
+		}
+	}
+
+	// whether i only assigns a temp of its own, and cannot trap
+	private static boolean isMovable(Instr i, HashSet<String> assigned) {
+		if (i.dst == null || i.dst.isVariable() || i.isComparison())
+			return false;
+		switch (i.op) {
+		case Instr.GETGLOBAL:
+			return assigned != null && !assigned.contains(i.name);
+		case Instr.DIV:
+			return i.dst.type == Value.FLOAT
+				|| i.args[1] instanceof Const && ((Const) i.args[1]).intValue != 0;
+		default:
+			return i.op <= Instr.I2F;
+		}
+	}
+
+	private static boolean isInvariant(Value[] args, int[] defs, BitSet computed) {
+		for (Value v : args)
+			if (v instanceof Temp && !isInvariant((Temp) v, defs) && !computed.get(((Temp) v).number))
+				return false;
+		return true;
+	}
+
+	// The temps made after defs was counted are those of the products,
+	// which change in the loop.
+	private static boolean isInvariant(Temp t, int[] defs) {
+		return t.number < defs.length && defs[t.number] == 0;
+	}
+
+	// Strength reduction
+
+	private void reduceStrength(Loop loop) {
+		int[] defs = defsIn(loop);
+		int[] allDefs = defsIn(null);
+		Instr[] def = defsOf(loop);
+
+		HashMap<String, Temp> products = new HashMap<String, Temp>();
+		for (Block b : blocksOf(loop))
+			for (int k = 0; k < b.instrs.size(); k++) {
+				Instr i = b.instrs.get(k);
+				if (i.op != Instr.MUL || i.dst.type != Value.INT)
+					continue;
+				for (int j = 0; j < 2; j++) {
+					Value factor = invariantFactor(i.args[1 - j], defs, def);
+					Temp iv = inductionVariable(loop, i.args[j], b, k, defs, allDefs, def);
+					if (iv == null || factor == null)
+						continue;
+					String key = iv.number + "*" + factor;
+					Temp product = products.get(key);
+					if (product == null) {
+						product = newProduct(loop, iv, factor, def);
+						products.put(key, product);
+					}
+					i.op = Instr.MOVE;
+					i.args = new Value[] { product };
+					break;
+				}
+			}
+	}
+
+	// v if it does not change in the loop, or the variable v is a copy
+	// of if that does not; null otherwise.
+
+	private static Value invariantFactor(Value v, int[] defs, Instr[] def) {
+		if (v instanceof Const || isInvariant((Temp) v, defs))
+			return v;
+		Instr copy = def[((Temp) v).number];
+		if (copy.op == Instr.MOVE && copy.args[0] instanceof Temp
+				&& isInvariant((Temp) copy.args[0], defs))
+			return copy.args[0];
+		return null;
+	}
+
+	// The basic induction variable of which v, used by the instruction
+	// at k in b, is a copy made in b; or null if there is none.
+
+	private Temp inductionVariable(Loop loop, Value v, Block b, int k, int[] defs,
+			int[] allDefs, Instr[] def) {
+		if (!(v instanceof Temp) || allDefs[((Temp) v).number] != 1)
+			return null;
+		Instr copy = def[((Temp) v).number];
+		int at = b.instrs.indexOf(copy);
+		if (copy == null || copy.op != Instr.MOVE || at < 0 || !(copy.args[0] instanceof Temp))
+			return null;
+		Temp iv = (Temp) copy.args[0];
+		if (iv.number >= defs.length || !iv.isVariable() || iv.type != Value.INT || defs[iv.number] != 1
+				|| step(iv, def, blocksOf(loop)) == null)
+			return null;
+		for (int j = at + 1; j < k; j++)
+			if (b.instrs.get(j).dst == iv)
+				return null;
+		return iv;
+	}
+
+	// The constant the only assignment to iv in the loop adds to it, as
+	// in iv = iv + c or iv = iv - c, lowered into a copy of iv, the sum
+	// and the assignment, in this order in a block; null if it is not
+	// one of those.
+
+	private static Const step(Temp iv, Instr[] def, ArrayList<Block> blocks) {
+		Instr update = def[iv.number];
+		if (update.op != Instr.MOVE || !(update.args[0] instanceof Temp))
+			return null;
+		Instr sum = def[((Temp) update.args[0]).number];
+		if (sum == null || sum.op != Instr.ADD && sum.op != Instr.SUB)
+			return null;
+		for (int j = 0; j < 2; j++) {
+			if (j == 1 && sum.op == Instr.SUB)
+				break;
+			Value a = sum.args[j], c = sum.args[1 - j];
+			if (!(a instanceof Temp) || !(c instanceof Const))
+				continue;
+			Instr copy = def[((Temp) a).number];
+			if (copy != null && copy.op == Instr.MOVE && copy.args[0] == iv
+					&& inOrder(blocks, copy, sum, update))
+				return Const.ofInt(sum.op == Instr.ADD ? ((Const) c).intValue : -((Const) c).intValue);
+		}
+		return null;
+	}
+
+	private static boolean inOrder(ArrayList<Block> blocks, Instr first, Instr second, Instr last) {
+		for (Block b : blocks) {
+			int k = b.instrs.indexOf(last);
+			if (k >= 0) {
+				int j = b.instrs.indexOf(second);
+				return 0 <= b.instrs.indexOf(first) && b.instrs.indexOf(first) < j && j < k;
+			}
+		}
+		return false;
+	}
+
+	// A temp holding iv * factor throughout the loop: it is set in the
+	// preheader and increased after the update of iv.
+
+	private Temp newProduct(Loop loop, Temp iv, Value factor, Instr[] def) {
+		Instr update = def[iv.number];
+		Const step = step(iv, def, blocksOf(loop));
+		Temp product = function.newTemp(Value.INT);
+		Block p = loop.preheader;
+		p.instrs.add(p.instrs.size() - 1, new Instr(Instr.MUL, product, iv, factor));
+
+		Value increment;
+		if (factor instanceof Const)
+			increment = Const.ofInt(step.intValue * ((Const) factor).intValue);
+		else if (step.intValue == 1)
+			increment = factor;
+		else {
+			increment = function.newTemp(Value.INT);
+			p.instrs.add(p.instrs.size() - 1, new Instr(Instr.MUL, (Temp) increment, factor, step));
+		}
+		for (Block b : blocksOf(loop)) {
+			int at = b.instrs.indexOf(update);
+			if (at >= 0)
+				b.instrs.add(at + 1, new Instr(Instr.ADD, product, product, increment));
+		}
+		return product;
+	}
+
+	// Helpers
+
+	private ArrayList<Block> blocksOf(Loop loop) {
+		ArrayList<Block> blocks = new ArrayList<Block>();
+		for (Block b : function.blocks)
+			if (loop.body.get(b.number))
+				blocks.add(b);
+		return blocks;
+	}
+
+	// the number of assignments to each temp in the loop, or in the
+	// function if loop is null
+	private int[] defsIn(Loop loop) {
+		int[] defs = new int[function.temps.size()];
+		for (Block b : function.blocks)
+			if (loop == null || loop.body.get(b.number))
+				for (Instr i : b.instrs)
+					if (i.dst != null)
+						defs[i.dst.number]++;
+		return defs;
+	}
+
+	private Instr[] defsOf(Loop loop) {
+		Instr[] def = new Instr[function.temps.size()];
+		for (Block b : blocksOf(loop))
+			for (Instr i : b.instrs)
+				if (i.dst != null)
+					def[i.dst.number] = i;
+		return def;
+	}
+
+}
@@ -0,0 +1,623 @@
+/*
+ * Lowering.java
+ *
+ * Translates a checked AST into the IR: a Function of basic blocks for
+ * every FuncDecl, and one for the initialisers of the globals.
+ *
+ * Expressions are lowered into Values in the order VC evaluates them.
+ * A local variable read by an expression is copied into a temp first,
+ * so that an assignment later in the same expression cannot change
+ * the value read; the backend keeps such temps on the operand stack.
+ *
+ * The operations are taken from the types of the operands, and the
+ * conversions from int to float the Checker does not leave in the AST
+ * (for instance in 1 + 2.0 or float f = 1) are made here.
+ */
+
+package VC.IR;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Stack;
+
+import VC.ASTs.*;
+import VC.CompilationContext;
+import VC.StdEnvironment;
+
+public final class Lowering implements GenericVisitor<Value, Void> {
+
+	private final String classname;
+	private final IdentityHashMap<FuncDecl, FuncDecl> builtins =
+			new IdentityHashMap<FuncDecl, FuncDecl>();
+
+	private Module module;
+	private Function function; // being lowered
+	private Block block;       // being filled; null after a jump
+	private IdentityHashMap<Decl, Temp> variables;
+	private Stack<Block> breakTargets = new Stack<Block>();
+	private Stack<Block> continueTargets = new Stack<Block>();
+
+	public Lowering(String inputFilename, CompilationContext context) {
+		int i = inputFilename.lastIndexOf('.');
+		classname = i > 0 ? inputFilename.substring(0, i) : inputFilename;
+
+		StdEnvironment std = context.std;
+		FuncDecl[] decls = {
+			std.putBoolDecl, std.putBoolLnDecl, std.getIntDecl, std.putIntDecl,
+			std.putIntLnDecl, std.getFloatDecl, std.putFloatDecl,
+			std.putFloatLnDecl, std.putStringDecl, std.putStringLnDecl,
+			std.putLnDecl
+		};
+		for (FuncDecl d : decls)
+			builtins.put(d, d);
+	}
+
+	// PRE: ast is a Program that has been checked without errors
+
+	public Module lower(AST ast) {
+		ast.visit(this, null);
+		return module;
+	}
+
+	// The IR type of a VC type.
+
+	static int typeOf(Type t) {
+		if (t.isArrayType())
+			return Value.arrayOf(((ArrayType) t).T.tag);
+		return t.tag;
+	}
+
+	// Building blocks
+
+	private void emit(Instr instr) {
+		if (block == null) // code that cannot be reached
+			start(function.newBlock());
+		block.instrs.add(instr);
+		if (instr.isTerminator())
+			block = null;
+	}
+
+	private Temp emit(int op, int type, Value... args) {
+		Temp dst = function.newTemp(type);
+		emit(new Instr(op, dst, args));
+		return dst;
+	}
+
+	// Lays out b after the current block, into which the current one
+	// falls through.
+	private void start(Block b) {
+		if (block != null)
+			jump(b);
+		function.blocks.add(b);
+		block = b;
+	}
+
+	private void jump(Block target) {
+		Instr jump = new Instr(Instr.JUMP, null);
+		jump.target = target;
+		emit(jump);
+	}
+
+	private void branch(Value condition, Block ifTrue, Block ifFalse) {
+		Instr branch = new Instr(Instr.BRANCH, null, condition);
+		branch.target = ifTrue;
+		branch.other = ifFalse;
+		emit(branch);
+	}
+
+	// v as a value of the given type, which differs from its own only
+	// when an int is given where a float is expected
+	private Value convert(Value v, int type) {
+		if (type != Value.FLOAT || v.type != Value.INT)
+			return v;
+		if (v instanceof Const)
+			return Const.ofFloat(((Const) v).intValue);
+		return emit(Instr.I2F, Value.FLOAT, v);
+	}
+
+	private void finish(Function f) {
+		if (block != null) // falls off its end
+			emit(new Instr(Instr.RETURN, null, f.returnType == Value.VOID
+					? null : new Value[] { Const.zero(f.returnType) }));
+		f.buildCFG();
+	}
+
+	// Programs
+
+	// The functions are lowered as they come; the initialisers of the
+	// globals are collected in module.init.
+
+	public Value visitProgram(Program ast, Void o) {
+		module = new Module(classname);
+		module.init.blocks.add(module.init.newBlock());
+		ast.FL.visit(this, null);
+
+		function = module.init;
+		block = module.init.blocks.get(module.init.blocks.size() - 1);
+		finish(module.init);
+		return null;
+	}
+
+	// Lists
+
+	public Value visitEmptyDeclList(EmptyDeclList ast, Void o) {
+		return null;
+	}
+
+	public Value visitEmptyStmtList(EmptyStmtList ast, Void o) {
+		return null;
+	}
+
+	public Value visitEmptyExprList(EmptyExprList ast, Void o) {
+		return null;
+	}
+
+	public Value visitEmptyParaList(EmptyParaList ast, Void o) {
+		return null;
+	}
+
+	public Value visitEmptyArgList(EmptyArgList ast, Void o) {
+		return null;
+	}
+
+	// Declarations
+
+	public Value visitDeclArray(DeclArray ast, Void o) {
+		for (Decl decl : ast.D)
+			decl.visit(this, null);
+		return null;
+	}
+
+	public Value visitFuncDecl(FuncDecl ast, Void o) {
+		boolean isMain = ast.I.spelling.equals("main");
+		function = new Function(ast.I.spelling,
+				isMain ? Value.VOID : typeOf(ast.T), isMain);
+		variables = new IdentityHashMap<Decl, Temp>();
+		block = null;
+		start(function.newBlock());
+
+		ast.PL.visit(this, null);
+		ast.S.visit(this, null);
+		finish(function);
+		module.functions.add(function);
+		return null;
+	}
+
+	public Value visitGlobalVarDecl(GlobalVarDecl ast, Void o) {
+		int type = typeOf(ast.T);
+		module.globals.put(ast.I.spelling, type);
+
+		function = module.init;
+		block = module.init.blocks.get(module.init.blocks.size() - 1);
+		Instr put = new Instr(Instr.PUTGLOBAL, null, initialValue(ast.T, ast.E));
+		put.name = ast.I.spelling;
+		put.descriptor = Value.descriptor(type);
+		emit(put);
+		return null;
+	}
+
+	public Value visitLocalVarDecl(LocalVarDecl ast, Void o) {
+		Temp v = function.newVariable(ast.I.spelling, typeOf(ast.T));
+		variables.put(ast, v);
+		emit(new Instr(Instr.MOVE, v, initialValue(ast.T, ast.E)));
+		return null;
+	}
+
+	// The value a variable of type t starts with: a new array, filled in
+	// by an initialiser if there is one, or the value of the expression
+	// e, or zero if there is none.
+	private Value initialValue(Type t, Expr e) {
+		int type = typeOf(t);
+		if (!Value.isArray(type))
+			return e.isEmptyExpr() ? Const.zero(type) : convert(e.visit(this, null), type);
+
+		Value size = ((ArrayType) t).E.visit(this, null);
+		Temp array = emit(Instr.NEWARRAY, type, size);
+		if (e instanceof InitExpr) {
+			int element = Value.elementOf(type);
+			List list = ((InitExpr) e).IL;
+			if (list instanceof ExprArray) {
+				Expr[] elements = ((ExprArray) list).E;
+				for (int i = 0; i < elements.length; i++) {
+					Value v = convert(elements[i].visit(this, null), element);
+					emit(new Instr(Instr.STORE, null, array, Const.ofInt(i), v));
+				}
+			}
+		}
+		return array;
+	}
+
+	// Statements
+
+	public Value visitStmtArray(StmtArray ast, Void o) {
+		for (Stmt stmt : ast.S)
+			stmt.visit(this, null);
+		return null;
+	}
+
+	public Value visitIfStmt(IfStmt ast, Void o) {
+		Block then = function.newBlock();
+		Block join = function.newBlock();
+		Block otherwise = ast.S2 instanceof EmptyStmt ? join : function.newBlock();
+
+		condition(ast.E, then, otherwise);
+		start(then);
+		ast.S1.visit(this, null);
+		if (otherwise != join) {
+			jump(join);
+			start(otherwise);
+			ast.S2.visit(this, null);
+		}
+		start(join);
+		return null;
+	}
+
+	public Value visitWhileStmt(WhileStmt ast, Void o) {
+		Block test = function.newBlock();
+		Block body = function.newBlock();
+		Block exit = function.newBlock();
+
+		start(test);
+		condition(ast.E, body, exit);
+		start(body);
+		loopBody(ast.S, exit, test);
+		jump(test);
+		start(exit);
+		return null;
+	}
+
+	public Value visitForStmt(ForStmt ast, Void o) {
+		Block test = function.newBlock();
+		Block body = function.newBlock();
+		Block step = function.newBlock();
+		Block exit = function.newBlock();
+
+		ast.E1.visit(this, null);
+		start(test);
+		if (!ast.E2.isEmptyExpr())
+			condition(ast.E2, body, exit);
+		start(body);
+		loopBody(ast.S, exit, step);
+		start(step);
+		ast.E3.visit(this, null);
+		jump(test);
+		start(exit);
+		return null;
+	}
+
+	private void loopBody(Stmt s, Block breakTarget, Block continueTarget) {
+		breakTargets.push(breakTarget);
+		continueTargets.push(continueTarget);
+		s.visit(this, null);
+		breakTargets.pop();
+		continueTargets.pop();
+	}
+
+	public Value visitBreakStmt(BreakStmt ast, Void o) {
+		jump(breakTargets.peek());
+		return null;
+	}
+
+	public Value visitContinueStmt(ContinueStmt ast, Void o) {
+		jump(continueTargets.peek());
+		return null;
+	}
+
+	// return e in main is return, once e has been evaluated.
+
+	public Value visitReturnStmt(ReturnStmt ast, Void o) {
+		Value v = ast.E.visit(this, null);
+		if (function.returnType == Value.VOID)
+			emit(new Instr(Instr.RETURN, null));
+		else
+			emit(new Instr(Instr.RETURN, null, convert(v, function.returnType)));
+		return null;
+	}
+
+	public Value visitCompoundStmt(CompoundStmt ast, Void o) {
+		ast.DL.visit(this, null);
+		ast.SL.visit(this, null);
+		return null;
+	}
+
+	public Value visitExprStmt(ExprStmt ast, Void o) {
+		ast.E.visit(this, null);
+		return null;
+	}
+
+	public Value visitEmptyCompStmt(EmptyCompStmt ast, Void o) {
+		return null;
+	}
+
+	public Value visitEmptyStmt(EmptyStmt ast, Void o) {
+		return null;
+	}
+
+	// Expressions
+
+	public Value visitIntExpr(IntExpr ast, Void o) {
+		return Const.ofInt(Integer.parseInt(ast.IL.spelling));
+	}
+
+	public Value visitFloatExpr(FloatExpr ast, Void o) {
+		return Const.ofFloat(Float.parseFloat(ast.FL.spelling));
+	}
+
+	public Value visitBooleanExpr(BooleanExpr ast, Void o) {
+		return Const.ofBoolean(ast.BL.spelling.equals("true"));
+	}
+
+	public Value visitStringExpr(StringExpr ast, Void o) {
+		return Const.ofString(ast.SL.spelling);
+	}
+
+	public Value visitUnaryExpr(UnaryExpr ast, Void o) {
+		Value v = ast.E.visit(this, null);
+		switch (ast.O.spelling) {
+		case "-":
+			return emit(Instr.NEG, v.type, v);
+		case "!":
+			return emit(Instr.NOT, Value.BOOLEAN, v);
+		case "i2f":
+			return convert(v, Value.FLOAT);
+		default: // +
+			return v;
+		}
+	}
+
+	public Value visitBinaryExpr(BinaryExpr ast, Void o) {
+		String op = ast.O.spelling;
+		if (op.equals("&&") || op.equals("||"))
+			return shortCircuit(ast);
+
+		int type = ast.E1.type.isFloatType() || ast.E2.type.isFloatType()
+			? Value.FLOAT : typeOf(ast.E1.type);
+		Value a = convert(ast.E1.visit(this, null), type);
+		Value b = convert(ast.E2.visit(this, null), type);
+		switch (op) {
+		case "+":
+			return emit(Instr.ADD, type, a, b);
+		case "-":
+			return emit(Instr.SUB, type, a, b);
+		case "*":
+			return emit(Instr.MUL, type, a, b);
+		case "/":
+			return emit(Instr.DIV, type, a, b);
+		case "==":
+			return emit(Instr.EQ, Value.BOOLEAN, a, b);
+		case "!=":
+			return emit(Instr.NE, Value.BOOLEAN, a, b);
+		case "<":
+			return emit(Instr.LT, Value.BOOLEAN, a, b);
+		case "<=":
+			return emit(Instr.LE, Value.BOOLEAN, a, b);
+		case ">":
+			return emit(Instr.GT, Value.BOOLEAN, a, b);
+		default: // >=
+			return emit(Instr.GE, Value.BOOLEAN, a, b);
+		}
+	}
+
+	// The value of a && b or a || b, where it is stored or passed, is
+	// made from the jumps of the condition.
+
+	private Value shortCircuit(BinaryExpr ast) {
+		Temp result = function.newTemp(Value.BOOLEAN);
+		Block ifTrue = function.newBlock();
+		Block ifFalse = function.newBlock();
+		Block join = function.newBlock();
+
+		condition(ast, ifTrue, ifFalse);
+		start(ifTrue);
+		emit(new Instr(Instr.MOVE, result, Const.ofBoolean(true)));
+		jump(join);
+		start(ifFalse);
+		emit(new Instr(Instr.MOVE, result, Const.ofBoolean(false)));
+		start(join);
+		return result;
+	}
+
+	// Conditions
+
+	// Jumps to ifTrue if e is true and to ifFalse otherwise. The
+	// operands of && and || are conditions in turn, and ! swaps the
+	// targets, so that no boolean value is made but those compared or
+	// branched on. A comparison is still a boolean temp in the IR; the
+	// backend makes it a conditional jump.
+
+	private void condition(Expr e, Block ifTrue, Block ifFalse) {
+		if (e instanceof BinaryExpr) {
+			BinaryExpr b = (BinaryExpr) e;
+			String op = b.O.spelling;
+			if (op.equals("&&") || op.equals("||")) {
+				Block right = function.newBlock();
+				if (op.equals("&&"))
+					condition(b.E1, right, ifFalse);
+				else
+					condition(b.E1, ifTrue, right);
+				start(right);
+				condition(b.E2, ifTrue, ifFalse);
+				return;
+			}
+		} else if (e instanceof UnaryExpr && ((UnaryExpr) e).O.spelling.equals("!")) {
+			condition(((UnaryExpr) e).E, ifFalse, ifTrue);
+			return;
+		}
+		branch(e.visit(this, null), ifTrue, ifFalse);
+	}
+
+	public Value visitInitExpr(InitExpr ast, Void o) {
+		return null; // see initialValue
+	}
+
+	public Value visitExprArray(ExprArray ast, Void o) {
+		return null; // see initialValue
+	}
+
+	public Value visitArrayExpr(ArrayExpr ast, Void o) {
+		Value array = ast.V.visit(this, null);
+		Value index = ast.E.visit(this, null);
+		return emit(Instr.LOAD, Value.elementOf(array.type), array, index);
+	}
+
+	public Value visitVarExpr(VarExpr ast, Void o) {
+		return ast.V.visit(this, null);
+	}
+
+	public Value visitCallExpr(CallExpr ast, Void o) {
+		FuncDecl f = (FuncDecl) ast.I.decl;
+		ArrayList<Value> args = new ArrayList<Value>();
+		StringBuilder descriptor = new StringBuilder("(");
+		if (ast.AL instanceof ArgArray) {
+			Arg[] al = ((ArgArray) ast.AL).A;
+			ParaDecl[] pl = ((ParaArray) f.PL).P;
+			for (int i = 0; i < al.length; i++) {
+				int type = typeOf(pl[i].T);
+				args.add(convert(al[i].E.visit(this, null), type));
+				descriptor.append(Value.descriptor(type));
+			}
+		}
+		int type = typeOf(f.T);
+		descriptor.append(')').append(Value.descriptor(type));
+
+		Temp dst = type == Value.VOID ? null : function.newTemp(type);
+		Instr call = new Instr(builtins.containsKey(f) ? Instr.CALLSTATIC : Instr.CALL,
+				dst, args.toArray(new Value[args.size()]));
+		call.name = f.I.spelling;
+		call.descriptor = descriptor.toString();
+		emit(call);
+		return dst;
+	}
+
+	// x = e is the value of e, as a value of the type of x.
+
+	public Value visitAssignExpr(AssignExpr ast, Void o) {
+		if (ast.E1 instanceof ArrayExpr) {
+			ArrayExpr lhs = (ArrayExpr) ast.E1;
+			Value array = lhs.V.visit(this, null);
+			Value index = lhs.E.visit(this, null);
+			Value v = convert(ast.E2.visit(this, null), Value.elementOf(array.type));
+			emit(new Instr(Instr.STORE, null, array, index, v));
+			return v;
+		}
+
+		Decl decl = (Decl) ((SimpleVar) ((VarExpr) ast.E1).V).I.decl;
+		int type = typeOf(decl.T);
+		Value v = convert(ast.E2.visit(this, null), type);
+		if (decl.isGlobalVarDecl()) {
+			Instr put = new Instr(Instr.PUTGLOBAL, null, v);
+			put.name = decl.I.spelling;
+			put.descriptor = Value.descriptor(type);
+			emit(put);
+		} else
+			emit(new Instr(Instr.MOVE, variables.get(decl), v));
+		return v;
+	}
+
+	public Value visitEmptyExpr(EmptyExpr ast, Void o) {
+		return null;
+	}
+
+	// Literals, Identifiers and Operators
+
+	public Value visitIntLiteral(IntLiteral ast, Void o) {
+		return null;
+	}
+
+	public Value visitFloatLiteral(FloatLiteral ast, Void o) {
+		return null;
+	}
+
+	public Value visitBooleanLiteral(BooleanLiteral ast, Void o) {
+		return null;
+	}
+
+	public Value visitStringLiteral(StringLiteral ast, Void o) {
+		return null;
+	}
+
+	public Value visitIdent(Ident ast, Void o) {
+		return null;
+	}
+
+	public Value visitOperator(Operator ast, Void o) {
+		return null;
+	}
+
+	// Parameters
+
+	public Value visitParaArray(ParaArray ast, Void o) {
+		for (ParaDecl para : ast.P)
+			para.visit(this, null);
+		return null;
+	}
+
+	public Value visitParaDecl(ParaDecl ast, Void o) {
+		variables.put(ast, function.newParam(ast.I.spelling, typeOf(ast.T)));
+		return null;
+	}
+
+	// Arguments; see visitCallExpr
+
+	public Value visitArgArray(ArgArray ast, Void o) {
+		return null;
+	}
+
+	public Value visitArg(Arg ast, Void o) {
+		return null;
+	}
+
+	// Types
+
+	public Value visitVoidType(VoidType ast, Void o) {
+		return null;
+	}
+
+	public Value visitBooleanType(BooleanType ast, Void o) {
+		return null;
+	}
+
+	public Value visitIntType(IntType ast, Void o) {
+		return null;
+	}
+
+	public Value visitFloatType(FloatType ast, Void o) {
+		return null;
+	}
+
+	public Value visitStringType(StringType ast, Void o) {
+		return null;
+	}
+
+	public Value visitArrayType(ArrayType ast, Void o) {
+		return null;
+	}
+
+	public Value visitErrorType(ErrorType ast, Void o) {
+		return null;
+	}
+
+	// Variables
+
+	// A global is read into a temp, and so is a local scalar, which
+	// could be assigned before the value is used. Arrays are never
+	// assigned, so an array variable is used as it is.
+
+	public Value visitSimpleVar(SimpleVar ast, Void o) {
+		Decl decl = (Decl) ast.I.decl;
+		int type = typeOf(decl.T);
+		if (decl.isGlobalVarDecl()) {
+			Temp t = function.newTemp(type);
+			Instr get = new Instr(Instr.GETGLOBAL, t);
+			get.name = decl.I.spelling;
+			get.descriptor = Value.descriptor(type);
+			emit(get);
+			return t;
+		}
+		Temp v = variables.get(decl);
+		if (Value.isArray(type))
+			return v;
+		return emit(Instr.MOVE, type, v);
+	}
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Module.java
+ *
+ * The IR of a VC program: its global variables, which become static
+ * fields of the class generated, the function initialising them and
+ * the functions of the program.
+ */
+
+package VC.IR;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class Module {
+
+	public final String classname;
+
+	// the types of the global variables, in the order declared
+	public final LinkedHashMap<String, Integer> globals = new LinkedHashMap<String, Integer>();
+
+	public final Function init = new Function("<clinit>", Value.VOID, false);
+	public final ArrayList<Function> functions = new ArrayList<Function>();
+
+	public Module(String classname) {
+		this.classname = classname;
+	}
+
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		for (Map.Entry<String, Integer> g : globals.entrySet())
+			s.append("global ").append(Value.name(g.getValue())).append(' ')
+				.append(g.getKey()).append('\n');
+		s.append('\n').append(init);
+		for (Function f : functions)
+			s.append('\n').append(f);
+		return s.toString();
+	}
+
+}
@@ -0,0 +1,33 @@
+/*
+ * Temp.java
+ *
+ * A virtual register of a function: a parameter, a local variable of
+ * the VC program or an intermediate result made up by the lowering.
+ * Only variables have a name. A variable may be assigned any number
+ * of times; an intermediate result is assigned once, except for the
+ * value of && and ||, which is assigned on both paths, and the products
+ * made by LoopOptimisation, which are updated in their loops.
+ */
+
+package VC.IR;
+
+public final class Temp extends Value {
+
+	public final int number; // unique within the function
+	public final String name; // of the variable; null if there is none
+
+	Temp(int number, String name, int type) {
+		super(type);
+		this.number = number;
+		this.name = name;
+	}
+
+	public boolean isVariable() {
+		return name != null;
+	}
+
+	public String toString() {
+		return name == null ? "t" + number : name + "." + number;
+	}
+
+}
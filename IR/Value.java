@@ -0,0 +1,54 @@
+/*
+ * Value.java
+ *
+ * An operand of an IR instruction: a Temp, which holds a variable or
+ * an intermediate result, or a Const.
+ */
+
+package VC.IR;
+
+public abstract class Value {
+
+	// The types of values. The scalar ones have the tags of the VC types
+	// (see VC.ASTs.Type); booleans are ints to the JVM but are passed
+	// and printed as booleans, so they keep a type of their own.
+
+	public static final int VOID = 0, BOOLEAN = 1, INT = 2, FLOAT = 3,
+			STRING = 4, BOOLEAN_ARRAY = 5, INT_ARRAY = 6, FLOAT_ARRAY = 7;
+
+	private static final String[] names = {
+		"void", "boolean", "int", "float", "string",
+		"boolean[]", "int[]", "float[]"
+	};
+
+	private static final String[] descriptors = {
+		"V", "Z", "I", "F", "Ljava/lang/String;", "[Z", "[I", "[F"
+	};
+
+	public final int type;
+
+	Value(int type) {
+		this.type = type;
+	}
+
+	public static boolean isArray(int type) {
+		return type >= BOOLEAN_ARRAY;
+	}
+
+	public static int arrayOf(int element) {
+		return element - BOOLEAN + BOOLEAN_ARRAY;
+	}
+
+	public static int elementOf(int array) {
+		return array - BOOLEAN_ARRAY + BOOLEAN;
+	}
+
+	public static String name(int type) {
+		return names[type];
+	}
+
+	public static String descriptor(int type) {
+		return descriptors[type];
+	}
+
+}
@@ -49,6 +49,7 @@ package VC.Parser;
 import VC.Scanner.Scanner;
 import VC.Scanner.SourcePosition;
 import VC.Scanner.Token;
+import VC.Scanner.TokenBuffer;
 
 import VC.ErrorReporter;
 import VC.ASTs.*;
@@ -57,39 +58,107 @@ import static VC.Scanner.Token.*;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
 
 
 public class Parser {
-	private static final Map<String, Integer[]> first;
+	// FIRST sets as bitmasks over the token kinds (all below 64), so
+	// that testing the current token against one takes a shift and a
+	// mask.
+	private static final long
+		FIRST_VAR_DECL = kinds(VOID, BOOLEAN, INT, FLOAT),
+		FIRST_STMT = kinds(LCURLY, IF, FOR, WHILE, BREAK, CONTINUE, RETURN, PLUS, MINUS, NOT, ID, LPAREN, INTLITERAL, FLOATLITERAL,
+				BOOLEANLITERAL, STRINGLITERAL, SEMICOLON);
+
+	// Where error recovery may resume, besides after a ";" or a "}"
+	// (see synchronise).
+	private static final long
+		SYNC_DECL = FIRST_VAR_DECL,
+		SYNC_STMT = kinds(IF, FOR, WHILE, BREAK, CONTINUE, RETURN);
+
+	private static long kinds(int... kinds) {
+		long set = 0;
+		for (int kind : kinds)
+			set |= 1L << kind;
+		return set;
+	}
+
+	// The precedence levels of the operators, loosest first, and how
+	// each level associates: = and the equality and relational operators
+	// to the right, the additive and multiplicative ones to the left,
+	// while || and && may not be repeated without parentheses. NOTEQ
+	// has no level, as before.
+	private static final int
+		NO_LEVEL = 0,
+		ASSIGN_LEVEL = 1,
+		OR_LEVEL = 2,
+		AND_LEVEL = 3,
+		EQUALITY_LEVEL = 4,
+		RELATIONAL_LEVEL = 5,
+		ADDITIVE_LEVEL = 6,
+		MULTIPLICATIVE_LEVEL = 7;
+
+	private static final int LEFT = 0, RIGHT = 1, ONCE = 2;
+
+	private static final int[] LEVEL = new int[Token.EOF + 1];
+	private static final int[] ASSOCIATIVITY = new int[MULTIPLICATIVE_LEVEL + 1];
 	static {
-		first = new HashMap<String, Integer[]>();
-		first.put("var-decl", new Integer[]{VOID, BOOLEAN, INT, FLOAT});
-		first.put("stmt", new Integer[]{LCURLY, IF, FOR, WHILE, BREAK, CONTINUE, RETURN, PLUS, MINUS, NOT, ID, LPAREN, INTLITERAL, FLOATLITERAL,
-				BOOLEANLITERAL, STRINGLITERAL, SEMICOLON});
+		LEVEL[EQ] = ASSIGN_LEVEL;
+		LEVEL[OROR] = OR_LEVEL;
+		LEVEL[ANDAND] = AND_LEVEL;
+		LEVEL[EQEQ] = EQUALITY_LEVEL;
+		LEVEL[LT] = LEVEL[LTEQ] = LEVEL[GT] = LEVEL[GTEQ] = RELATIONAL_LEVEL;
+		LEVEL[PLUS] = LEVEL[MINUS] = ADDITIVE_LEVEL;
+		LEVEL[MULT] = LEVEL[DIV] = MULTIPLICATIVE_LEVEL;
+
+		ASSOCIATIVITY[ASSIGN_LEVEL] = RIGHT;
+		ASSOCIATIVITY[OR_LEVEL] = ONCE;
+		ASSOCIATIVITY[AND_LEVEL] = ONCE;
+		ASSOCIATIVITY[EQUALITY_LEVEL] = RIGHT;
+		ASSOCIATIVITY[RELATIONAL_LEVEL] = RIGHT;
+		ASSOCIATIVITY[ADDITIVE_LEVEL] = LEFT;
+		ASSOCIATIVITY[MULTIPLICATIVE_LEVEL] = LEFT;
 	}
-	private Scanner scanner;
+
 	private ErrorReporter errorReporter;
-	private Token currentToken;
-	private SourcePosition previousTokenPosition;
-	private SourcePosition dummyPos = new SourcePosition();
+	private TokenBuffer tokens;
+	private long previousTokenStart, previousTokenFinish; // see SourcePosition.point
+
+	// In recovery mode a syntax error no longer ends the parse: see
+	// recover. lastErrorIndex keeps one error from being reported
+	// twice at the same token while the parse unwinds.
+	private boolean recovering = false;
+	private int lastErrorIndex = -1;
+
+	// Whether the function declarations get the shape of their tokens
+	// (see TokenBuffer.startShape), which incremental checking compares.
+	private boolean shaping = false;
 	
 /*	private Boolean inFunction;
 	 true if lock is available 
 	private Boolean inFunctionLock = true;
 */
 	public Parser (Scanner lexer, ErrorReporter reporter) {
-		scanner = lexer;
 		errorReporter = reporter;
 
-		previousTokenPosition = new SourcePosition();
+		previousTokenStart = previousTokenFinish = SourcePosition.point(0, 0);
 
-		currentToken = scanner.getToken();
+		tokens = new TokenBuffer(lexer);
 	}
 
-	boolean currentInFirst(String s) {
-		return Arrays.asList(first.get(s)).contains(currentToken.kind);
+	// Makes parseProgram report every syntax error it can find and
+	// return the declarations it could parse instead of stopping at the
+	// first error and returning null.
+
+	public void enableErrorRecovery() {
+		recovering = true;
+	}
+
+	public void enableShapes() {
+		shaping = true;
+	}
+
+	boolean currentIn(long set) {
+		return (set >>> tokens.kind() & 1) != 0;
 	}
 
 	// match checks to see f the current token matches tokenExpected.
@@ -97,46 +166,181 @@ public class Parser {
 	// If not, reports a syntactic error.
 
 	void match(int tokenExpected) throws SyntaxError {
-		if (currentToken.kind == tokenExpected) {
-			previousTokenPosition = currentToken.position;
-			currentToken = scanner.getToken();
+		if (tokens.kind() == tokenExpected) {
+			previousTokenStart = tokens.start();
+			previousTokenFinish = tokens.finish();
+			tokens.advance();
 		} else {
 			syntacticError("\"%\" expected here", Token.spell(tokenExpected));
 		}
 	}
 
 	void accept() {
-		previousTokenPosition = currentToken.position;
-		currentToken = scanner.getToken();
+		previousTokenStart = tokens.start();
+		previousTokenFinish = tokens.finish();
+		tokens.advance();
 	}
 
 	void syntacticError(String messageTemplate, String tokenQuoted) throws SyntaxError {
-		SourcePosition pos = currentToken.position;
-		errorReporter.reportError(messageTemplate, tokenQuoted, pos);
+		if (!recovering || tokens.index() != lastErrorIndex) {
+			errorReporter.reportError(messageTemplate, tokenQuoted, tokens.start(), tokens.finish());
+			lastErrorIndex = tokens.index();
+		}
 		throw(new SyntaxError());
 	}
 
-	// start records the position of the start of a phrase.
+	// Called where a list of declarations or statements catches the
+	// syntax error s of the phrase that began with token number from.
+	// Unless in recovery mode, s is passed on. Otherwise the parse goes
+	// on after synchronise; the offending token is skipped first if the
+	// phrase could not even begin with it.
+
+	void recover(SyntaxError s, int from, long stops, boolean topLevel) throws SyntaxError {
+		if (!recovering) {
+			throw s;
+		}
+		if (tokens.index() == from && tokens.kind() != Token.EOF) {
+			accept();
+		}
+		synchronise(stops, topLevel);
+	}
+
+	// Panic mode: skips tokens until one in stops, or past a ";", or past
+	// the "}" closing a block opened while skipping. A "}" that closes an
+	// enclosing block ends a statement list and is left alone, except at
+	// the top level, where it can only be a stray one.
+
+	void synchronise(long stops, boolean topLevel) {
+		int depth = 0;
+
+		while (tokens.kind() != Token.EOF) {
+			if (depth == 0) {
+				if (currentIn(stops)) {
+					return;
+				} else if (tokens.kind() == Token.SEMICOLON) {
+					accept();
+					return;
+				} else if (tokens.kind() == Token.RCURLY) {
+					if (topLevel) {
+						accept();
+					}
+					return;
+				}
+			}
+			if (tokens.kind() == Token.LCURLY) {
+				depth++;
+			} else if (tokens.kind() == Token.RCURLY) {
+				depth--;
+				if (depth == 0) {
+					accept();
+					return;
+				}
+			}
+			accept();
+		}
+	}
+
+	// start gives the position of the start of a phrase.
 	// This is defined to be the position of the first
 	// character of the first token of the phrase.
+	// Both are points (see SourcePosition.point), which the AST keeps
+	// as they are.
 
-	void start(SourcePosition position) {
-		position.lineStart = currentToken.position.lineStart;
-		position.charStart = currentToken.position.charStart;
+	long start() {
+		return tokens.start();
 	}
 
-	// finish records the position of the end of a phrase.
+	// finish gives the position of the end of a phrase.
 	// This is defined to be the position of the last
 	// character of the last token of the phrase.
 
-	void finish(SourcePosition position) {
-		position.lineFinish = previousTokenPosition.lineFinish;
-		position.charFinish = previousTokenPosition.charFinish;
+	long finish() {
+		return previousTokenFinish;
+	}
+
+	// The cells of a list being parsed: its elements and where the cons
+	// cell of each would start and finish. The list is made a ListArray
+	// once it is complete, or an Empty*List if it has no cells.
+
+	private static final class Cells<T extends AST> {
+		ArrayList<T> elements = new ArrayList<T>();
+		long[] starts = new long[8], finishes = new long[8];
+
+		void add(T element, long start, long finish) {
+			int n = elements.size();
+			if (n == starts.length) {
+				starts = Arrays.copyOf(starts, 2 * n);
+				finishes = Arrays.copyOf(finishes, 2 * n);
+			}
+			elements.add(element);
+			starts[n] = start;
+			finishes[n] = finish;
+		}
+
+		void addAll(Cells<T> cells) {
+			for (int i = 0; i < cells.size(); i++) {
+				add(cells.elements.get(i), cells.starts[i], cells.finishes[i]);
+			}
+		}
+
+		// Makes every cell finish at finish, as each cell runs to the
+		// end of the list.
+
+		void finishAll(long finish) {
+			Arrays.fill(finishes, 0, size(), finish);
+		}
+
+		int size() {
+			return elements.size();
+		}
+
+		long[] starts() {
+			return Arrays.copyOf(starts, size());
+		}
+
+		long[] finishes() {
+			return Arrays.copyOf(finishes, size());
+		}
+	}
+
+	List declList(Cells<Decl> cells) {
+		if (cells.size() == 0) {
+			return new EmptyDeclList(0, 0);
+		}
+		return new DeclArray(cells.elements.toArray(new Decl[cells.size()]),
+			cells.starts(), cells.finishes());
+	}
+
+	List stmtList(Cells<Stmt> cells) {
+		if (cells.size() == 0) {
+			return new EmptyStmtList(0, 0);
+		}
+		return new StmtArray(cells.elements.toArray(new Stmt[cells.size()]),
+			cells.starts(), cells.finishes());
+	}
+
+	List exprList(Cells<Expr> cells) {
+		if (cells.size() == 0) {
+			return new EmptyExprList(0, 0);
+		}
+		return new ExprArray(cells.elements.toArray(new Expr[cells.size()]),
+			cells.starts(), cells.finishes());
+	}
+
+	List paraList(Cells<ParaDecl> cells) {
+		if (cells.size() == 0) {
+			return new EmptyParaList(0, 0);
+		}
+		return new ParaArray(cells.elements.toArray(new ParaDecl[cells.size()]),
+			cells.starts(), cells.finishes());
 	}
 
-	void copyStart(SourcePosition from, SourcePosition to) {
-		to.lineStart = from.lineStart;
-		to.charStart = from.charStart;
+	List argList(Cells<Arg> cells) {
+		if (cells.size() == 0) {
+			return new EmptyArgList(0, 0);
+		}
+		return new ArgArray(cells.elements.toArray(new Arg[cells.size()]),
+			cells.starts(), cells.finishes());
 	}
 
 	// ========================== PROGRAMS ========================
@@ -145,15 +349,14 @@ public class Parser {
 
 		Program programAST = null;
 
-		SourcePosition programPos = new SourcePosition();
-		start(programPos);
+		long programStart = start();
 
 		try {
-			finish(programPos);
+			long programFinish = finish();
 			List dlAST = parseDeclList();
-			programAST = new Program(dlAST, programPos); 
-			if (currentToken.kind != Token.EOF) {
-				syntacticError("\"%\" unknown type", currentToken.spelling);
+			programAST = new Program(dlAST, programStart, programFinish); 
+			if (tokens.kind() != Token.EOF) {
+				syntacticError("\"%\" unknown type", tokens.spelling());
 			}
 		}
 		catch (SyntaxError s) { return null; }
@@ -163,83 +366,93 @@ public class Parser {
 	// ========================== DECLARATIONS ========================
 
 	List parseDeclList() throws SyntaxError {
-		SourcePosition declListPos = new SourcePosition();
-		DeclList declList;
-		DeclList mostChildishList;
+		Cells<Decl> declList = new Cells<Decl>();
 		
-		if (currentToken.kind == Token.EOF) {
-			return new EmptyDeclList(dummyPos);
-		} 
-		declList = parseDecl();
-		mostChildishList = declList;
-		while(!(mostChildishList.DL instanceof EmptyDeclList)) {
-			mostChildishList = ((DeclList) mostChildishList.DL);
+		/* parse either global variable or funcion declaration until EOF,
+		   appending each one's cells to the list */
+		while (tokens.kind() != Token.EOF) {
+			int from = tokens.index();
+			try {
+				declList.addAll(parseDecl());
+			} catch (SyntaxError s) {
+				recover(s, from, SYNC_DECL, true);
+			}
 		}
-		if (currentToken.kind != Token.EOF) {
-			mostChildishList.DL = parseDeclList();
-		} 
-		/* parse either global variable or funcion declaration until EOF */
 
-		return declList;
+		return declList(declList);
 	}
 	
 
-	DeclList parseDecl() throws SyntaxError {
-		SourcePosition declPos = new SourcePosition();
-		start(declPos);
+	// A declaration is a function's if its type and identifier are
+	// followed by a '(', which is known before either is parsed.
+
+	Cells<Decl> parseDecl() throws SyntaxError {
+		long declStart = start();
+		boolean isFunction = tokens.peek(2) == Token.LPAREN;
+		if (shaping)
+			tokens.startShape();
 		Type t = parseType();
 		Ident i = parseIdent();
-		DeclList declList;
+		Cells<Decl> declList;
 		
-		if (currentToken.kind == Token.LPAREN) {
-			declList = parseFuncDeclNew(t, i, declPos);
+		if (isFunction) {
+			declList = parseFuncDeclNew(t, i, declStart);
 		} else {
-			declList = parseVarDeclNew(t, i, declPos);
+			declList = parseVarDeclNew(t, i, declStart);
 		}
 		
 		return declList;
 	}
 	
-	DeclList parseFuncDeclNew(Type t, Ident i, SourcePosition s) throws SyntaxError {
+	Cells<Decl> parseFuncDeclNew(Type t, Ident i, long declStart) throws SyntaxError {
 		List paraList = parseParaList();
 		Stmt cmpStmt = parseCompoundStmt();
-		Decl fDecl = new FuncDecl(t, i, paraList, cmpStmt, s);
-		finish(s);
-		List declList = new DeclList(fDecl, new EmptyDeclList(dummyPos), s);
-		return ((DeclList) declList);
+		FuncDecl fDecl = new FuncDecl(t, i, paraList, cmpStmt, declStart, finish());
+		if (shaping)
+			fDecl.shape = tokens.shape();
+		Cells<Decl> declList = new Cells<Decl>();
+		declList.add(fDecl, declStart, finish());
+		return declList;
 		
 	}
 	
 	
 	List parseVarDeclList() throws SyntaxError {
-		SourcePosition declListPos = new SourcePosition();
-		DeclList varDeclList;
-		DeclList mostChildishDeclList;
+		Cells<Decl> varDeclList = new Cells<Decl>();
+		ArrayList<Integer> spanned = new ArrayList<Integer>();
 
-		if (!(currentInFirst("var-decl"))) {
-			return new EmptyDeclList(dummyPos);
+		if (!(currentIn(FIRST_VAR_DECL))) {
+			return new EmptyDeclList(0, 0);
 		}
-		start(declListPos);
-		varDeclList = ((DeclList) parseVarDecl());
-		mostChildishDeclList = varDeclList;
-		/* go to the child most 'parent' */
-		while (!(mostChildishDeclList.DL instanceof EmptyDeclList)) {
-			mostChildishDeclList = ((DeclList) mostChildishDeclList.DL);
-		}
-		/* if we have more declarations then set that parent's child the tree */
-		if (currentInFirst("var-decl")) {
-			mostChildishDeclList.DL = parseVarDeclList();
-			finish(declListPos);
-			varDeclList.position = declListPos;
+		do {
+			int from = tokens.index();
+			long declListStart = start();
+			Cells<Decl> declList;
+			try {
+				declList = parseVarDecl();
+			} catch (SyntaxError s) {
+				recover(s, from, SYNC_STMT | FIRST_VAR_DECL, false);
+				continue;
+			}
+			int first = varDeclList.size();
+			varDeclList.addAll(declList);
+			/* a var-decl followed by more spans up to the end of the list */
+			if (currentIn(FIRST_VAR_DECL)) {
+				varDeclList.starts[first] = declListStart;
+				spanned.add(first);
+			}
+		} while (currentIn(FIRST_VAR_DECL));
+
+		for (int first : spanned) {
+			varDeclList.finishes[first] = finish();
 		}
-		
 
-		return varDeclList;
+		return declList(varDeclList);
 	}
 	
-	List parseVarDecl() throws SyntaxError {
+	Cells<Decl> parseVarDecl() throws SyntaxError {
 		Type varType;
-		List declaratorList;
+		Cells<Decl> declaratorList;
 		
 		varType = parseType();
 		declaratorList = parseInitDeclaratorList(varType, "local");
@@ -250,110 +463,100 @@ public class Parser {
 	
 
 	List parseFuncDeclList() throws SyntaxError {
-		List dlAST = null;
-		Decl dAST = null;
-
-		SourcePosition funcPos = new SourcePosition();
-		start(funcPos);
+		Cells<Decl> dlAST = new Cells<Decl>();
 
-		dAST = parseFuncDecl();
+		do {
+			long funcStart = start();
+			dlAST.add(parseFuncDecl(), funcStart, 0);
+		} while (tokens.kind() == Token.VOID);
+		dlAST.finishAll(finish());
 
-		if (currentToken.kind == Token.VOID) {
-			dlAST = parseFuncDeclList();
-			finish(funcPos);
-			dlAST = new DeclList(dAST, dlAST, funcPos);
-		} else if (dAST != null) {
-			finish(funcPos);
-			dlAST = new DeclList(dAST, new EmptyDeclList(dummyPos), funcPos);
-		}
-		if (dlAST == null) 
-			dlAST = new EmptyDeclList(dummyPos);
-
-		return dlAST;
+		return declList(dlAST);
 	}
 
 	Decl parseFuncDecl() throws SyntaxError {
 
 		Decl fAST = null; 
 
-		SourcePosition funcPos = new SourcePosition();
-		start(funcPos);
+		long funcStart = start();
 
 		Type tAST = parseType();
 		Ident iAST = parseIdent();
 		List fplAST = parseParaList();
 		Stmt cAST = parseCompoundStmt();
-		finish(funcPos);
-		fAST = new FuncDecl(tAST, iAST, fplAST, cAST, funcPos);
+		fAST = new FuncDecl(tAST, iAST, fplAST, cAST, funcStart, finish());
 		return fAST;
 	}
 
-	DeclList parseVarDeclNew(Type t, Ident i, SourcePosition s) throws SyntaxError {
-	    DeclList declList;
+	Cells<Decl> parseVarDeclNew(Type t, Ident i, long declStart) throws SyntaxError {
+	    Cells<Decl> declList = new Cells<Decl>();
 		GlobalVarDecl var;
 		Type varType = t;
-		Expr varExp = new EmptyExpr(dummyPos);
-		SourcePosition varPos = new SourcePosition();
+		Expr varExp = new EmptyExpr(0, 0);
 
 		/* parsing declarator */
-		start(varPos);
-		if (currentToken.kind == Token.LBRACKET) {
-			Expr arrayIntExp = new EmptyExpr(dummyPos);
+		long varStart = start();
+		if (tokens.kind() == Token.LBRACKET) {
+			IntLiteral intLit = null;
 			match(Token.LBRACKET);
-			if (currentToken.kind == Token.INTLITERAL) {
-				IntLiteral intLit = parseIntLiteral();
-				arrayIntExp = new IntExpr(intLit, s);
+			if (tokens.kind() == Token.INTLITERAL) {
+				intLit = parseIntLiteral();
 			}
 			match(Token.RBRACKET);
-			finish(s);
-			varType = new ArrayType(t, arrayIntExp, s);
+			Expr arrayIntExp = intLit == null ? new EmptyExpr(0, 0)
+				: new IntExpr(intLit, declStart, finish());
+			varType = new ArrayType(t, arrayIntExp, declStart, finish());
 		}
-		if(currentToken.kind == Token.EQ) {
+		if(tokens.kind() == Token.EQ) {
 			acceptOperator();
 			varExp = parseInitialiser();
 		}
-		finish(varPos);
+		long varFinish = finish();
 
-		var = new GlobalVarDecl(varType, i, varExp, varPos);
+		var = new GlobalVarDecl(varType, i, varExp, varStart, varFinish);
+		declList.add(var, varStart, varFinish);
 
-		List commaDeclList = new EmptyDeclList(dummyPos);
-		if (currentToken.kind == Token.COMMA) {
+		if (tokens.kind() == Token.COMMA) {
 			match(Token.COMMA);
-			/* this will return and declList*/
-			commaDeclList = parseInitDeclaratorList(t, "global");
+			/* the cells of the other declarators follow */
+			declList.addAll(parseInitDeclaratorList(t, "global"));
 
 		}
 		match(Token.SEMICOLON);
 		
-		declList = new DeclList(var, commaDeclList, varPos);
 		return declList;
 	}
 	
-	List parseInitDeclaratorList(Type varType, String declType) throws SyntaxError {
-		SourcePosition declListPos = new SourcePosition();
-		DeclList declList;
-		Decl var;
-		start(declListPos);
-		var = parseInitDeclarator(varType, declType);
-		if (currentToken.kind != Token.COMMA) {
-			finish(declListPos);
-			declList = new DeclList(var, new EmptyDeclList(dummyPos), declListPos);
-		} else {
+	Cells<Decl> parseInitDeclaratorList(Type varType, String declType) throws SyntaxError {
+		Cells<Decl> declList = new Cells<Decl>();
+
+		while (true) {
+			long declStart = start();
+			declList.add(parseInitDeclarator(varType, declType), declStart, 0);
+			if (tokens.kind() != Token.COMMA) {
+				break;
+			}
 			match(Token.COMMA);
-			declList = new DeclList(var, parseInitDeclaratorList(varType, declType), dummyPos);
-			finish(declListPos);
-			declList.position = declListPos;
 		}
+
+		/* the declarators share the type, and so finish where its last
+		   declarator does */
+		for (Decl var : declList.elements) {
+			var.finish = var.T.finish = varType.finish;
+		}
+
+		/* every declarator's cell runs to the end of the whole list */
+		declList.finishAll(finish());
 		
 		return declList;
 	}
 
 	Decl parseInitDeclarator(Type varType, String declType) throws SyntaxError {
 		Decl var;
-		Expr varExp = new EmptyExpr(dummyPos); 
+		Expr varExp = new EmptyExpr(0, 0); 
 
 		var = parseDeclarator(varType, declType);
-		if (currentToken.kind == Token.EQ) {
+		if (tokens.kind() == Token.EQ) {
 			acceptOperator();
 			varExp = parseInitialiser();
 		}
@@ -364,50 +567,50 @@ public class Parser {
 		} else {
 			throw new RuntimeException("I only deal with globals and locals mate");
 		}
+		varExp.parent = var;
 		return var;
 	}
 	
 	Decl parseDeclarator(Type varType, String declType) throws SyntaxError {
-		SourcePosition declPos = varType.position;
 		Decl var;
-		Expr arrayIntExp = new EmptyExpr(dummyPos);
+		Expr arrayIntExp = new EmptyExpr(0, 0);
+		long declStart = varType.start;
 
 		Ident varIdent = parseIdent();
-		if (currentToken.kind == Token.LBRACKET) {
+		if (tokens.kind() == Token.LBRACKET) {
 			match(Token.LBRACKET);
-			if (currentToken.kind == Token.INTLITERAL) {
+			if (tokens.kind() == Token.INTLITERAL) {
 				IntLiteral intLit = parseIntLiteral();
-				arrayIntExp = new IntExpr(intLit, previousTokenPosition);
+				arrayIntExp = new IntExpr(intLit, intLit.start, intLit.finish);
 			}
 			match(Token.RBRACKET);
-			finish(declPos);
-			varType = new ArrayType(varType, arrayIntExp, declPos);
+			varType.finish = finish();
+			varType = new ArrayType(varType, arrayIntExp, declStart, finish());
+		} else {
+			varType.finish = finish();
 		}
-		finish(declPos);
 
 		if (declType == "global") {
-			var = new GlobalVarDecl(varType, varIdent, new EmptyExpr(dummyPos), declPos);
+			var = new GlobalVarDecl(varType, varIdent, new EmptyExpr(0, 0), declStart, finish());
 		} else if (declType == "parameter") {
-			var = new ParaDecl(varType, varIdent, declPos);
+			var = new ParaDecl(varType, varIdent, declStart, finish());
 		} else {
-			var = new LocalVarDecl(varType, varIdent, new EmptyExpr(dummyPos), declPos);
+			var = new LocalVarDecl(varType, varIdent, new EmptyExpr(0, 0), declStart, finish());
 		}
 
 		return var;
 	}
 	
 	Expr parseInitialiser() throws SyntaxError {
-		SourcePosition initPos = new SourcePosition();
 		List expList;
 		Expr initialiser;
 
-		start(initPos);
-		if (currentToken.kind == Token.LCURLY) {
+		long initStart = start();
+		if (tokens.kind() == Token.LCURLY) {
 			match(Token.LCURLY);
 			expList = parseInitialiserList();
 			match(Token.RCURLY);
-			finish(initPos);
-			initialiser = new InitExpr(expList, initPos);
+			initialiser = new InitExpr(expList, initStart, finish());
 		} else {
 			initialiser = parseExpr();
 		}
@@ -415,61 +618,53 @@ public class Parser {
 	}
 	
 	List parseInitialiserList() throws SyntaxError {
-		SourcePosition initListPos = new SourcePosition();
-		List initList;
-		Expr initExpr;
+		Cells<Expr> initList = new Cells<Expr>();
 		
-		start(initListPos);
-		initExpr = parseExpr();
-		if (currentToken.kind == Token.COMMA) {
+		while (true) {
+			long initStart = start();
+			initList.add(parseExpr(), initStart, 0);
+			if (tokens.kind() != Token.COMMA) {
+				break;
+			}
 			match(Token.COMMA);
-			initList = new ExprList(initExpr, parseInitialiserList(), dummyPos);
-			finish(initListPos);
-			initList.position = initListPos;
-		} else {
-			finish(initListPos);
-			initList = new ExprList(initExpr, new EmptyExprList(dummyPos), initListPos);
 		}
+		initList.finishAll(finish());
 		
-		return initList;
+		return exprList(initList);
 	}
 	//  ======================== TYPES ==========================
 
 	Type parseType() throws SyntaxError {
 		Type typeAST = null;
 
-		SourcePosition typePos = new SourcePosition();
-		start(typePos);
+		long typeStart = start();
 
-	switch(currentToken.kind) {
+	switch(tokens.kind()) {
 		case Token.VOID:
 			match(Token.VOID);
-			typeAST = new VoidType(dummyPos);
+			typeAST = new VoidType(typeStart, finish());
 			break;
 		case Token.BOOLEAN:
 			match(Token.BOOLEAN);
-			typeAST = new BooleanType(dummyPos);
+			typeAST = new BooleanType(typeStart, finish());
 			break;
 		case Token.INT:
 			match(Token.INT);
-			typeAST = new IntType(dummyPos);
+			typeAST = new IntType(typeStart, finish());
 			break;
 		case Token.FLOAT:
 			match(Token.FLOAT);
-			typeAST = new FloatType(dummyPos);
+			typeAST = new FloatType(typeStart, finish());
 			break;
 		default:
-			syntacticError("expecting a type", currentToken.spelling);
+			syntacticError("expecting a type", tokens.spelling());
 		}
-		finish(typePos);
-		typeAST.position = typePos;
 		return typeAST;
 	}
 
 	// ======================= STATEMENTS ==============================
 
 	Stmt parseCompoundStmt() throws SyntaxError {
-		SourcePosition compoundStmtPos = new SourcePosition();
 		Stmt compoundStmt; 
 		List varDeclList;
 		List stmtList;
@@ -481,18 +676,17 @@ public class Parser {
 			haveLock = true;
 		}
 */
-		start(compoundStmtPos);
+		long compoundStmtStart = start();
 		match(Token.LCURLY);
-		if (currentToken.kind == Token.RCURLY) {
+		if (tokens.kind() == Token.RCURLY) {
 			match(Token.RCURLY);
-			return new EmptyCompStmt(dummyPos);
+			return new EmptyCompStmt(0, 0);
 		}
 		varDeclList = parseVarDeclList();
 		stmtList = parseStmtList();
 		match(Token.RCURLY);
-		finish(compoundStmtPos);
 
-		compoundStmt = new CompoundStmt(varDeclList, stmtList, compoundStmtPos);
+		compoundStmt = new CompoundStmt(varDeclList, stmtList, compoundStmtStart, finish());
 		
 /*		if (haveLock) {
 			inFunction = false;
@@ -505,46 +699,43 @@ public class Parser {
 
 
 	List parseStmtList() throws SyntaxError {
-		List slAST = null; 
-
-		SourcePosition stmtPos = new SourcePosition();
-		start(stmtPos);
-
-		if (currentToken.kind != Token.RCURLY) {
-			Stmt sAST = parseStmt();
-			{
-				if (currentToken.kind != Token.RCURLY) {
-					slAST = parseStmtList();
-					finish(stmtPos);
-					slAST = new StmtList(sAST, slAST, stmtPos);
-				} else {
-					finish(stmtPos);
-					slAST = new StmtList(sAST, new EmptyStmtList(dummyPos), stmtPos);
+		Cells<Stmt> slAST = new Cells<Stmt>();
+
+		while (tokens.kind() != Token.RCURLY) {
+			int from = tokens.index();
+			long stmtStart = start();
+			try {
+				slAST.add(parseStmt(), stmtStart, 0);
+			} catch (SyntaxError s) {
+				recover(s, from, SYNC_STMT, false);
+				if (tokens.kind() == Token.EOF) {
+					break;
 				}
+				continue;
 			}
 		}
-		else
-			slAST = new EmptyStmtList(dummyPos);
 
-		return slAST;
+		slAST.finishAll(finish());
+
+		return stmtList(slAST);
 	}
 
 	Stmt parseStmt() throws SyntaxError {
 		Stmt stmt = null;
 
-		if (currentToken.kind == Token.LCURLY) {
+		if (tokens.kind() == Token.LCURLY) {
 			stmt = parseCompoundStmt();
-		} else if (currentToken.kind == Token.IF) {
+		} else if (tokens.kind() == Token.IF) {
 			stmt = parseIfStmt();
-		} else if (currentToken.kind == Token.FOR) {
+		} else if (tokens.kind() == Token.FOR) {
 			stmt = parseForStmt();
-		} else if (currentToken.kind == Token.WHILE) {
+		} else if (tokens.kind() == Token.WHILE) {
 			stmt = parseWhileStmt();
-		} else if (currentToken.kind == Token.CONTINUE) {
+		} else if (tokens.kind() == Token.CONTINUE) {
 			stmt = parseContinueStmt();
-		} else if (currentToken.kind == Token.BREAK) {
+		} else if (tokens.kind() == Token.BREAK) {
 			stmt = parseBreakStmt();
-		} else if (currentToken.kind == Token.RETURN) {
+		} else if (tokens.kind() == Token.RETURN) {
 			stmt = parseReturnStmt();
 		} else {
 			stmt = parseExprStmt();
@@ -554,26 +745,23 @@ public class Parser {
 	}
 	
 	Stmt parseIfStmt() throws SyntaxError {
-		SourcePosition ifPos = new SourcePosition();
 		Stmt ifStmt; 
 		Expr ifExpr;
 		Stmt ifBody;
 		Stmt elseBody;
 
-		start(ifPos);
+		long ifStart = start();
 		match(Token.IF);
 		match(Token.LPAREN);
 		ifExpr = parseExpr();
 		match(Token.RPAREN);
 		ifBody = parseStmt();
-		if (currentToken.kind == Token.ELSE) {
+		if (tokens.kind() == Token.ELSE) {
 			match(Token.ELSE);
 			elseBody = parseStmt();
-			finish(ifPos);
-			ifStmt = new IfStmt(ifExpr, ifBody, elseBody, ifPos);
+			ifStmt = new IfStmt(ifExpr, ifBody, elseBody, ifStart, finish());
 		} else {
-			finish(ifPos);
-			ifStmt =  new IfStmt(ifExpr, ifBody, ifPos);
+			ifStmt =  new IfStmt(ifExpr, ifBody, ifStart, finish());
 		}
 		
 		return ifStmt;
@@ -581,108 +769,95 @@ public class Parser {
 	}
 
 	Stmt parseForStmt() throws SyntaxError {
-		SourcePosition forPos = new SourcePosition();
 		Stmt forStmt;
-		Expr e1 = new EmptyExpr(dummyPos);
-		Expr e2 = new EmptyExpr(dummyPos);
-		Expr e3 = new EmptyExpr(dummyPos);
+		Expr e1 = new EmptyExpr(0, 0);
+		Expr e2 = new EmptyExpr(0, 0);
+		Expr e3 = new EmptyExpr(0, 0);
 		Stmt forBody;
 		
-		start(forPos);
+		long forStart = start();
 		match(Token.FOR);
 		match(Token.LPAREN);
-		if (currentToken.kind != Token.SEMICOLON) {
+		if (tokens.kind() != Token.SEMICOLON) {
 			e1 = parseExpr();
 		}
 		match(Token.SEMICOLON);
-		if (currentToken.kind != Token.SEMICOLON) {
+		if (tokens.kind() != Token.SEMICOLON) {
 			e2 = parseExpr();
 		}
 		match(Token.SEMICOLON);
-		if (currentToken.kind != Token.RPAREN) {
+		if (tokens.kind() != Token.RPAREN) {
 			e3 = parseExpr();
 		}
 		match(Token.RPAREN);
 		forBody = parseStmt(); 
-		finish(forPos);
 
-		forStmt = new ForStmt(e1, e2, e3, forBody, forPos);
+		forStmt = new ForStmt(e1, e2, e3, forBody, forStart, finish());
 		
 		return forStmt;
 	}
 
 	Stmt parseWhileStmt() throws SyntaxError {
-		SourcePosition whilePos = new SourcePosition();
 		Stmt whileStmt;
 		Expr whileExpr;
 		Stmt whileBody;
 		
-		start(whilePos);
+		long whileStart = start();
 		match(Token.WHILE);
 		match(Token.LPAREN);
 		whileExpr = parseExpr();
 		match(Token.RPAREN);
 		whileBody = parseStmt();
-		finish(whilePos);
 		
-		whileStmt = new WhileStmt(whileExpr, whileBody, whilePos);
+		whileStmt = new WhileStmt(whileExpr, whileBody, whileStart, finish());
 		
 		return whileStmt;
 	}
 
 	Stmt parseBreakStmt() throws SyntaxError {
-		SourcePosition breakPos = new SourcePosition();
 		
-		start(breakPos);
+		long breakStart = start();
 		match(Token.BREAK);
 		match(Token.SEMICOLON);
-		finish(breakPos);
 
-		return new BreakStmt(breakPos);
+		return new BreakStmt(breakStart, finish());
 	}
 
 	Stmt parseContinueStmt() throws SyntaxError {
-		SourcePosition continuePos = new SourcePosition();
 		
-		start(continuePos);
+		long continueStart = start();
 		match(Token.CONTINUE);
 		match(Token.SEMICOLON);
-		finish(continuePos);
 		
-		return new ContinueStmt(continuePos);
+		return new ContinueStmt(continueStart, finish());
 	}
 
 	Stmt parseReturnStmt() throws SyntaxError {
-		SourcePosition retPos = new SourcePosition();
-		Expr retExpr = new EmptyExpr(dummyPos);
+		Expr retExpr = new EmptyExpr(0, 0);
 
-		start(retPos);
+		long retStart = start();
 		match(Token.RETURN);
-		if (currentToken.kind != Token.SEMICOLON) {
+		if (tokens.kind() != Token.SEMICOLON) {
 			retExpr = parseExpr();
 		}
 		match(Token.SEMICOLON);
-		finish(retPos);
 		
-		return new ReturnStmt(retExpr, retPos);
+		return new ReturnStmt(retExpr, retStart, finish());
 	}
 	
 
 	Stmt parseExprStmt() throws SyntaxError {
 		Stmt sAST = null;
 
-		SourcePosition stmtPos = new SourcePosition();
-		start(stmtPos);
+		long stmtStart = start();
 
-		if (currentToken.kind != Token.SEMICOLON) {
+		if (tokens.kind() != Token.SEMICOLON) {
 			Expr eAST = parseExpr();
 			match(Token.SEMICOLON);
-			finish(stmtPos);
-			sAST = new ExprStmt(eAST, stmtPos);
+			sAST = new ExprStmt(eAST, stmtStart, finish());
 		} else {
 			match(Token.SEMICOLON);
-			finish(stmtPos);
-			sAST = new ExprStmt(new EmptyExpr(dummyPos), stmtPos);
+			sAST = new ExprStmt(new EmptyExpr(0, 0), stmtStart, finish());
 		}
 		return sAST;
 	}
@@ -691,62 +866,48 @@ public class Parser {
 	// ======================= PARAMETERS =======================
 
 	List parseParaList() throws SyntaxError {
-		List paraList = new EmptyParaList(dummyPos);
-
-		SourcePosition formalsPos = new SourcePosition();
-		start(formalsPos);
+		List paraList = new EmptyParaList(0, 0);
 
 		match(Token.LPAREN);
-		if (currentToken.kind != Token.RPAREN) {
+		if (tokens.kind() != Token.RPAREN) {
 			paraList = parseProperParaList();
 		}
 		match(Token.RPAREN);
-		finish(formalsPos);
 
 		return paraList;
 	}
 
 	List parseProperParaList() throws SyntaxError {
-		SourcePosition paraListPos = new SourcePosition();
-		List paraList;
-		ParaDecl para;
+		Cells<ParaDecl> paraList = new Cells<ParaDecl>();
 		
-		
-		start(paraListPos);
-		para = parseParaDecl();
-		if (currentToken.kind == Token.COMMA) {
+		while (true) {
+			long paraStart = start();
+			paraList.add(parseParaDecl(), paraStart, 0);
+			if (tokens.kind() != Token.COMMA) {
+				break;
+			}
 			match(Token.COMMA);
-			paraList = new ParaList(para, parseProperParaList(), dummyPos);
-			finish(paraListPos);
-			paraList.position = paraListPos;
-		} else {
-			finish(paraListPos);
-			paraList = new ParaList(para, new EmptyParaList(dummyPos), paraListPos);
 		}
+		paraList.finishAll(finish());
 
-		return paraList;
+		return paraList(paraList);
 	}
 
 	ParaDecl parseParaDecl() throws SyntaxError {
-		SourcePosition paraPos = new SourcePosition();
 		ParaDecl para;
 		Type paraType;
 
-		start(paraPos);
 		paraType = parseType();
 		para = (ParaDecl) parseDeclarator(paraType, "parameter");
-		finish(paraPos);
 
 		return para;
 	}
 
 	List parseArgList() throws SyntaxError {
-		SourcePosition argListPos = new SourcePosition();
-		List argList = new EmptyArgList(dummyPos);
+		List argList = new EmptyArgList(0, 0);
 		
-		start(argListPos);
 		match(Token.LPAREN);
-		if (currentToken.kind != Token.RPAREN) {
+		if (tokens.kind() != Token.RPAREN) {
 			argList = parseProperArgList();
 		}
 		match(Token.RPAREN);
@@ -755,34 +916,28 @@ public class Parser {
 	}
 
 	List parseProperArgList() throws SyntaxError {
-		SourcePosition argListPos = new SourcePosition();
-		List argList;
-		Arg arg;
+		Cells<Arg> argList = new Cells<Arg>();
 		
-		start(argListPos);
-		arg = parseArg();
-		if (currentToken.kind == Token.COMMA) {
+		while (true) {
+			long argStart = start();
+			argList.add(parseArg(), argStart, 0);
+			if (tokens.kind() != Token.COMMA) {
+				break;
+			}
 			match(Token.COMMA);
-			argList = new ArgList(arg, parseProperArgList(), dummyPos);
-			finish(argListPos);
-			argList.position = argListPos;
-		} else {
-			finish(argListPos);
-			argList = new ArgList(arg, new EmptyArgList(dummyPos), argListPos);
 		}
+		argList.finishAll(finish());
 			
-		return argList;
+		return argList(argList);
 	}
 
 	Arg parseArg() throws SyntaxError {
-		SourcePosition argPos = new SourcePosition();
 		Arg arg;
 		
-		start(argPos);
+		long argStart = start();
 		Expr argExpr = parseExpr();
-		finish(argPos);
 		
-		arg = new Arg(argExpr, argPos);
+		arg = new Arg(argExpr, argStart, finish());
 
 		return arg;
 	}
@@ -790,142 +945,41 @@ public class Parser {
 
 
 	Expr parseExpr() throws SyntaxError {
-		Expr exprAST = null;
-		exprAST = parseAssignExpr();
-		return exprAST;
-	}
-	
-	Expr parseAssignExpr() throws SyntaxError {
-		SourcePosition assignExpPos = new SourcePosition();
-		Expr assignExpr;
-		
-		start(assignExpPos);
-		assignExpr = parseCondOrExpr();
-		finish(assignExpPos);
-		if (currentToken.kind == Token.EQ) {
-			acceptOperator();
-			assignExpr = new AssignExpr(assignExpr, parseAssignExpr(), dummyPos);
-			finish(assignExpPos);
-			assignExpr.position = assignExpPos;
-		}
-		
-		return assignExpr;
-	}
-	
-	
-	Expr parseCondOrExpr() throws SyntaxError {
-		SourcePosition condOrExprPos = new SourcePosition();
-		Expr condOrExpr;
-		Operator or;
-		
-		start(condOrExprPos);
-		condOrExpr = parseCondAndExpr();
-		if (currentToken.kind == Token.OROR) {
-			or = acceptOperator();
-			condOrExpr = new BinaryExpr(condOrExpr, or, parseCondAndExpr(), dummyPos);
-			finish(condOrExprPos);
-			condOrExpr.position = condOrExprPos;
-		}
-		
-		return condOrExpr;
-	}
-	
-	
-	Expr parseCondAndExpr() throws SyntaxError {
-		SourcePosition condAndExprPos = new SourcePosition();
-		Expr condAndExpr;
-		Operator and;
-		
-		start(condAndExprPos);
-		condAndExpr = parseEqualityExpr();
-		if (currentToken.kind == Token.ANDAND) {
-			and = acceptOperator();
-			condAndExpr = new BinaryExpr(condAndExpr, and, parseEqualityExpr(), dummyPos);
-			finish(condAndExprPos);
-			condAndExpr.position = condAndExprPos;
-		}
-		
-		return condAndExpr;
-	}
-	
-	
-	Expr parseEqualityExpr() throws SyntaxError {
-		SourcePosition equalityPos = new SourcePosition();
-		Expr equalityExpr;
-		Operator eqeq;
-		
-		start(equalityPos);
-		equalityExpr = parseRelExpr();
-		if (currentToken.kind == Token.EQEQ) {
-			eqeq = acceptOperator();
-			equalityExpr = new BinaryExpr(equalityExpr, eqeq, parseEqualityExpr(), dummyPos);
-			finish(equalityPos);
-			equalityExpr.position = equalityPos;
-		}
-		
-		return equalityExpr;
-	}
-	
-	
-	Expr parseRelExpr() throws SyntaxError {
-		SourcePosition relPos = new SourcePosition();
-		Expr relExpr;
-		Operator angleOp;
-		
-		start(relPos);
-		relExpr = parseAdditiveExpr();
-		switch(currentToken.kind) {
-		case Token.LT:
-		case Token.LTEQ:
-		case Token.GT:
-		case Token.GTEQ:
-			angleOp = acceptOperator();
-			relExpr = new BinaryExpr(relExpr, angleOp, parseRelExpr(), dummyPos);
-			finish(relPos);
-			relExpr.position = relPos;
-		default:
-			break;
-		}
-		
-		return relExpr;
-	}
-
-	Expr parseAdditiveExpr() throws SyntaxError {
-		Expr exprAST = null;
-
-		SourcePosition addStartPos = new SourcePosition();
-		start(addStartPos);
-
-		exprAST = parseMultiplicativeExpr();
-		while (currentToken.kind == Token.PLUS
-				|| currentToken.kind == Token.MINUS) {
-			Operator opAST = acceptOperator();
-			Expr e2AST = parseMultiplicativeExpr();
-
-			SourcePosition addPos = new SourcePosition();
-			copyStart(addStartPos, addPos);
-			finish(addPos);
-			exprAST = new BinaryExpr(exprAST, opAST, e2AST, addPos);
-		}
-		return exprAST;
+		return parseOperatorExpr(ASSIGN_LEVEL);
 	}
 
-	Expr parseMultiplicativeExpr() throws SyntaxError {
+	// parseOperatorExpr parses the binary (and assignment) operators by
+	// precedence climbing: it parses a unary expression and then takes
+	// operators of level minLevel and up, each followed by an operand
+	// parsed at the level its associativity calls for. ceiling keeps a
+	// level from being taken again where the grammar does not repeat it.
+	// Every node spans from the first token of its left operand.
 
+	Expr parseOperatorExpr(int minLevel) throws SyntaxError {
 		Expr exprAST = null;
 
-		SourcePosition multStartPos = new SourcePosition();
-		start(multStartPos);
+		long exprStart = start();
 
 		exprAST = parseUnaryExpr();
-		while (currentToken.kind == Token.MULT
-				|| currentToken.kind == Token.DIV) {
+		int ceiling = MULTIPLICATIVE_LEVEL;
+		int level = LEVEL[tokens.kind()];
+		while (level >= minLevel && level <= ceiling) {
 			Operator opAST = acceptOperator();
-			Expr e2AST = parseUnaryExpr();
-			SourcePosition multPos = new SourcePosition();
-			copyStart(multStartPos, multPos);
-			finish(multPos);
-			exprAST = new BinaryExpr(exprAST, opAST, e2AST, multPos);
+			Expr e2AST;
+			if (ASSOCIATIVITY[level] == RIGHT) {
+				e2AST = parseOperatorExpr(level);
+			} else {
+				e2AST = parseOperatorExpr(level + 1);
+			}
+
+			if (level == ASSIGN_LEVEL) {
+				exprAST = new AssignExpr(exprAST, e2AST, exprStart, finish());
+			} else {
+				exprAST = new BinaryExpr(exprAST, opAST, e2AST, exprStart, finish());
+			}
+
+			ceiling = ASSOCIATIVITY[level] == LEFT ? level : level - 1;
+			level = LEVEL[tokens.kind()];
 		}
 		return exprAST;
 	}
@@ -934,18 +988,16 @@ public class Parser {
 
 		Expr exprAST = null;
 
-		SourcePosition unaryPos = new SourcePosition();
-		start(unaryPos);
+		long unaryStart = start();
 
-		switch (currentToken.kind) {
+		switch (tokens.kind()) {
 		case Token.PLUS:
 		case Token.MINUS:
 		case Token.NOT:
 		{
 			Operator opAST = acceptOperator();
 			Expr e2AST = parseUnaryExpr();
-			finish(unaryPos);
-			exprAST = new UnaryExpr(opAST, e2AST, unaryPos);
+			exprAST = new UnaryExpr(opAST, e2AST, unaryStart, finish());
 		}
 		break;
 
@@ -961,26 +1013,24 @@ public class Parser {
 
 		Expr exprAST = null;
 
-		SourcePosition primPos = new SourcePosition();
-		start(primPos);
+		long primStart = start();
 
-		switch (currentToken.kind) {
+		switch (tokens.kind()) {
 
 		case Token.ID:
 			Ident iAST = parseIdent();
-			finish(primPos);
-			Var simVAST = new SimpleVar(iAST, primPos);
-			exprAST = new VarExpr(simVAST, primPos);
-			if (currentToken.kind == Token.LBRACKET) {
+			Var simVAST = new SimpleVar(iAST, primStart, finish());
+			exprAST = new VarExpr(simVAST, primStart, finish());
+			if (tokens.kind() == Token.LBRACKET) {
 				match(Token.LBRACKET);
 				Expr arrayIndexExp = parseExpr();
 				match(Token.RBRACKET);
-				finish(primPos);
-				exprAST = new ArrayExpr(simVAST, arrayIndexExp, primPos);
-			} else if (currentToken.kind == Token.LPAREN) {
+				/* the variable spans the whole access */
+				simVAST.finish = finish();
+				exprAST = new ArrayExpr(simVAST, arrayIndexExp, primStart, finish());
+			} else if (tokens.kind() == Token.LPAREN) {
 				List argList = parseArgList();
-				finish(primPos);
-				exprAST = new CallExpr(iAST, argList, primPos);
+				exprAST = new CallExpr(iAST, argList, primStart, finish());
 			}
 			break;
 		case Token.LPAREN:
@@ -990,26 +1040,22 @@ public class Parser {
 			break;
 		case Token.INTLITERAL:
 			IntLiteral ilAST = parseIntLiteral();
-			finish(primPos);
-			exprAST = new IntExpr(ilAST, primPos);
+			exprAST = new IntExpr(ilAST, primStart, finish());
 			break;
 		case Token.FLOATLITERAL:
 			FloatLiteral floatLiteral = parseFloatLiteral();
-			finish(primPos);
-			exprAST = new FloatExpr(floatLiteral, primPos);
+			exprAST = new FloatExpr(floatLiteral, primStart, finish());
 			break;
 		case Token.BOOLEANLITERAL:
 			BooleanLiteral boolLiteral = parseBooleanLiteral();
-			finish(primPos);
-			exprAST = new BooleanExpr(boolLiteral, primPos);
+			exprAST = new BooleanExpr(boolLiteral, primStart, finish());
 			break;
 		case Token.STRINGLITERAL:
 			StringLiteral stringLiteral = parseStringLiteral();
-			finish(primPos);
-			exprAST = new StringExpr(stringLiteral, primPos);
+			exprAST = new StringExpr(stringLiteral, primStart, finish());
 			break;
 		default:
-			syntacticError("illegal primary expression", currentToken.spelling);
+			syntacticError("illegal primary expression", tokens.spelling());
 		}
 
 		return exprAST;
@@ -1021,11 +1067,12 @@ public class Parser {
 
 		Ident I = null; 
 
-		if (currentToken.kind == Token.ID) {
-			previousTokenPosition = currentToken.position;
-			String spelling = currentToken.spelling;
-			I = new Ident(spelling, previousTokenPosition);
-			currentToken = scanner.getToken();
+		if (tokens.kind() == Token.ID) {
+			previousTokenStart = tokens.start();
+			previousTokenFinish = tokens.finish();
+			String spelling = tokens.spelling();
+			I = new Ident(spelling, tokens.start(), tokens.finish());
+			tokens.advance();
 		} else 
 			syntacticError("identifier expected here", "");
 		return I;
@@ -1036,10 +1083,11 @@ public class Parser {
 	Operator acceptOperator() throws SyntaxError {
 		Operator O = null;
 
-		previousTokenPosition = currentToken.position;
-		String spelling = currentToken.spelling;
-		O = new Operator(spelling, previousTokenPosition);
-		currentToken = scanner.getToken();
+		previousTokenStart = tokens.start();
+		previousTokenFinish = tokens.finish();
+		String spelling = tokens.spelling();
+		O = new Operator(spelling, tokens.start(), tokens.finish());
+		tokens.advance();
 		return O;
 	}
 
@@ -1047,10 +1095,10 @@ public class Parser {
 	IntLiteral parseIntLiteral() throws SyntaxError {
 		IntLiteral IL = null;
 
-		if (currentToken.kind == Token.INTLITERAL) {
-			String spelling = currentToken.spelling;
+		if (tokens.kind() == Token.INTLITERAL) {
+			String spelling = tokens.spelling();
 			accept();
-			IL = new IntLiteral(spelling, previousTokenPosition);
+			IL = new IntLiteral(spelling, previousTokenStart, previousTokenFinish);
 		} else 
 			syntacticError("integer literal expected here", "");
 		return IL;
@@ -1059,10 +1107,10 @@ public class Parser {
 	FloatLiteral parseFloatLiteral() throws SyntaxError {
 		FloatLiteral FL = null;
 
-		if (currentToken.kind == Token.FLOATLITERAL) {
-			String spelling = currentToken.spelling;
+		if (tokens.kind() == Token.FLOATLITERAL) {
+			String spelling = tokens.spelling();
 			accept();
-			FL = new FloatLiteral(spelling, previousTokenPosition);
+			FL = new FloatLiteral(spelling, previousTokenStart, previousTokenFinish);
 		} else 
 			syntacticError("float literal expected here", "");
 		return FL;
@@ -1071,10 +1119,10 @@ public class Parser {
 	BooleanLiteral parseBooleanLiteral() throws SyntaxError {
 		BooleanLiteral BL = null;
 
-		if (currentToken.kind == Token.BOOLEANLITERAL) {
-			String spelling = currentToken.spelling;
+		if (tokens.kind() == Token.BOOLEANLITERAL) {
+			String spelling = tokens.spelling();
 			accept();
-			BL = new BooleanLiteral(spelling, previousTokenPosition);
+			BL = new BooleanLiteral(spelling, previousTokenStart, previousTokenFinish);
 		} else 
 			syntacticError("boolean literal expected here", "");
 		return BL;
@@ -1083,10 +1131,10 @@ public class Parser {
 	StringLiteral parseStringLiteral() throws SyntaxError {
 		StringLiteral strLiteral = null;
 
-		if (currentToken.kind == Token.STRINGLITERAL) {
-			String spelling = currentToken.spelling;
+		if (tokens.kind() == Token.STRINGLITERAL) {
+			String spelling = tokens.spelling();
 			accept();
-			strLiteral = new StringLiteral(spelling, previousTokenPosition);
+			strLiteral = new StringLiteral(spelling, previousTokenStart, previousTokenFinish);
 		} else {
 			syntacticError("string literal expected here", "");
 		}
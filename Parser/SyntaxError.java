@@ -4,7 +4,9 @@
  * Presently, the parser uses the so-called panic-mode
  * recovery. On encountering the first syntax error, the 
  * parser prints a message with a line number indicating
- * where the error has occurred, and then stops.
+ * where the error has occurred, and then stops. In the
+ * recovery mode (vc -r) it skips to the next ";", "}" or
+ * declaration instead and carries on.
  */
 
 package VC.Parser;
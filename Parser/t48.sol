@@ -0,0 +1,7 @@
+======= The VC compiler =======
+
+Pass 1: Lexical and syntactic Analysis
+ERROR: 5(3)..5(5): ";" expected here
+ERROR: 7(3)..7(3): ";" expected here
+ERROR: 9(3)..9(8): ";" expected here
+Compilation was unsuccessful.
@@ -0,0 +1,6 @@
+======= The VC compiler =======
+
+Pass 1: Lexical and syntactic Analysis
+ERROR: 7(3)..7(8): expecting a type
+ERROR: 8(1)..8(1): expecting a type
+Compilation was unsuccessful.
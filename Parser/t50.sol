@@ -0,0 +1,7 @@
+======= The VC compiler =======
+
+Pass 1: Lexical and syntactic Analysis
+ERROR: 3(1)..3(1): expecting a type
+ERROR: 5(7)..5(7): identifier expected here
+ERROR: 9(11)..9(11): expecting a type
+Compilation was unsuccessful.
@@ -47,30 +47,35 @@ package VC.Recogniser;
 import VC.Scanner.Scanner;
 import VC.Scanner.SourcePosition;
 import VC.Scanner.Token;
+import VC.Scanner.TokenBuffer;
 import static VC.Scanner.Token.*;
 import VC.ErrorReporter;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.Arrays;
-import java.util.List;
 
 public class Recogniser {
-	private static final Map<String, Integer[]> first;
-	static {
-		first = new HashMap<String, Integer[]>();
-		first.put("var-decl", new Integer[]{VOID, BOOLEAN, INT, FLOAT});
-		first.put("stmt", new Integer[]{LCURLY, IF, FOR, WHILE, BREAK, CONTINUE, RETURN, PLUS, MINUS, NOT, ID, LPAREN, INTLITERAL, FLOATLITERAL,
-			BOOLEANLITERAL, STRINGLITERAL, SEMICOLON});
-	}
-	private Scanner scanner;
+	// The FIRST sets and operator classes as bitmasks over token kinds;
+	// see currentIn.
+	private static final long
+		FIRST_VAR_DECL = kinds(VOID, BOOLEAN, INT, FLOAT),
+		FIRST_STMT = kinds(LCURLY, IF, FOR, WHILE, BREAK, CONTINUE, RETURN, PLUS, MINUS, NOT, ID, LPAREN, INTLITERAL, FLOATLITERAL,
+				BOOLEANLITERAL, STRINGLITERAL, SEMICOLON),
+		EQUALITY_OPS = kinds(EQEQ, NOTEQ),
+		ADDITIVE_OPS = kinds(PLUS, MINUS),
+		MULTIPLICATIVE_OPS = kinds(MULT, DIV);
+
+	private static long kinds(int... kinds) {
+		long set = 0;
+		for (int kind : kinds)
+			set |= 1L << kind;
+		return set;
+	}
+
 	private ErrorReporter errorReporter;
-	private Token currentToken;
+	private TokenBuffer tokens;
 
 	public Recogniser (Scanner lexer, ErrorReporter reporter) {
-		scanner = lexer;
 		errorReporter = reporter;
 
-		currentToken = scanner.getToken();
+		tokens = new TokenBuffer(lexer);
 	}
 
 	// match checks to see f the current token matches tokenExpected.
@@ -78,8 +83,8 @@ public class Recogniser {
 	// If not, reports a syntactic error.
 
 	void match(int tokenExpected) throws SyntaxError {
-		if (currentToken.kind == tokenExpected) {
-			currentToken = scanner.getToken();
+		if (tokens.kind() == tokenExpected) {
+			tokens.advance();
 		} else {
 			syntacticError("\"%\" expected here", Token.spell(tokenExpected));
 		}
@@ -87,17 +92,16 @@ public class Recogniser {
 
 	// accepts the current token and fetches the next
 	void accept() {
-		currentToken = scanner.getToken();
+		tokens.advance();
 	}
 
 	void syntacticError(String messageTemplate, String tokenQuoted) throws SyntaxError {
-		SourcePosition pos = currentToken.position;
-		errorReporter.reportError(messageTemplate, tokenQuoted, pos);
+		errorReporter.reportError(messageTemplate, tokenQuoted, tokens.start(), tokens.finish());
 		throw(new SyntaxError());
 	}
 
-	boolean currentInFirst(String s) {
-		return Arrays.asList(first.get(s)).contains(currentToken.kind);
+	boolean currentIn(long set) {
+		return (set >>> tokens.kind() & 1) != 0;
 	}
 
 
@@ -106,11 +110,11 @@ public class Recogniser {
 	public void parseProgram() {
 
 		try {
-			while (currentToken.kind != Token.EOF) {
+			while (tokens.kind() != Token.EOF) {
 				parseDecl();
 			}
-			if (currentToken.kind != Token.EOF) {
-				syntacticError("\"%\" wrong result type for a function", currentToken.spelling);
+			if (tokens.kind() != Token.EOF) {
+				syntacticError("\"%\" wrong result type for a function", tokens.spelling());
 			}
 		}
 		catch (SyntaxError s) {  }
@@ -121,7 +125,7 @@ public class Recogniser {
 	void parseDecl() throws SyntaxError {
 		parseType();
 		parseIdent();
-		if (currentToken.kind == Token.LPAREN) {
+		if (tokens.kind() == Token.LPAREN) {
 			parseFuncDeclNew();
 		} else {
 			parseVarDeclNew();
@@ -142,20 +146,20 @@ public class Recogniser {
 	}
 
 	void parseVarDeclNew() throws SyntaxError {
-		switch(currentToken.kind) {
+		switch(tokens.kind()) {
 		case Token.LBRACKET:
 			match(Token.LBRACKET);
-			if (currentToken.kind == Token.INTLITERAL) {
+			if (tokens.kind() == Token.INTLITERAL) {
 				match(Token.INTLITERAL);
 			}
 			match(Token.RBRACKET);
 			break;
 		}
-		if(currentToken.kind == Token.EQ) {
+		if(tokens.kind() == Token.EQ) {
 			match(Token.EQ);
 			parseInitialiser();
 		}
-		if (currentToken.kind == Token.COMMA) {
+		if (tokens.kind() == Token.COMMA) {
 			match(Token.COMMA);
 			parseInitDeclaratorList();
 		}
@@ -172,7 +176,7 @@ public class Recogniser {
 
 	void parseInitDeclarator() throws SyntaxError {
 		parseDeclarator();
-		if (currentToken.kind == Token.EQ) {
+		if (tokens.kind() == Token.EQ) {
 			match(Token.EQ);
 			parseInitialiser();
 		}
@@ -180,7 +184,7 @@ public class Recogniser {
 
 	void parseInitDeclaratorList() throws SyntaxError {
 		parseInitDeclarator();
-		while (currentToken.kind == Token.COMMA) {
+		while (tokens.kind() == Token.COMMA) {
 			match(Token.COMMA);
 			parseInitDeclarator();
 		}
@@ -188,9 +192,9 @@ public class Recogniser {
 
 	void parseDeclarator() throws SyntaxError {
 		parseIdent();
-		if (currentToken.kind == Token.LBRACKET) {
+		if (tokens.kind() == Token.LBRACKET) {
 			match(Token.LBRACKET);
-			if (currentToken.kind == Token.INTLITERAL) {
+			if (tokens.kind() == Token.INTLITERAL) {
 				match(Token.INTLITERAL);
 			}
 			match(Token.RBRACKET);
@@ -198,10 +202,10 @@ public class Recogniser {
 	}
 
 	void parseInitialiser() throws SyntaxError {
-		if (currentToken.kind == Token.LCURLY) {
+		if (tokens.kind() == Token.LCURLY) {
 			match(Token.LCURLY);
 			parseExpr();
-			while (currentToken.kind == Token.COMMA) {
+			while (tokens.kind() == Token.COMMA) {
 				match(Token.COMMA);
 				parseExpr();
 			}
@@ -213,7 +217,7 @@ public class Recogniser {
 	
 	// ========================== PRIMITIVE TYPES========================
 	void parseType() throws SyntaxError { 
-		switch(currentToken.kind) {
+		switch(tokens.kind()) {
 		case Token.VOID:
 			match(Token.VOID);
 			break;
@@ -227,7 +231,7 @@ public class Recogniser {
 			match(Token.FLOAT);
 			break;
 		default:
-			syntacticError("expecting a type", currentToken.spelling);
+			syntacticError("expecting a type", tokens.spelling());
 		}
 	}
 
@@ -238,7 +242,7 @@ public class Recogniser {
 	void parseCompoundStmt() throws SyntaxError {
 
 		match(Token.LCURLY);
-		while (currentInFirst("var-decl")) {
+		while (currentIn(FIRST_VAR_DECL)) {
 			parseVarDecl();
 
 		}
@@ -248,25 +252,25 @@ public class Recogniser {
 
 	// Here, a new nontermial has been introduced to define { stmt } *
 	void parseStmtList() throws SyntaxError {
-		while (currentInFirst("stmt")) {
+		while (currentIn(FIRST_STMT)) {
 			parseStmt();
 		}
 	}
 
 	void parseStmt() throws SyntaxError {
-		if (currentToken.kind == Token.LCURLY) {
+		if (tokens.kind() == Token.LCURLY) {
 			parseCompoundStmt();
-		} else if (currentToken.kind == Token.IF) {
+		} else if (tokens.kind() == Token.IF) {
 			parseIfStmt();
-		} else if (currentToken.kind == Token.FOR) {
+		} else if (tokens.kind() == Token.FOR) {
 			parseForStmt();
-		} else if (currentToken.kind == Token.WHILE) {
+		} else if (tokens.kind() == Token.WHILE) {
 			parseWhileStmt();
-		} else if (currentToken.kind == Token.CONTINUE) {
+		} else if (tokens.kind() == Token.CONTINUE) {
 			parseContinueStmt();
-		} else if (currentToken.kind == Token.BREAK) {
+		} else if (tokens.kind() == Token.BREAK) {
 			parseBreakStmt();
-		} else if (currentToken.kind == Token.RETURN) {
+		} else if (tokens.kind() == Token.RETURN) {
 			parseReturnStmt();
 		} else {
 			parseExprStmt();
@@ -279,7 +283,7 @@ public class Recogniser {
 		parseExpr();
 		match(Token.RPAREN);
 		parseStmt();
-		if (currentToken.kind == Token.ELSE) {
+		if (tokens.kind() == Token.ELSE) {
 			match(Token.ELSE);
 			parseStmt();
 		}
@@ -288,15 +292,15 @@ public class Recogniser {
 	void parseForStmt() throws SyntaxError {
 		match(Token.FOR);
 		match(Token.LPAREN);
-		if (currentToken.kind != Token.SEMICOLON) {
+		if (tokens.kind() != Token.SEMICOLON) {
 			parseExpr();
 		}
 		match(Token.SEMICOLON);
-		if (currentToken.kind != Token.SEMICOLON) {
+		if (tokens.kind() != Token.SEMICOLON) {
 			parseExpr();
 		}
 		match(Token.SEMICOLON);
-		if (currentToken.kind != Token.RPAREN) {
+		if (tokens.kind() != Token.RPAREN) {
 			parseExpr();
 		}
 		match(Token.RPAREN);
@@ -324,7 +328,7 @@ public class Recogniser {
 
 	void parseReturnStmt() throws SyntaxError {
 		match(Token.RETURN);
-		if (currentToken.kind != Token.SEMICOLON) {
+		if (tokens.kind() != Token.SEMICOLON) {
 			parseExpr();
 		}
 		match(Token.SEMICOLON);
@@ -332,7 +336,7 @@ public class Recogniser {
 
 	void parseExprStmt() throws SyntaxError {
 
-		if (currentToken.kind != Token.SEMICOLON) {
+		if (tokens.kind() != Token.SEMICOLON) {
 			parseExpr();
 		}
 		match(Token.SEMICOLON);
@@ -347,8 +351,8 @@ public class Recogniser {
 
 	void parseIdent() throws SyntaxError {
 
-		if (currentToken.kind == Token.ID) {
-			currentToken = scanner.getToken();
+		if (tokens.kind() == Token.ID) {
+			tokens.advance();
 		} else 
 			syntacticError("identifier expected here", "");
 	}
@@ -360,7 +364,7 @@ public class Recogniser {
 
 	void acceptOperator() throws SyntaxError {
 
-		currentToken = scanner.getToken();
+		tokens.advance();
 	}
 
 
@@ -373,7 +377,7 @@ public class Recogniser {
 
 	void parseAssignExpr() throws SyntaxError {
 		parseCondOrExpr();
-		while (currentToken.kind == Token.EQ) {
+		while (tokens.kind() == Token.EQ) {
 			match(Token.EQ);
 			parseCondOrExpr();
 		}
@@ -381,7 +385,7 @@ public class Recogniser {
 	
 	void parseCondOrExpr() throws SyntaxError {
 		parseCondAndExpr();
-		while (currentToken.kind == Token.OROR) {
+		while (tokens.kind() == Token.OROR) {
 			match(Token.OROR);
 			parseCondAndExpr();
 		}
@@ -389,7 +393,7 @@ public class Recogniser {
 
 	void parseCondAndExpr() throws SyntaxError {
 		parseEqualityExpr();
-		while (currentToken.kind == Token.ANDAND) {
+		while (tokens.kind() == Token.ANDAND) {
 			match(Token.ANDAND);
 			parseEqualityExpr();
 		}
@@ -397,8 +401,8 @@ public class Recogniser {
 
 	void parseEqualityExpr() throws SyntaxError {
 		parseRelExpr();
-		while (currentToken.kind == Token.EQEQ || currentToken.kind == Token.NOTEQ) {
-			if (currentToken.kind == Token.EQEQ) {
+		while (currentIn(EQUALITY_OPS)) {
+			if (tokens.kind() == Token.EQEQ) {
 				match(Token.EQEQ);
 			} else {
 				match(Token.NOTEQ);
@@ -409,7 +413,7 @@ public class Recogniser {
 
 	void parseRelExpr() throws SyntaxError {
 		parseAdditiveExpr();
-		switch(currentToken.kind) {
+		switch(tokens.kind()) {
 		case Token.LT:
 			match(Token.LT);
 			parseAdditiveExpr();
@@ -433,7 +437,7 @@ public class Recogniser {
 
 	void parseAdditiveExpr() throws SyntaxError {
 		parseMultiplicativeExpr();
-		while (currentToken.kind == Token.PLUS || currentToken.kind == Token.MINUS) {
+		while (currentIn(ADDITIVE_OPS)) {
 			acceptOperator();
 			parseMultiplicativeExpr();
 		}
@@ -441,7 +445,7 @@ public class Recogniser {
 
 	void parseMultiplicativeExpr() throws SyntaxError {
 		parseUnaryExpr();
-		while (currentToken.kind == Token.MULT || currentToken.kind == Token.DIV) {
+		while (currentIn(MULTIPLICATIVE_OPS)) {
 			acceptOperator();
 			parseUnaryExpr();
 		}
@@ -449,7 +453,7 @@ public class Recogniser {
 
 
 	void parseUnaryExpr() throws SyntaxError {
-		switch (currentToken.kind) {
+		switch (tokens.kind()) {
 			case Token.PLUS:
 			case Token.MINUS:
 			case Token.NOT:
@@ -465,14 +469,14 @@ public class Recogniser {
 
 	void parsePrimaryExpr() throws SyntaxError {
 
-		switch (currentToken.kind) {
+		switch (tokens.kind()) {
 			case Token.ID:
 				parseIdent();
-				if (currentToken.kind == Token.LBRACKET) {
+				if (tokens.kind() == Token.LBRACKET) {
 					match(Token.LBRACKET);
 					parseExpr();
 					match(Token.RBRACKET);
-				} else if (currentToken.kind == Token.LPAREN){
+				} else if (tokens.kind() == Token.LPAREN){
 					parseArgList();
 				}
 				break;
@@ -496,7 +500,7 @@ public class Recogniser {
 				parseStringLiteral();
 				break;
 			default:
-				syntacticError("illegal parimary expression", currentToken.spelling);
+				syntacticError("illegal parimary expression", tokens.spelling());
 
 		}
 	}
@@ -506,7 +510,7 @@ public class Recogniser {
 	
 	void parseParaList() throws SyntaxError {
 		match(Token.LPAREN);
-		if (currentToken.kind != Token.RPAREN) {
+		if (tokens.kind() != Token.RPAREN) {
 			parseProperParaList();
 		}
 		match(Token.RPAREN);
@@ -514,7 +518,7 @@ public class Recogniser {
 
 	void parseProperParaList() throws SyntaxError {
 		parseParaDecl();
-		while (currentToken.kind == Token.COMMA) {
+		while (tokens.kind() == Token.COMMA) {
 			match(Token.COMMA);
 			parseParaDecl();
 		}
@@ -527,7 +531,7 @@ public class Recogniser {
 
 	void parseArgList() throws SyntaxError {
 		match(Token.LPAREN);
-		if (currentToken.kind != Token.RPAREN) {
+		if (tokens.kind() != Token.RPAREN) {
 			parseProperArgList();
 		}
 		match(Token.RPAREN);
@@ -535,7 +539,7 @@ public class Recogniser {
 
 	void parseProperArgList() throws SyntaxError {
 		parseArg();
-		while (currentToken.kind == Token.COMMA) {
+		while (tokens.kind() == Token.COMMA) {
 			match(Token.COMMA);
 			parseArg();
 		}
@@ -553,32 +557,32 @@ public class Recogniser {
 
 	void parseIntLiteral() throws SyntaxError {
 
-		if (currentToken.kind == Token.INTLITERAL) {
-			currentToken = scanner.getToken();
+		if (tokens.kind() == Token.INTLITERAL) {
+			tokens.advance();
 		} else 
 			syntacticError("integer literal expected here", "");
 	}
 
 	void parseFloatLiteral() throws SyntaxError {
 
-		if (currentToken.kind == Token.FLOATLITERAL) {
-			currentToken = scanner.getToken();
+		if (tokens.kind() == Token.FLOATLITERAL) {
+			tokens.advance();
 		} else 
 			syntacticError("float literal expected here", "");
 	}
 
 	void parseBooleanLiteral() throws SyntaxError {
 
-		if (currentToken.kind == Token.BOOLEANLITERAL) {
-			currentToken = scanner.getToken();
+		if (tokens.kind() == Token.BOOLEANLITERAL) {
+			tokens.advance();
 		} else 
 			syntacticError("boolean literal expected here", "");
 	}
 
 	void parseStringLiteral() throws SyntaxError {
 
-		if (currentToken.kind == Token.STRINGLITERAL) {
-			currentToken = scanner.getToken();
+		if (tokens.kind() == Token.STRINGLITERAL) {
+			tokens.advance();
 		} else 
 			syntacticError("string literal expected here", "");
 	}
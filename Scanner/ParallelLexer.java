@@ -0,0 +1,252 @@
+/*
+ * ParallelLexer.java
+ */
+
+package VC.Scanner;
+
+import VC.ErrorReporter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Lexes a memory-mapped source on the common fork-join pool. The text
+// is cut right after newlines that lie outside string literals and
+// comments: no token spans such a newline, and after it a Scanner is
+// in the same state as at the start of a file except for the line
+// number. Each chunk is then lexed by a Scanner of its own started at
+// the right line, and the token streams are joined in order.
+//
+// The chunk scanners defer their errors (see Scanner.deferErrors), so
+// the errors travel with their tokens and are reported by the main
+// scanner in the usual order.
+
+final class ParallelLexer {
+
+	static final int MIN_CHUNK = 1 << 16; // chars
+
+	private static final int NORMAL = 0, STRING = 1, LINE_COMMENT = 2, BLOCK_COMMENT = 3;
+
+	// The lexed tokens of a whole source, EOF last.
+
+	static final class Tokens {
+		int count = 0;
+		int[] kinds;
+		String[] spellings;
+		long[] starts, finishes;
+		Scanner.DeferredError[] errors;
+
+		Tokens(int capacity) {
+			kinds = new int[capacity];
+			spellings = new String[capacity];
+			starts = new long[capacity];
+			finishes = new long[capacity];
+			errors = new Scanner.DeferredError[capacity];
+		}
+
+		void add(int kind, String spelling, long start, long finish, Scanner.DeferredError error) {
+			if (count == kinds.length) {
+				int capacity = 2 * count;
+				kinds = java.util.Arrays.copyOf(kinds, capacity);
+				spellings = java.util.Arrays.copyOf(spellings, capacity);
+				starts = java.util.Arrays.copyOf(starts, capacity);
+				finishes = java.util.Arrays.copyOf(finishes, capacity);
+				errors = java.util.Arrays.copyOf(errors, capacity);
+			}
+			kinds[count] = kind;
+			spellings[count] = spelling;
+			starts[count] = start;
+			finishes[count] = finish;
+			errors[count] = error;
+			count++;
+		}
+	}
+
+	private char[] chars;
+	private boolean tableDriven;
+	private ErrorReporter reporter;
+
+	private int chunks;
+	private int[] starts; // chunk k is chars[starts[k] .. starts[k+1])
+	private int[] lines;  // and starts on line lines[k]
+	private Tokens[] lexed;
+
+	private ParallelLexer(char[] chars, boolean tableDriven, ErrorReporter reporter) {
+		this.chars = chars;
+		this.tableDriven = tableDriven;
+		this.reporter = reporter;
+	}
+
+	// Lexes chars[0 .. length) in chunks of at least minChunk chars.
+	// The reporter is the one the first chunk starts with, as a
+	// sequential scanner would.
+
+	static Tokens lex(Scanner scanner, char[] chars, int length, int minChunk,
+			boolean tableDriven, ErrorReporter reporter) {
+		// the scanner stops at the first '\u0000' anyway
+		for (int i = 0; i < length; i++) {
+			if (chars[i] == SourceFile.eof) {
+				length = i;
+				break;
+			}
+		}
+
+		ParallelLexer lexer = new ParallelLexer(chars, tableDriven, reporter);
+		int wanted = 4 * Runtime.getRuntime().availableProcessors();
+		if (length / minChunk < wanted)
+			wanted = length / minChunk;
+		lexer.split(length, wanted < 1 ? 1 : wanted);
+
+		ForkJoinPool.commonPool().invoke(lexer.new LexChunks(0, lexer.chunks));
+
+		int total = 0;
+		for (int k = 0; k < lexer.chunks; k++)
+			total += lexer.lexed[k].count;
+		Tokens all = new Tokens(total);
+		for (int k = 0; k < lexer.chunks; k++) {
+			Tokens part = lexer.lexed[k];
+			for (int i = 0; i < part.count; i++) {
+				String spelling = part.spellings[i];
+				if (part.kinds[i] == Token.ID)
+					spelling = scanner.intern(spelling);
+				all.add(part.kinds[i], spelling, part.starts[i], part.finishes[i], part.errors[i]);
+			}
+			lexer.lexed[k] = null;
+		}
+		return all;
+	}
+
+	// Chooses up to wanted chunks of about equal size, each starting
+	// right after a newline that is outside strings and comments.
+
+	private void split(int length, int wanted) {
+		starts = new int[wanted + 1];
+		lines = new int[wanted + 1];
+		starts[0] = 0;
+		lines[0] = 1;
+		chunks = 1;
+
+		int step = length / wanted;
+		int state = NORMAL;
+		int line = 1;
+		int lastCode = -1, codeBeforeComment = -1;
+
+		for (int i = 0; i < length; i++) {
+			char c = chars[i];
+			boolean safe = false;
+
+			switch (state) {
+			case NORMAL:
+				if (c == '"') {
+					state = STRING;
+					lastCode = i;
+				} else if (c == '/' && i + 1 < length && chars[i + 1] == '/') {
+					state = LINE_COMMENT;
+					i++;
+				} else if (c == '/' && i + 1 < length && chars[i + 1] == '*') {
+					state = BLOCK_COMMENT;
+					codeBeforeComment = lastCode;
+					i++;
+				} else if (c == '\n') {
+					line++;
+					safe = true;
+				} else if (!Character.isWhitespace(c)) {
+					lastCode = i;
+				}
+				break;
+			case STRING:
+				// an unterminated string ends at the newline, but the
+				// newline is not used as a split point
+				if (c == '\n') {
+					line++;
+					state = NORMAL;
+				} else {
+					if (c == '"')
+						state = NORMAL;
+					else if (c == '\\' && i + 1 < length && isEscape(chars[i + 1]))
+						i++;
+					lastCode = i;
+				}
+				break;
+			case LINE_COMMENT:
+				if (c == '\n') {
+					line++;
+					state = NORMAL;
+					safe = true;
+				}
+				break;
+			case BLOCK_COMMENT:
+				if (c == '*' && i + 1 < length && chars[i + 1] == '/') {
+					state = NORMAL;
+					i++;
+				} else if (c == '\n') {
+					line++;
+				}
+				break;
+			}
+
+			if (safe && chunks < wanted && i + 1 >= chunks * step && i + 1 < length) {
+				starts[chunks] = i + 1;
+				lines[chunks] = line;
+				chunks++;
+			}
+		}
+
+		// An unterminated comment is reported at the position of the
+		// token before it, which must then be lexed in the same chunk.
+		if (state == BLOCK_COMMENT) {
+			while (chunks > 1 && starts[chunks - 1] > codeBeforeComment)
+				chunks--;
+		}
+		starts[chunks] = length;
+		lexed = new Tokens[chunks];
+	}
+
+	private static boolean isEscape(char c) {
+		switch (c) {
+		case 'b': case 'f': case 'n': case 'r': case 't':
+		case '\'': case '"': case '\\':
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private void lexChunk(int k) {
+		boolean last = k == chunks - 1;
+		Scanner scanner = new Scanner(new SourceFile(chars, starts[k], starts[k + 1]),
+				k == 0 ? reporter : new ErrorReporter(reporter), lines[k]);
+		if (tableDriven)
+			scanner.enableTableDriven();
+		scanner.deferErrors();
+
+		Tokens tokens = new Tokens(Math.max(16, (starts[k + 1] - starts[k]) / 4));
+		int kind;
+		do {
+			kind = scanner.scan();
+			// only the last chunk's EOF is real
+			if (kind != Token.EOF || last)
+				tokens.add(kind, scanner.tokenSpelling(), scanner.tokenStart(),
+						scanner.tokenFinish(), scanner.takeDeferredErrors());
+		} while (kind != Token.EOF);
+		lexed[k] = tokens;
+	}
+
+	private final class LexChunks extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private int from, to;
+
+		LexChunks(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			if (to - from == 1) {
+				lexChunk(from);
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new LexChunks(from, mid), new LexChunks(mid, to));
+			}
+		}
+	}
+}
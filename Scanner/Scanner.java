@@ -8,11 +8,16 @@ import VC.ErrorReporter;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 
 public final class Scanner { 
 
 	private SourceFile sourceFile;
 	private boolean debug;
+	private boolean tableDriven = false;
+	private int parallelChunk = 0;
+	private ParallelLexer.Tokens lexed;
+	private int lexedNext = 0;
 	private boolean printDebug = false;
 	private boolean currentCharIsEscape = false;
 	private boolean skipSpelling = false;
@@ -23,17 +28,33 @@ public final class Scanner {
 	private char currentChar;
 	private char prevChar;
 
-	private SourcePosition sourcePos = new SourcePosition(1,1,0);
-	private SourcePosition tokenPos;
-	private SourcePosition errorPos;
+	// the current line and the columns of the text scanned on it since
+	// the last token; tokenStart and tokenFinish are points (see
+	// SourcePosition.point) so that no position object is allocated
+	private int lineNum = 1;
+	private int charStart = 1;
+	private int charFinish = 0;
+	private long tokenStart, tokenFinish;
+	private String tokenSpelling;
+
+	// every identifier spelling seen so far, so that repeated
+	// identifiers share one String instance
+	private HashMap<String, String> identifiers = new HashMap<String, String>();
 
 	private List<Character> escapeChars = new ArrayList<Character>(Arrays.asList('b', 'f', 'n', 'r', 't', '\'', '"', '\\'));
 	private int charsBeforeTab = 0;
 	// =========================================================
 
 	public Scanner(SourceFile source, ErrorReporter reporter) {
+		this(source, reporter, 1);
+	}
+
+	// For a source that is part of a larger one starting on firstLine.
+
+	Scanner(SourceFile source, ErrorReporter reporter, int firstLine) {
 		sourceFile = source;
 		errorReporter = reporter;
+		lineNum = firstLine;
 		accept();
 		debug = false;
 
@@ -44,6 +65,94 @@ public final class Scanner {
 		debug = true;
 	}
 
+	// Selects the table-driven engine (see ScannerTable) instead of
+	// trying each class of tokens in turn. Both produce the same tokens.
+
+	public void enableTableDriven() {
+		tableDriven = true;
+	}
+
+	// Lexes the whole source up front on several threads (see
+	// ParallelLexer) and then hands out the tokens one by one. Only
+	// possible for a memory-mapped source; otherwise scanning stays
+	// sequential.
+
+	public void enableParallelLexing() {
+		enableParallelLexing(ParallelLexer.MIN_CHUNK);
+	}
+
+	void enableParallelLexing(int minChunk) {
+		if (sourceFile.isMapped())
+			parallelChunk = minChunk;
+	}
+
+	String intern(String spelling) {
+		String shared = identifiers.get(spelling);
+		if (shared == null) {
+			identifiers.put(spelling, spelling);
+			shared = spelling;
+		}
+		return shared;
+	}
+
+	// Once deferErrors() has been called, lexical errors are not printed
+	// as they are found but kept, with the reporter they were meant for,
+	// in a list per token. TokenBuffer takes the list when it buffers the
+	// token and replays it when the token becomes the current one, so
+	// that the errors come out where they would without lookahead.
+
+	static final class DeferredError {
+		private ErrorReporter reporter;
+		private String message, tokenName;
+		private long start, finish;
+		DeferredError next;
+
+		void report() {
+			for (DeferredError e = this; e != null; e = e.next)
+				e.reporter.reportError(e.message, e.tokenName, e.start, e.finish);
+		}
+	}
+
+	private boolean deferring = false;
+	private DeferredError deferredFirst, deferredLast;
+
+	// Each token reports to a fresh ErrorReporter, so lexical errors do
+	// not show up in the caller's count; they are counted here instead.
+	private int numErrors = 0;
+
+	void deferErrors() {
+		deferring = true;
+	}
+
+	DeferredError takeDeferredErrors() {
+		DeferredError first = deferredFirst;
+		deferredFirst = deferredLast = null;
+		return first;
+	}
+
+	public int numLexicalErrors() {
+		return numErrors;
+	}
+
+	private void reportError(String message, String tokenName, long start, long finish) {
+		numErrors++;
+		if (!deferring) {
+			errorReporter.reportError(message, tokenName, start, finish);
+			return;
+		}
+		DeferredError e = new DeferredError();
+		e.reporter = errorReporter;
+		e.message = message;
+		e.tokenName = tokenName;
+		e.start = start;
+		e.finish = finish;
+		if (deferredFirst == null)
+			deferredFirst = e;
+		else
+			deferredLast.next = e;
+		deferredLast = e;
+	}
+
 	private int getTabLength() {
 		return 8 - (charsBeforeTab % 8);
 	}
@@ -58,7 +167,7 @@ public final class Scanner {
 			// current char is backslash, make it actual escape char
 			currentChar = sourceFile.getNextChar();
 			// TODO: maybe just make this recurision?
-			sourcePos.charFinish++;
+			charFinish++;
 			charsBeforeTab++;
 			// transform that letter to esacpe char literal
 			currentChar = getEscapeChar(currentChar);
@@ -76,26 +185,29 @@ public final class Scanner {
 		if (printDebug) System.out.println("accpet(): current char is " + currentChar);
 		// re
 		if (currentChar == '\t') {
-			tokenPos = new SourcePosition(sourcePos.lineFinish, sourcePos.charStart, sourcePos.charFinish);
+			tokenStart = SourcePosition.point(lineNum, charStart);
+			tokenFinish = SourcePosition.point(lineNum, charFinish);
 			if (printDebug) System.out.println("accept(): tab characterr");
-			sourcePos.charFinish += getTabLength();
+			charFinish += getTabLength();
 			charsBeforeTab = 0;
 		} else if (currentChar == '\n') {
-			tokenPos = new SourcePosition(sourcePos.lineFinish, sourcePos.charStart, sourcePos.charFinish);
+			tokenStart = SourcePosition.point(lineNum, charStart);
+			tokenFinish = SourcePosition.point(lineNum, charFinish);
 			if (printDebug) System.out.println("accept(): newline characterr");
-			sourcePos.charStart = 1;
-			sourcePos.charFinish = 0;
-			sourcePos.lineFinish++;
+			charStart = 1;
+			charFinish = 0;
+			lineNum++;
 			charsBeforeTab = 0;
 		} else if (currentChar == SourceFile.eof) {
-			sourcePos.charStart = sourcePos.charFinish = 1;
-			tokenPos = new SourcePosition(sourcePos.lineFinish, 1, 1);
+			charStart = charFinish = 1;
+			tokenStart = SourcePosition.point(lineNum, 1);
+			tokenFinish = SourcePosition.point(lineNum, 1);
 		} else {
-			sourcePos.charFinish++;
+			charFinish++;
 			charsBeforeTab++;
 		}
-		if (printDebug) System.out.println("accept(): charStart is " + sourcePos.charStart);
-		if (printDebug) System.out.println("accpet(): charFinish is " + sourcePos.charFinish);
+		if (printDebug) System.out.println("accept(): charStart is " + charStart);
+		if (printDebug) System.out.println("accpet(): charFinish is " + charFinish);
 		if (printDebug) System.out.println("accpet(): number of chars before tab is " + charsBeforeTab);
 
 
@@ -296,6 +408,25 @@ public final class Scanner {
 		return retVal;
 	}
 
+	private void reportUnterminatedString() {
+		long at = SourcePosition.point(lineNum-1, SourcePosition.column(tokenStart));
+		reportError("%: unterminated string", currentSpelling.toString(), at, at);
+	}
+
+	// currentChar is a backslash inside a string literal. A legal escape
+	// is translated by the next accept(); an illegal one is reported and
+	// the backslash is kept as it is.
+
+	private void checkEscape() {
+		if (escapeChars.contains(inspectChar(1))) {
+			currentCharIsEscape = true;
+		} else {
+			String illegal_escape = new StringBuilder().append("").append(currentChar).append(inspectChar(1)).toString();
+			reportError("%: illegal escape character", illegal_escape,
+					SourcePosition.point(lineNum, charStart), SourcePosition.point(lineNum, charFinish));
+		}
+	}
+
 	private int checkLiterals() {
 		if (printDebug) System.out.println("checkLiterals(): entered");
 		boolean isFloat = false;
@@ -308,17 +439,10 @@ public final class Scanner {
 			while (currentChar != '"') {
 				// TODO: check for CRLF as well, maybe you might have to accept twice
 				if (currentChar == '\n' || currentChar == '\r') {
-					errorPos = new SourcePosition(sourcePos.lineFinish-1, tokenPos.charStart, tokenPos.charStart);
-					errorReporter.reportError("%: unterminated string", currentSpelling.toString(), errorPos);
+					reportUnterminatedString();
 					return Token.STRINGLITERAL;
 				} else if (currentChar == '\\') {
-					if (escapeChars.contains(inspectChar(1))) {
-						currentCharIsEscape = true;
-					} else {
-						String illegal_escape = new StringBuilder().append("").append(currentChar).append(inspectChar(1)).toString();
-						errorPos = new SourcePosition(sourcePos.lineFinish, sourcePos.charStart, sourcePos.charFinish);
-						errorReporter.reportError("%: illegal escape character", illegal_escape, errorPos);
-					}
+					checkEscape();
 				}
 				accept();
 			}
@@ -420,15 +544,18 @@ public final class Scanner {
 			tokenID = tokenChecker(tokenType);
 			if (tokenID >= 0) {
 				if (currentChar != SourceFile.eof && currentChar != '\t' && currentChar != '\n') {
-					tokenPos = new SourcePosition(sourcePos.lineFinish, sourcePos.charStart, sourcePos.charFinish-1);
+					tokenStart = SourcePosition.point(lineNum, charStart);
+					tokenFinish = SourcePosition.point(lineNum, charFinish-1);
 				}
 				return tokenID;
 			}
 		}
-		// tokenPos already set in accept() if newline character
+		// tokenStart and tokenFinish already set in accept() if newline character
 		accept();
-		if (currentChar != '\n')
-			tokenPos = new SourcePosition(sourcePos.lineFinish, sourcePos.charStart, sourcePos.charFinish-1);
+		if (currentChar != '\n') {
+			tokenStart = SourcePosition.point(lineNum, charStart);
+			tokenFinish = SourcePosition.point(lineNum, charFinish-1);
+		}
 
 		// TODO: this should never pass
 		// erroneous token spelling
@@ -450,6 +577,72 @@ public final class Scanner {
 		  break;*/
 	}
 
+	// The table-driven alternative to nextToken(). Rather than trying
+	// each token class in turn, it follows the transitions in
+	// ScannerTable from the start state for as long as there is one,
+	// accepting a character on each step, and returns the kind of the
+	// state it stops in. Positions and spellings are kept by accept()
+	// exactly as for nextToken().
+
+	private int nextTokenFromTable() {
+		int state = ScannerTable.S_START;
+		int next;
+
+		while ((next = ScannerTable.next(state, currentChar)) != ScannerTable.NONE
+				&& guardHolds(ScannerTable.guard[next])) {
+			state = next;
+			int action = ScannerTable.action[state];
+			if (action == ScannerTable.A_EOF) {
+				currentSpelling.append(Token.spell(Token.EOF));
+				break;
+			} else if (action == ScannerTable.A_UNTERMINATED) {
+				reportUnterminatedString();
+				break;
+			} else if (action == ScannerTable.A_SKIP) {
+				skipSpelling = true;
+			} else if (action == ScannerTable.A_ESCAPE) {
+				checkEscape();
+			}
+			accept();
+		}
+
+		int kind = ScannerTable.kind[state];
+		if (kind < 0)
+			kind = Token.ERROR;
+		if (kind != Token.ERROR) {
+			if (currentChar != SourceFile.eof && currentChar != '\t' && currentChar != '\n') {
+				tokenStart = SourcePosition.point(lineNum, charStart);
+				tokenFinish = SourcePosition.point(lineNum, charFinish-1);
+			}
+		} else {
+			// positioned as the erroneous tokens of nextToken()
+			if (currentChar != '\n') {
+				tokenStart = SourcePosition.point(lineNum, charStart);
+				tokenFinish = SourcePosition.point(lineNum, charFinish-1);
+			}
+			if (currentSpelling.toString().equals("")) {
+				currentSpelling.append(currentChar);
+			}
+		}
+		return kind;
+	}
+
+	private boolean guardHolds(int guard) {
+		switch (guard) {
+			case ScannerTable.G_EXPONENT:
+				return isDigit(inspectChar(1))
+					|| (inspectChar(1) == '+' || inspectChar(1) == '-') && isDigit(inspectChar(2));
+			case ScannerTable.G_DIGIT:
+				return isDigit(inspectChar(1));
+			default:
+				return true;
+		}
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
 	boolean isNewline() {
 		return false;
 	}
@@ -492,8 +685,8 @@ public final class Scanner {
 						skipSpaceAndComments();
 						break;
 					} else if (currentChar == SourceFile.eof) {
-						errorPos = new SourcePosition(sourcePos.lineFinish-1, tokenPos.charFinish, tokenPos.charFinish);
-						errorReporter.reportError("unterminated comment", "/**/", errorPos);
+						long at = SourcePosition.point(lineNum-1, SourcePosition.column(tokenFinish));
+						reportError("unterminated comment", "/**/", at, at);
 						break;
 					}
 					accept();
@@ -519,9 +712,22 @@ public final class Scanner {
 	}
 
 	public Token getToken() {
+		int kind = scan();
+		return new Token(kind, tokenSpelling, tokenStart, tokenFinish);
+	}
+
+	// scan does the work of getToken without building a Token object.
+	// It returns the kind, with reserved words already told apart from
+	// identifiers, and leaves the spelling and the position in
+	// tokenSpelling, tokenStart and tokenFinish, where TokenBuffer picks
+	// them up.
+
+	int scan() {
+		if (parallelChunk > 0)
+			return scanLexed();
+
 		// this would possibly be whitespace or the start of the next token
 		if (printDebug) System.out.println("getToken(): the current char is " + currentChar);
-		Token tok;
 		int kind;
 
 
@@ -531,26 +737,76 @@ public final class Scanner {
 		// gotten rid of white space start token spelling
 		currentSpelling = new StringBuffer("");
 
-		sourcePos.charStart = sourcePos.charFinish;
+		charStart = charFinish;
 
-		errorReporter = new ErrorReporter();
+		errorReporter = new ErrorReporter(errorReporter);
 
 		// skip white space and comments
 
 		// You must record the position of the current token somehow
 
-		kind = nextToken();
+		kind = tableDriven ? nextTokenFromTable() : nextToken();
 
 		// You need three types of information to contstruct a token objects
 		// its kings represented as an 'int' (Token.ID, Token.PLUS)
 		// its pselling represented as a string ("sum", "+")
 		// its position in the program represented as an object of the lcass SourcePosition
-		tok = new Token(kind, currentSpelling.toString(), tokenPos);
+		tokenSpelling = currentSpelling.toString();
+		if (kind == Token.ID) {
+			tokenSpelling = intern(tokenSpelling);
+			kind = Token.reservedWord(tokenSpelling);
+		}
 
 		// * do not remove these three lines
 		if (debug)
-			System.out.println(tok);
-		return tok;
+			System.out.println(new Token(kind, tokenSpelling, tokenStart, tokenFinish));
+		return kind;
+	}
+
+	// scan for a source lexed by ParallelLexer; EOF repeats at the end.
+
+	private int scanLexed() {
+		if (lexed == null)
+			lexed = ParallelLexer.lex(this, sourceFile.mappedChars(), sourceFile.mappedLength(),
+					parallelChunk, tableDriven, errorReporter);
+		int i = lexedNext;
+		if (i < lexed.count - 1)
+			lexedNext++;
+
+		int kind = lexed.kinds[i];
+		tokenSpelling = lexed.spellings[i];
+		tokenStart = lexed.starts[i];
+		tokenFinish = lexed.finishes[i];
+		DeferredError errors = lexed.errors[i];
+		lexed.errors[i] = null;
+		if (errors != null) {
+			for (DeferredError e = errors; e != null; e = e.next)
+				numErrors++;
+			if (deferring) {
+				deferredFirst = deferredLast = errors;
+				while (deferredLast.next != null)
+					deferredLast = deferredLast.next;
+			} else {
+				errors.report();
+			}
+		}
+
+		// * do not remove these three lines
+		if (debug)
+			System.out.println(new Token(kind, tokenSpelling, tokenStart, tokenFinish));
+		return kind;
+	}
+
+	String tokenSpelling() {
+		return tokenSpelling;
+	}
+
+	long tokenStart() {
+		return tokenStart;
+	}
+
+	long tokenFinish() {
+		return tokenFinish;
 	}
 
 }
@@ -0,0 +1,344 @@
+/**
+ * *	ScannerTable.java
+ **/
+
+package VC.Scanner;
+
+// The state-transition table driving the table-driven engine of the
+// Scanner (see Scanner.enableTableDriven).
+//
+// Every character is first mapped to a character class, and the next
+// state is then a single lookup in a (state x class) table. Each state
+// carries the token kind it accepts (or -1), an action performed when
+// the state is entered and a guard that must hold for the transition
+// into the state to be taken. The guards stand for the one or two
+// characters of lookahead the hand-written checkers use for exponents,
+// so that the two engines produce exactly the same token streams.
+
+final class ScannerTable {
+
+	// character classes
+
+	static final int
+		C_OTHER		= 0,
+		C_EOF		= 1,
+		C_LETTER	= 2,	// letters (and '_') not listed below
+		C_T		= 3,	// the letters of "true" and "false"
+		C_R		= 4,
+		C_U		= 5,
+		C_E		= 6,
+		C_F		= 7,
+		C_A		= 8,
+		C_L		= 9,
+		C_S		= 10,
+		C_DIGIT		= 11,
+		C_DOT		= 12,
+		C_PLUS		= 13,
+		C_MINUS		= 14,
+		C_MULT		= 15,
+		C_DIV		= 16,
+		C_NOT		= 17,
+		C_EQ		= 18,
+		C_LT		= 19,
+		C_GT		= 20,
+		C_AND		= 21,
+		C_OR		= 22,
+		C_LCURLY	= 23,
+		C_RCURLY	= 24,
+		C_LPAREN	= 25,
+		C_RPAREN	= 26,
+		C_LBRACKET	= 27,
+		C_RBRACKET	= 28,
+		C_SEMICOLON	= 29,
+		C_COMMA		= 30,
+		C_QUOTE		= 31,
+		C_BACKSLASH	= 32,
+		C_NEWLINE	= 33,	// '\n' and '\r'
+		C_UPPER_E	= 34,	// 'E', which like 'e' starts an exponent
+		CLASSES		= 35;
+
+	// states
+
+	static final int
+		NONE		= -1,
+		S_START		= 0,
+		S_ID		= 1,
+		S_T		= 2,
+		S_TR		= 3,
+		S_TRU		= 4,
+		S_TRUE		= 5,
+		S_F		= 6,
+		S_FA		= 7,
+		S_FAL		= 8,
+		S_FALS		= 9,
+		S_FALSE		= 10,
+		S_E		= 11,	// an identifier starting with e or E
+		S_E_SIGN	= 12,	// e+ or e- followed by a digit
+		S_INT		= 13,
+		S_DOT		= 14,	// a lone '.'
+		S_POINT		= 15,	// digits followed by '.'
+		S_FRACTION	= 16,
+		S_EXPONENT	= 17,
+		S_EXPONENT_DIGITS = 18,
+		S_PLUS		= 19,
+		S_MINUS		= 20,
+		S_MULT		= 21,
+		S_DIV		= 22,
+		S_NOT		= 23,
+		S_NOTEQ		= 24,
+		S_EQ		= 25,
+		S_EQEQ		= 26,
+		S_LT		= 27,
+		S_LTEQ		= 28,
+		S_GT		= 29,
+		S_GTEQ		= 30,
+		S_AND		= 31,
+		S_ANDAND	= 32,
+		S_OR		= 33,
+		S_OROR		= 34,
+		S_LCURLY	= 35,
+		S_RCURLY	= 36,
+		S_LPAREN	= 37,
+		S_RPAREN	= 38,
+		S_LBRACKET	= 39,
+		S_RBRACKET	= 40,
+		S_SEMICOLON	= 41,
+		S_COMMA		= 42,
+		S_STRING_OPEN	= 43,
+		S_STRING	= 44,
+		S_STRING_ESCAPE	= 45,
+		S_STRING_CLOSE	= 46,
+		S_STRING_UNTERMINATED = 47,
+		S_ERROR		= 48,
+		S_EOF		= 49,
+		STATES		= 50;
+
+	// actions performed on entering a state
+
+	static final int
+		A_ACCEPT	= 0,	// consume the current character
+		A_SKIP		= 1,	// consume it without adding it to the spelling
+		A_ESCAPE	= 2,	// check an escape sequence, then consume
+		A_UNTERMINATED	= 3,	// report an unterminated string and stop
+		A_EOF		= 4;	// spell the end of file and stop
+
+	// guards on the transition into a state
+
+	static final int
+		G_NONE		= 0,
+		G_EXPONENT	= 1,	// a digit, or a sign and a digit, follows
+		G_DIGIT		= 2;	// a digit follows
+
+	static final byte[] charClass = new byte[128];
+	static final int[] next = new int[STATES * CLASSES];
+	static final int[] kind = new int[STATES];
+	static final int[] action = new int[STATES];
+	static final int[] guard = new int[STATES];
+
+	static int classOf(char c) {
+		return c < 128 ? charClass[c] : C_OTHER;
+	}
+
+	static int next(int state, char c) {
+		return next[state * CLASSES + classOf(c)];
+	}
+
+	// ======================== TABLE CONSTRUCTION ========================
+
+	private static final int[] identifierClasses = {
+		C_LETTER, C_T, C_R, C_U, C_E, C_F, C_A, C_L, C_S, C_UPPER_E, C_DIGIT
+	};
+
+	private static final int[] exponentClasses = { C_DIGIT, C_PLUS, C_MINUS };
+
+	static {
+		for (char c = 'a'; c <= 'z'; c++)
+			charClass[c] = C_LETTER;
+		for (char c = 'A'; c <= 'Z'; c++)
+			charClass[c] = C_LETTER;
+		for (char c = '0'; c <= '9'; c++)
+			charClass[c] = C_DIGIT;
+		charClass['_'] = C_LETTER;
+		charClass['t'] = C_T;
+		charClass['r'] = C_R;
+		charClass['u'] = C_U;
+		charClass['e'] = C_E;
+		charClass['E'] = C_UPPER_E;
+		charClass['f'] = C_F;
+		charClass['a'] = C_A;
+		charClass['l'] = C_L;
+		charClass['s'] = C_S;
+		charClass[SourceFile.eof] = C_EOF;
+		charClass['.'] = C_DOT;
+		charClass['+'] = C_PLUS;
+		charClass['-'] = C_MINUS;
+		charClass['*'] = C_MULT;
+		charClass['/'] = C_DIV;
+		charClass['!'] = C_NOT;
+		charClass['='] = C_EQ;
+		charClass['<'] = C_LT;
+		charClass['>'] = C_GT;
+		charClass['&'] = C_AND;
+		charClass['|'] = C_OR;
+		charClass['{'] = C_LCURLY;
+		charClass['}'] = C_RCURLY;
+		charClass['('] = C_LPAREN;
+		charClass[')'] = C_RPAREN;
+		charClass['['] = C_LBRACKET;
+		charClass[']'] = C_RBRACKET;
+		charClass[';'] = C_SEMICOLON;
+		charClass[','] = C_COMMA;
+		charClass['"'] = C_QUOTE;
+		charClass['\\'] = C_BACKSLASH;
+		charClass['\n'] = charClass['\r'] = C_NEWLINE;
+
+		java.util.Arrays.fill(next, NONE);
+		java.util.Arrays.fill(kind, -1);
+
+		// identifiers, and the boolean literals, which end as soon as
+		// "true" or "false" has been read
+
+		state(S_ID, Token.ID);
+		edges(S_ID, identifierClasses, S_ID);
+		edges(S_START, new int[] { C_LETTER, C_R, C_U, C_A, C_L, C_S }, S_ID);
+		word(S_START, C_T, S_T);
+		word(S_T, C_R, S_TR);
+		word(S_TR, C_U, S_TRU);
+		state(S_TRUE, Token.BOOLEANLITERAL);
+		edge(S_TRU, C_E, S_TRUE);
+		word(S_START, C_F, S_F);
+		word(S_F, C_A, S_FA);
+		word(S_FA, C_L, S_FAL);
+		word(S_FAL, C_S, S_FALS);
+		state(S_FALSE, Token.BOOLEANLITERAL);
+		edge(S_FALS, C_E, S_FALSE);
+
+		// an identifier starting with e or E is taken for a malformed
+		// exponent when a sign and a digit follow
+
+		state(S_E, Token.ID);
+		edges(S_E, identifierClasses, S_ID);
+		edge(S_START, C_E, S_E);
+		edge(S_START, C_UPPER_E, S_E);
+		state(S_E_SIGN, Token.ERROR);
+		guard[S_E_SIGN] = G_DIGIT;
+		edge(S_E, C_PLUS, S_E_SIGN);
+		edge(S_E, C_MINUS, S_E_SIGN);
+
+		// integer and float literals
+
+		state(S_INT, Token.INTLITERAL);
+		state(S_DOT, Token.ERROR);
+		state(S_POINT, Token.FLOATLITERAL);
+		state(S_FRACTION, Token.FLOATLITERAL);
+		state(S_EXPONENT, -1);
+		state(S_EXPONENT_DIGITS, Token.FLOATLITERAL);
+		guard[S_EXPONENT] = G_EXPONENT;
+		edge(S_START, C_DIGIT, S_INT);
+		edge(S_START, C_DOT, S_DOT);
+		edge(S_INT, C_DIGIT, S_INT);
+		edge(S_INT, C_DOT, S_POINT);
+		edge(S_DOT, C_DIGIT, S_FRACTION);
+		edge(S_POINT, C_DIGIT, S_FRACTION);
+		edge(S_FRACTION, C_DIGIT, S_FRACTION);
+		int[] exponentStarts = { C_E, C_UPPER_E };
+		edges(S_INT, exponentStarts, S_EXPONENT);
+		edges(S_POINT, exponentStarts, S_EXPONENT);
+		edges(S_FRACTION, exponentStarts, S_EXPONENT);
+		edges(S_EXPONENT, exponentClasses, S_EXPONENT_DIGITS);
+		edges(S_EXPONENT_DIGITS, exponentClasses, S_EXPONENT_DIGITS);
+
+		// operators; a lone & or | is an error
+
+		operator(S_START, C_PLUS, S_PLUS, Token.PLUS);
+		operator(S_START, C_MINUS, S_MINUS, Token.MINUS);
+		operator(S_START, C_MULT, S_MULT, Token.MULT);
+		operator(S_START, C_DIV, S_DIV, Token.DIV);
+		operator(S_START, C_NOT, S_NOT, Token.NOT);
+		operator(S_NOT, C_EQ, S_NOTEQ, Token.NOTEQ);
+		operator(S_START, C_EQ, S_EQ, Token.EQ);
+		operator(S_EQ, C_EQ, S_EQEQ, Token.EQEQ);
+		operator(S_START, C_LT, S_LT, Token.LT);
+		operator(S_LT, C_EQ, S_LTEQ, Token.LTEQ);
+		operator(S_START, C_GT, S_GT, Token.GT);
+		operator(S_GT, C_EQ, S_GTEQ, Token.GTEQ);
+		operator(S_START, C_AND, S_AND, Token.ERROR);
+		operator(S_AND, C_AND, S_ANDAND, Token.ANDAND);
+		operator(S_START, C_OR, S_OR, Token.ERROR);
+		operator(S_OR, C_OR, S_OROR, Token.OROR);
+
+		// separators
+
+		operator(S_START, C_LCURLY, S_LCURLY, Token.LCURLY);
+		operator(S_START, C_RCURLY, S_RCURLY, Token.RCURLY);
+		operator(S_START, C_LPAREN, S_LPAREN, Token.LPAREN);
+		operator(S_START, C_RPAREN, S_RPAREN, Token.RPAREN);
+		operator(S_START, C_LBRACKET, S_LBRACKET, Token.LBRACKET);
+		operator(S_START, C_RBRACKET, S_RBRACKET, Token.RBRACKET);
+		operator(S_START, C_SEMICOLON, S_SEMICOLON, Token.SEMICOLON);
+		operator(S_START, C_COMMA, S_COMMA, Token.COMMA);
+
+		// string literals; the quotes are not part of the spelling
+
+		state(S_STRING_OPEN, -1);
+		state(S_STRING, -1);
+		state(S_STRING_ESCAPE, -1);
+		state(S_STRING_CLOSE, Token.STRINGLITERAL);
+		state(S_STRING_UNTERMINATED, Token.STRINGLITERAL);
+		action[S_STRING_OPEN] = action[S_STRING_CLOSE] = A_SKIP;
+		action[S_STRING_ESCAPE] = A_ESCAPE;
+		action[S_STRING_UNTERMINATED] = A_UNTERMINATED;
+		edge(S_START, C_QUOTE, S_STRING_OPEN);
+		int[] inside = { S_STRING_OPEN, S_STRING, S_STRING_ESCAPE };
+		for (int s : inside) {
+			for (int c = 0; c < CLASSES; c++)
+				edge(s, c, S_STRING);
+			edge(s, C_BACKSLASH, S_STRING_ESCAPE);
+			edge(s, C_QUOTE, S_STRING_CLOSE);
+			edge(s, C_NEWLINE, S_STRING_UNTERMINATED);
+			edge(s, C_EOF, S_STRING_UNTERMINATED);
+		}
+
+		// anything else is an error of one character
+
+		state(S_ERROR, Token.ERROR);
+		edge(S_START, C_OTHER, S_ERROR);
+		edge(S_START, C_BACKSLASH, S_ERROR);
+		edge(S_START, C_NEWLINE, S_ERROR);
+
+		state(S_EOF, Token.EOF);
+		action[S_EOF] = A_EOF;
+		edge(S_START, C_EOF, S_EOF);
+	}
+
+	private static void state(int s, int k) {
+		kind[s] = k;
+	}
+
+	private static void edge(int from, int c, int to) {
+		next[from * CLASSES + c] = to;
+	}
+
+	private static void edges(int from, int[] classes, int to) {
+		for (int c : classes)
+			edge(from, c, to);
+	}
+
+	// a state on the way to "true" or "false": an identifier that
+	// continues as a plain identifier on any other character
+
+	private static void word(int from, int c, int to) {
+		if (kind[to] < 0) {
+			state(to, Token.ID);
+			edges(to, identifierClasses, S_ID);
+		}
+		edge(from, c, to);
+	}
+
+	private static void operator(int from, int c, int to, int k) {
+		state(to, k);
+		edge(from, c, to);
+	}
+
+	private ScannerTable() {}
+}
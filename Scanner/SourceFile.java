@@ -1,21 +1,50 @@
 /*
- * SourceFile.java                   
+ * SourceFile.java
  */
 
 package VC.Scanner;
 
 import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.BufferedReader;
 import java.io.LineNumberReader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 
 public class SourceFile {
 
   static final char eof = '\u0000';
   private LineNumberReader reader;
 
+  // In the mapped mode the whole source file is decoded once into
+  // chars and both getNextChar and inspectChar become plain index
+  // arithmetic over it; reader is then null.
+
+  private char[] chars;
+  private int length;
+  private int next;
+
   public SourceFile(String filename) {
+    this(filename, false);
+  }
+
+  // A view of part of an already decoded source, from (inclusive) to
+  // to (exclusive); see ParallelLexer.
+
+  SourceFile(char[] chars, int from, int to) {
+    this.chars = chars;
+    this.next = from;
+    this.length = to;
+  }
+
+  public SourceFile(String filename, boolean mapped) {
     try {
-      reader = new LineNumberReader(new BufferedReader(new FileReader(filename)));
+      if (mapped)
+        map(filename);
+      else
+        reader = new LineNumberReader(new BufferedReader(new FileReader(filename)));
     } catch (java.io.FileNotFoundException e) {
       System.out.println("[# vc #]: can't read: " + filename);
       System.exit(1);
@@ -26,7 +55,55 @@ public class SourceFile {
     }
   }
 
+  // Maps the file into memory and decodes it with the same (default)
+  // charset that FileReader would have used.
+
+  private void map(String filename) throws java.io.IOException {
+    FileInputStream in = new FileInputStream(filename);
+    try {
+      FileChannel channel = in.getChannel();
+      MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      CharBuffer decoded = Charset.defaultCharset().decode(bytes);
+      chars = decoded.array();
+      length = compressLineTerminators(chars, decoded.limit());
+      next = 0;
+    } finally {
+      in.close();
+    }
+  }
+
+  // As LineNumberReader does, turns every \r and \r\n into a single \n
+  // in place and returns the new length.
+
+  private static int compressLineTerminators(char[] chars, int length) {
+    int to = 0;
+    for (int from = 0; from < length; from++) {
+      char c = chars[from];
+      if (c == '\r') {
+        c = '\n';
+        if (from + 1 < length && chars[from + 1] == '\n')
+          from++;
+      }
+      chars[to++] = c;
+    }
+    return to;
+  }
+
+  boolean isMapped() {
+    return reader == null;
+  }
+
+  char[] mappedChars() {
+    return chars;
+  }
+
+  int mappedLength() {
+    return length;
+  }
+
   char getNextChar() {
+    if (reader == null)
+      return next < length ? chars[next++] : eof;
     try {
       int  c = reader.read();
       if (c == -1) c = eof;
@@ -41,6 +118,11 @@ public class SourceFile {
   // nthChar must be >= 1.
     int c;
 
+    if (reader == null) {
+      int at = next + nthChar - 1;
+      return at < length ? chars[at] : eof;
+    }
+
     try {
     reader.mark(nthChar);
     do {
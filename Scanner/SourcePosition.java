@@ -32,6 +32,38 @@ public class SourcePosition {
     charFinish = theCharFinish ;
   }
 
+  // A position can also be kept as the two points where it starts and
+  // finishes, each a long with the line in its upper 32 bits and the
+  // column in its lower 32, so that tokens need not carry an object
+  // each. Both fit whole, and points compare as their longs do.
+
+  public static long point(int line, int column) {
+    return (long) line << 32 | column & 0xFFFFFFFFL;
+  }
+
+  public static int line(long point) {
+    return (int) (point >> 32);
+  }
+
+  public static int column(long point) {
+    return (int) point;
+  }
+
+  public static SourcePosition of(long start, long finish) {
+    SourcePosition position = new SourcePosition(line(start), line(finish));
+    position.charStart = column(start);
+    position.charFinish = column(finish);
+    return position;
+  }
+
+  public long start() {
+    return point(lineStart, charStart);
+  }
+
+  public long finish() {
+    return point(lineFinish, charFinish);
+  }
+
   public String toString() {
     return lineStart + "(" + charStart + ").." + lineFinish + "(" + charFinish + ")";
   }
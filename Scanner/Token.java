@@ -10,33 +10,67 @@ public final class Token extends Object {
 
   public int kind;
   public String spelling; // lexeme 
-  public SourcePosition position;
+  public long start, finish; // points, see SourcePosition.point
 
   public Token(int kind, String spelling, SourcePosition position) {
+    this(kind, spelling, position.start(), position.finish());
+  }
+
+  public Token(int kind, String spelling, long start, long finish) {
 
-    if (kind == Token.ID) {
-      
-      int currentKind = firstReservedWord;
-      boolean searching = true;
-
-      while (searching) {
-        int comparison = keywords[currentKind].compareTo(spelling);
-        if (comparison == 0) {
-          this.kind = currentKind;
-          searching = false;
-        } else if (comparison > 0 || currentKind == lastReservedWord) {
-          this.kind = Token.ID;
-          searching = false;
-        } else {
-          currentKind++;
-        }
-      }
-    } else
+    if (kind == Token.ID)
+      this.kind = reservedWord(spelling);
+    else
       this.kind = kind;
 
     this.spelling = spelling;
-    this.position = position;
+    this.start = start;
+    this.finish = finish;
+
+  }
 
+  // Classifies an identifier spelling. No two reserved words share
+  // both their first character and their length, so that pair picks
+  // the only candidate and a single equals() settles it.
+
+  static int reservedWord(String spelling) {
+    int candidate;
+
+    switch (spelling.length() == 0 ? 0 : spelling.charAt(0)) {
+    case 'b':
+      candidate = spelling.length() == 7 ? Token.BOOLEAN : Token.BREAK;
+      break;
+    case 'c':
+      candidate = Token.CONTINUE;
+      break;
+    case 'e':
+      candidate = Token.ELSE;
+      break;
+    case 'f':
+      candidate = spelling.length() == 5 ? Token.FLOAT : Token.FOR;
+      break;
+    case 'i':
+      candidate = spelling.length() == 2 ? Token.IF : Token.INT;
+      break;
+    case 'r':
+      candidate = Token.RETURN;
+      break;
+    case 'v':
+      candidate = Token.VOID;
+      break;
+    case 'w':
+      candidate = Token.WHILE;
+      break;
+    default:
+      return Token.ID;
+    }
+    return keywords[candidate].equals(spelling) ? candidate : Token.ID;
+  }
+
+  // Only materialised on demand, e.g. for an error report.
+
+  public SourcePosition getPosition() {
+    return SourcePosition.of(start, finish);
   }
 
   public static String spell (int kind) {
@@ -45,7 +79,7 @@ public final class Token extends Object {
 
   public String toString() {
     return "Kind = " + kind + " [" + spell(kind) + 
-          "], spelling = \"" + spelling + "\", position = " + position;
+          "], spelling = \"" + spelling + "\", position = " + getPosition();
   }
 
   // Token classes...
@@ -147,7 +181,4 @@ public final class Token extends Object {
     "<error>",
     "$"
   };
-
-    private final static int      firstReservedWord = Token.BOOLEAN,
-    			          lastReservedWord  = Token.WHILE;
 }
@@ -0,0 +1,203 @@
+/*
+ * TokenBuffer.java
+ */
+
+package VC.Scanner;
+
+// A TokenBuffer sits between the Scanner and a parser. It lexes tokens
+// a batch at a time into parallel arrays of kinds, spellings and the
+// points where they start and finish (see SourcePosition.point) and
+// lets the parser look at the current token, peek(k) at the kind of
+// the k-th one after it, and advance(). The spelling of an identifier
+// is the String the scanner interned, so a slot refers to its entry
+// in the scanner's table rather than holding a copy.
+//
+// The arrays are used as a ring: head is the slot of the current token
+// and count the number of tokens buffered from head on. Once EOF has
+// been lexed, every token past it is EOF as well.
+//
+// Lexical errors found while a batch is lexed are held back (see
+// Scanner.deferErrors) and reported only when their token becomes the
+// current one, so the output is the same as with one token lookahead.
+
+public final class TokenBuffer {
+
+	public static final int DEFAULT_BATCH = 64;
+
+	private Scanner scanner;
+	private int batch;
+
+	private int[] kinds;
+	private String[] spellings;
+	private long[] starts, finishes;
+	private Scanner.DeferredError[] errors;
+
+	private int head = 0;
+	private int count = 0;
+	private int index = 0;
+	private boolean atEOF = false;
+	private boolean shaping = false; // until startShape is first called
+	private long shape = 0;
+	private int shapeLine = 0;
+
+	public TokenBuffer(Scanner scanner) {
+		this(scanner, DEFAULT_BATCH);
+	}
+
+	public TokenBuffer(Scanner scanner, int batch) {
+		this.scanner = scanner;
+		scanner.deferErrors();
+		this.batch = batch < 1 ? 1 : batch;
+		int capacity = 1;
+		while (capacity < 2 * this.batch)
+			capacity <<= 1;
+		kinds = new int[capacity];
+		spellings = new String[capacity];
+		starts = new long[capacity];
+		finishes = new long[capacity];
+		errors = new Scanner.DeferredError[capacity];
+		fill(0);
+		reportErrors();
+	}
+
+	public int kind() {
+		return kinds[head];
+	}
+
+	public String spelling() {
+		return spellings[head];
+	}
+
+	public long start() {
+		return starts[head];
+	}
+
+	public long finish() {
+		return finishes[head];
+	}
+
+	// The number of tokens advanced over so far, i.e. the index of the
+	// current token in the whole stream.
+
+	public int index() {
+		return index;
+	}
+
+	// The kind of the k-th token after the current one; peek(0) is the
+	// current token.
+
+	public int peek(int k) {
+		fill(k);
+		return kinds[slot(k)];
+	}
+
+	// Makes the next token the current one. The current token is
+	// never dropped at EOF, so advancing there is harmless.
+
+	public void advance() {
+		if (count == 1)
+			fill(1);
+		if (count > 1) {
+			if (shaping)
+				addToShape();
+			spellings[head] = null;
+			head = slot(1);
+			count--;
+			index++;
+			reportErrors();
+		}
+	}
+
+	// Starts a hash of the tokens advanced over from the current one on:
+	// their kinds, spellings and positions, with lines counted from the
+	// line of the current one, so that a phrase hashes the same wherever
+	// it is moved to by whole lines. No token is hashed before the first
+	// call, so a parser that never asks for a shape does not pay for it.
+
+	public void startShape() {
+		shaping = true;
+		shape = 0;
+		shapeLine = SourcePosition.line(starts[head]);
+	}
+
+	public long shape() {
+		return shape;
+	}
+
+	private void addToShape() {
+		long h = mix(shape, kinds[head]);
+		String spelling = spellings[head];
+		h = mix(h, spelling.length());
+		for (int i = 0; i < spelling.length(); i++)
+			h = mix(h, spelling.charAt(i));
+		int line = SourcePosition.line(starts[head]);
+		h = mix(h, line - shapeLine);
+		h = mix(h, SourcePosition.column(starts[head]));
+		h = mix(h, SourcePosition.line(finishes[head]) - line);
+		shape = mix(h, SourcePosition.column(finishes[head]));
+	}
+
+	private static long mix(long h, int value) {
+		h = (h ^ value) * 0x9E3779B97F4A7C15L;
+		return h ^ (h >>> 29);
+	}
+
+	private int slot(int k) {
+		if (k >= count)
+			k = count - 1; // past EOF
+		return (head + k) & (kinds.length - 1);
+	}
+
+	// Makes sure the k-th token after the current one is buffered,
+	// lexing whole batches until it is or EOF has been reached.
+
+	private void fill(int k) {
+		while (k >= count && !atEOF) {
+			if (count + batch > kinds.length)
+				grow(count + batch);
+			for (int i = 0; i < batch && !atEOF; i++) {
+				int at = (head + count) & (kinds.length - 1);
+				int kind = scanner.scan();
+				kinds[at] = kind;
+				spellings[at] = scanner.tokenSpelling();
+				starts[at] = scanner.tokenStart();
+				finishes[at] = scanner.tokenFinish();
+				errors[at] = scanner.takeDeferredErrors();
+				count++;
+				atEOF = kind == Token.EOF;
+			}
+		}
+	}
+
+	private void reportErrors() {
+		if (errors[head] != null) {
+			errors[head].report();
+			errors[head] = null;
+		}
+	}
+
+	private void grow(int needed) {
+		int capacity = kinds.length;
+		while (capacity < needed)
+			capacity <<= 1;
+		int[] newKinds = new int[capacity];
+		String[] newSpellings = new String[capacity];
+		long[] newStarts = new long[capacity];
+		long[] newFinishes = new long[capacity];
+		Scanner.DeferredError[] newErrors = new Scanner.DeferredError[capacity];
+		for (int i = 0; i < count; i++) {
+			int at = (head + i) & (kinds.length - 1);
+			newKinds[i] = kinds[at];
+			newSpellings[i] = spellings[at];
+			newStarts[i] = starts[at];
+			newFinishes[i] = finishes[at];
+			newErrors[i] = errors[at];
+		}
+		kinds = newKinds;
+		spellings = newSpellings;
+		starts = newStarts;
+		finishes = newFinishes;
+		errors = newErrors;
+		head = 0;
+	}
+}
@@ -22,23 +22,92 @@
  * explicitly its "declaration" and enter the name of the corresponding 
  * function into the symbol table. This is accomplished by the method
  * establishStdEnvironment of the class Checker in Checker.java.
+ *
+ * Each compilation has a standard environment of its own, owned by
+ * its CompilationContext, so that several programs can be compiled
+ * at the same time without sharing any of these ASTs.
  * 
  */
 
 package VC;
 
 import VC.ASTs.*;
+import java.util.HashMap;
 
 public final class StdEnvironment {
 
-  public static Type booleanType, intType, floatType, stringType, voidType, errorType;
+  public final Type booleanType, intType, floatType, stringType, voidType, errorType;
 
   // Small ASTs representing "declarations" of nine built-in functions
 
-  public static FuncDecl
+  public FuncDecl
     putBoolDecl, putBoolLnDecl, 
     getIntDecl, putIntDecl, putIntLnDecl, 
     getFloatDecl, putFloatDecl, putFloatLnDecl, 
     putStringDecl, putStringLnDecl, putLnDecl;
 
+  // Defines the primitive types; the built-in functions are declared
+  // by the Checker, which also enters them into its symbol table.
+  // errorType is assigned to ill-typed expressions
+
+  // the canonical array types, by element tag and size; see arrayType
+  private final HashMap<Long, ArrayType> arrayTypes = new HashMap<Long, ArrayType>();
+
+  public StdEnvironment() {
+    booleanType = new BooleanType(0, 0);
+    intType = new IntType(0, 0);
+    floatType = new FloatType(0, 0);
+    stringType = new StringType(0, 0);
+    voidType = new VoidType(0, 0);
+    errorType = new ErrorType(0, 0);
+  }
+
+  // The types of expressions are canonical: the primitive types above
+  // and one ArrayType for each element type and size (-1 if it is not
+  // given), so that the same type is always the same object. Returns
+  // the canonical instance of t, which may be a type AST of a
+  // declaration.
+
+  public Type canonical(Type t) {
+    switch (t.tag) {
+    case Type.BOOLEAN:
+      return booleanType;
+    case Type.INT:
+      return intType;
+    case Type.FLOAT:
+      return floatType;
+    case Type.STRING:
+      return stringType;
+    case Type.VOID:
+      return voidType;
+    case Type.ARRAY:
+      ArrayType at = (ArrayType) t;
+      int size = -1;
+      if (at.E instanceof IntExpr) {
+        try {
+          size = Integer.parseInt(((IntExpr) at.E).IL.spelling);
+        } catch (NumberFormatException e) {
+          // too large; the checker reports it where it matters
+        }
+      }
+      return arrayType(canonical(at.T), size);
+    default:
+      return errorType;
+    }
+  }
+
+  // Synchronized, as the Checker may check function bodies in parallel.
+
+  public synchronized ArrayType arrayType(Type elementType, int size) {
+    Long key = ((long) elementType.tag << 32) | (size & 0xFFFFFFFFL);
+    ArrayType type = arrayTypes.get(key);
+    if (type == null) {
+      Expr sizeAST = size < 0 ? new EmptyExpr(0, 0)
+        : new IntExpr(new IntLiteral(Integer.toString(size), 0, 0), 0, 0);
+      type = new ArrayType(elementType, sizeAST, 0, 0);
+      arrayTypes.put(key, type);
+    }
+    return type;
+  }
+
 }
@@ -6,10 +6,12 @@ package VC.TreeDrawer;
 
 import java.awt.*;
 import java.awt.event.*;
+import java.util.ArrayList;
 import javax.swing.*;
 
 // import VC.ASTs.Visitor;
 import VC.ASTs.*;
+import VC.ASTs.List;
 
 import VC.Scanner.SourcePosition;
 
@@ -65,7 +67,13 @@ public class LayoutVisitor implements Visitor {
 
   // Declarations
   public Object visitDeclList(DeclList ast, Object obj) {
-    return layoutBinary("DecList", ast.D, ast.DL);
+    ArrayList<AST> elements = new ArrayList<AST>();
+    List list = ast;
+    while (list instanceof DeclList) {
+      elements.add(((DeclList) list).D);
+      list = ((DeclList) list).DL;
+    }
+    return layoutList("DecList", elements, list);
   }
 
   public Object visitFuncDecl(FuncDecl ast, Object obj) {
@@ -83,7 +91,13 @@ public class LayoutVisitor implements Visitor {
   // Stmts
 
   public Object visitStmtList(StmtList ast, Object obj) {
-    return layoutBinary("StmtList", ast.S, ast.SL);
+    ArrayList<AST> elements = new ArrayList<AST>();
+    List list = ast;
+    while (list instanceof StmtList) {
+      elements.add(((StmtList) list).S);
+      list = ((StmtList) list).SL;
+    }
+    return layoutList("StmtList", elements, list);
   }
 
   public Object visitIfStmt(IfStmt ast, Object obj) {
@@ -173,7 +187,13 @@ public class LayoutVisitor implements Visitor {
   }
 
   public Object visitExprList(ExprList ast, Object obj) {
-    return layoutBinary("ExprList", ast.E, ast.EL);
+    ArrayList<AST> elements = new ArrayList<AST>();
+    List list = ast;
+    while (list instanceof ExprList) {
+      elements.add(((ExprList) list).E);
+      list = ((ExprList) list).EL;
+    }
+    return layoutList("ExprList", elements, list);
   }
 
   public Object visitEmptyExpr(EmptyExpr ast, Object obj) {
@@ -183,7 +203,13 @@ public class LayoutVisitor implements Visitor {
   // Formal Parameters
 
   public Object visitParaList (ParaList ast, Object obj) {
-    return layoutBinary("ParaLst", ast.P, ast.PL);
+    ArrayList<AST> elements = new ArrayList<AST>();
+    List list = ast;
+    while (list instanceof ParaList) {
+      elements.add(((ParaList) list).P);
+      list = ((ParaList) list).PL;
+    }
+    return layoutList("ParaLst", elements, list);
   }
 
   public Object visitParaDecl(ParaDecl ast, Object obj) {
@@ -193,7 +219,13 @@ public class LayoutVisitor implements Visitor {
   // Arguments
 
   public Object visitArgList(ArgList ast, Object obj) {
-    return layoutBinary("ArgList", ast.A, ast.AL);
+    ArrayList<AST> elements = new ArrayList<AST>();
+    List list = ast;
+    while (list instanceof ArgList) {
+      elements.add(((ArgList) list).A);
+      list = ((ArgList) list).AL;
+    }
+    return layoutList("ArgList", elements, list);
   }
 
   public Object visitArg(Arg ast, Object obj) {
@@ -286,7 +318,7 @@ public class LayoutVisitor implements Visitor {
 
   private DrawingTree layoutUnary (String name, AST child1) {
     if (debug) {
-      SourcePosition pos = child1.parent.position;
+      SourcePosition pos = child1.parent.getPosition();
       name += " " + pos.lineStart 
               + "(" + pos.charStart + ").." 
               + pos.lineFinish+ "(" 
@@ -301,7 +333,7 @@ public class LayoutVisitor implements Visitor {
 
   private DrawingTree layoutBinary (String name, AST child1, AST child2) {
     if (debug) {
-      SourcePosition pos = child1.parent.position;
+      SourcePosition pos = child1.parent.getPosition();
       name += " " + pos.lineStart 
               + "(" + pos.charStart + ").." 
               + pos.lineFinish+ "(" 
@@ -315,10 +347,38 @@ public class LayoutVisitor implements Visitor {
     return dt;
   }
 
+  // Lays out a list exactly as the nested layoutBinary calls for its
+  // cons cells would, but without recursing once per element.
+
+  private DrawingTree layoutList (String name, ArrayList<AST> elements, AST end) {
+    int n = elements.size();
+    DrawingTree[] cells = new DrawingTree[n];
+    DrawingTree[] heads = new DrawingTree[n];
+    for (int i = 0; i < n; i++) {
+      String caption = name;
+      if (debug) {
+        SourcePosition pos = elements.get(i).parent.getPosition();
+        caption += " " + pos.lineStart 
+                + "(" + pos.charStart + ").." 
+                + pos.lineFinish+ "(" 
+                + pos.charFinish + ")";
+      }
+      cells[i] = layoutCaption(caption);
+      heads[i] = (DrawingTree) elements.get(i).visit(this, null);
+    }
+    DrawingTree dt = (DrawingTree) end.visit(this, null);
+    for (int i = n - 1; i >= 0; i--) {
+      cells[i].setChildren(new DrawingTree[] {heads[i], dt});
+      attachParent(cells[i], join(cells[i]));
+      dt = cells[i];
+    }
+    return dt;
+  }
+
   private DrawingTree layoutTernary (String name, AST child1, AST child2,
                                      AST child3) {
     if (debug) {
-      SourcePosition pos = child1.parent.position;
+      SourcePosition pos = child1.parent.getPosition();
       name += " " + pos.lineStart 
               + "(" + pos.charStart + ").." 
               + pos.lineFinish+ "(" 
@@ -336,7 +396,7 @@ public class LayoutVisitor implements Visitor {
   private DrawingTree layoutQuaternary (String name, AST child1, AST child2,
                                         AST child3, AST child4) {
     if (debug) {
-      SourcePosition pos = child1.parent.position;
+      SourcePosition pos = child1.parent.getPosition();
       name += " " + pos.lineStart 
               + "(" + pos.charStart + ").." 
               + pos.lineFinish+ "(" 
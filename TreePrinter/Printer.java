@@ -92,12 +92,21 @@ public class Printer implements Visitor {
 
 
   // Declarations
+  // A list is printed as the nested cons cells it is made of, but
+  // walked in a loop so that a long one cannot overflow the stack.
+
   public Object visitDeclList(DeclList ast, Object o) {
-    print(indentString() + "DeclList");
-    ++indent;
-    ast.D.visit(this, o);
-    ast.DL.visit(this, o);
-    --indent;
+    int depth = 0;
+    List list = ast;
+    while (list instanceof DeclList) {
+      print(indentString() + "DeclList");
+      ++indent;
+      ++depth;
+      ((DeclList) list).D.visit(this, o);
+      list = ((DeclList) list).DL;
+    }
+    list.visit(this, o);
+    indent -= depth;
     return null;
   }
 
@@ -141,11 +150,17 @@ public class Printer implements Visitor {
   // Stmts
 
   public Object visitStmtList(StmtList ast, Object o) {
-    print(indentString() + "StmtList");
-    ++indent;
-    ast.S.visit(this, o);
-    ast.SL.visit(this, o);
-    --indent;
+    int depth = 0;
+    List list = ast;
+    while (list instanceof StmtList) {
+      print(indentString() + "StmtList");
+      ++indent;
+      ++depth;
+      ((StmtList) list).S.visit(this, o);
+      list = ((StmtList) list).SL;
+    }
+    list.visit(this, o);
+    indent -= depth;
     return null;
   }
 
@@ -323,11 +338,17 @@ public class Printer implements Visitor {
   }
 
   public Object visitExprList(ExprList ast, Object o) {
-    print(indentString() + "ExprList");
-    ++indent;
-    ast.E.visit(this, o);
-    ast.EL.visit(this, o);
-    --indent;
+    int depth = 0;
+    List list = ast;
+    while (list instanceof ExprList) {
+      print(indentString() + "ExprList");
+      ++indent;
+      ++depth;
+      ((ExprList) list).E.visit(this, o);
+      list = ((ExprList) list).EL;
+    }
+    list.visit(this, o);
+    indent -= depth;
     return null;
   }
 
@@ -340,11 +361,17 @@ public class Printer implements Visitor {
   // Parameters
 
   public Object visitParaList (ParaList ast, Object o) {
-    print(indentString() + "ParaList");
-    ++indent;
-    ast.P.visit(this, o);
-    ast.PL.visit(this, o);
-    --indent;
+    int depth = 0;
+    List list = ast;
+    while (list instanceof ParaList) {
+      print(indentString() + "ParaList");
+      ++indent;
+      ++depth;
+      ((ParaList) list).P.visit(this, o);
+      list = ((ParaList) list).PL;
+    }
+    list.visit(this, o);
+    indent -= depth;
     return null;
   }
 
@@ -361,11 +388,17 @@ public class Printer implements Visitor {
   // Arguments
 
   public Object visitArgList(ArgList ast, Object o) {
-    print(indentString() + "ArgList");
-    ++indent;
-    ast.A.visit(this, o);
-    ast.AL.visit(this, o);
-    --indent;
+    int depth = 0;
+    List list = ast;
+    while (list instanceof ArgList) {
+      print(indentString() + "ArgList");
+      ++indent;
+      ++depth;
+      ((ArgList) list).A.visit(this, o);
+      list = ((ArgList) list).AL;
+    }
+    list.visit(this, o);
+    indent -= depth;
     return null;
   }
 
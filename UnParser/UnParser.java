@@ -113,8 +113,12 @@ public class UnParser implements Visitor {
 
   // Declarations
   public Object visitDeclList(DeclList ast, Object o) {
-    ast.D.visit(this, o);
-    ast.DL.visit(this, o);
+    List list = ast;
+    while (list instanceof DeclList) {
+      ((DeclList) list).D.visit(this, o);
+      list = ((DeclList) list).DL;
+    }
+    list.visit(this, o);
     return null;
   }
 
@@ -187,8 +191,12 @@ public class UnParser implements Visitor {
   // Stmts
 
   public Object visitStmtList(StmtList ast, Object o) {
-    ast.S.visit(this, o);
-    ast.SL.visit(this, o);
+    List list = ast;
+    while (list instanceof StmtList) {
+      ((StmtList) list).S.visit(this, o);
+      list = ((StmtList) list).SL;
+    }
+    list.visit(this, o);
     return null;
   }
 
@@ -377,10 +385,14 @@ public class UnParser implements Visitor {
   }
 
   public Object visitExprList(ExprList ast, Object o) {
-    ast.E.visit(this, o);
-    if (! (ast.EL instanceof EmptyExprList))
-      print(",");
-    ast.EL.visit(this, o);
+    List list = ast;
+    while (list instanceof ExprList) {
+      ((ExprList) list).E.visit(this, o);
+      list = ((ExprList) list).EL;
+      if (! (list instanceof EmptyExprList))
+        print(",");
+    }
+    list.visit(this, o);
     return null;
   }
 
@@ -392,10 +404,14 @@ public class UnParser implements Visitor {
   // Parameters
 
   public Object visitParaList (ParaList ast, Object o) {
-    ast.P.visit(this, o);
-    if (! (ast.PL instanceof EmptyParaList))
-      print(", ");
-    ast.PL.visit(this, o);
+    List list = ast;
+    while (list instanceof ParaList) {
+      ((ParaList) list).P.visit(this, o);
+      list = ((ParaList) list).PL;
+      if (! (list instanceof EmptyParaList))
+        print(", ");
+    }
+    list.visit(this, o);
     return null;
   }
 
@@ -416,10 +432,14 @@ public class UnParser implements Visitor {
   // Arguments
 
   public Object visitArgList(ArgList ast, Object o) {
-    ast.A.visit(this, o);
-    if (! (ast.AL instanceof EmptyArgList))
-      print(", ");
-    ast.AL.visit(this, o);
+    List list = ast;
+    while (list instanceof ArgList) {
+      ((ArgList) list).A.visit(this, o);
+      list = ((ArgList) list).AL;
+      if (! (list instanceof EmptyArgList))
+        print(", ");
+    }
+    list.visit(this, o);
     return null;
   }
 
@@ -0,0 +1,63 @@
+#!/bin/bash
+
+# Checks the AST cache (-c) on the Parser test cases that parse. The
+# AST read back from the cache must print (-t) as the one the parser
+# built, and a cache cut short or with a byte changed must be ignored,
+# the source parsed again and the cache written anew.
+
+export CLASSPATH=$(cd .. && pwd)
+WORK=$(mktemp -d)
+FAILED=0
+
+check() {
+	if [ $1 -eq 0 ]
+	then
+		echo "PASS $2"
+	else
+		echo "FAIL $2"
+		FAILED=1
+	fi
+}
+
+for test in Parser/t*.vc
+do
+	NAME=$( basename "$test" .vc )
+	cp "$test" "$WORK/"
+	cd "$WORK"
+
+	java VC.vc -c -t parsed.txt "$NAME.vc" > output.txt
+	if [ ! -f "$NAME.vcc" ]
+	then
+		# not cached, since it does not parse
+		cd - > /dev/null
+		continue
+	fi
+	SIZE=$( wc -c < "$NAME.vcc" )
+
+	java VC.vc -c -t loaded.txt "$NAME.vc" > output.txt
+	grep -q "AST loaded from" output.txt && diff parsed.txt loaded.txt > /dev/null
+	check $? "$NAME read back"
+
+	head -c $(( SIZE / 2 )) "$NAME.vcc" > truncated.vcc
+	mv truncated.vcc "$NAME.vcc"
+	java VC.vc -c -t reparsed.txt "$NAME.vc" > output.txt
+	! grep -q "AST loaded from" output.txt && diff parsed.txt reparsed.txt > /dev/null \
+		&& [ $( wc -c < "$NAME.vcc" ) -eq $SIZE ]
+	check $? "$NAME truncated"
+
+	# one byte of the AST changed
+	AT=$(( SIZE - 2 ))
+	BYTE=$( od -A n -t u1 -j $AT -N 1 "$NAME.vcc" )
+	printf "\\$( printf %o $(( (BYTE + 1) % 256 )) )" \
+		| dd of="$NAME.vcc" bs=1 seek=$AT conv=notrunc 2> /dev/null
+	java VC.vc -c -t reparsed.txt "$NAME.vc" > output.txt
+	! grep -q "AST loaded from" output.txt && diff parsed.txt reparsed.txt > /dev/null \
+		&& [ $( wc -c < "$NAME.vcc" ) -eq $SIZE ]
+	check $? "$NAME damaged"
+
+	rm -f "$NAME".*
+	cd - > /dev/null
+done
+
+rm -rf "$WORK"
+exit $FAILED
@@ -6,7 +6,17 @@ for i in `ls Checker/tests/*.mc`
 do
 	echo "--------------------$i----------------------"
 	echo "========================================================================="
-	java VC.vc $i 
+	java VC.vc $i | tee output.txt
 	echo "========================================================================="
+	if [ -f "${i%.mc}.sol" ]
+	then
+		diff "${i%.mc}.sol" output.txt && echo "PASS"
+	fi
+	if [ -f "${i%.mc}.json.sol" ]
+	then
+		java VC.vc -e json $i > output.txt
+		diff "${i%.mc}.json.sol" output.txt && echo "PASS -e json"
+	fi
 	echo ""
 done
+rm -f output.txt
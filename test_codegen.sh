@@ -0,0 +1,60 @@
+#!/bin/bash
+
+# Runs the programs of CodeGenTests/vc that have an expected output,
+# NAME.sol, compiled through the IR both without (-i) and with (-O) the
+# optimisations, and compares what they print. NAME.S.sol, if there, is
+# the expected output of vc -S -l: the dead code statistics and the
+# listing of the optimised IR.
+#
+# Jasmin is taken from the jar in CodeGenTests/vc, unpacked into $JASMIN.
+
+export CLASSPATH=$(cd .. && pwd)
+TESTS="$PWD/CodeGenTests/vc"
+JASMIN=${JASMIN:-/tmp/jasmin-1_06}
+WORK=$(mktemp -d)
+
+if [ ! -d "$JASMIN/jasmin/classes" ]
+then
+	mkdir -p "$JASMIN"
+	unzip -q -o "$TESTS/jasmin-1_06.jar" 'jasmin/classes/*' -d "$JASMIN"
+fi
+
+FAILED=0
+for expected in $TESTS/*.sol
+do
+	NAME=$( basename "$expected" .sol )
+	case "$NAME" in *.S) continue ;; esac
+
+	cp "$TESTS/$NAME.vc" "$WORK/"
+	for option in -i -O
+	do
+		( cd "$WORK" && rm -f "$NAME.j" "$NAME.class" &&
+		  java VC.vc $option "$NAME.vc" > /dev/null &&
+		  java -cp "$JASMIN/jasmin/classes" jasmin.Main "$NAME.j" > /dev/null &&
+		  java -cp ".:$CLASSPATH" "$NAME" < /dev/null > "$NAME.out" 2>&1 )
+		if diff "$expected" "$WORK/$NAME.out" > "$WORK/diff.txt"
+		then
+			echo "PASS $NAME $option"
+		else
+			echo "FAIL $NAME $option"
+			cat "$WORK/diff.txt"
+			FAILED=1
+		fi
+	done
+
+	if [ -f "$TESTS/$NAME.S.sol" ]
+	then
+		( cd "$WORK" && java VC.vc -S -l "$NAME.vc" > "$NAME.S.out" 2>&1 )
+		if diff "$TESTS/$NAME.S.sol" "$WORK/$NAME.S.out" > "$WORK/diff.txt"
+		then
+			echo "PASS $NAME -S"
+		else
+			echo "FAIL $NAME -S"
+			cat "$WORK/diff.txt"
+			FAILED=1
+		fi
+	fi
+done
+
+rm -rf "$WORK"
+exit $FAILED
@@ -0,0 +1,54 @@
+#!/bin/bash
+
+# Checks incremental checking (-w). vc watches a copy of
+# Checker/watch/step0.vc, which is replaced by step1.vc, step2.vc and
+# so on in turn. The steps move the functions down and up, change the
+# signature of a function that another calls and change a global that
+# a function reads. After each one vc prints the errors, moved to their
+# new lines, and the number of function bodies it checked again; all
+# of it must be as in Checker/watch/watch.sol.
+
+export CLASSPATH=$(cd .. && pwd)
+WATCH=$(pwd)/Checker/watch
+WORK=$(mktemp -d)
+TIMEOUT=20 # seconds for each step
+
+# Waits until the output has at least $1 lines matching $2.
+
+wait_for() {
+	for (( t = 0; t < 10 * TIMEOUT; t++ ))
+	do
+		if [ $( grep -c "$2" output.txt ) -ge $1 ]
+		then
+			return 0
+		fi
+		sleep 0.1
+	done
+	echo "FAIL no \"$2\" after $TIMEOUT seconds"
+	return 1
+}
+
+cd "$WORK"
+cp "$WATCH/step0.vc" watched.vc
+java VC.vc -w watched.vc > output.txt 2>&1 &
+VC=$!
+
+NOW=$( date +%s )
+STEP=1
+wait_for 1 "Watching" && while [ -f "$WATCH/step$STEP.vc" ]
+do
+	# a new file moved into place, so that vc never sees half of it,
+	# and a later modification time than any before
+	cp "$WATCH/step$STEP.vc" next.vc
+	touch -d @$(( NOW + STEP )) next.vc
+	mv next.vc watched.vc
+	wait_for $STEP "^Checking was" || break
+	STEP=$(( STEP + 1 ))
+done
+
+kill $VC
+wait $VC 2> /dev/null
+
+diff "$WATCH/watch.sol" output.txt && echo "PASS watch"
+cd - > /dev/null
+rm -rf "$WORK"
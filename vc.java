@@ -10,31 +10,54 @@ import VC.Scanner.Scanner;
 import VC.Scanner.SourceFile;
 import VC.Parser.Parser;
 import VC.ASTs.AST;
+import VC.ASTCache.ASTCache;
 import VC.TreeDrawer.Drawer;
 import VC.TreePrinter.Printer;
 import VC.UnParser.UnParser;
 import VC.Checker.Checker;
 import VC.CodeGen.Emitter;
+import VC.IR.ConstantPropagation;
+import VC.IR.DeadCodeElimination;
+import VC.IR.JasminBackend;
+import VC.IR.LoopOptimisation;
+import VC.IR.Lowering;
+import VC.IR.Module;
+import java.io.IOException;
 
 public class vc {
 
-    private static Scanner scanner;
-    private static ErrorReporter reporter;
-    private static Parser parser;
-    private static Drawer drawer; 
-    private static Printer printer;
-    private static UnParser unparser;
-    private static Checker checker; 
-    private static Emitter emitter; 
-
-    private static int drawingAST = 0;
-    private static boolean printingAST = false;
-    private static boolean unparsingAST = false;
-    private static String inputFilename; 
-    private static String astFilename = ""; 
-    private static String unparsingFilename = ""; 
-
-    private static AST theAST;
+    private Scanner scanner;
+    private ErrorReporter reporter;
+    private CompilationContext context;
+    private Parser parser;
+    private Drawer drawer; 
+    private Printer printer;
+    private UnParser unparser;
+    private Checker checker; 
+    private Emitter emitter; 
+
+    private int drawingAST = 0;
+    private boolean printingAST = false;
+    private boolean unparsingAST = false;
+    private boolean mappingSource = false;
+    private boolean tableDrivenScanner = false;
+    private boolean parallelLexing = false;
+    private boolean recoveringErrors = false;
+    private boolean cachingAST = false;
+    private boolean checkingInParallel = false;
+    private boolean watching = false;
+    private int errorFormat = ErrorReporter.TEXT;
+    private boolean generatingIR = false;
+    private boolean listingIR = false;
+    private boolean optimising = false;
+    private boolean printingStats = false;
+    private String inputFilename; 
+    private String astFilename = ""; 
+    private String unparsingFilename = ""; 
+
+    private AST theAST;
+
+    private static final int WATCH_INTERVAL = 200; // ms
  
     private static void cmdLineOptions() {
       System.out.println("\nUsage: java VC.vc [-options] filename");
@@ -49,15 +72,42 @@ public class vc {
       System.out.println("	                    (or filename + \"t\" if <file> is unspecified)"); 
       System.out.println("	-u [file]  	    unparse the (non-annotated) AST into <file>");
       System.out.println("	                    (or filename + \"u\" if <file> is unspecified)"); 
+      System.out.println("	-m                  memory-map the source file instead of reading it");
+      System.out.println("	                    through a character stream");
+      System.out.println("	-s                  scan with the table-driven scanner engine");
+      System.out.println("	-p                  lex large sources in parallel (implies -m)");
+      System.out.println("	-r                  report all syntax errors instead of stopping");
+      System.out.println("	                    at the first one");
+      System.out.println("	-c                  reuse the AST cached in filename + \"c\" if the");
+      System.out.println("	                    source is unchanged, or cache it otherwise");
+      System.out.println("	-j                  check the function bodies in parallel");
+      System.out.println("	-w                  keep checking the source whenever it changes,");
+      System.out.println("	                    checking again only the functions affected");
+      System.out.println("	-e [text|json]      print the errors as text (the default) or as");
+      System.out.println("	                    one JSON object per line");
+      System.out.println("	-i                  generate the code through the intermediate");
+      System.out.println("	                    representation (VC.IR)");
+      System.out.println("	-l                  list the IR of the program (implies -i)");
+      System.out.println("	-O                  optimise the IR (implies -i)");
+      System.out.println("	-S                  report what the optimisations removed from");
+      System.out.println("	                    each function (implies -O)");
       System.exit(1);
     }
 
     public static void main(String[] args) {
+        System.out.println("======= The VC compiler =======\n");
+
+        new vc(args).compile();
+    }
+
+    // Each compilation is an instance of its own, which holds its
+    // options, its passes and its AST. The options are read here from
+    // the command line.
+
+    private vc(String[] args) {
         int i = 0;
         String arg;
 
-        System.out.println("======= The VC compiler =======\n");
-
         while (i < args.length && args[i].startsWith("-")) {
           arg = args[i++];
           
@@ -108,6 +158,44 @@ public class vc {
             if (i < args.length && !args[i].startsWith("-"))
               unparsingFilename = args[i++];
             // the default is inputFilename + "u"
+          } else if (arg.equals("-m")) {
+            mappingSource = true;
+          } else if (arg.equals("-s")) {
+            tableDrivenScanner = true;
+          } else if (arg.equals("-r")) {
+            recoveringErrors = true;
+          } else if (arg.equals("-c")) {
+            cachingAST = true;
+          } else if (arg.equals("-j")) {
+            checkingInParallel = true;
+          } else if (arg.equals("-w")) {
+            watching = true;
+          } else if (arg.equals("-e")) {
+            if (i < args.length && args[i].equals("text")) {
+              errorFormat = ErrorReporter.TEXT;
+              i++;
+            } else if (i < args.length && args[i].equals("json")) {
+              errorFormat = ErrorReporter.JSON;
+              i++;
+            } else {
+              System.out.println("[# vc #]: invalid option -e " + (i < args.length ? args[i] : "")); 
+              cmdLineOptions();
+            }
+          } else if (arg.equals("-i")) {
+            generatingIR = true;
+          } else if (arg.equals("-l")) {
+            generatingIR = true;
+            listingIR = true;
+          } else if (arg.equals("-O")) {
+            generatingIR = true;
+            optimising = true;
+          } else if (arg.equals("-S")) {
+            generatingIR = true;
+            optimising = true;
+            printingStats = true;
+          } else if (arg.equals("-p")) {
+            parallelLexing = true;
+            mappingSource = true;
           } else {
             System.out.println("[# vc #]: invalid option " + arg); 
             cmdLineOptions();
@@ -118,16 +206,25 @@ public class vc {
           cmdLineOptions();
         } else
            inputFilename = args[i];
+    }
 
-        SourceFile source = new SourceFile(inputFilename);
-
+    private void compile() {
         reporter = new ErrorReporter();
+        reporter.setFormat(errorFormat);
 
         System.out.println("Pass 1: Lexical and syntactic Analysis");
-        scanner  = new Scanner(source, reporter);
-        parser   = new Parser(scanner, reporter);
+        if (cachingAST)
+          theAST = ASTCache.load(inputFilename);
+        if (theAST != null)
+          System.out.println("[# vc #]: The AST loaded from " + ASTCache.cacheFilename(inputFilename));
+        else {
+          theAST = parse();
 
-	theAST = parser.parseProgram();
+          // Only a clean parse is cached, and before the checker
+          // decorates the AST.
+          if (cachingAST && reporter.numErrors == 0 && scanner.numLexicalErrors() == 0)
+            ASTCache.store(theAST, inputFilename);
+        }
 
         if (reporter.numErrors == 0) {
           // We unparse and print the AST created by the parser. Both 
@@ -157,14 +254,37 @@ public class vc {
           }
 
           System.out.println("Pass 2: Semantic Analysis");
-          checker  = new Checker(reporter);
-          checker.check(theAST);
+          newChecker();
+          try {
+            checker.check(theAST);
+          } finally {
+            reporter.flush();
+          }
 
           if (reporter.numErrors == 0) {
             System.out.println("Pass 3: Code Generation");
             System.out.println();
-            emitter = new Emitter(inputFilename, reporter);
-            emitter.gen(theAST);
+            try {
+              if (generatingIR) {
+                Module module = new Lowering(inputFilename, context).lower(theAST);
+                if (optimising) {
+                  new ConstantPropagation().run(module);
+                  new LoopOptimisation().run(module);
+                  new DeadCodeElimination(printingStats ? System.out : null).run(module);
+                }
+                if (listingIR)
+                  System.out.println(module);
+                new JasminBackend(context).gen(module);
+              } else {
+                emitter = new Emitter(inputFilename, context);
+                emitter.gen(theAST);
+              }
+            } catch (IOException e) {
+              // no object file: the compilation fails
+              System.out.println("[# vc #]: can't write the object file: " + e);
+              reporter.numErrors++;
+            }
+            reporter.flush();
             if (reporter.numErrors == 0) 
               System.out.println ("Compilation was successful.");
             else
@@ -181,6 +301,78 @@ public class vc {
        }
        else 
          System.out.println ("Compilation was unsuccessful.");
+
+       if (watching)
+         watch();
+    }
+
+    private AST parse() {
+      SourceFile source = new SourceFile(inputFilename, mappingSource);
+      scanner  = new Scanner(source, reporter);
+      if (tableDrivenScanner)
+        scanner.enableTableDriven();
+      if (parallelLexing)
+        scanner.enableParallelLexing();
+      parser   = new Parser(scanner, reporter);
+      if (recoveringErrors)
+        parser.enableErrorRecovery();
+      if (watching)
+        parser.enableShapes();
+
+      try {
+        return parser.parseProgram();
+      } finally {
+        reporter.flush();
+      }
+    }
+
+    private void newChecker() {
+      context  = new CompilationContext(reporter);
+      checker  = new Checker(context);
+      if (checkingInParallel)
+        checker.enableParallelChecking();
+      if (watching)
+        checker.enableIncrementalChecking();
+    }
+
+    // Passes 1 and 2 are run again each time the source is saved; the
+    // checker reuses what it found out about the functions that were
+    // not affected by the change.
+
+    private void watch() {
+      java.io.File file = new java.io.File(inputFilename);
+      long modified = file.lastModified();
+      System.out.println("[# vc #]: Watching " + inputFilename);
+      while (true) {
+        try {
+          Thread.sleep(WATCH_INTERVAL);
+        } catch (InterruptedException e) {
+          return;
+        }
+        if (file.lastModified() == modified)
+          continue;
+        modified = file.lastModified();
+
+        System.out.println();
+        System.out.println("[# vc #]: " + inputFilename + " changed");
+        reporter.numErrors = 0;
+        theAST = parse();
+        if (reporter.numErrors == 0) {
+          if (checker == null)
+            newChecker();
+          try {
+            checker.check(theAST);
+          } finally {
+            reporter.flush();
+          }
+          System.out.println("[# vc #]: " + checker.numBodiesChecked()
+                             + " function bodies checked");
+        }
+        if (reporter.numErrors == 0)
+          System.out.println("Checking was successful.");
+        else
+          System.out.println("Checking was unsuccessful.");
+      }
     }
 
 }